@@ -2,12 +2,21 @@ package com.banking.account_service.controller;
 
 import com.banking.account_service.model.Account;
 import com.banking.account_service.service.AccountService;
+import com.banking.account_service.stream.AccountChangeStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -18,6 +27,9 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private AccountChangeStream changeStream;
+
     // ------------------ CREATE ACCOUNT ------------------
     @PostMapping
     public Account createAccount(@RequestBody Account account) {
@@ -30,6 +42,25 @@ public class AccountController {
         return saved;
     }
 
+    // ------------------ STREAM CHANGES ------------------
+    // Server-sent events of balance/status changes, for all accounts or only those listed.
+    // Resumes after the Last-Event-ID header (or since=) sent on reconnect; 503 at max-subscribers
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false) Set<String> accounts,
+                                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                    @RequestParam(required = false) String since) {
+
+        SseEmitter emitter = new SseEmitter(changeStream.getTimeoutMs());
+        if (!changeStream.subscribe(emitter, accounts == null ? Set.of() : accounts,
+                lastEventId != null ? lastEventId : since)) {
+            logger.warn("STREAM REJECTED - too many subscribers: subscribers={}", changeStream.subscriberCount());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     // ------------------ GET ACCOUNT ------------------
     @GetMapping("/{accountNumber}")
     public Optional<Account> getAccount(@PathVariable String accountNumber) {
@@ -64,6 +95,66 @@ public class AccountController {
         return "Balance updated";
     }
 
+    // ------------------ CREDIT / DEBIT ------------------
+    // Relative updates; the only way to move a striped account's balance (PUT balance is a 409 there).
+    // With an operationId a repeated request is applied once, so it is safe to retry.
+    @PostMapping("/{accountNumber}/credit")
+    public ResponseEntity<String> credit(@PathVariable String accountNumber,
+                                         @RequestParam double amount,
+                                         @RequestParam(required = false) String operationId) {
+
+        logger.info("Received CREDIT request: accountNumber={}, amount={}, operationId={}", accountNumber, amount, operationId);
+
+        if (!accountService.credit(accountNumber, amount, operationId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Operation refused");
+        }
+
+        return ResponseEntity.ok("Account credited");
+    }
+
+    @PostMapping("/{accountNumber}/debit")
+    public Map<String, Object> debit(@PathVariable String accountNumber,
+                                     @RequestParam double amount,
+                                     @RequestParam(required = false) String operationId) {
+
+        logger.info("Received DEBIT request: accountNumber={}, amount={}, operationId={}", accountNumber, amount, operationId);
+
+        Double balance = accountService.debit(accountNumber, amount, operationId);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("applied", balance != null);
+        result.put("balance", balance);
+        return result;
+    }
+
+    // ------------------ RESOLVE ------------------
+    // Settles a keyed credit or debit whose outcome the caller lost: applied, or refused from now on
+    @PostMapping("/{accountNumber}/operations/{operationId}/resolve")
+    public Map<String, Object> resolve(@PathVariable String accountNumber,
+                                       @PathVariable String operationId) {
+
+        logger.info("Received RESOLVE request: accountNumber={}, operationId={}", accountNumber, operationId);
+
+        return Map.of("applied", accountService.resolve(accountNumber, operationId));
+    }
+
+    // ------------------ STRIPING ------------------
+    // Spreads a hot account's credits over `count` sub-balances; 0 turns it back off
+    @PutMapping("/{accountNumber}/stripes")
+    public ResponseEntity<String> setStripes(@PathVariable String accountNumber,
+                                             @RequestParam int count) {
+
+        logger.info("Received STRIPES request: accountNumber={}, count={}", accountNumber, count);
+
+        try {
+            accountService.setStripes(accountNumber, count);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        return ResponseEntity.ok("Stripes set");
+    }
+
     // ------------------ UPDATE STATUS ------------------
     @PutMapping("/{accountNumber}/status")
     public String updateStatus(@PathVariable String accountNumber,
@@ -0,0 +1,91 @@
+package com.banking.account_service.controller;
+
+import com.banking.account_service.deadline.DeadlineExceededException;
+import com.banking.account_service.model.Account;
+import com.banking.account_service.rpc.AccountRpc;
+import com.banking.account_service.rpc.AccountRpc.Request;
+import com.banking.account_service.rpc.AccountRpc.Response;
+import com.banking.account_service.service.AccountService;
+import com.banking.account_service.striping.StripedAccountException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+/**
+ * Internal binary endpoint for TRANSACTION-SERVICE (see {@link AccountRpc}); the same
+ * operations as the REST API, without JSON. Failures are answered in the frame's status,
+ * not the HTTP status. Not routed by the gateway.
+ */
+@RestController
+public class AccountRpcController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountRpcController.class);
+
+    @Autowired
+    private AccountService accountService;
+
+    @PostMapping(path = AccountRpc.PATH, consumes = AccountRpc.CONTENT_TYPE, produces = AccountRpc.CONTENT_TYPE)
+    public byte[] handle(@RequestBody byte[] frame) {
+        Request request;
+        try {
+            request = AccountRpc.decodeRequest(frame);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RPC REJECTED - malformed frame: error={}", e.getMessage());
+            return AccountRpc.encode(Response.failed(AccountRpc.BAD_REQUEST, e.getMessage()));
+        }
+        return AccountRpc.encode(dispatch(request));
+    }
+
+    // ------------------ DISPATCH ------------------
+    private Response dispatch(Request request) {
+        String accountNumber = request.accountNumber();
+        String operationId = request.operationId().isEmpty() ? null : request.operationId();
+        try {
+            switch (request.op()) {
+                case AccountRpc.GET_BALANCE -> {
+                    Optional<Account> account = accountService.getAccount(accountNumber);
+                    return account.map(a -> Response.ok(a.getBalance(), a.isStriped()))
+                            .orElseGet(() -> Response.failed(AccountRpc.NOT_FOUND, "Account not found"));
+                }
+                case AccountRpc.SET_BALANCE -> {
+                    accountService.updateBalance(accountNumber, request.amount());
+                    return Response.ok(request.amount(), false);
+                }
+                case AccountRpc.CREDIT -> {
+                    return accountService.credit(accountNumber, request.amount(), operationId)
+                            ? Response.ok(null, false)
+                            : Response.failed(AccountRpc.NOT_APPLIED, "Operation refused");
+                }
+                case AccountRpc.DEBIT -> {
+                    Double balance = accountService.debit(accountNumber, request.amount(), operationId);
+                    return balance == null
+                            ? Response.failed(AccountRpc.INSUFFICIENT_FUNDS, "Insufficient funds")
+                            : Response.ok(balance, false);
+                }
+                case AccountRpc.RESOLVE -> {
+                    if (operationId == null) {
+                        return Response.failed(AccountRpc.BAD_REQUEST, "RESOLVE needs an operation id");
+                    }
+                    return accountService.resolve(accountNumber, operationId)
+                            ? Response.ok(null, false)
+                            : Response.failed(AccountRpc.NOT_APPLIED, "Operation not applied");
+                }
+                default -> {
+                    return Response.failed(AccountRpc.BAD_REQUEST, "Unknown operation " + request.op());
+                }
+            }
+        } catch (StripedAccountException e) {
+            return Response.failed(AccountRpc.CONFLICT, e.getMessage());
+        } catch (DeadlineExceededException e) {
+            return Response.failed(AccountRpc.DEADLINE_EXCEEDED, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("RPC FAILED: op={}, accountNumber={}, error={}", request.op(), accountNumber, e.getMessage());
+            return Response.failed(AccountRpc.ERROR, e.getMessage());
+        }
+    }
+}
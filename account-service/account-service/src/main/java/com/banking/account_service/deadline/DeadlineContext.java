@@ -0,0 +1,93 @@
+package com.banking.account_service.deadline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The current request's deadline, held per thread like the correlation id in the MDC.
+ *
+ * Deadlines travel between services as a relative budget in {@link #HEADER}
+ * (milliseconds left), so the hops never need synchronized clocks. Each hop turns
+ * the budget into a local System.nanoTime() deadline on arrival.
+ */
+public final class DeadlineContext {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private DeadlineContext() {}
+
+    public static void start(long timeoutMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    /**
+     * @return milliseconds left (zero or negative once expired), or Long.MAX_VALUE without a deadline
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    public static boolean isExpired() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline != null && deadline - System.nanoTime() <= 0;
+    }
+
+    public static void checkNotExpired(String work) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before " + work);
+        }
+    }
+
+    // ------------------ THREAD HAND-OFF ------------------
+
+    /**
+     * Wraps work handed to another thread so it runs under the caller's deadline.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        Long deadline = DEADLINE_NANOS.get();
+        return () -> {
+            Long previous = DEADLINE_NANOS.get();
+            set(deadline);
+            try {
+                return work.get();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs work that must finish even though the request's deadline has passed (e.g. compensation).
+     */
+    public static void runDetached(Runnable work) {
+        Long previous = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.remove();
+        try {
+            work.run();
+        } finally {
+            set(previous);
+        }
+    }
+
+    private static void set(Long deadline) {
+        if (deadline == null) {
+            DEADLINE_NANOS.remove();
+        } else {
+            DEADLINE_NANOS.set(deadline);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.banking.account_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 @Document(collection = "accounts")
 public class Account {
@@ -16,6 +19,19 @@ public class Account {
     private Double balance;
     private String status; // ACTIVE / INACTIVE
     private Date createdAt;
+    private Double openingBalance; // balance at creation; the ledger reconciles against it
+    private List<String> postedPeriods; // months (yyyyMM) whose interest and fees are on the balance
+
+    // hot-account striping: credits go to `stripes` sub-balances (account_stripes), folded back
+    // into balance periodically; foldedCredits[i] is how much of stripe i balance already holds
+    private Integer stripes;
+    private Map<String, Double> foldedCredits;
+    private Long stripeVersion;
+
+    // ids of the latest keyed credits and debits applied here ("!id": refused for good), so a
+    // repeated operation is not applied twice; see StripedBalances
+    @JsonIgnore
+    private List<String> operations;
 
     public Account() {}
 
@@ -76,4 +92,57 @@ public class Account {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Double getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(Double openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    public List<String> getPostedPeriods() {
+        return postedPeriods;
+    }
+
+    public void setPostedPeriods(List<String> postedPeriods) {
+        this.postedPeriods = postedPeriods;
+    }
+
+    public Integer getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(Integer stripes) {
+        this.stripes = stripes;
+    }
+
+    public Map<String, Double> getFoldedCredits() {
+        return foldedCredits;
+    }
+
+    public void setFoldedCredits(Map<String, Double> foldedCredits) {
+        this.foldedCredits = foldedCredits;
+    }
+
+    public Long getStripeVersion() {
+        return stripeVersion;
+    }
+
+    public void setStripeVersion(Long stripeVersion) {
+        this.stripeVersion = stripeVersion;
+    }
+
+    // once striped, an account's balance is only changed by increments (credit/debit), never set
+    public boolean isStriped() {
+        return foldedCredits != null;
+    }
+
+    public List<String> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<String> operations) {
+        this.operations = operations;
+    }
 }
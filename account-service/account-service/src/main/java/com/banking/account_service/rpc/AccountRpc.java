@@ -0,0 +1,160 @@
+package com.banking.account_service.rpc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The internal binary protocol between TRANSACTION-SERVICE and ACCOUNT-SERVICE: one small
+ * request frame and one response frame per call, POSTed to {@link #PATH} over HTTP/2.
+ * Both services carry an identical copy of this class; it is the schema, so a change to it
+ * is made in both and bumps {@link #VERSION}.
+ *
+ *   request:  version:u8 op:u8 amount:f64 accountNumber:utf8(u16 length) operationId:utf8(u16 length)
+ *   response: version:u8 status:u8 flags:u8 balance:f64 message:utf8(u16 length)
+ *
+ * A credit or debit carrying an operationId is applied at most once under that id, so it may
+ * be repeated; RESOLVE settles one whose outcome the caller does not know. An empty
+ * operationId means none.
+ *
+ * A frame is a few dozen bytes, against a few hundred for the JSON body and headers of the
+ * public REST API, which stays as it is.
+ */
+public final class AccountRpc {
+
+    public static final String PATH = "/internal/accounts/rpc";
+    public static final String CONTENT_TYPE = "application/x-account-rpc";
+
+    public static final int VERSION = 2;
+
+    // ------------------ OPERATIONS ------------------
+    public static final int GET_BALANCE = 1;   // -> balance, striped
+    public static final int SET_BALANCE = 2;   // amount = the new balance
+    public static final int CREDIT = 3;        // amount is added
+    public static final int DEBIT = 4;         // amount is taken if covered -> balance, or INSUFFICIENT_FUNDS
+    public static final int RESOLVE = 5;       // operationId applied -> OK; otherwise it never will be -> NOT_APPLIED
+
+    // ------------------ STATUSES ------------------
+    public static final int OK = 0;
+    public static final int NOT_FOUND = 1;
+    public static final int INSUFFICIENT_FUNDS = 2;
+    public static final int CONFLICT = 3;          // e.g. setting the balance of a striped account
+    public static final int DEADLINE_EXCEEDED = 4;
+    public static final int BAD_REQUEST = 5;
+    public static final int ERROR = 6;
+    public static final int NOT_APPLIED = 7;
+
+    private static final int FLAG_STRIPED = 1;
+    private static final int FLAG_BALANCE = 2;
+
+    private AccountRpc() {}
+
+    public record Request(int op, String accountNumber, double amount, String operationId) {
+
+        public Request(int op, String accountNumber, double amount) {
+            this(op, accountNumber, amount, "");
+        }
+    }
+
+    // balance is null when the operation does not report one; striped is only reported by GET_BALANCE
+    public record Response(int status, Double balance, boolean striped, String message) {
+
+        public static Response ok(Double balance, boolean striped) {
+            return new Response(OK, balance, striped, "");
+        }
+
+        public static Response failed(int status, String message) {
+            return new Response(status, null, false, message == null ? "" : message);
+        }
+    }
+
+    // ------------------ ENCODING ------------------
+
+    public static byte[] encode(Request request) {
+        return write(out -> {
+            out.writeByte(VERSION);
+            out.writeByte(request.op());
+            out.writeDouble(request.amount());
+            writeUtf(out, request.accountNumber());
+            writeUtf(out, request.operationId() == null ? "" : request.operationId());
+        });
+    }
+
+    public static byte[] encode(Response response) {
+        return write(out -> {
+            out.writeByte(VERSION);
+            out.writeByte(response.status());
+            out.writeByte((response.striped() ? FLAG_STRIPED : 0) | (response.balance() != null ? FLAG_BALANCE : 0));
+            out.writeDouble(response.balance() != null ? response.balance() : 0);
+            writeUtf(out, response.message());
+        });
+    }
+
+    // ------------------ DECODING ------------------
+
+    public static Request decodeRequest(byte[] frame) {
+        ByteBuffer in = open(frame);
+        try {
+            int op = in.get();
+            double amount = in.getDouble();
+            String accountNumber = readUtf(in);
+            return new Request(op, accountNumber, amount, readUtf(in));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated account RPC request", e);
+        }
+    }
+
+    public static Response decodeResponse(byte[] frame) {
+        ByteBuffer in = open(frame);
+        try {
+            int status = in.get();
+            int flags = in.get();
+            double balance = in.getDouble();
+            return new Response(status, (flags & FLAG_BALANCE) != 0 ? balance : null,
+                    (flags & FLAG_STRIPED) != 0, readUtf(in));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated account RPC response", e);
+        }
+    }
+
+    private static ByteBuffer open(byte[] frame) {
+        if (frame == null || frame.length == 0 || frame[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported account RPC frame version");
+        }
+        return ByteBuffer.wrap(frame, 1, frame.length - 1);
+    }
+
+    // unsigned 16-bit length, then the UTF-8 bytes
+    private static String readUtf(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUtf(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for an account RPC frame");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
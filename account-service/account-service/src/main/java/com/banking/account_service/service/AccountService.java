@@ -1,7 +1,10 @@
 package com.banking.account_service.service;
 
+import com.banking.account_service.deadline.DeadlineContext;
 import com.banking.account_service.model.Account;
 import com.banking.account_service.repository.AccountRepository;
+import com.banking.account_service.striping.StripedAccountException;
+import com.banking.account_service.striping.StripedBalances;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,9 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private StripedBalances stripedBalances;
+
     // ------------------ CREATE ACCOUNT ------------------
     public Account createAccount(Account account) {
 
@@ -26,6 +32,7 @@ public class AccountService {
 
         account.setCreatedAt(new Date());
         account.setStatus("ACTIVE");
+        account.setOpeningBalance(account.getBalance() == null ? 0.0 : account.getBalance());
 
         Account saved = accountRepository.save(account);
 
@@ -40,6 +47,9 @@ public class AccountService {
 
         Optional<Account> account = accountRepository.findByAccountNumber(accountNumber);
 
+        // a striped account's balance includes the credits not yet folded in from its stripes
+        account.filter(Account::isStriped).ifPresent(a -> a.setBalance(stripedBalances.balance(a)));
+
         if (account.isPresent()) {
             logger.info("Account fetched successfully: accountNumber={}, balance={}, status={}",
                     account.get().getAccountNumber(),
@@ -63,6 +73,14 @@ public class AccountService {
                     return new RuntimeException("Account not found");
                 });
 
+        if (account.isStriped()) {
+            // part of its balance sits in the stripes; setting the total would lose concurrent credits
+            throw new StripedAccountException("Account " + accountNumber + " is striped, use credit/debit");
+        }
+
+        // the caller has already given up and reported a failure; don't apply the write behind its back
+        DeadlineContext.checkNotExpired("updating balance of " + accountNumber);
+
         account.setBalance(newBalance);
         accountRepository.save(account);
 
@@ -80,9 +98,77 @@ public class AccountService {
                     return new RuntimeException("Account not found");
                 });
 
-        account.setStatus(status);
-        accountRepository.save(account);
+        if (account.isStriped()) {
+            // saving the whole document would undo debits and folds made since it was read
+            stripedBalances.setStatus(accountNumber, status);
+        } else {
+            account.setStatus(status);
+            accountRepository.save(account);
+        }
 
         logger.info("Status updated successfully: accountNumber={}, newStatus={}", accountNumber, status);
     }
+
+    // ------------------ CREDIT / DEBIT ------------------
+    // increments rather than absolute balances, which is what lets a striped account take
+    // concurrent credits; they work on any account. With an operation id (may be null) a repeat
+    // is not applied twice, so callers can retry them.
+
+    // false if the operation id had been refused by resolve
+    public boolean credit(String accountNumber, double amount, String operationId) {
+
+        logger.info("Crediting account: accountNumber={}, amount={}, operationId={}", accountNumber, amount, operationId);
+
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+
+        DeadlineContext.checkNotExpired("crediting " + accountNumber);
+
+        boolean applied = stripedBalances.credit(account, amount, operationId);
+
+        if (applied) {
+            logger.info("Account credited: accountNumber={}, amount={}, stripes={}", accountNumber, amount, account.getStripes());
+        } else {
+            logger.warn("Credit refused - operation already resolved: accountNumber={}, operationId={}", accountNumber, operationId);
+        }
+        return applied;
+    }
+
+    // the balance after the debit, or null if it does not cover the amount (or the operation id was refused)
+    public Double debit(String accountNumber, double amount, String operationId) {
+
+        logger.info("Debiting account: accountNumber={}, amount={}, operationId={}", accountNumber, amount, operationId);
+
+        DeadlineContext.checkNotExpired("debiting " + accountNumber);
+
+        Double balance = stripedBalances.debit(accountNumber, amount, operationId);
+
+        if (balance == null) {
+            logger.warn("Debit refused - insufficient funds: accountNumber={}, amount={}", accountNumber, amount);
+        } else {
+            logger.info("Account debited: accountNumber={}, amount={}, balance={}", accountNumber, amount, balance);
+        }
+        return balance;
+    }
+
+    // ------------------ RESOLVE ------------------
+    // for a caller that lost track of a keyed credit or debit (e.g. it timed out): true if it
+    // was applied, false if it was not; in that case it is refused from now on
+    public boolean resolve(String accountNumber, String operationId) {
+
+        logger.info("Resolving operation: accountNumber={}, operationId={}", accountNumber, operationId);
+
+        boolean applied = stripedBalances.resolve(accountNumber, operationId);
+
+        logger.info("Operation resolved: accountNumber={}, operationId={}, applied={}", accountNumber, operationId, applied);
+        return applied;
+    }
+
+    // ------------------ STRIPING ------------------
+    public void setStripes(String accountNumber, int stripes) {
+
+        logger.info("Setting account stripes: accountNumber={}, stripes={}", accountNumber, stripes);
+
+        stripedBalances.setStripes(accountNumber, stripes);
+    }
 }
@@ -0,0 +1,44 @@
+package com.banking.account_service.stream;
+
+/**
+ * Balance and status of an account right after a committed change.
+ *
+ * seq is the change's MongoDB cluster time, so it is the same on every instance and
+ * increases with commit order; clients resume from it.
+ */
+public class AccountChangeEvent {
+
+    private final long seq;
+    private final String accountNumber;
+    private final Double balance;
+    private final String status;
+    private final long timestamp;
+
+    public AccountChangeEvent(long seq, String accountNumber, Double balance, String status, long timestamp) {
+        this.seq = seq;
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.status = status;
+        this.timestamp = timestamp;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public Double getBalance() {
+        return balance;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
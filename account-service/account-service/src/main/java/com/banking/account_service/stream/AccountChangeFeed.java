@@ -0,0 +1,204 @@
+package com.banking.account_service.stream;
+
+import com.banking.account_service.striping.StripedBalances;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails the accounts collection's MongoDB change stream and publishes every committed
+ * balance or status change to the {@link AccountChangeStream}.
+ *
+ * Reading commits rather than hooking AccountService means every instance sees every
+ * change, whichever instance made it, and in the same order with the same sequence numbers,
+ * so a client can resume against any instance. After an error the feed resumes from the
+ * last change it saw; only if MongoDB no longer has that point does it start over and
+ * reset the subscribers. Needs a replica set, as MongoDB transactions already do.
+ *
+ * Credits to a striped account land in its stripes, not its document, so its events come
+ * with each fold or debit (every fold-interval-ms at most) and carry the full balance.
+ */
+@Component
+public class AccountChangeFeed implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountChangeFeed.class);
+
+    private static final String COLLECTION = "accounts";
+    private static final long MAX_BACKOFF_MS = 30000;
+
+    // the resume point has fallen off the oplog
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_FATAL = 280;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountChangeStream changeStream;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Value("${banking.stream.feed.enabled:true}")
+    private boolean enabled;
+
+    private BsonDocument resumeToken;
+    private BsonTimestamp startAt;
+
+    private Thread reader;
+    private volatile boolean running;
+
+    // ------------------ READ LOOP ------------------
+
+    private void readLoop() {
+        long backoffMs = 1000;
+        boolean gap = false;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(gap)) {
+                gap = false;
+                backoffMs = 1000;
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change == null) {
+                        continue;
+                    }
+                    resumeToken = change.getResumeToken();
+                    AccountChangeEvent event = toEvent(change);
+                    if (event != null) {
+                        changeStream.publish(event);
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || e.getErrorCode() == CHANGE_STREAM_FATAL) {
+                    logger.warn("Account change feed lost its resume point, starting over: error={}", e.getErrorMessage());
+                    resumeToken = null;
+                    startAt = null;
+                    gap = true;
+                    continue;
+                }
+                backoffMs = pause(backoffMs, e);
+            } catch (RuntimeException e) {
+                backoffMs = pause(backoffMs, e);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(boolean gap) {
+        List<Bson> pipeline = List.of(Aggregates.match(Filters.in("operationType", "insert", "update", "replace")));
+        var watch = mongoTemplate.getCollection(COLLECTION).watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+
+        if (resumeToken != null) {
+            return watch.resumeAfter(resumeToken).cursor();
+        }
+        boolean first = startAt == null;
+        if (first) {
+            startAt = new BsonTimestamp((int) TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()), 0);
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = watch.startAtOperationTime(startAt).cursor();
+        if (first) {
+            changeStream.startedFrom(startAt.getValue(), gap);
+            logger.info("Account change feed started: collection={}", COLLECTION);
+        }
+        return cursor;
+    }
+
+    private long pause(long backoffMs, RuntimeException e) {
+        if (!running) {
+            return backoffMs;
+        }
+        logger.warn("Account change feed failed, retrying: backoffMs={}, error={}", backoffMs, e.getMessage());
+        try {
+            Thread.sleep(backoffMs);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+    }
+
+    // updates that touch neither balance nor status are of no interest to subscribers
+    @SuppressWarnings("unchecked")
+    private AccountChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+        Document account = change.getFullDocument();
+        if (account == null || account.getString("accountNumber") == null) {
+            return null;
+        }
+        UpdateDescription update = change.getUpdateDescription();
+        if (update != null && update.getUpdatedFields() != null
+                && !update.getUpdatedFields().containsKey("balance")
+                && !update.getUpdatedFields().containsKey("status")) {
+            return null;
+        }
+        Object balance = account.get("balance");
+        if (balance instanceof Number number && account.get("foldedCredits") instanceof Map<?, ?> folded) {
+            balance = number.doubleValue()
+                    + stripedBalances.unfolded(account.getString("accountNumber"), (Map<String, ?>) folded);
+        }
+        long timestamp = change.getWallTime() != null
+                ? change.getWallTime().getValue()
+                : TimeUnit.SECONDS.toMillis(change.getClusterTime().getTime());
+        return new AccountChangeEvent(change.getClusterTime().getValue(),
+                account.getString("accountNumber"),
+                balance instanceof Number number ? number.doubleValue() : null,
+                account.getString("status"),
+                timestamp);
+    }
+
+    // ------------------ LIFECYCLE ------------------
+
+    @Override
+    public synchronized void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        reader = new Thread(this::readLoop, "account-change-feed");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        reader.interrupt();
+        try {
+            reader.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops before the stream it publishes to
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,352 @@
+package com.banking.account_service.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed account changes out to server-sent event subscribers.
+ *
+ * Each subscriber has an optional account filter and its own bounded buffer, drained by a
+ * small writer pool; one slow client never holds up the others or the feed. A subscriber
+ * whose buffer overflows is dropped, and reconnects with Last-Event-ID like after any
+ * disconnect. The last replay-size events are kept so a resuming client gets what it
+ * missed; if the gap is older than that, it gets a "reset" event and should re-read the
+ * accounts it watches before relying on the stream again.
+ *
+ *   banking.stream.replay-size=1000
+ *   banking.stream.buffer-size=256
+ */
+@Component
+public class AccountChangeStream implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountChangeStream.class);
+
+    private static final String PREFIX = "banking.stream.";
+
+    private final int replaySize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+
+    // guarded by itself, together with lastSeq and coveredFrom
+    private final ArrayDeque<AccountChangeEvent> replay = new ArrayDeque<>();
+    private long lastSeq;
+    // every event after this seq is in the replay buffer; MAX_VALUE until the feed has started
+    private long coveredFrom = Long.MAX_VALUE;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writers;
+
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter rejected;
+    private final Counter resets;
+
+    private ScheduledExecutorService ticker;
+    private volatile boolean running;
+
+    public AccountChangeStream(MeterRegistry meterRegistry, Environment environment) {
+        this.replaySize = environment.getProperty(PREFIX + "replay-size", Integer.class, 1000);
+        this.bufferSize = environment.getProperty(PREFIX + "buffer-size", Integer.class, 256);
+        this.maxSubscribers = environment.getProperty(PREFIX + "max-subscribers", Integer.class, 1000);
+        this.heartbeatMs = environment.getProperty(PREFIX + "heartbeat-ms", Long.class, 15000L);
+        this.timeoutMs = environment.getProperty(PREFIX + "timeout-ms", Long.class, 1800000L);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(environment.getProperty(PREFIX + "writers", Integer.class, 4), r -> {
+            Thread t = new Thread(r, "account-stream-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("account.stream.subscribers", subscribers, Set::size)
+                .description("Open account change streams")
+                .register(meterRegistry);
+        published = counter(meterRegistry, "account.stream.published", "Account changes fanned out to subscribers");
+        dropped = counter(meterRegistry, "account.stream.dropped", "Subscribers disconnected for falling too far behind");
+        rejected = counter(meterRegistry, "account.stream.rejected", "Subscriptions refused at max-subscribers");
+        resets = counter(meterRegistry, "account.stream.resets", "Subscribers told to re-read state because of a gap");
+    }
+
+    // ------------------ FEED SIDE ------------------
+
+    /**
+     * Called once the feed is reading changes from seq onwards; a restart after a gap drops the
+     * replay buffer and tells every open subscriber to resync.
+     */
+    public void startedFrom(long seq, boolean gap) {
+        synchronized (replay) {
+            if (gap) {
+                replay.clear();
+            }
+            if (gap || coveredFrom == Long.MAX_VALUE) {
+                coveredFrom = seq;
+                lastSeq = Math.max(lastSeq, seq);
+            }
+            if (gap) {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.reset(lastSeq);
+                }
+            }
+        }
+    }
+
+    public void publish(AccountChangeEvent event) {
+        synchronized (replay) {
+            if (event.getSeq() <= lastSeq) {
+                return;
+            }
+            lastSeq = event.getSeq();
+            replay.addLast(event);
+            if (replay.size() > replaySize) {
+                coveredFrom = replay.removeFirst().getSeq();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.wants(event)) {
+                    subscriber.enqueue(event);
+                }
+            }
+        }
+        published.increment();
+    }
+
+    // ------------------ SUBSCRIBER SIDE ------------------
+
+    /**
+     * Attaches the emitter, first replaying whatever it missed since lastEventId (if given).
+     *
+     * @param accounts accounts to receive changes for; empty for all
+     * @return false if max-subscribers streams are already open
+     */
+    public boolean subscribe(SseEmitter emitter, Set<String> accounts, String lastEventId) {
+        if (!running || subscribers.size() >= maxSubscribers) {
+            rejected.increment();
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(emitter, accounts);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+
+        Long resumeFrom = parseSeq(lastEventId);
+        synchronized (replay) {
+            List<AccountChangeEvent> missed = new ArrayList<>();
+            if (resumeFrom != null && resumeFrom >= coveredFrom) {
+                for (AccountChangeEvent event : replay) {
+                    if (event.getSeq() > resumeFrom && subscriber.wants(event)) {
+                        missed.add(event);
+                    }
+                }
+            }
+            // more than fits the buffer would only get the client dropped again, on every reconnect
+            if (resumeFrom != null && (resumeFrom < coveredFrom || missed.size() > bufferSize)) {
+                logger.info("STREAM RESUME beyond replay buffer, resetting: lastEventId={}, coveredFrom={}, missed={}",
+                        lastEventId, coveredFrom, missed.size());
+                subscriber.reset(lastSeq);
+            } else {
+                missed.forEach(subscriber::enqueue);
+            }
+            subscribers.add(subscriber);
+        }
+        logger.info("STREAM OPENED: accounts={}, resumeFrom={}, subscribers={}",
+                accounts.isEmpty() ? "*" : accounts, resumeFrom, subscribers.size());
+        return true;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    private static Long parseSeq(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // not one of ours: treat it like a gap
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // ------------------ LIFECYCLE ------------------
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "account-stream-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        ticker.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+        writers.shutdown();
+        logger.info("Account change stream stopped, subscribers closed");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops after the feed and before the web server, so open streams do not hold up its graceful shutdown
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    // idle connections get a comment now and then, so proxies keep them open and dead clients are noticed
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String description) {
+        return Counter.builder(name).description(description).register(meterRegistry);
+    }
+
+    // ------------------ PER-SUBSCRIBER STATE ------------------
+
+    private class Subscriber {
+
+        final SseEmitter emitter;
+        final Set<String> accounts;
+        final ArrayBlockingQueue<AccountChangeEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        volatile boolean closed;
+        volatile boolean heartbeatDue;
+        volatile long resetSeq = -1;   // >= 0 while a reset is waiting to be sent
+
+        Subscriber(SseEmitter emitter, Set<String> accounts) {
+            this.emitter = emitter;
+            this.accounts = accounts;
+        }
+
+        boolean wants(AccountChangeEvent event) {
+            return accounts.isEmpty() || accounts.contains(event.getAccountNumber());
+        }
+
+        void enqueue(AccountChangeEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                close();
+                dropped.increment();
+                logger.warn("STREAM DROPPED slow subscriber: accounts={}, buffered={}",
+                        accounts.isEmpty() ? "*" : accounts, bufferSize);
+                emitter.complete();
+                return;
+            }
+            schedule();
+        }
+
+        // anything buffered before the reset is superseded by the re-read it asks for
+        void reset(long seq) {
+            buffer.clear();
+            resetSeq = seq;
+            resets.increment();
+            schedule();
+        }
+
+        void schedule() {
+            if (closed || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                writers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    long reset = resetSeq;
+                    if (reset >= 0) {
+                        resetSeq = -1;
+                        emitter.send(SseEmitter.event().id(Long.toString(reset)).name("reset").data("resync"));
+                        continue;
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    AccountChangeEvent next = buffer.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(next.getSeq()))
+                            .name("account")
+                            .data(next, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client has gone; the container completes the emitter
+                close();
+                logger.debug("STREAM CLOSED by client: error={}", e.getMessage());
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && (!buffer.isEmpty() || heartbeatDue || resetSeq >= 0)) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.banking.account_service.striping;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The operation does not fit a striped account's state, e.g. setting an absolute balance,
+ * or a debit that kept losing to concurrent folds; the caller should use credit/debit or retry.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class StripedAccountException extends RuntimeException {
+
+    public StripedAccountException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,422 @@
+package com.banking.account_service.striping;
+
+import com.banking.account_service.model.Account;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sub-ledger striping for hot accounts, so that deposits into one busy merchant account do not
+ * all serialize on its document.
+ *
+ * A striped account's credits are spread over `stripes` documents in account_stripes (id
+ * "ACC#i"), each an ever-growing `credited` total updated with $inc independently of the others.
+ * The account document keeps, per stripe, how much of it is already in `balance`
+ * (foldedCredits), so
+ *
+ *   balance seen by clients = balance + sum over stripes of (credited - foldedCredits[i])
+ *
+ * A fold moves the difference into `balance` and advances foldedCredits in the same single
+ * document update, so nothing is lost or counted twice if it is interrupted. Debits and folds
+ * update the account document only if stripeVersion (and balance) are still what they read,
+ * and a debit is checked against the sum; stripes only grow in between, so the check errs on
+ * the safe side. Because the stripes can hold money, a striped account's balance is never set
+ * outright.
+ *
+ * Folds run on a daemon thread every fold-interval-ms, on every instance; concurrent folds of
+ * the same account are settled by the same version check.
+ *
+ * A credit or debit may carry an operation id. The document it changes (the account, or for a
+ * striped credit the stripe picked by the id) remembers the latest ids in `operations`, and
+ * the change is only applied if its id is not there yet, in the same single document update,
+ * so repeating it after a timeout cannot apply it twice. The stripe an id picks is recorded in
+ * stripe_operations the first time, and every later attempt goes to that stripe even if the
+ * stripe count has changed meanwhile. {@link #resolve} settles an operation whose outcome the
+ * caller does not know: it records "!id" wherever the operation could still land, so an
+ * attempt still on its way is refused.
+ */
+@Component
+public class StripedBalances implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedBalances.class);
+
+    static final String STRIPES = "account_stripes";
+    static final String STRIPE_OPERATIONS = "stripe_operations";
+    static final String ACCOUNTS = "accounts";
+    static final String OPERATIONS = "operations";
+    static final String REFUSED = "!";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${banking.striping.max-stripes:64}")
+    private int maxStripes;
+
+    @Value("${banking.striping.debit-attempts:5}")
+    private int debitAttempts;
+
+    @Value("${banking.operations.remembered:500}")
+    private int rememberedOperations;
+
+    @Value("${banking.striping.operation-ttl-ms:86400000}")
+    private long operationTtlMs;
+
+    @Value("${banking.striping.fold-interval-ms:5000}")
+    private long foldIntervalMs;
+
+    private ScheduledExecutorService folder;
+
+    private volatile boolean indexed;
+
+    // ------------------ CONFIGURE ------------------
+
+    /**
+     * Spreads the account's future credits over the given number of stripes; 0 sends them to the
+     * main balance again (what is still in the stripes is folded in by the next fold).
+     */
+    public void setStripes(String accountNumber, int stripes) {
+        if (stripes < 0 || stripes > maxStripes) {
+            throw new IllegalArgumentException("stripes must be between 0 and " + maxStripes);
+        }
+        ensureIndexes();
+        Query account = byAccount(accountNumber);
+        // first time: start the ledger of folded stripe credits
+        mongoTemplate.updateFirst(new Query(Criteria.where("accountNumber").is(accountNumber)
+                .and("foldedCredits").exists(false)), new Update().set("foldedCredits", new HashMap<>()), Account.class);
+        if (mongoTemplate.updateFirst(account, new Update().set("stripes", stripes), Account.class).getMatchedCount() == 0) {
+            throw new RuntimeException("Account not found");
+        }
+        logger.info("Account striping set: accountNumber={}, stripes={}", accountNumber, stripes);
+    }
+
+    // a targeted update: saving the whole document would undo debits and folds made since it was read
+    public void setStatus(String accountNumber, String status) {
+        mongoTemplate.updateFirst(byAccount(accountNumber), new Update().set("status", status), Account.class);
+    }
+
+    // ------------------ CREDIT / DEBIT ------------------
+
+    public void credit(Account account, double amount) {
+        credit(account, amount, null);
+    }
+
+    /**
+     * An increment on one stripe (random, or picked by the operation id), or on the balance if
+     * the account is not (or no longer) striped.
+     *
+     * @return true if the amount is on the account under this operation id, now or from an
+     *         earlier attempt; false if the id had been refused
+     */
+    public boolean credit(Account account, double amount, String operationId) {
+        String accountNumber = account.getAccountNumber();
+        Integer stripes = account.getStripes();
+        boolean striped = stripes != null && stripes > 0;
+        // striped before: an earlier attempt may have gone to a stripe
+        Integer pinned = !striped && operationId != null && account.getFoldedCredits() != null
+                ? pinnedStripe(accountNumber, operationId) : null;
+        if (!striped && pinned == null) {
+            Update update = remember(new Update().inc("balance", amount), operationId);
+            if (mongoTemplate.updateFirst(notSeen(byAccount(accountNumber), operationId), update, Account.class)
+                    .getModifiedCount() == 1) {
+                return true;
+            }
+            return applied(byAccount(accountNumber), ACCOUNTS, operationId);
+        }
+        int stripe = operationId == null
+                ? ThreadLocalRandom.current().nextInt(stripes)
+                : pinned != null ? pinned : stripeFor(accountNumber, operationId, stripes);
+        Update update = remember(new Update()
+                .inc("credited", amount)
+                .setOnInsert("accountNumber", accountNumber)
+                .setOnInsert("stripe", stripe), operationId);
+        try {
+            mongoTemplate.upsert(notSeen(byStripe(accountNumber, stripe), operationId), update, STRIPES);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // the stripe exists but did not match: it has seen the operation id
+            return applied(byStripe(accountNumber, stripe), STRIPES, operationId);
+        }
+    }
+
+    public Double debit(String accountNumber, double amount) {
+        return debit(accountNumber, amount, null);
+    }
+
+    /**
+     * Takes amount from the account if its balance, stripes included, covers it. Repeating an
+     * applied operation id changes nothing and answers the current balance.
+     *
+     * @return the balance after the debit, or null if it does not cover the amount or the
+     *         operation id had been refused
+     */
+    public Double debit(String accountNumber, double amount, String operationId) {
+        for (int attempt = 0; attempt < debitAttempts; attempt++) {
+            Account account = find(accountNumber);
+            double available = balance(account);
+            List<String> operations = account.getOperations() == null ? List.of() : account.getOperations();
+            if (operationId != null && operations.contains(operationId)) {
+                return available;
+            }
+            if (operationId != null && operations.contains(REFUSED + operationId)) {
+                return null;
+            }
+            if (available < amount) {
+                return null;
+            }
+            Update update = remember(new Update().inc("balance", -amount).inc("stripeVersion", 1), operationId);
+            if (mongoTemplate.updateFirst(notSeen(unchanged(account), operationId), update, Account.class).getModifiedCount() == 1) {
+                return available - amount;
+            }
+        }
+        throw new StripedAccountException("Account " + accountNumber + " is busy, retry the debit");
+    }
+
+    // ------------------ RESOLVE ------------------
+
+    /**
+     * Settles a keyed credit or debit whose outcome the caller does not know.
+     *
+     * @return true if it was applied; false if it was not, and now never will be
+     */
+    public boolean resolve(String accountNumber, String operationId) {
+        Account account = find(accountNumber);
+        // debits and unstriped credits land on the account document
+        if (mongoTemplate.updateFirst(notSeen(byAccount(accountNumber), operationId),
+                remember(new Update(), REFUSED + operationId), Account.class).getModifiedCount() == 0
+                && applied(byAccount(accountNumber), ACCOUNTS, operationId)) {
+            return true;
+        }
+        // a striped credit lands on the stripe its id was first sent to; pinning one now keeps a
+        // later attempt off the others even if the account is striped afterwards or differently
+        if (account.getFoldedCredits() == null) {
+            return false;
+        }
+        Integer stripes = account.getStripes();
+        int stripe = stripeFor(accountNumber, operationId, stripes == null || stripes <= 0 ? 1 : stripes);
+        Update refuse = remember(new Update()
+                .setOnInsert("accountNumber", accountNumber)
+                .setOnInsert("stripe", stripe), REFUSED + operationId);
+        try {
+            mongoTemplate.upsert(notSeen(byStripe(accountNumber, stripe), operationId), refuse, STRIPES);
+            return false;
+        } catch (DuplicateKeyException e) {
+            return applied(byStripe(accountNumber, stripe), STRIPES, operationId);
+        }
+    }
+
+    // whether the document holds the operation id as applied (not refused)
+    private boolean applied(Query document, String collection, String operationId) {
+        Document current = mongoTemplate.findOne(document, Document.class, collection);
+        return current != null && current.getList(OPERATIONS, String.class, List.of()).contains(operationId);
+    }
+
+    // ------------------ READ ------------------
+
+    public double balance(Account account) {
+        double balance = account.getBalance() == null ? 0 : account.getBalance();
+        return account.isStriped() ? balance + unfolded(account.getAccountNumber(), account.getFoldedCredits()) : balance;
+    }
+
+    // credits sitting in the stripes that the balance does not hold yet
+    public double unfolded(String accountNumber, Map<String, ?> foldedCredits) {
+        double unfolded = 0;
+        for (Document stripe : stripes(accountNumber)) {
+            unfolded += credited(stripe) - folded(foldedCredits, stripe);
+        }
+        return unfolded;
+    }
+
+    // ------------------ FOLD ------------------
+
+    void foldAll() {
+        List<String> accounts;
+        try {
+            accounts = mongoTemplate.findDistinct(new Query(), "accountNumber", STRIPES, String.class);
+        } catch (RuntimeException e) {
+            logger.warn("Stripe fold skipped, will retry: error={}", e.getMessage());
+            return;
+        }
+        for (String accountNumber : accounts) {
+            try {
+                fold(accountNumber);
+            } catch (RuntimeException e) {
+                logger.warn("Stripe fold failed, will retry: accountNumber={}, error={}", accountNumber, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the account's unfolded stripe credits into its balance.
+     *
+     * @return true if the fold was applied (or there was nothing to fold), false if the account changed meanwhile
+     */
+    public boolean fold(String accountNumber) {
+        Account account = find(accountNumber);
+        Update update = new Update();
+        double delta = 0;
+        for (Document stripe : stripes(accountNumber)) {
+            double credited = credited(stripe);
+            double pending = credited - folded(account.getFoldedCredits(), stripe);
+            if (pending != 0) {
+                update.set("foldedCredits." + stripe.getInteger("stripe"), credited);
+                delta += pending;
+            }
+        }
+        if (delta == 0) {
+            return true;
+        }
+        update.inc("balance", delta).inc("stripeVersion", 1);
+        boolean applied = mongoTemplate.updateFirst(unchanged(account), update, Account.class).getModifiedCount() == 1;
+        if (applied) {
+            logger.debug("Stripes folded: accountNumber={}, amount={}", accountNumber, delta);
+        }
+        return applied;
+    }
+
+    // ------------------ LIFECYCLE ------------------
+
+    @Override
+    public synchronized void start() {
+        if (folder != null) {
+            return;
+        }
+        folder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "account-stripe-folder");
+            t.setDaemon(true);
+            return t;
+        });
+        folder.scheduleWithFixedDelay(this::foldAll, foldIntervalMs, foldIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // a fold cut short is simply not applied; the next one, here or on another instance, redoes it
+    @Override
+    public synchronized void stop() {
+        if (folder == null) {
+            return;
+        }
+        folder.shutdownNow();
+        folder = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return folder != null;
+    }
+
+    // ------------------ HELPERS ------------------
+
+    private Account find(String accountNumber) {
+        Account account = mongoTemplate.findOne(byAccount(accountNumber), Account.class);
+        if (account == null) {
+            throw new RuntimeException("Account not found");
+        }
+        return account;
+    }
+
+    private List<Document> stripes(String accountNumber) {
+        return mongoTemplate.find(new Query(Criteria.where("accountNumber").is(accountNumber)), Document.class, STRIPES);
+    }
+
+    // the account document as read: balance and stripe version unchanged
+    private static Query unchanged(Account account) {
+        return new Query(Criteria.where("_id").is(account.getId())
+                .and("balance").is(account.getBalance())
+                .and("stripeVersion").is(account.getStripeVersion()));
+    }
+
+    // with an operation id: only if the document has not seen it, applied or refused
+    private static Query notSeen(Query query, String operationId) {
+        if (operationId != null) {
+            query.addCriteria(Criteria.where(OPERATIONS).nin(operationId, REFUSED + operationId));
+        }
+        return query;
+    }
+
+    private Update remember(Update update, String operationId) {
+        if (operationId != null) {
+            update.push(OPERATIONS).slice(-rememberedOperations).each(operationId);
+        }
+        return update;
+    }
+
+    private static int stripeOf(String operationId, int stripes) {
+        return Math.floorMod(operationId.hashCode(), stripes);
+    }
+
+    // the stripe the operation id was first sent to, picked from the current count if it was not yet
+    private int stripeFor(String accountNumber, String operationId, int stripes) {
+        ensureIndexes();
+        Query pin = new Query(Criteria.where("_id").is(pinId(accountNumber, operationId)));
+        Update update = new Update()
+                .setOnInsert("stripe", stripeOf(operationId, stripes))
+                .setOnInsert("createdAt", new Date());
+        try {
+            Document pinned = mongoTemplate.findAndModify(pin, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, STRIPE_OPERATIONS);
+            return pinned.getInteger("stripe");
+        } catch (DuplicateKeyException e) {
+            // another attempt pinned it at the same moment
+            return pinnedStripe(accountNumber, operationId);
+        }
+    }
+
+    private Integer pinnedStripe(String accountNumber, String operationId) {
+        Document pinned = mongoTemplate.findById(pinId(accountNumber, operationId), Document.class, STRIPE_OPERATIONS);
+        return pinned == null ? null : pinned.getInteger("stripe");
+    }
+
+    private static String pinId(String accountNumber, String operationId) {
+        return accountNumber + "|" + operationId;
+    }
+
+    private static Query byAccount(String accountNumber) {
+        return new Query(Criteria.where("accountNumber").is(accountNumber));
+    }
+
+    private static Query byStripe(String accountNumber, int stripe) {
+        return new Query(Criteria.where("_id").is(stripeId(accountNumber, stripe)));
+    }
+
+    private static String stripeId(String accountNumber, int stripe) {
+        return accountNumber + "#" + stripe;
+    }
+
+    private static double credited(Document stripe) {
+        return stripe.get("credited") instanceof Number number ? number.doubleValue() : 0;
+    }
+
+    private static double folded(Map<String, ?> foldedCredits, Document stripe) {
+        Object folded = foldedCredits == null ? null : foldedCredits.get(String.valueOf(stripe.getInteger("stripe")));
+        return folded instanceof Number number ? number.doubleValue() : 0;
+    }
+
+    private void ensureIndexes() {
+        if (!indexed) {
+            mongoTemplate.indexOps(STRIPES).ensureIndex(new Index().on("accountNumber", Sort.Direction.ASC).named("account_idx"));
+            mongoTemplate.indexOps(STRIPE_OPERATIONS).ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                    .expire(operationTtlMs, TimeUnit.MILLISECONDS).named("created_ttl"));
+            indexed = true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.banking.account_service;
+
+import com.banking.account_service.stream.AccountChangeEvent;
+import com.banking.account_service.stream.AccountChangeStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountChangeStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AccountChangeStream stream;
+
+    private AccountChangeStream newStream(int replaySize, int bufferSize) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("banking.stream.replay-size", String.valueOf(replaySize))
+                .withProperty("banking.stream.buffer-size", String.valueOf(bufferSize))
+                .withProperty("banking.stream.heartbeat-ms", "60000");
+        stream = new AccountChangeStream(meterRegistry, environment);
+        stream.start();
+        stream.startedFrom(100, false);
+        return stream;
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.stop();
+    }
+
+    private static AccountChangeEvent change(long seq, String account, double balance) {
+        return new AccountChangeEvent(seq, account, balance, "ACTIVE", System.currentTimeMillis());
+    }
+
+    // ------------------ TEST: Only subscribed accounts are pushed ------------------
+    @Test
+    void testFiltersByAccount() throws Exception {
+        newStream(100, 16);
+        RecordingEmitter emitter = new RecordingEmitter(2);
+        assertTrue(stream.subscribe(emitter, Set.of("ACC1"), null));
+
+        stream.publish(change(101, "ACC1", 10));
+        stream.publish(change(102, "ACC2", 20));
+        stream.publish(change(103, "ACC1", 30));
+
+        assertTrue(emitter.await());
+        assertEquals(List.of(101L, 103L), emitter.seqs());
+    }
+
+    // ------------------ TEST: Resume replays what was missed ------------------
+    @Test
+    void testResumeFromLastEventId() throws Exception {
+        newStream(100, 16);
+        for (long seq = 101; seq <= 105; seq++) {
+            stream.publish(change(seq, "ACC1", seq));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        assertTrue(stream.subscribe(emitter, Set.of(), "102"));
+        stream.publish(change(106, "ACC1", 106));
+
+        assertTrue(emitter.await());
+        assertEquals(List.of(103L, 104L, 105L), emitter.seqs().subList(0, 3));
+        assertFalse(emitter.reset);
+    }
+
+    // ------------------ TEST: Resume past the replay buffer resets ------------------
+    @Test
+    void testResumeBeyondReplayBufferResets() throws Exception {
+        newStream(2, 16);
+        for (long seq = 101; seq <= 105; seq++) {
+            stream.publish(change(seq, "ACC1", seq));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        assertTrue(stream.subscribe(emitter, Set.of(), "101"));
+
+        assertTrue(emitter.await());
+        assertTrue(emitter.reset);
+        assertTrue(emitter.seqs().isEmpty());
+    }
+
+    // ------------------ TEST: Slow subscriber is dropped, others unaffected ------------------
+    @Test
+    void testSlowSubscriberDropped() throws Exception {
+        newStream(100, 2);
+        BlockingEmitter slow = new BlockingEmitter();
+        RecordingEmitter fast = new RecordingEmitter(10);
+        assertTrue(stream.subscribe(slow, Set.of(), null));
+        assertTrue(stream.subscribe(fast, Set.of(), null));
+
+        // paced so only the slow one falls behind
+        for (long seq = 101; seq <= 110; seq++) {
+            stream.publish(change(seq, "ACC1", seq));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (fast.seqs().size() < seq - 100 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+
+        assertTrue(fast.await());
+        assertEquals(10, fast.seqs().size());
+        assertEquals(1, stream.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("account.stream.dropped").counter().count());
+        slow.release.countDown();
+    }
+
+    // ------------------ HELPERS ------------------
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<Object> data = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        volatile boolean reset;
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (DataWithMediaType part : builder.build()) {
+                Object value = part.getData();
+                if (value instanceof AccountChangeEvent) {
+                    data.add(value);
+                    received.countDown();
+                } else if (value.toString().contains("event:reset")) {
+                    reset = true;
+                    received.countDown();
+                }
+            }
+        }
+
+        boolean await() throws InterruptedException {
+            return received.await(5, TimeUnit.SECONDS);
+        }
+
+        List<Long> seqs() {
+            return data.stream().map(e -> ((AccountChangeEvent) e).getSeq()).toList();
+        }
+    }
+
+    private static class BlockingEmitter extends SseEmitter {
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.banking.account_service;
+
+import com.banking.account_service.controller.AccountRpcController;
+import com.banking.account_service.model.Account;
+import com.banking.account_service.rpc.AccountRpc;
+import com.banking.account_service.rpc.AccountRpc.Request;
+import com.banking.account_service.rpc.AccountRpc.Response;
+import com.banking.account_service.service.AccountService;
+import com.banking.account_service.striping.StripedAccountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashMap;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountRpcTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @InjectMocks
+    private AccountRpcController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Response call(int op, String accountNumber, double amount) {
+        return AccountRpc.decodeResponse(controller.handle(AccountRpc.encode(new Request(op, accountNumber, amount))));
+    }
+
+    // ------------------ TEST: Frames round-trip ------------------
+    @Test
+    void testFramesRoundTrip() {
+        Request request = new Request(AccountRpc.DEBIT, "ACC1001-ü", 12.34, "TXN-1:debit");
+        assertEquals(request, AccountRpc.decodeRequest(AccountRpc.encode(request)));
+
+        Response response = Response.ok(5000.0, true);
+        assertEquals(response, AccountRpc.decodeResponse(AccountRpc.encode(response)));
+        assertNull(AccountRpc.decodeResponse(AccountRpc.encode(Response.failed(AccountRpc.NOT_FOUND, "x"))).balance());
+    }
+
+    // ------------------ TEST: Balance read reports striping ------------------
+    @Test
+    void testGetBalance() {
+        Account account = new Account("ACC1001", "Sachin", 5000.0, "ACTIVE", null);
+        account.setFoldedCredits(new HashMap<>());
+        when(accountService.getAccount("ACC1001")).thenReturn(Optional.of(account));
+        when(accountService.getAccount("ACC9999")).thenReturn(Optional.empty());
+
+        assertEquals(Response.ok(5000.0, true), call(AccountRpc.GET_BALANCE, "ACC1001", 0));
+        assertEquals(AccountRpc.NOT_FOUND, call(AccountRpc.GET_BALANCE, "ACC9999", 0).status());
+    }
+
+    // ------------------ TEST: Updates dispatch and map failures to statuses ------------------
+    @Test
+    void testUpdates() {
+        when(accountService.credit("ACC1001", 50.0, null)).thenReturn(true);
+        when(accountService.debit("ACC1001", 100.0, null)).thenReturn(900.0);
+        when(accountService.debit("ACC1001", 5000.0, null)).thenReturn(null);
+        doThrow(new StripedAccountException("striped")).when(accountService).updateBalance("ACC1001", 1.0);
+
+        assertEquals(AccountRpc.OK, call(AccountRpc.CREDIT, "ACC1001", 50.0).status());
+        verify(accountService).credit("ACC1001", 50.0, null);
+        assertEquals(900.0, call(AccountRpc.DEBIT, "ACC1001", 100.0).balance());
+        assertEquals(AccountRpc.INSUFFICIENT_FUNDS, call(AccountRpc.DEBIT, "ACC1001", 5000.0).status());
+        assertEquals(AccountRpc.CONFLICT, call(AccountRpc.SET_BALANCE, "ACC1001", 1.0).status());
+    }
+
+    // ------------------ TEST: Keyed operations carry their id and resolve ------------------
+    @Test
+    void testKeyedOperationsAndResolve() {
+        when(accountService.credit("ACC1001", 50.0, "TXN-1:credit")).thenReturn(false);
+        when(accountService.resolve("ACC1001", "TXN-1:debit")).thenReturn(true);
+        when(accountService.resolve("ACC1001", "TXN-2:debit")).thenReturn(false);
+
+        Response refused = AccountRpc.decodeResponse(controller.handle(AccountRpc.encode(
+                new Request(AccountRpc.CREDIT, "ACC1001", 50.0, "TXN-1:credit"))));
+        assertEquals(AccountRpc.NOT_APPLIED, refused.status());
+        assertEquals(AccountRpc.OK, AccountRpc.decodeResponse(controller.handle(AccountRpc.encode(
+                new Request(AccountRpc.RESOLVE, "ACC1001", 0, "TXN-1:debit")))).status());
+        assertEquals(AccountRpc.NOT_APPLIED, AccountRpc.decodeResponse(controller.handle(AccountRpc.encode(
+                new Request(AccountRpc.RESOLVE, "ACC1001", 0, "TXN-2:debit")))).status());
+        // nothing to resolve without an id
+        assertEquals(AccountRpc.BAD_REQUEST, call(AccountRpc.RESOLVE, "ACC1001", 0).status());
+    }
+
+    // ------------------ TEST: Malformed frames are refused ------------------
+    @Test
+    void testMalformedFrame() {
+        assertEquals(AccountRpc.BAD_REQUEST, AccountRpc.decodeResponse(controller.handle(new byte[] {1, 3})).status());
+        assertEquals(AccountRpc.BAD_REQUEST, AccountRpc.decodeResponse(controller.handle(new byte[] {9})).status());
+        assertEquals(AccountRpc.BAD_REQUEST, call(42, "ACC1001", 0).status());
+    }
+}
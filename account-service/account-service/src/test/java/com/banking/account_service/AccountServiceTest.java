@@ -3,6 +3,8 @@ package com.banking.account_service;
 import com.banking.account_service.model.Account;
 import com.banking.account_service.repository.AccountRepository;
 import com.banking.account_service.service.AccountService;
+import com.banking.account_service.striping.StripedAccountException;
+import com.banking.account_service.striping.StripedBalances;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -11,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +24,9 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private StripedBalances stripedBalances;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -131,4 +137,34 @@ class AccountServiceTest {
             accountService.updateStatus("ACC2222", "INACTIVE");
         });
     }
+
+    // ------------------ TEST: Striped account reads include its stripes ------------------
+    @Test
+    void testGetStripedAccountAddsUnfoldedCredits() {
+
+        Account account = new Account();
+        account.setAccountNumber("ACC1001");
+        account.setBalance(5000.0);
+        account.setFoldedCredits(new HashMap<>());
+
+        when(accountRepository.findByAccountNumber("ACC1001")).thenReturn(Optional.of(account));
+        when(stripedBalances.balance(account)).thenReturn(5250.0);
+
+        assertEquals(5250.0, accountService.getAccount("ACC1001").get().getBalance());
+    }
+
+    // ------------------ TEST: Striped account balance cannot be set ------------------
+    @Test
+    void testUpdateBalanceRejectedForStripedAccount() {
+
+        Account account = new Account();
+        account.setAccountNumber("ACC1001");
+        account.setBalance(5000.0);
+        account.setFoldedCredits(new HashMap<>());
+
+        when(accountRepository.findByAccountNumber("ACC1001")).thenReturn(Optional.of(account));
+
+        assertThrows(StripedAccountException.class, () -> accountService.updateBalance("ACC1001", 7000.0));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
 }
@@ -0,0 +1,203 @@
+package com.banking.account_service;
+
+import com.banking.account_service.model.Account;
+import com.banking.account_service.striping.StripedAccountException;
+import com.banking.account_service.striping.StripedBalances;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StripedBalancesTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final StripedBalances stripedBalances = new StripedBalances();
+
+    private Account account;
+
+    // stripe_operations: the stripe each operation id was first sent to
+    private final Map<String, Integer> pins = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stripedBalances, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stripedBalances, "maxStripes", 64);
+        ReflectionTestUtils.setField(stripedBalances, "debitAttempts", 3);
+        ReflectionTestUtils.setField(stripedBalances, "rememberedOperations", 500);
+
+        // 100 in the balance; stripe 0 has 30 credited of which 10 folded, stripe 1 has 5, none folded
+        Map<String, Double> folded = new HashMap<>();
+        folded.put("0", 10.0);
+        account = new Account("ACC1", "Merchant", 100.0, "ACTIVE", null);
+        account.setStripes(2);
+        account.setFoldedCredits(folded);
+        account.setStripeVersion(7L);
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Account.class))).thenReturn(account);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("account_stripes"))).thenReturn(List.of(
+                new Document("_id", "ACC1#0").append("accountNumber", "ACC1").append("stripe", 0).append("credited", 30.0),
+                new Document("_id", "ACC1#1").append("accountNumber", "ACC1").append("stripe", 1).append("credited", 5.0)));
+
+        when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("stripe_operations"))).thenAnswer(invocation -> {
+            String id = (String) invocation.<Query>getArgument(0).getQueryObject().get("_id");
+            Document onInsert = (Document) invocation.<Update>getArgument(1).getUpdateObject().get("$setOnInsert");
+            pins.putIfAbsent(id, onInsert.getInteger("stripe"));
+            return new Document("_id", id).append("stripe", pins.get(id));
+        });
+        when(mongoTemplate.findById(anyString(), eq(Document.class), eq("stripe_operations"))).thenAnswer(invocation -> {
+            Integer stripe = pins.get(invocation.<String>getArgument(0));
+            return stripe == null ? null : new Document("stripe", stripe);
+        });
+    }
+
+    private void updatesModify(long... modified) {
+        UpdateResult first = UpdateResult.acknowledged(1, modified[0], null);
+        UpdateResult[] rest = new UpdateResult[modified.length - 1];
+        for (int i = 1; i < modified.length; i++) {
+            rest[i - 1] = UpdateResult.acknowledged(1, modified[i], null);
+        }
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Account.class))).thenReturn(first, rest);
+    }
+
+    // ------------------ TEST: Balance adds what the stripes have not folded ------------------
+    @Test
+    void testBalanceIncludesUnfoldedCredits() {
+        assertEquals(125.0, stripedBalances.balance(account));
+    }
+
+    // ------------------ TEST: Fold moves the difference and advances the offsets ------------------
+    @Test
+    void testFoldMovesUnfoldedCreditsIntoBalance() {
+        updatesModify(1);
+
+        assertTrue(stripedBalances.fold("ACC1"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Account.class));
+
+        // only applied if nothing moved the balance meanwhile
+        assertEquals(100.0, query.getValue().getQueryObject().get("balance"));
+        assertEquals(7L, query.getValue().getQueryObject().get("stripeVersion"));
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(30.0, set.get("foldedCredits.0"));
+        assertEquals(5.0, set.get("foldedCredits.1"));
+        assertEquals(25.0, inc.get("balance"));
+    }
+
+    // ------------------ TEST: Debit is checked against balance plus stripes ------------------
+    @Test
+    void testDebitUsesStripedBalance() {
+        updatesModify(1);
+
+        assertEquals(5.0, stripedBalances.debit("ACC1", 120.0));
+        assertNull(stripedBalances.debit("ACC1", 130.0));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Account.class));
+    }
+
+    // ------------------ TEST: Debit retries a lost race, then gives up ------------------
+    @Test
+    void testDebitRetriesThenConflicts() {
+        updatesModify(0, 1);
+        assertEquals(25.0, stripedBalances.debit("ACC1", 100.0));
+
+        updatesModify(0, 0, 0);
+        assertThrows(StripedAccountException.class, () -> stripedBalances.debit("ACC1", 100.0));
+    }
+
+    // ------------------ TEST: A repeated operation id is not applied twice ------------------
+    @Test
+    void testKeyedDebitAppliedOnce() {
+        updatesModify(1);
+
+        assertEquals(25.0, stripedBalances.debit("ACC1", 100.0, "TXN-1:debit"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Account.class));
+        // only applied where the id is not yet, and the id is remembered in the same update
+        Document operations = (Document) query.getValue().getQueryObject().get("operations");
+        assertEquals(List.of("TXN-1:debit", "!TXN-1:debit"), operations.get("$nin"));
+        assertNotNull(update.getValue().getUpdateObject().get("$push"));
+
+        // the retry finds the id on the account: nothing more is taken
+        account.setOperations(List.of("TXN-1:debit"));
+        assertEquals(125.0, stripedBalances.debit("ACC1", 100.0, "TXN-1:debit"));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Account.class));
+
+        // a refused id is never applied
+        account.setOperations(List.of("!TXN-2:debit"));
+        assertNull(stripedBalances.debit("ACC1", 100.0, "TXN-2:debit"));
+    }
+
+    // ------------------ TEST: Resolve refuses an operation that did not land ------------------
+    @Test
+    void testResolveRefusesUnappliedOperation() {
+        updatesModify(1);
+
+        assertFalse(stripedBalances.resolve("ACC1", "TXN-3:credit"));
+
+        // refused on the account and on the stripe a striped credit with this id would use
+        ArgumentCaptor<Query> stripe = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(Account.class));
+        verify(mongoTemplate).upsert(stripe.capture(), any(Update.class), eq("account_stripes"));
+        assertEquals("ACC1#" + Math.floorMod("TXN-3:credit".hashCode(), 2), stripe.getValue().getQueryObject().get("_id"));
+    }
+
+    // ------------------ TEST: Resolve reports an operation that landed ------------------
+    @Test
+    void testResolveFindsAppliedOperation() {
+        updatesModify(0);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("accounts")))
+                .thenReturn(new Document("operations", List.of("TXN-4:debit")));
+
+        assertTrue(stripedBalances.resolve("ACC1", "TXN-4:debit"));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), anyString());
+    }
+
+    // ------------------ TEST: A retry goes to the first attempt's stripe whatever the count ------------------
+    @Test
+    void testKeyedCreditKeepsItsStripeWhenStripeCountChanges() {
+        updatesModify(1);
+        // with 2 stripes this id picks stripe 1, with 5 it would pick stripe 0
+        String operationId = "TXN-5:credit";
+
+        assertTrue(stripedBalances.credit(account, 10.0, operationId));
+
+        account.setStripes(5);
+        assertTrue(stripedBalances.credit(account, 10.0, operationId));
+
+        account.setStripes(0);
+        assertTrue(stripedBalances.credit(account, 10.0, operationId));
+
+        // every attempt was checked against the same stripe, never the account document
+        ArgumentCaptor<Query> stripe = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).upsert(stripe.capture(), any(Update.class), eq("account_stripes"));
+        stripe.getAllValues().forEach(query -> assertEquals("ACC1#1", query.getQueryObject().get("_id")));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Account.class));
+
+        // resolve refuses it where the attempts went, not where the new count points
+        account.setStripes(5);
+        assertFalse(stripedBalances.resolve("ACC1", operationId));
+        verify(mongoTemplate, times(4)).upsert(stripe.capture(), any(Update.class), eq("account_stripes"));
+        assertEquals("ACC1#1", stripe.getValue().getQueryObject().get("_id"));
+    }
+}
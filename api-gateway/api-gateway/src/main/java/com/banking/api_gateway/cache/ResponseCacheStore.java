@@ -0,0 +1,233 @@
+package com.banking.api_gateway.cache;
+
+import com.banking.api_gateway.support.CapturedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded LRU of captured responses, indexed by the accounts each entry belongs to
+ * so a write to an account can drop every cached read for it.
+ *
+ * Bounded both by entry count and by total bytes; all mutation happens under the
+ * store's monitor, and every operation is O(1) apart from invalidation (O(entries of
+ * that account)).
+ */
+@Component
+public class ResponseCacheStore {
+
+    public static class Entry {
+        final CapturedResponse response;
+        final String etag;
+        final List<String> accounts;
+        final long createdNanos;
+        final long expiresNanos;
+
+        Entry(CapturedResponse response, String etag, List<String> accounts, long createdNanos, long expiresNanos) {
+            this.response = response;
+            this.etag = etag;
+            this.accounts = accounts;
+            this.createdNanos = createdNanos;
+            this.expiresNanos = expiresNanos;
+        }
+
+        public CapturedResponse getResponse() {
+            return response;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long ageSeconds(long nowNanos) {
+            return TimeUnit.NANOSECONDS.toSeconds(nowNanos - createdNanos);
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Set<String>> keysByAccount = new HashMap<>();
+
+    // last time each account was invalidated, so responses already in flight are not stored stale
+    private final Map<String, Long> lastInvalidated = new HashMap<>();
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private long currentBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stores;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+                              @Value("${banking.gateway.cache.max-entries:10000}") int maxEntries,
+                              @Value("${banking.gateway.cache.max-bytes:33554432}") long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.stores = counter(meterRegistry, "store");
+        this.evictions = counter(meterRegistry, "eviction");
+        this.invalidations = counter(meterRegistry, "invalidation");
+
+        Gauge.builder("gateway.cache.entries", this, ResponseCacheStore::size)
+                .description("Responses currently cached at the gateway")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.bytes", this, ResponseCacheStore::bytes)
+                .description("Approximate memory held by cached responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.hit.ratio", this, ResponseCacheStore::hitRatio)
+                .description("Cache hits / lookups since startup")
+                .register(meterRegistry);
+    }
+
+    // ------------------ LOOKUP ------------------
+    public synchronized Entry get(String key) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresNanos - now <= 0) {
+            remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    // ------------------ STORE ------------------
+    public void put(String key, CapturedResponse response, String etag, List<String> accounts,
+                    long requestStartNanos, long ttlNanos) {
+        int size = response.sizeInBytes();
+        if (size > maxBytes / 4) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        Entry entry = new Entry(response, etag, accounts, now, now + ttlNanos);
+
+        synchronized (this) {
+            for (String account : accounts) {
+                Long invalidatedAt = lastInvalidated.get(account);
+                if (invalidatedAt != null && invalidatedAt - requestStartNanos >= 0) {
+                    // a write landed while this read was in flight; the body may predate it
+                    return;
+                }
+            }
+
+            remove(key);
+            entries.put(key, entry);
+            currentBytes += size;
+            for (String account : accounts) {
+                keysByAccount.computeIfAbsent(account, a -> new HashSet<>()).add(key);
+            }
+            stores.increment();
+            evictOverflow();
+        }
+    }
+
+    // ------------------ INVALIDATE ------------------
+    public void invalidateAccounts(Collection<String> accounts) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            for (String account : accounts) {
+                lastInvalidated.put(account, now);
+                Set<String> keys = keysByAccount.remove(account);
+                if (keys == null) {
+                    continue;
+                }
+                for (String key : new ArrayList<>(keys)) {
+                    if (remove(key) != null) {
+                        invalidations.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.gateway.cache.sweep-interval-ms:10000}")
+    public void sweepExpired() {
+        long now = System.nanoTime();
+        synchronized (this) {
+            List<String> expired = new ArrayList<>();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().expiresNanos - now <= 0) {
+                    expired.add(e.getKey());
+                }
+            }
+            expired.forEach(this::remove);
+
+            // invalidation marks only matter for reads that started before them
+            long horizon = now - TimeUnit.MINUTES.toNanos(1);
+            lastInvalidated.values().removeIf(at -> at - horizon < 0);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return currentBytes;
+    }
+
+    private double hitRatio() {
+        double lookups = hits.count() + misses.count();
+        return lookups == 0 ? 0.0 : hits.count() / lookups;
+    }
+
+    // caller holds the monitor
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            it.remove();
+            unlink(eldest.getKey(), eldest.getValue());
+            evictions.increment();
+        }
+    }
+
+    // caller holds the monitor
+    private Entry remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            unlink(key, removed);
+        }
+        return removed;
+    }
+
+    private void unlink(String key, Entry entry) {
+        currentBytes -= entry.response.sizeInBytes();
+        for (String account : entry.accounts) {
+            Set<String> keys = keysByAccount.get(account);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByAccount.remove(account);
+                }
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.cache.requests")
+                .description("Gateway response cache operations")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,94 @@
+package com.banking.api_gateway.coalesce;
+
+import com.banking.api_gateway.support.CapturedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of reads currently in flight upstream, one entry per normalized request key.
+ *
+ * The first request for a key becomes the leader and registers a sink; requests that
+ * arrive while it is outstanding join that sink instead of going upstream. The entry is
+ * removed the moment the leader's response is captured, so only truly concurrent
+ * requests ever share a response.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<String, Sinks.One<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter timeouts;
+    private final Counter fallbacks;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = counter(meterRegistry, "leader");
+        this.followers = counter(meterRegistry, "follower");
+        this.timeouts = counter(meterRegistry, "timeout");
+        this.fallbacks = counter(meterRegistry, "fallback");
+
+        Gauge.builder("gateway.coalesce.inflight", inFlight, Map::size)
+                .description("Distinct reads currently in flight upstream")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalesce.collapse.ratio", this, RequestCoalescer::collapseRatio)
+                .description("Share of coalescable reads answered by another request's upstream call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the sink of an outstanding leader to wait on, or {@code null} when the
+     *         caller has become the leader for {@code key} and owns {@code candidate}
+     */
+    public Sinks.One<CapturedResponse> join(String key, Sinks.One<CapturedResponse> candidate) {
+        Sinks.One<CapturedResponse> existing = inFlight.putIfAbsent(key, candidate);
+        if (existing == null) {
+            leaders.increment();
+            return null;
+        }
+        followers.increment();
+        return existing;
+    }
+
+    // ------------------ LEADER COMPLETION ------------------
+    public void complete(String key, Sinks.One<CapturedResponse> sink, CapturedResponse response) {
+        inFlight.remove(key, sink);
+        if (response != null) {
+            sink.tryEmitValue(response);
+        } else {
+            sink.tryEmitEmpty();
+        }
+    }
+
+    public void abandon(String key, Sinks.One<CapturedResponse> sink) {
+        if (inFlight.remove(key, sink)) {
+            sink.tryEmitEmpty();
+        }
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    private double collapseRatio() {
+        double total = leaders.count() + followers.count();
+        return total == 0 ? 0.0 : followers.count() / total;
+    }
+
+    private static Counter counter(MeterRegistry registry, String role) {
+        return Counter.builder("gateway.coalesce.requests")
+                .description("Reads seen by the request coalescer")
+                .tag("role", role)
+                .register(registry);
+    }
+}
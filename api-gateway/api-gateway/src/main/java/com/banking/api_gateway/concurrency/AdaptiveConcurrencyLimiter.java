@@ -0,0 +1,120 @@
+package com.banking.api_gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-gradient concurrency limit (in the style of Netflix's Gradient2).
+ *
+ * A long-window average RTT stands in for "no-queue" latency. Each completed request
+ * compares its RTT against that baseline: while RTT stays within the tolerance the limit
+ * keeps growing by a sqrt(limit) queue allowance, and as RTT rises the gradient pulls
+ * the limit down proportionally. Failures (5xx, timeouts) back off multiplicatively.
+ *
+ * Admission is a single CAS on the in-flight counter; sample processing takes the
+ * limiter's monitor briefly.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority { READ, WRITE }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final double writeShare;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, double writeShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.writeShare = writeShare;
+        this.smoothing = 0.2;
+        this.backoffRatio = 0.9;
+        this.longWindow = 600;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    // ------------------ ADMISSION ------------------
+
+    /**
+     * @return the in-flight count at admission, or -1 when the request must be shed.
+     *         Writes may only use {@code writeShare} of the limit so reads keep headroom.
+     */
+    public int tryAcquire(Priority priority) {
+        int ceiling = priority == Priority.READ
+                ? limit
+                : Math.max(1, (int) (limit * writeShare));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= ceiling) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped, boolean ignoreSample) {
+        inFlight.decrementAndGet();
+        if (!ignoreSample) {
+            onSample(rttNanos, inFlightAtStart, dropped);
+        }
+    }
+
+    // ------------------ LIMIT UPDATE ------------------
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+            limit = (int) estimatedLimit;
+            return;
+        }
+
+        samples++;
+        double rtt = Math.max(1L, rttNanos);
+        if (samples == 1) {
+            longRttNanos = rtt;
+        } else {
+            double alpha = 2.0 / (Math.min(samples, longWindow) + 1);
+            longRttNanos = longRttNanos * (1 - alpha) + rtt * alpha;
+        }
+
+        // after a latency spike the baseline lags high; pull it back toward recent reality
+        if (longRttNanos / rtt > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        // don't grow the limit when the route isn't using it
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rtt));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.banking.api_gateway.discovery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive view of {@link StaticServiceRegistry}; the load balancer's instance supplier uses
+ * the reactive discovery client whenever one is present.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.discovery.static.enabled", havingValue = "true")
+public class StaticReactiveDiscoveryClient implements ReactiveDiscoveryClient {
+
+    @Autowired
+    private StaticServiceRegistry registry;
+
+    @Override
+    public String description() {
+        return "Static file/environment reactive discovery client";
+    }
+
+    @Override
+    public Flux<ServiceInstance> getInstances(String serviceId) {
+        return Flux.defer(() -> Flux.fromIterable(registry.getInstances(serviceId)));
+    }
+
+    @Override
+    public Flux<String> getServices() {
+        return Flux.defer(() -> Flux.fromIterable(registry.getServices()));
+    }
+}
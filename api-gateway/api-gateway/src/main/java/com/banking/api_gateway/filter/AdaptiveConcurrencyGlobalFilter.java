@@ -0,0 +1,134 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.banking.api_gateway.concurrency.AdaptiveConcurrencyLimiter.Priority;
+import com.banking.api_gateway.support.StreamingRequests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Per-route adaptive concurrency limit with fast load shedding.
+ *
+ * Every route gets its own {@link AdaptiveConcurrencyLimiter}. Requests over the limit are
+ * rejected immediately with 503 instead of queueing behind a slow service; writes are shed
+ * before reads. Runs after the cache and coalescing filters, so only requests that really
+ * go upstream are counted and sampled.
+ */
+@Component
+public class AdaptiveConcurrencyGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyGlobalFilter.class);
+
+    private final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double writeShare;
+
+    public AdaptiveConcurrencyGlobalFilter(MeterRegistry meterRegistry,
+                                           @Value("${banking.gateway.concurrency.enabled:true}") boolean enabled,
+                                           @Value("${banking.gateway.concurrency.initial-limit:50}") int initialLimit,
+                                           @Value("${banking.gateway.concurrency.min-limit:5}") int minLimit,
+                                           @Value("${banking.gateway.concurrency.max-limit:500}") int maxLimit,
+                                           @Value("${banking.gateway.concurrency.rtt-tolerance:1.5}") double rttTolerance,
+                                           @Value("${banking.gateway.concurrency.write-share:0.8}") double writeShare) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.writeShare = writeShare;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        // an open stream is neither load nor a latency sample; it would pin a slot and skew the RTT
+        if (!enabled || route == null || StreamingRequests.isStreaming(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, this::newLimiter);
+        Priority priority = priorityOf(exchange.getRequest().getMethod());
+
+        int inFlightAtStart = limiter.tryAcquire(priority);
+        if (inFlightAtStart < 0) {
+            shedCounter(routeId, priority).increment();
+            logger.warn("LOAD SHED: route={}, priority={}, limit={}, inFlight={}",
+                    routeId, priority, limiter.getLimit(), limiter.getInFlight());
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return exchange.getResponse().setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR
+                            || (status != null && status.is5xxServerError());
+                    boolean ignore = signal == SignalType.CANCEL;
+                    limiter.release(System.nanoTime() - start, inFlightAtStart, dropped, ignore);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return FilterOrders.ADAPTIVE_CONCURRENCY;
+    }
+
+    private static Priority priorityOf(HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD ? Priority.READ : Priority.WRITE;
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String routeId) {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, rttTolerance, writeShare);
+
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently in flight upstream")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private Counter shedCounter(String routeId, Priority priority) {
+        return shedCounters.computeIfAbsent(routeId + '|' + priority, k ->
+                Counter.builder("gateway.concurrency.shed")
+                        .description("Requests rejected by the adaptive concurrency limiter")
+                        .tag("route", routeId)
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(meterRegistry));
+    }
+}
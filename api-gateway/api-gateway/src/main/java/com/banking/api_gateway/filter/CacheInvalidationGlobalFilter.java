@@ -0,0 +1,59 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.cache.ResponseCacheStore;
+import com.banking.api_gateway.support.AccountNumberExtractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Drops cached reads for every account a write names (PUT .../balance, PUT .../status,
+ * POST /api/transactions/* with accountNumber / sourceAccount / destinationAccount).
+ *
+ * Invalidates before forwarding, so no new hit is served during the write, and again
+ * once the write completes, so a read that raced the write is not left behind.
+ */
+@Component
+public class CacheInvalidationGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationGlobalFilter.class);
+
+    private final ResponseCacheStore store;
+
+    public CacheInvalidationGlobalFilter(ResponseCacheStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+
+        List<String> accounts = AccountNumberExtractor.extract(exchange.getRequest());
+        if (accounts.isEmpty()) {
+            return chain.filter(exchange);
+        }
+
+        logger.debug("Invalidating cached reads for accounts={} on {} {}",
+                accounts, method, exchange.getRequest().getPath());
+
+        store.invalidateAccounts(accounts);
+        return chain.filter(exchange)
+                .doFinally(signal -> store.invalidateAccounts(accounts));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+}
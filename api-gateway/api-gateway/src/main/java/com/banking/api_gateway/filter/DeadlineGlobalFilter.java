@@ -0,0 +1,147 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.support.StreamingRequests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Sets the request deadline at the edge and passes it downstream.
+ *
+ * The budget comes from the client's X-Request-Timeout-Ms header (capped at max-timeout-ms),
+ * else the route's request-timeout-ms metadata, else the global default. It is forwarded
+ * as a relative budget in the same header; every service turns it back into a local
+ * deadline and passes on what is left. When the budget runs out here, the upstream call
+ * is cancelled and the client gets 504. Streaming requests have no deadline.
+ *
+ * Per-route default:
+ *   spring.cloud.gateway.routes[n].metadata.request-timeout-ms=8000
+ */
+@Component
+public class DeadlineGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineGlobalFilter.class);
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+    // System.nanoTime() at which the request's budget runs out
+    public static final String DEADLINE_ATTR = DeadlineGlobalFilter.class.getName() + ".deadline";
+    private static final String ROUTE_TIMEOUT_METADATA = "request-timeout-ms";
+
+    private final MeterRegistry meterRegistry;
+    private final String hop;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final long defaultTimeoutMs;
+    private final long maxTimeoutMs;
+
+    public DeadlineGlobalFilter(MeterRegistry meterRegistry,
+                                @Value("${spring.application.name}") String hop,
+                                @Value("${banking.gateway.deadline.default-timeout-ms:5000}") long defaultTimeoutMs,
+                                @Value("${banking.gateway.deadline.max-timeout-ms:30000}") long maxTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.hop = hop;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || StreamingRequests.isStreaming(request)) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        long timeoutMs = Math.min(maxTimeoutMs, timeoutFor(request, route));
+        if (timeoutMs <= 0) {
+            expired(routeId, "arrival").increment();
+            exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return exchange.getResponse().setComplete();
+        }
+
+        exchange.getAttributes().put(DEADLINE_ATTR, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        ServerHttpRequest withBudget = request.mutate()
+                .headers(headers -> headers.set(HEADER, String.valueOf(timeoutMs)))
+                .build();
+
+        return chain.filter(exchange.mutate().request(withBudget).build())
+                .timeout(Duration.ofMillis(timeoutMs))
+                .onErrorResume(TimeoutException.class, e -> {
+                    expired(routeId, "upstream").increment();
+                    logger.warn("Deadline exceeded, upstream call abandoned: route={}, path={}, timeoutMs={}",
+                            routeId, request.getPath(), timeoutMs);
+                    if (exchange.getResponse().isCommitted()) {
+                        return Mono.empty();
+                    }
+                    exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return FilterOrders.DEADLINE;
+    }
+
+    // whether the request's deadline, if it has one, had passed at nowNanos
+    public static boolean hasExpired(ServerWebExchange exchange, long nowNanos) {
+        Long deadline = exchange.getAttribute(DEADLINE_ATTR);
+        return deadline != null && nowNanos - deadline >= 0;
+    }
+
+    private long timeoutFor(ServerHttpRequest request, Route route) {
+        Long fromClient = parse(request.getHeaders().getFirst(HEADER));
+        if (fromClient != null) {
+            return fromClient;
+        }
+        Object fromRoute = route.getMetadata().get(ROUTE_TIMEOUT_METADATA);
+        if (fromRoute != null) {
+            Long parsed = parse(fromRoute.toString());
+            if (parsed != null && parsed > 0) {
+                return parsed;
+            }
+        }
+        return defaultTimeoutMs;
+    }
+
+    private static Long parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+
+    private Counter expired(String routeId, String stage) {
+        return counters.computeIfAbsent(routeId + '|' + stage, k ->
+                Counter.builder("deadline.expired")
+                        .description("Requests whose deadline had passed")
+                        .tag("hop", hop)
+                        .tag("route", routeId)
+                        .tag("stage", stage)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+
+/**
+ * Order of the gateway's own route filters relative to Spring Cloud Gateway's globals.
+ *
+ * The deadline wraps everything else, so time spent in the gateway counts against it.
+ * Anything that decorates the response must sit before {@link NettyWriteResponseFilter},
+ * otherwise the body is written to the undecorated response. Admission control runs
+ * first so rejected requests never touch the cache or the upstream; the concurrency
+ * limiter runs after them so cache hits and coalesced followers are not counted as upstream
+ * load, and hedging sits behind the limiter because it issues the upstream calls itself.
+ * Instance stats sit right behind the load balancer, whose chosen instance they need.
+ */
+public final class FilterOrders {
+
+    private static final int WRITE_RESPONSE = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER;
+
+    public static final int DEADLINE = WRITE_RESPONSE - 50;
+    public static final int RATE_LIMIT = WRITE_RESPONSE - 40;
+    public static final int RESPONSE_CACHE = WRITE_RESPONSE - 20;
+    public static final int REQUEST_COALESCING = WRITE_RESPONSE - 10;
+    public static final int ADAPTIVE_CONCURRENCY = WRITE_RESPONSE - 5;
+    public static final int HEDGE = WRITE_RESPONSE - 3;
+    public static final int INSTANCE_STATS = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private FilterOrders() {}
+}
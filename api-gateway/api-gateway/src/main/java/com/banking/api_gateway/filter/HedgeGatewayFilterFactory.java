@@ -0,0 +1,374 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.hedge.AttemptResponse;
+import com.banking.api_gateway.hedge.HedgeBudget;
+import com.banking.api_gateway.hedge.LatencyPercentileTracker;
+import com.banking.api_gateway.loadbalancer.InstanceStatsRegistry;
+import com.banking.api_gateway.loadbalancer.LatencyAwareLoadBalancer;
+import com.banking.api_gateway.support.StreamingRequests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Hedged reads for lb:// routes: if the first attempt has not answered within a
+ * percentile-based delay, a second attempt goes to a different instance and the first
+ * response wins; the loser is cancelled.
+ *
+ * Usage (per route):
+ *   filters[n].name=Hedge
+ *   filters[n].args.percentile=95
+ *   filters[n].args.minDelayMillis=20
+ *   filters[n].args.maxDelayMillis=500
+ *
+ * Only idempotent GETs are hedged, and never streaming responses. Each attempt runs the rest
+ * of the filter chain (load balancer, header filters, routing and response writing) on its
+ * own copy of the exchange, with its own attributes and an {@link AttemptResponse}; the hedge
+ * names its instance to the balancer through
+ * {@link LatencyAwareLoadBalancer#PREFERRED_INSTANCE_ATTR}. The first attempt to answer with a
+ * non-5xx status streams its body to the client. All routes share one hedge budget.
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgeGatewayFilterFactory.class);
+
+    private static final Set<String> HOP_BY_HOP;
+
+    static {
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(List.of(HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE,
+                HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.PROXY_AUTHORIZATION, "Keep-Alive"));
+        HOP_BY_HOP = Collections.unmodifiableSet(names);
+    }
+
+    // a failed attempt's body is only kept to answer with if every attempt fails
+    private static final int MAX_FAILURE_BODY_BYTES = 64 * 1024;
+
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final InstanceStatsRegistry instanceStats;
+    private final MeterRegistry meterRegistry;
+    private final HedgeBudget budget;
+
+    private final ConcurrentHashMap<String, LatencyPercentileTracker> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public HedgeGatewayFilterFactory(ReactiveDiscoveryClient discoveryClient,
+                                     InstanceStatsRegistry instanceStats,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${banking.gateway.hedge.budget-percent:10}") int budgetPercent,
+                                     @Value("${banking.gateway.hedge.budget-max-tokens:50}") int budgetMaxTokens) {
+        super(Config.class);
+        this.discoveryClient = discoveryClient;
+        this.instanceStats = instanceStats;
+        this.meterRegistry = meterRegistry;
+        this.budget = new HedgeBudget(budgetPercent, budgetMaxTokens);
+
+        Gauge.builder("gateway.hedge.budget.available", budget, HedgeBudget::getAvailable)
+                .description("Hedges the shared budget currently allows")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("percentile");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            ServerHttpRequest request = exchange.getRequest();
+            if (route == null || !"lb".equals(route.getUri().getScheme())
+                    || request.getMethod() != HttpMethod.GET || StreamingRequests.isStreaming(request)) {
+                return chain.filter(exchange);
+            }
+            return hedged(exchange, chain, route.getId(), route.getUri().getHost(), config);
+        }, FilterOrders.HEDGE);
+    }
+
+    // ------------------ HEDGED CALL ------------------
+    private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain, String routeId,
+                              String serviceId, Config config) {
+        LatencyPercentileTracker tracker = latencies.computeIfAbsent(routeId,
+                k -> new LatencyPercentileTracker(1024, config.getPercentile(), 50));
+        Hedge hedge = new Hedge(exchange.getResponse(), tracker);
+        budget.onRequest();
+
+        Attempt first = new Attempt(exchange, hedge, null);
+
+        Mono<Void> second = Mono.delay(hedgeDelay(tracker, config))
+                .then(discoveryClient.getInstances(serviceId).collectList())
+                .flatMap(instances -> {
+                    ServiceInstance primary = first.instance();
+                    ServiceInstance alternative = instanceStats.pickAlternative(instances, primary);
+                    if (alternative == null) {
+                        return Mono.empty();
+                    }
+                    if (!budget.tryAcquire()) {
+                        counter(routeId, "budget_exhausted").increment();
+                        return Mono.empty();
+                    }
+                    counter(routeId, "issued").increment();
+                    logger.debug("Hedging slow read: route={}, primary={}, hedge={}:{}", routeId,
+                            primary == null ? "-" : primary.getHost() + ":" + primary.getPort(),
+                            alternative.getHost(), alternative.getPort());
+                    Attempt hedgeAttempt = new Attempt(exchange, hedge, alternative);
+                    return hedgeAttempt.run(chain).doOnSuccess(v -> {
+                        if (hedge.winner() == hedgeAttempt) {
+                            counter(routeId, "won").increment();
+                        }
+                    });
+                });
+
+        // whichever attempt wins first cancels the other, including a hedge still waiting to start
+        return Mono.when(
+                        first.run(chain).takeUntilOther(hedge.wonBy(winner -> winner != first)),
+                        second.takeUntilOther(hedge.wonBy(winner -> winner == first)))
+                .then(Mono.defer(() -> hedge.winner() != null
+                        ? Mono.empty()
+                        : hedge.writeFailure(routeId, exchange.getRequest())));
+    }
+
+    // ------------------ ATTEMPT ------------------
+
+    /** One run of the downstream filters on a copy of the exchange. */
+    private final class Attempt {
+
+        private final Hedge hedge;
+        private final ServerWebExchange exchange;
+        private volatile long startNanos;
+
+        Attempt(ServerWebExchange original, Hedge hedge, ServiceInstance preferred) {
+            this.hedge = hedge;
+            AttemptResponse response = new AttemptResponse(original.getResponse().bufferFactory(),
+                    (attemptResponse, body) -> hedge.onWrite(this, attemptResponse, body));
+            this.exchange = new AttemptExchange(original, response);
+            if (preferred != null) {
+                exchange.getAttributes().put(LatencyAwareLoadBalancer.PREFERRED_INSTANCE_ATTR, preferred);
+            }
+        }
+
+        // the instance the balancer chose, once it has
+        ServiceInstance instance() {
+            Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            return chosen != null && chosen.hasServer() ? chosen.getServer() : null;
+        }
+
+        Mono<Void> run(GatewayFilterChain chain) {
+            return Mono.defer(() -> {
+                        startNanos = System.nanoTime();
+                        return chain.filter(exchange);
+                    })
+                    // a cancelled loser is reported to the instance stats by InstanceStatsGlobalFilter
+                    // a failed attempt leaves the field to the other one; the winner's errors go to the client
+                    .onErrorResume(e -> hedge.winner() != this, e -> {
+                        logger.debug("Hedged attempt failed: path={}, error={}",
+                                exchange.getRequest().getPath(), e.getMessage());
+                        hedge.failed(e);
+                        return Mono.empty();
+                    });
+        }
+    }
+
+    /** The exchange seen by one attempt: its own attributes and response, the shared request. */
+    private static final class AttemptExchange extends ServerWebExchangeDecorator {
+
+        private final ServerHttpResponse response;
+        private final Map<String, Object> attributes;
+
+        AttemptExchange(ServerWebExchange delegate, ServerHttpResponse response) {
+            super(delegate);
+            this.response = response;
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    // ------------------ OUTCOME ------------------
+
+    /** Picks the winner among the attempts of one request and keeps the last failure. */
+    private static final class Hedge {
+
+        private final ServerHttpResponse client;
+        private final LatencyPercentileTracker tracker;
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        private final Sinks.One<Attempt> decided = Sinks.one();
+        private final AtomicReference<Failure> lastFailure = new AtomicReference<>();
+        private final AtomicReference<Throwable> lastError = new AtomicReference<>();
+
+        Hedge(ServerHttpResponse client, LatencyPercentileTracker tracker) {
+            this.client = client;
+            this.tracker = tracker;
+        }
+
+        Attempt winner() {
+            return winner.get();
+        }
+
+        // emits once a winner matching the predicate is chosen, never otherwise
+        Mono<Attempt> wonBy(Predicate<Attempt> predicate) {
+            return decided.asMono().flatMap(w -> predicate.test(w) ? Mono.just(w) : Mono.never());
+        }
+
+        void failed(Throwable e) {
+            lastError.set(e);
+        }
+
+        // called once the attempt's routing filter has set status and headers
+        Mono<Void> onWrite(Attempt attempt, AttemptResponse response, Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = response.getStatusCode();
+            if (status != null && status.is5xxServerError()) {
+                // a 5xx counts as a failure so the other attempt can still win
+                return DataBufferUtils.join(body, MAX_FAILURE_BODY_BYTES)
+                        .map(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            return bytes;
+                        })
+                        .onErrorResume(DataBufferLimitException.class, e -> Mono.just(new byte[0]))
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> {
+                            lastFailure.set(new Failure(response, bytes));
+                            return Mono.error(new IllegalStateException("Upstream answered " + status));
+                        });
+            }
+            if (!winner.compareAndSet(null, attempt)) {
+                // the other attempt is already answering and is about to cancel this one, which
+                // closes its connection; an error here would count as a failure of the instance
+                return Mono.never();
+            }
+            decided.tryEmitValue(attempt);
+            tracker.record(System.nanoTime() - attempt.startNanos);
+            copy(response, client);
+            return client.writeWith(body);
+        }
+
+        Mono<Void> writeFailure(String routeId, ServerHttpRequest request) {
+            Failure failure = lastFailure.get();
+            if (failure != null) {
+                copy(failure.response(), client);
+                if (failure.body().length == 0) {
+                    return client.setComplete();
+                }
+                return client.writeWith(Mono.just(client.bufferFactory().wrap(failure.body())));
+            }
+            Throwable e = lastError.get();
+            logger.warn("Hedged read failed on every attempt: route={}, path={}, error={}",
+                    routeId, request.getPath(), e == null ? "none" : e.getMessage());
+            client.setStatusCode(HttpStatus.BAD_GATEWAY);
+            return client.setComplete();
+        }
+
+        private static void copy(AttemptResponse from, ServerHttpResponse to) {
+            to.setStatusCode(from.getStatusCode());
+            from.getHeaders().forEach((name, values) -> {
+                if (!HOP_BY_HOP.contains(name)) {
+                    to.getHeaders().put(name, values);
+                }
+            });
+            from.getCookies().values().forEach(cookies -> cookies.forEach(to::addCookie));
+        }
+    }
+
+    private record Failure(AttemptResponse response, byte[] body) {
+    }
+
+    private static Duration hedgeDelay(LatencyPercentileTracker tracker, Config config) {
+        long p = tracker.percentileNanos();
+        long millis = p < 0
+                ? config.getMaxDelayMillis()
+                : Math.max(config.getMinDelayMillis(), Math.min(config.getMaxDelayMillis(), TimeUnit.NANOSECONDS.toMillis(p)));
+        return Duration.ofMillis(millis);
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return counters.computeIfAbsent(routeId + '|' + outcome, k ->
+                Counter.builder("gateway.hedge.requests")
+                        .description("Hedged reads issued, won and denied by the budget")
+                        .tag("route", routeId)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+
+    public static class Config {
+
+        private double percentile = 95;
+        private long minDelayMillis = 20;
+        private long maxDelayMillis = 500;
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public long getMinDelayMillis() {
+            return minDelayMillis;
+        }
+
+        public void setMinDelayMillis(long minDelayMillis) {
+            this.minDelayMillis = minDelayMillis;
+        }
+
+        public long getMaxDelayMillis() {
+            return maxDelayMillis;
+        }
+
+        public void setMaxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+        }
+    }
+}
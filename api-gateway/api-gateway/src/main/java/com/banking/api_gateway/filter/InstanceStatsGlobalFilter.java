@@ -0,0 +1,54 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.loadbalancer.InstanceStatsLifecycle;
+import com.banking.api_gateway.loadbalancer.InstanceStatsRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Reports cancelled upstream calls to the instance stats.
+ *
+ * The load balancer filter tells {@link InstanceStatsLifecycle} about success and failure
+ * but not cancellation, so an instance's outstanding count would leak every time a client
+ * disconnects, a hedge loses or the deadline runs out. Sitting right after that filter,
+ * this one completes the call on cancellation instead. Cancelled by the deadline, the
+ * instance is charged a failure; otherwise it was at least this slow, which is recorded as
+ * its latency.
+ */
+@Component
+public class InstanceStatsGlobalFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsGlobalFilter(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = chosen.getServer();
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnCancel(() -> {
+                    long now = System.nanoTime();
+                    registry.onComplete(instance, now - startNanos, !DeadlineGlobalFilter.hasExpired(exchange, now));
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return FilterOrders.INSTANCE_STATS;
+    }
+}
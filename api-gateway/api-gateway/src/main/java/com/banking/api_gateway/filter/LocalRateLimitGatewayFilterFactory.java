@@ -0,0 +1,159 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.ratelimit.RateLimiterRegistry;
+import com.banking.api_gateway.support.AccountNumberExtractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setResponseStatus;
+
+/**
+ * In-memory token-bucket rate limiting, keyed by client and by target account.
+ *
+ * Usage (per route):
+ *   filters[n].name=LocalRateLimit
+ *   filters[n].args.clientReplenishRate=50
+ *   filters[n].args.clientBurstCapacity=100
+ *   filters[n].args.accountReplenishRate=10
+ *   filters[n].args.accountBurstCapacity=20
+ *
+ * A rate of 0 disables that dimension. Rejected requests get 429 with Retry-After.
+ *
+ * The client is the remote address. Only a request from one of the trusted-proxies may name
+ * its client in X-Client-Id; from anyone else the header is ignored, so a caller cannot mint
+ * itself fresh buckets.
+ */
+@Component
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRateLimitGatewayFilterFactory.class);
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final RateLimiterRegistry registry;
+    private final Set<String> trustedProxies;
+
+    public LocalRateLimitGatewayFilterFactory(RateLimiterRegistry registry,
+                                              @Value("${banking.gateway.rate-limit.trusted-proxies:}") String[] trustedProxies) {
+        super(Config.class);
+        this.registry = registry;
+        this.trustedProxies = Arrays.stream(trustedProxies).map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            String routeId = routeId(exchange);
+            ServerHttpRequest request = exchange.getRequest();
+
+            if (config.getClientReplenishRate() > 0) {
+                String clientId = clientId(request);
+                long waitNanos = registry.tryAcquire(routeId, "client", clientId,
+                        config.getClientReplenishRate(), config.getClientBurstCapacity());
+                if (waitNanos > 0) {
+                    logger.warn("RATE LIMITED by client: route={}, clientId={}", routeId, clientId);
+                    return reject(exchange, waitNanos);
+                }
+            }
+
+            if (config.getAccountReplenishRate() > 0) {
+                String account = AccountNumberExtractor.primary(request);
+                if (account != null) {
+                    long waitNanos = registry.tryAcquire(routeId, "account", account,
+                            config.getAccountReplenishRate(), config.getAccountBurstCapacity());
+                    if (waitNanos > 0) {
+                        logger.warn("RATE LIMITED by account: route={}, accountNumber={}", routeId, account);
+                        return reject(exchange, waitNanos);
+                    }
+                }
+            }
+
+            return chain.filter(exchange);
+        }, FilterOrders.RATE_LIMIT);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, long waitNanos) {
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        setResponseStatus(exchange, HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    public String clientId(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        String address = remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : null;
+        if (address != null && trustedProxies.contains(address)) {
+            String header = request.getHeaders().getFirst(CLIENT_ID_HEADER);
+            if (header != null && !header.isBlank()) {
+                return header;
+            }
+        }
+        return address != null ? address : "anonymous";
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    public static class Config {
+
+        private double clientReplenishRate = 50;
+        private int clientBurstCapacity = 100;
+        private double accountReplenishRate = 10;
+        private int accountBurstCapacity = 20;
+
+        public double getClientReplenishRate() {
+            return clientReplenishRate;
+        }
+
+        public void setClientReplenishRate(double clientReplenishRate) {
+            this.clientReplenishRate = clientReplenishRate;
+        }
+
+        public int getClientBurstCapacity() {
+            return clientBurstCapacity;
+        }
+
+        public void setClientBurstCapacity(int clientBurstCapacity) {
+            this.clientBurstCapacity = clientBurstCapacity;
+        }
+
+        public double getAccountReplenishRate() {
+            return accountReplenishRate;
+        }
+
+        public void setAccountReplenishRate(double accountReplenishRate) {
+            this.accountReplenishRate = accountReplenishRate;
+        }
+
+        public int getAccountBurstCapacity() {
+            return accountBurstCapacity;
+        }
+
+        public void setAccountBurstCapacity(int accountBurstCapacity) {
+            this.accountBurstCapacity = accountBurstCapacity;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.coalesce.RequestCoalescer;
+import com.banking.api_gateway.support.BodyCaptureResponseDecorator;
+import com.banking.api_gateway.support.CapturedResponse;
+import com.banking.api_gateway.support.RequestKeys;
+import com.banking.api_gateway.support.StreamingRequests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-flight for idempotent reads: concurrent identical GETs share one upstream call.
+ *
+ * Usage (per route):
+ *   filters[n].name=RequestCoalescing
+ *   filters[n].args.maxWaitMillis=2000
+ *   filters[n].args.maxBodyBytes=262144
+ *
+ * Followers wait at most maxWaitMillis for the leader; if the leader times out, fails,
+ * or produces a response that cannot be shared (streaming / too large), each follower
+ * falls back to its own upstream call.
+ */
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingGatewayFilterFactory.class);
+
+    private final RequestCoalescer coalescer;
+
+    public RequestCoalescingGatewayFilterFactory(RequestCoalescer coalescer) {
+        super(Config.class);
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWaitMillis");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            // a stream never completes, so followers would only sit out max-wait before calling anyway
+            if (request.getMethod() != HttpMethod.GET || StreamingRequests.isStreaming(request)) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(request);
+            Sinks.One<CapturedResponse> mine = Sinks.one();
+            Sinks.One<CapturedResponse> leader = coalescer.join(key, mine);
+
+            // ------------------ LEADER ------------------
+            if (leader == null) {
+                ServerHttpResponse decorated = new BodyCaptureResponseDecorator(exchange.getResponse(),
+                        config.getMaxBodyBytes(), captured -> coalescer.complete(key, mine, captured));
+
+                return chain.filter(exchange.mutate().response(decorated).build())
+                        .doFinally(signal -> coalescer.abandon(key, mine));
+            }
+
+            // ------------------ FOLLOWER ------------------
+            return leader.asMono()
+                    .timeout(Duration.ofMillis(config.getMaxWaitMillis()))
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorResume(TimeoutException.class, e -> {
+                        coalescer.recordTimeout();
+                        return Mono.just(Optional.empty());
+                    })
+                    .flatMap(shared -> {
+                        if (shared.isPresent()) {
+                            exchange.getResponse().getHeaders().set("X-Coalesced", "true");
+                            return shared.get().writeTo(exchange.getResponse());
+                        }
+                        logger.debug("Coalesced read fell back to its own upstream call: key={}", key);
+                        coalescer.recordFallback();
+                        return chain.filter(exchange);
+                    });
+        }, FilterOrders.REQUEST_COALESCING);
+    }
+
+    // responses may depend on who is asking, so the caller's credentials are part of the key
+    private static String coalescingKey(ServerHttpRequest request) {
+        String key = RequestKeys.normalized(request);
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        return authorization == null ? key : key + '|' + authorization;
+    }
+
+    public static class Config {
+
+        private long maxWaitMillis = 2000;
+        private int maxBodyBytes = 256 * 1024;
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.banking.api_gateway.filter;
+
+import com.banking.api_gateway.cache.ResponseCacheStore;
+import com.banking.api_gateway.support.AccountNumberExtractor;
+import com.banking.api_gateway.support.BodyCaptureResponseDecorator;
+import com.banking.api_gateway.support.CapturedResponse;
+import com.banking.api_gateway.support.RequestKeys;
+import com.banking.api_gateway.support.StreamingRequests;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Short-TTL response cache for idempotent reads.
+ *
+ * Usage (per route):
+ *   filters[n].name=ResponseCache
+ *   filters[n].args.ttlSeconds=5
+ *   filters[n].args.maxBodyBytes=65536
+ *
+ * Honours request Cache-Control (no-cache skips the lookup, no-store bypasses the cache)
+ * and response Cache-Control (no-store / no-cache / private are never stored, max-age
+ * caps the TTL). Entries carry an ETag, so If-None-Match hits are answered with 304.
+ * Writes seen by the gateway invalidate entries via {@link CacheInvalidationGlobalFilter}.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttlSeconds");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || StreamingRequests.isStreaming(request)) {
+                return chain.filter(exchange);
+            }
+
+            String requestCacheControl = request.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL);
+            if (contains(requestCacheControl, "no-store")) {
+                return chain.filter(exchange);
+            }
+
+            String key = RequestKeys.normalized(request);
+
+            if (!contains(requestCacheControl, "no-cache") && !contains(requestCacheControl, "max-age=0")) {
+                ResponseCacheStore.Entry cached = store.get(key);
+                if (cached != null) {
+                    return serveFromCache(exchange, cached);
+                }
+            }
+
+            List<String> accounts = AccountNumberExtractor.extract(request);
+            long requestStart = System.nanoTime();
+
+            ServerHttpResponse decorated = new BodyCaptureResponseDecorator(exchange.getResponse(),
+                    config.getMaxBodyBytes(), captured -> {
+                        exchange.getResponse().getHeaders().set("X-Cache", "MISS");
+                        if (captured == null) {
+                            return;
+                        }
+                        String etag = ensureEtag(captured, exchange.getResponse().getHeaders());
+                        long ttlNanos = ttlNanos(captured, config);
+                        if (ttlNanos > 0) {
+                            store.put(key, captured, etag, accounts, requestStart, ttlNanos);
+                        }
+                    });
+
+            return chain.filter(exchange.mutate().response(decorated).build());
+        }, FilterOrders.RESPONSE_CACHE);
+    }
+
+    // ------------------ HIT ------------------
+    private Mono<Void> serveFromCache(ServerWebExchange exchange, ResponseCacheStore.Entry cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set("X-Cache", "HIT");
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(System.nanoTime())));
+
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && cached.getEtag() != null && matchesEtag(ifNoneMatch, cached.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.getEtag());
+            return response.setComplete();
+        }
+
+        return cached.getResponse().writeTo(response);
+    }
+
+    // ------------------ CACHEABILITY ------------------
+    private long ttlNanos(CapturedResponse captured, Config config) {
+        if (!captured.getStatus().is2xxSuccessful()) {
+            return 0;
+        }
+        byte[] body = captured.getBody();
+        // "null" is what the account API returns for a missing account; never cache a negative answer
+        if (body.length == 0 || (body.length == 4 && new String(body).equals("null"))) {
+            return 0;
+        }
+
+        long ttlSeconds = config.getTtlSeconds();
+        String cacheControl = captured.getHeaders().getCacheControl();
+        if (cacheControl != null) {
+            if (contains(cacheControl, "no-store") || contains(cacheControl, "no-cache")
+                    || contains(cacheControl, "private")) {
+                return 0;
+            }
+            Matcher m = MAX_AGE.matcher(cacheControl);
+            if (m.find()) {
+                ttlSeconds = Math.min(ttlSeconds, Long.parseLong(m.group(1)));
+            }
+        }
+        return TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    private String ensureEtag(CapturedResponse captured, HttpHeaders clientHeaders) {
+        String etag = captured.getHeaders().getETag();
+        if (etag == null) {
+            CRC32 crc = new CRC32();
+            crc.update(captured.getBody());
+            etag = "W/\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(captured.getBody().length) + "\"";
+            captured.getHeaders().setETag(etag);
+            clientHeaders.setETag(etag);
+        }
+        return etag;
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        String bare = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals(bare) || c.equals("W/" + bare)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(String headerValue, String directive) {
+        return headerValue != null && headerValue.toLowerCase().replace(" ", "").contains(directive);
+    }
+
+    public static class Config {
+
+        private long ttlSeconds = 5;
+        private int maxBodyBytes = 64 * 1024;
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.banking.api_gateway.hedge;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Response of one hedged attempt. Status, headers and cookies are kept apart from the
+ * client response, so two attempts can run through the routing filters side by side.
+ * When the routing filter writes the body, {@code onWrite} gets this response (status and
+ * headers complete) and the body, and decides whether it reaches the client.
+ */
+public class AttemptResponse implements ServerHttpResponse {
+
+    private final DataBufferFactory bufferFactory;
+    private final BiFunction<AttemptResponse, Publisher<? extends DataBuffer>, Mono<Void>> onWrite;
+
+    private final HttpHeaders headers = new HttpHeaders();
+    private final MultiValueMap<String, ResponseCookie> cookies = new LinkedMultiValueMap<>();
+    private final List<Supplier<? extends Mono<Void>>> beforeCommit = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean committed = new AtomicBoolean();
+    private volatile HttpStatusCode statusCode;
+
+    public AttemptResponse(DataBufferFactory bufferFactory,
+                           BiFunction<AttemptResponse, Publisher<? extends DataBuffer>, Mono<Void>> onWrite) {
+        this.bufferFactory = bufferFactory;
+        this.onWrite = onWrite;
+    }
+
+    @Override
+    public boolean setStatusCode(HttpStatusCode status) {
+        if (committed.get()) {
+            return false;
+        }
+        this.statusCode = status;
+        return true;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public MultiValueMap<String, ResponseCookie> getCookies() {
+        return cookies;
+    }
+
+    @Override
+    public void addCookie(ResponseCookie cookie) {
+        cookies.add(cookie.getName(), cookie);
+    }
+
+    @Override
+    public DataBufferFactory bufferFactory() {
+        return bufferFactory;
+    }
+
+    @Override
+    public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+        beforeCommit.add(action);
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed.get();
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return Mono.defer(() -> {
+            if (!committed.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("Hedged attempt response already written"));
+            }
+            return Flux.fromIterable(beforeCommit)
+                    .concatMap(Supplier::get)
+                    .then(Mono.defer(() -> onWrite.apply(this, body)));
+        });
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.<Publisher<? extends DataBuffer>>from(body).concatMap(chunk -> chunk));
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        return writeWith(Flux.empty());
+    }
+}
@@ -0,0 +1,44 @@
+package com.banking.api_gateway.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global cap on hedging so it cannot amplify load during an incident.
+ *
+ * Every primary request deposits {@code percent / 100} of a token, every hedge withdraws
+ * one whole token: hedges stay at or below that share of traffic no matter how slow
+ * the backends get. The balance is capped so a quiet period cannot bank a burst of hedges.
+ */
+public class HedgeBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+
+    public HedgeBudget(int percent, int maxTokens) {
+        this.depositPerRequest = TOKEN * percent / 100;
+        this.maxBalance = TOKEN * maxTokens;
+    }
+
+    public void onRequest() {
+        balance.updateAndGet(b -> Math.min(maxBalance, b + depositPerRequest));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    public double getAvailable() {
+        return balance.get() / (double) TOKEN;
+    }
+}
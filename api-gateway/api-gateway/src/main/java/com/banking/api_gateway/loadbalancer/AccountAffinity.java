@@ -0,0 +1,69 @@
+package com.banking.api_gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Routes every request for an account to the same instance, so per-account state on the
+ * instances (caches, ordering, limits) stays in one place.
+ *
+ * Owners come from a {@link ConsistentHashRing} over the healthy instances, rebuilt only
+ * when that set changes. An ejected instance's accounts fall to the next instance on the
+ * ring; a new or recovering one takes over its accounts gradually during slow start, each
+ * account moving once its fixed share of the ramp is reached (never back and forth).
+ */
+public class AccountAffinity {
+
+    private final InstanceStatsRegistry registry;
+    private final int virtualNodes;
+
+    private volatile Membership membership = new Membership("", null);
+
+    public AccountAffinity(InstanceStatsRegistry registry, int virtualNodes) {
+        this.registry = registry;
+        this.virtualNodes = virtualNodes;
+    }
+
+    public ServiceInstance owner(String account, List<ServiceInstance> candidates, long now) {
+        long keyHash = ConsistentHashRing.hash(account);
+        List<ServiceInstance> owners = ring(candidates).owners(keyHash, 2);
+        ServiceInstance owner = owners.get(0);
+        if (owners.size() > 1) {
+            // only defer to a fully warm instance: right after the gateway starts, everyone is "new"
+            double weight = registry.slowStartWeight(registry.stats(owner), now);
+            ServiceInstance previous = owners.get(1);
+            if (weight < 1.0 && handoverPoint(keyHash) >= weight
+                    && registry.slowStartWeight(registry.stats(previous), now) >= 1.0) {
+                return previous;
+            }
+        }
+        return owner;
+    }
+
+    // uniform in [0, 1), independent of the key's ring position
+    private static double handoverPoint(long keyHash) {
+        return (ConsistentHashRing.mix(keyHash ^ 0x9e3779b97f4a7c15L) >>> 11) * 0x1.0p-53;
+    }
+
+    private ConsistentHashRing ring(List<ServiceInstance> candidates) {
+        String ids = membershipKey(candidates);
+        Membership current = membership;
+        if (!current.ids.equals(ids)) {
+            current = new Membership(ids, new ConsistentHashRing(candidates, virtualNodes));
+            membership = current;
+        }
+        return current.ring;
+    }
+
+    private static String membershipKey(List<ServiceInstance> instances) {
+        StringBuilder key = new StringBuilder();
+        instances.stream().map(InstanceStatsRegistry::key).sorted(Comparator.naturalOrder())
+                .forEach(id -> key.append(id).append(','));
+        return key.toString();
+    }
+
+    private record Membership(String ids, ConsistentHashRing ring) {
+    }
+}
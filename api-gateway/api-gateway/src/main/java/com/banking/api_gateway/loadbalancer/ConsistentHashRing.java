@@ -0,0 +1,103 @@
+package com.banking.api_gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable hash ring over a set of instances, each placed at virtualNodes points so the
+ * key space is split evenly. Adding or removing one instance only moves the keys in the
+ * ranges it gains or loses, about 1/N of them; every other key keeps its owner.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final ServiceInstance[] owners;
+    private final int distinctInstances;
+
+    public ConsistentHashRing(List<ServiceInstance> instances, int virtualNodes) {
+        int size = instances.size() * virtualNodes;
+        long[] hashes = new long[size];
+        int[] order = new int[size];
+        int n = 0;
+        for (int i = 0; i < instances.size(); i++) {
+            String id = InstanceStatsRegistry.key(instances.get(i));
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[n] = hash(id + '#' + v);
+                order[n] = i;
+                n++;
+            }
+        }
+
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Long.compareUnsigned(hashes[a], hashes[b]));
+
+        this.points = new long[size];
+        this.owners = new ServiceInstance[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[sorted[i]];
+            owners[i] = instances.get(order[sorted[i]]);
+        }
+        this.distinctInstances = instances.size();
+    }
+
+    /**
+     * The first {@code count} distinct instances clockwise from the key's position:
+     * the owner, then whoever would take over from it.
+     */
+    public List<ServiceInstance> owners(long keyHash, int count) {
+        List<ServiceInstance> result = new ArrayList<>(count);
+        if (points.length == 0) {
+            return result;
+        }
+        int start = firstPointAtOrAfter(keyHash);
+        for (int i = 0; i < points.length && result.size() < Math.min(count, distinctInstances); i++) {
+            ServiceInstance candidate = owners[(start + i) % points.length];
+            if (!result.contains(candidate)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private int firstPointAtOrAfter(long keyHash) {
+        int low = 0;
+        int high = points.length - 1;
+        if (Long.compareUnsigned(keyHash, points[high]) > 0) {
+            return 0;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], keyHash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // ------------------ HASHING ------------------
+
+    // FNV-1a over UTF-8, then a 64-bit finalizer so similar keys (ACC1001, ACC1002) spread out
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,101 @@
+package com.banking.api_gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live load signals for one service instance: time-decayed EWMA latency, requests
+ * outstanding right now, consecutive failures, and ejection / slow-start state.
+ */
+public class InstanceStats {
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    // guarded by this
+    private double ewmaNanos = -1;
+    private long lastSampleNanos;
+    private long samples;
+
+    private volatile long warmingSinceNanos;
+    private volatile long ejectedUntilNanos;
+
+    InstanceStats(long nowNanos) {
+        this.warmingSinceNanos = nowNanos;
+    }
+
+    void onStart() {
+        outstanding.incrementAndGet();
+    }
+
+    void onComplete(long latencyNanos, boolean success, long nowNanos, long decayNanos) {
+        outstanding.updateAndGet(v -> v > 0 ? v - 1 : 0);
+        if (success) {
+            consecutiveFailures.set(0);
+        } else {
+            consecutiveFailures.incrementAndGet();
+        }
+        recordLatency(latencyNanos, nowNanos, decayNanos);
+    }
+
+    // time-based decay: a sample's weight depends on how long ago the last one arrived
+    private synchronized void recordLatency(long latencyNanos, long nowNanos, long decayNanos) {
+        if (ewmaNanos < 0) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double elapsed = Math.max(0, nowNanos - lastSampleNanos);
+            double weight = Math.exp(-elapsed / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = nowNanos;
+        samples++;
+    }
+
+    void eject(long untilNanos) {
+        ejectedUntilNanos = untilNanos;
+    }
+
+    boolean isEjected(long nowNanos) {
+        return ejectedUntilNanos - nowNanos > 0;
+    }
+
+    // once an ejection expires the instance starts over: no latency history or load, slow start again
+    synchronized void resetAfterEjection(long nowNanos) {
+        if (ejectedUntilNanos != 0 && !isEjected(nowNanos)) {
+            ejectedUntilNanos = 0;
+            ewmaNanos = -1;
+            samples = 0;
+            consecutiveFailures.set(0);
+            outstanding.set(0);
+            warmingSinceNanos = nowNanos;
+        }
+    }
+
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    // without fresh samples the estimate fades, so an instance that lost on one slow sample is tried again
+    synchronized double getDecayedEwmaNanos(long nowNanos, long decayNanos) {
+        if (ewmaNanos < 0) {
+            return ewmaNanos;
+        }
+        double elapsed = Math.max(0, nowNanos - lastSampleNanos);
+        return ewmaNanos * Math.exp(-elapsed / decayNanos);
+    }
+
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    long getWarmingSinceNanos() {
+        return warmingSinceNanos;
+    }
+}
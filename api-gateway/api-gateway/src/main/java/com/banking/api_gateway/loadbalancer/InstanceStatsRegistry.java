@@ -0,0 +1,193 @@
+package com.banking.api_gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared per-instance statistics, fed by {@link InstanceStatsLifecycle} and read by
+ * {@link LatencyAwareLoadBalancer}. Lives in the application context so every
+ * per-service load-balancer child context sees the same numbers.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceStatsRegistry.class);
+
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    private final long decayNanos;
+    private final long slowStartNanos;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final double outlierFactor;
+    private final int minSamples;
+    private final double maxEjectionFraction;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public InstanceStatsRegistry(@Value("${banking.loadbalancer.ewma-decay-ms:10000}") long decayMs,
+                                 @Value("${banking.loadbalancer.slow-start-ms:30000}") long slowStartMs,
+                                 @Value("${banking.loadbalancer.failure-threshold:5}") int failureThreshold,
+                                 @Value("${banking.loadbalancer.ejection-ms:30000}") long ejectionMs,
+                                 @Value("${banking.loadbalancer.outlier-factor:3.0}") double outlierFactor,
+                                 @Value("${banking.loadbalancer.min-samples:20}") int minSamples,
+                                 @Value("${banking.loadbalancer.max-ejection-percent:34}") int maxEjectionPercent) {
+        this(decayMs, slowStartMs, failureThreshold, ejectionMs, outlierFactor, minSamples, maxEjectionPercent,
+                System::nanoTime);
+    }
+
+    // nanoClock stands in for System.nanoTime(), e.g. a manual clock in tests
+    public InstanceStatsRegistry(long decayMs, long slowStartMs, int failureThreshold, long ejectionMs,
+                                 double outlierFactor, int minSamples, int maxEjectionPercent, LongSupplier nanoClock) {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMs);
+        this.slowStartNanos = TimeUnit.MILLISECONDS.toNanos(slowStartMs);
+        this.failureThreshold = failureThreshold;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+        this.outlierFactor = outlierFactor;
+        this.minSamples = minSamples;
+        this.maxEjectionFraction = maxEjectionPercent / 100.0;
+        this.nanoClock = nanoClock;
+    }
+
+    // the clock every "now" in load balancing is read from
+    public long nanoTime() {
+        return nanoClock.getAsLong();
+    }
+
+    public InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats(nanoTime()));
+    }
+
+    // ------------------ FEEDBACK ------------------
+    public void onStart(ServiceInstance instance) {
+        stats(instance).onStart();
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean success) {
+        long now = nanoTime();
+        InstanceStats s = stats(instance);
+        s.onComplete(latencyNanos, success, now, decayNanos);
+
+        if (!success && s.getConsecutiveFailures() >= failureThreshold && !s.isEjected(now)) {
+            logger.warn("Ejecting instance after {} consecutive failures: service={}, instance={}",
+                    s.getConsecutiveFailures(), instance.getServiceId(), key(instance));
+            s.eject(now + ejectionNanos);
+        }
+    }
+
+    // ------------------ SCORING ------------------
+
+    /**
+     * Lower is better: EWMA latency x (outstanding + 1).
+     * An instance with no history is scored as fast as the best known peer.
+     */
+    double score(ServiceInstance instance, double defaultLatency, long now) {
+        InstanceStats s = stats(instance);
+        double ewma = s.getDecayedEwmaNanos(now, decayNanos);
+        double latency = ewma >= 0 ? ewma : defaultLatency;
+        return latency * (s.getOutstanding() + 1);
+    }
+
+    double lowestKnownLatency(List<ServiceInstance> instances, long now) {
+        double best = Double.MAX_VALUE;
+        for (ServiceInstance instance : instances) {
+            double ewma = stats(instance).getDecayedEwmaNanos(now, decayNanos);
+            if (ewma >= 0 && ewma < best) {
+                best = ewma;
+            }
+        }
+        return best == Double.MAX_VALUE ? 1.0 : best;
+    }
+
+    /**
+     * Best-scoring healthy instance other than {@code exclude}, or null if there is none.
+     * Used to pick the target of a hedged request.
+     */
+    public ServiceInstance pickAlternative(List<ServiceInstance> instances, ServiceInstance exclude) {
+        long now = nanoTime();
+        String excluded = exclude == null ? null : key(exclude);
+        double defaultLatency = lowestKnownLatency(instances, now);
+
+        ServiceInstance best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (ServiceInstance instance : instances) {
+            if (key(instance).equals(excluded) || stats(instance).isEjected(now)) {
+                continue;
+            }
+            double score = score(instance, defaultLatency, now);
+            if (score < bestScore) {
+                best = instance;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // ------------------ OUTLIER DETECTION ------------------
+
+    /**
+     * Ejects instances whose latency is far above the median of their peers, never more
+     * than the configured fraction of the pool. Called with the candidate list on each pick.
+     */
+    void detectLatencyOutliers(List<ServiceInstance> instances, long now) {
+        if (instances.size() < 3) {
+            return;
+        }
+
+        double[] latencies = new double[instances.size()];
+        int n = 0;
+        int ejected = 0;
+        for (ServiceInstance instance : instances) {
+            InstanceStats s = stats(instance);
+            if (s.isEjected(now)) {
+                ejected++;
+            } else if (s.getSamples() >= minSamples) {
+                latencies[n++] = s.getEwmaNanos();
+            }
+        }
+        if (n < 3) {
+            return;
+        }
+
+        Arrays.sort(latencies, 0, n);
+        double median = latencies[n / 2];
+        int maxEjected = (int) Math.floor(instances.size() * maxEjectionFraction);
+
+        for (ServiceInstance instance : instances) {
+            if (ejected >= maxEjected) {
+                return;
+            }
+            InstanceStats s = stats(instance);
+            if (!s.isEjected(now) && s.getSamples() >= minSamples && s.getEwmaNanos() > median * outlierFactor) {
+                logger.warn("Ejecting latency outlier: service={}, instance={}, ewmaMs={}, medianMs={}",
+                        instance.getServiceId(), key(instance),
+                        s.getEwmaNanos() / 1_000_000, median / 1_000_000);
+                s.eject(now + ejectionNanos);
+                ejected++;
+            }
+        }
+    }
+
+    // 0.1 .. 1.0, ramping linearly over the slow-start window; the chance a warming instance is considered
+    double slowStartWeight(InstanceStats s, long now) {
+        if (slowStartNanos <= 0) {
+            return 1.0;
+        }
+        double age = now - s.getWarmingSinceNanos();
+        return Math.max(0.1, Math.min(1.0, age / slowStartNanos));
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+    }
+}
@@ -0,0 +1,165 @@
+package com.banking.api_gateway.loadbalancer;
+
+import com.banking.api_gateway.support.AccountNumberExtractor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices over live load: pick two healthy instances at random and send the
+ * request to the one with the lower score, where
+ *
+ *   score = EWMA latency * (outstanding + 1)
+ *
+ * The EWMA fades while an instance gets no traffic, so one bad sample cannot keep it idle.
+ * Instances that failed repeatedly or whose latency is an outlier against their peers are
+ * ejected for a while. A recovering or newly discovered instance ramps up over the
+ * slow-start window: it only takes part in a comparison with probability equal to its
+ * slow-start weight, so it gets a small but growing share from the first second on.
+ *
+ * For services with account affinity, a request naming an account skips the comparison and
+ * goes to the account's owner among the healthy instances ({@link AccountAffinity}).
+ * A hedged read names its target in {@link #PREFERRED_INSTANCE_ATTR}; that instance is
+ * taken as long as it is healthy.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    /** Exchange attribute holding the {@link ServiceInstance} a hedged attempt should go to. */
+    public static final String PREFERRED_INSTANCE_ATTR = LatencyAwareLoadBalancer.class.getName() + ".preferredInstance";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+    private final AccountAffinity affinity; // null: no affinity for this service
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId, InstanceStatsRegistry registry) {
+        this(supplierProvider, serviceId, registry, null);
+    }
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId, InstanceStatsRegistry registry, AccountAffinity affinity) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+        this.affinity = affinity;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = select(instances,
+                    affinity == null ? null : accountOf(request), preferredOf(request));
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances, String account) {
+        return select(instances, account, null);
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances, String account, ServiceInstance preferred) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        long now = registry.nanoTime();
+        registry.detectLatencyOutliers(instances, now);
+
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            InstanceStats s = registry.stats(instance);
+            s.resetAfterEjection(now);
+            if (!s.isEjected(now)) {
+                healthy.add(instance);
+            }
+        }
+        // never eject everyone: with no healthy instance, fall back to the full list
+        List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        if (preferred != null) {
+            String key = InstanceStatsRegistry.key(preferred);
+            for (ServiceInstance candidate : candidates) {
+                if (InstanceStatsRegistry.key(candidate).equals(key)) {
+                    return new DefaultResponse(candidate);
+                }
+            }
+        }
+
+        if (account != null) {
+            return new DefaultResponse(affinity.owner(account, candidates, now));
+        }
+
+        double defaultLatency = registry.lowestKnownLatency(candidates, now);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(candidates.size());
+        int j = random.nextInt(candidates.size() - 1);
+        if (j >= i) {
+            j++;
+        }
+
+        ServiceInstance a = candidates.get(i);
+        ServiceInstance b = candidates.get(j);
+        boolean aAdmitted = random.nextDouble() < registry.slowStartWeight(registry.stats(a), now);
+        boolean bAdmitted = random.nextDouble() < registry.slowStartWeight(registry.stats(b), now);
+        if (aAdmitted != bAdmitted) {
+            return new DefaultResponse(aAdmitted ? a : b);
+        }
+
+        double scoreA = registry.score(a, defaultLatency, now);
+        double scoreB = registry.score(b, defaultLatency, now);
+        return new DefaultResponse(scoreA <= scoreB ? a : b);
+    }
+
+    // the primary account of the client request; for a transfer, the source account
+    private static String accountOf(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            URI url = context.getClientRequest().getUrl();
+            List<String> accounts = AccountNumberExtractor.extract(url.getPath(),
+                    UriComponentsBuilder.fromUri(url).build().getQueryParams());
+            return accounts.isEmpty() ? null : accounts.get(0);
+        }
+        return null;
+    }
+
+    private static ServiceInstance preferredOf(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes() != null
+                && context.getClientRequest().getAttributes().get(PREFERRED_INSTANCE_ATTR) instanceof ServiceInstance instance) {
+            return instance;
+        }
+        return null;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,44 @@
+package com.banking.api_gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load-balancer child context configuration.
+ *
+ * Deliberately not annotated with @Configuration: it is registered through
+ * {@link LoadBalancerConfig} and must not be picked up by component scanning.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory factory,
+                                                                         InstanceStatsRegistry registry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, registry,
+                affinityFor(serviceId, environment, registry));
+    }
+
+    // account affinity only for the services listed in banking.loadbalancer.affinity.services
+    private static AccountAffinity affinityFor(String serviceId, Environment environment, InstanceStatsRegistry registry) {
+        String[] services = environment.getProperty("banking.loadbalancer.affinity.services", String[].class, new String[0]);
+        for (String service : services) {
+            if (service.trim().equalsIgnoreCase(serviceId)) {
+                int virtualNodes = environment.getProperty("banking.loadbalancer.affinity.virtual-nodes", Integer.class, 160);
+                return new AccountAffinity(registry, virtualNodes);
+            }
+        }
+        return null;
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry registry) {
+        return new InstanceStatsLifecycle(registry);
+    }
+}
@@ -0,0 +1,153 @@
+package com.banking.api_gateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds every token bucket the gateway knows about, keyed by route + key type + key.
+ * Buckets that have refilled and sat idle are swept out periodically, so the map only
+ * holds clients/accounts that were active recently.
+ *
+ * The map never holds more than max-buckets: a slot is reserved before a bucket is added.
+ * When it is full, the request that finds it full (one at a time) scans at most
+ * evict-scan-limit entries and drops the refilled ones, so the request path never walks the
+ * whole map. Until that frees room, new keys share one overflow bucket per route and key
+ * type, limited like a single key: a flood of new keys gets one key's allowance between them.
+ */
+@Component
+public class RateLimiterRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterRegistry.class);
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // one per route + key type, outside the cap
+    private final ConcurrentHashMap<String, TokenBucket> overflow = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    // buckets.size() is only an estimate under concurrency; this is the reserved count
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final MeterRegistry meterRegistry;
+    private final long idleEvictionNanos;
+    private final int maxBuckets;
+    private final int evictScanLimit;
+    private final Counter untracked;
+
+    public RateLimiterRegistry(MeterRegistry meterRegistry,
+                               @Value("${banking.gateway.rate-limit.idle-eviction-ms:60000}") long idleEvictionMs,
+                               @Value("${banking.gateway.rate-limit.max-buckets:100000}") int maxBuckets,
+                               @Value("${banking.gateway.rate-limit.evict-scan-limit:1024}") int evictScanLimit) {
+        this.meterRegistry = meterRegistry;
+        this.idleEvictionNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        this.maxBuckets = maxBuckets;
+        this.evictScanLimit = evictScanLimit;
+        this.untracked = Counter.builder("gateway.ratelimit.untracked")
+                .description("New keys sent to the shared overflow bucket because max-buckets was reached")
+                .register(meterRegistry);
+
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Map::size)
+                .description("Token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    // ------------------ ACQUIRE ------------------
+    public long tryAcquire(String routeId, String keyType, String key, double replenishRate, int burstCapacity) {
+        String bucketKey = routeId + '|' + keyType + '|' + key;
+
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketKey, k ->
+                    reserve() ? new TokenBucket(replenishRate, burstCapacity) : null);
+        }
+        if (bucket == null) {
+            evictSome();
+            untracked.increment();
+            bucket = overflow.computeIfAbsent(routeId + '|' + keyType, k -> new TokenBucket(replenishRate, burstCapacity));
+        }
+
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        counter(routeId, keyType, waitNanos == 0 ? "allowed" : "rejected").increment();
+        return waitNanos;
+    }
+
+    // ------------------ EVICTION ------------------
+    @Scheduled(fixedDelayString = "${banking.gateway.rate-limit.sweep-interval-ms:30000}")
+    public void evictIdle() {
+        evictIdle(idleEvictionNanos);
+    }
+
+    // at most scanLimit entries looked at; returns the number removed
+    private int evictIdle(long idleNanos, int scanLimit) {
+        long now = System.nanoTime();
+        int scanned = 0;
+        int evicted = 0;
+
+        Iterator<Map.Entry<String, TokenBucket>> it = buckets.entrySet().iterator();
+        while (it.hasNext() && scanned++ < scanLimit) {
+            Map.Entry<String, TokenBucket> entry = it.next();
+            if (entry.getValue().isFull(now - idleNanos) && buckets.remove(entry.getKey(), entry.getValue())) {
+                reserved.decrementAndGet();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private void evictIdle(long idleNanos) {
+        int evicted = evictIdle(idleNanos, Integer.MAX_VALUE);
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate-limit buckets, {} remaining", evicted, buckets.size());
+        }
+    }
+
+    // the map is full: one caller at a time frees what it can within one bounded scan
+    private void evictSome() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictIdle(0L, evictScanLimit);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int current = reserved.get();
+            if (current >= maxBuckets) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private Counter counter(String routeId, String keyType, String outcome) {
+        return counters.computeIfAbsent(routeId + '|' + keyType + '|' + outcome, k ->
+                Counter.builder("gateway.ratelimit.requests")
+                        .description("Requests evaluated by the local rate limiter")
+                        .tag("route", routeId)
+                        .tag("key", keyType)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,55 @@
+package com.banking.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * The whole bucket state is a single "theoretical arrival time" (GCRA form of the
+ * token bucket): every granted request pushes it forward by one emission interval,
+ * and a request is rejected when it would run further ahead of "now" than the
+ * burst allows. One CAS per request, no locks, no background refill.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double replenishRatePerSecond, int burstCapacity) {
+        if (replenishRatePerSecond <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("replenishRate and burstCapacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / replenishRatePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+    }
+
+    /**
+     * Tries to take one token.
+     *
+     * @return 0 when the token was granted, otherwise the number of nanoseconds
+     *         until a token becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = (tat == Long.MIN_VALUE || tat < nowNanos) ? nowNanos : tat;
+            long newTat = start + emissionIntervalNanos;
+
+            long ahead = newTat - nowNanos;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0L;
+            }
+        }
+    }
+
+    // A bucket whose arrival time is in the past has fully refilled, so dropping it loses nothing
+    public boolean isFull(long nowNanos) {
+        long tat = theoreticalArrival.get();
+        return tat == Long.MIN_VALUE || tat <= nowNanos;
+    }
+}
@@ -0,0 +1,74 @@
+package com.banking.api_gateway.support;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pulls the account numbers a request targets out of the public API shape:
+ *
+ *   /api/accounts/{accountNumber}[/...]
+ *   /api/transactions/account/{accountNumber}
+ *   ?accountNumber= / ?sourceAccount= / ?destinationAccount=
+ *
+ * The first element is the "primary" account (the one money leaves from for a transfer).
+ */
+public final class AccountNumberExtractor {
+
+    private static final String ACCOUNTS_PREFIX = "/api/accounts/";
+    private static final String TRANSACTIONS_ACCOUNT_PREFIX = "/api/transactions/account/";
+
+    private AccountNumberExtractor() {}
+
+    public static List<String> extract(ServerHttpRequest request) {
+        return extract(request.getPath().value(), request.getQueryParams());
+    }
+
+    public static List<String> extract(String path, MultiValueMap<String, String> queryParams) {
+        List<String> accounts = new ArrayList<>(2);
+
+        addIfPresent(accounts, queryParams.getFirst("accountNumber"));
+        addIfPresent(accounts, queryParams.getFirst("sourceAccount"));
+        addIfPresent(accounts, queryParams.getFirst("destinationAccount"));
+
+        String fromPath = fromPath(path);
+        if (fromPath != null && !accounts.contains(fromPath)) {
+            accounts.add(0, fromPath);
+        }
+
+        return accounts.isEmpty() ? Collections.emptyList() : accounts;
+    }
+
+    public static String primary(ServerHttpRequest request) {
+        List<String> accounts = extract(request);
+        return accounts.isEmpty() ? null : accounts.get(0);
+    }
+
+    private static String fromPath(String path) {
+        if (path == null) {
+            return null;
+        }
+        if (path.startsWith(TRANSACTIONS_ACCOUNT_PREFIX)) {
+            return firstSegment(path.substring(TRANSACTIONS_ACCOUNT_PREFIX.length()));
+        }
+        if (path.startsWith(ACCOUNTS_PREFIX)) {
+            return firstSegment(path.substring(ACCOUNTS_PREFIX.length()));
+        }
+        return null;
+    }
+
+    private static String firstSegment(String rest) {
+        int slash = rest.indexOf('/');
+        String segment = slash >= 0 ? rest.substring(0, slash) : rest;
+        return segment.isEmpty() ? null : segment;
+    }
+
+    private static void addIfPresent(List<String> accounts, String value) {
+        if (value != null && !value.isBlank() && !accounts.contains(value)) {
+            accounts.add(value);
+        }
+    }
+}
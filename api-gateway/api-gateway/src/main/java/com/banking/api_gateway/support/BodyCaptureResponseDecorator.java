@@ -0,0 +1,98 @@
+package com.banking.api_gateway.support;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Buffers the upstream body as it is written, hands a {@link CapturedResponse} to the
+ * callback, then writes the same bytes to the client.
+ *
+ * Streaming responses (SSE / NDJSON) and bodies above the size cap are passed through
+ * untouched, and the callback receives {@code null} so callers know nothing was captured.
+ * Bytes are counted while buffering, so a chunked body without a Content-Length is held
+ * only until it passes the cap; what was held is then written out and the rest streams on.
+ */
+public class BodyCaptureResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final int maxBodyBytes;
+    private final Consumer<CapturedResponse> onCaptured;
+
+    public BodyCaptureResponseDecorator(ServerHttpResponse delegate, int maxBodyBytes,
+                                        Consumer<CapturedResponse> onCaptured) {
+        super(delegate);
+        this.maxBodyBytes = maxBodyBytes;
+        this.onCaptured = onCaptured;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (isStreaming() || exceedsCap()) {
+            onCaptured.accept(null);
+            return super.writeWith(body);
+        }
+
+        // one list for the whole body, unless it passes the cap: then a list up to that
+        // point, and every buffer after it on its own
+        AtomicLong total = new AtomicLong();
+        return Flux.<DataBuffer>from(body)
+                .bufferUntil(buffer -> total.addAndGet(buffer.readableByteCount()) > maxBodyBytes)
+                .switchOnFirst((first, all) -> {
+                    if (total.get() > maxBodyBytes) {
+                        onCaptured.accept(null);
+                        return super.writeWith(all.concatMapIterable(Function.identity()));
+                    }
+                    byte[] bytes = first.hasValue() ? drain(first.get()) : new byte[0];
+                    HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+                    onCaptured.accept(new CapturedResponse(status, getHeaders(), bytes));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                })
+                .then();
+    }
+
+    private static byte[] drain(List<DataBuffer> buffers) {
+        int size = 0;
+        for (DataBuffer buffer : buffers) {
+            size += buffer.readableByteCount();
+        }
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        onCaptured.accept(null);
+        return super.writeAndFlushWith(body);
+    }
+
+    private boolean isStreaming() {
+        MediaType contentType = getHeaders().getContentType();
+        return contentType != null
+                && (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType));
+    }
+
+    private boolean exceedsCap() {
+        long declared = getHeaders().getContentLength();
+        return declared > maxBodyBytes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.api_gateway.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * An upstream response fully buffered in memory (status, end-to-end headers, body),
+ * so it can be replayed to other clients.
+ */
+public class CapturedResponse {
+
+    // Hop-by-hop and per-connection headers are never replayed
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase(),
+            HttpHeaders.SET_COOKIE.toLowerCase(),
+            "keep-alive");
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    public CapturedResponse(HttpStatusCode status, HttpHeaders source, byte[] body) {
+        this.status = status;
+        this.body = body;
+        this.headers = new HttpHeaders();
+        source.forEach((name, values) -> {
+            if (!EXCLUDED_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public int sizeInBytes() {
+        // rough: body plus a flat allowance for headers and bookkeeping
+        return body.length + 256;
+    }
+
+    // ------------------ REPLAY ------------------
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.banking.api_gateway.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Canonical identity of a read request: method + normalized path + sorted query, plus the
+ * negotiation headers the response body can vary on. Two requests with the same key can
+ * be answered with the same bytes.
+ */
+public final class RequestKeys {
+
+    private RequestKeys() {}
+
+    public static String normalized(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(64)
+                .append(request.getMethod().name()).append(' ')
+                .append(normalizePath(request.getPath().value()));
+
+        TreeMap<String, List<String>> sorted = new TreeMap<>(request.getQueryParams());
+        char sep = '?';
+        for (Map.Entry<String, List<String>> param : sorted.entrySet()) {
+            List<String> values = new ArrayList<>(param.getValue());
+            Collections.sort(values);
+            for (String value : values) {
+                key.append(sep).append(param.getKey()).append('=').append(value);
+                sep = '&';
+            }
+        }
+
+        HttpHeaders headers = request.getHeaders();
+        key.append('|').append(Objects.toString(headers.getFirst(HttpHeaders.ACCEPT), ""))
+                .append('|').append(Objects.toString(headers.getFirst(HttpHeaders.ACCEPT_ENCODING), ""));
+        return key.toString();
+    }
+
+    // collapse duplicate slashes and drop a trailing slash: /api//accounts/A1/ -> /api/accounts/A1
+    static String normalizePath(String path) {
+        StringBuilder out = new StringBuilder(path.length());
+        char prev = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '/' && prev == '/') {
+                continue;
+            }
+            out.append(c);
+            prev = c;
+        }
+        if (out.length() > 1 && out.charAt(out.length() - 1) == '/') {
+            out.setLength(out.length() - 1);
+        }
+        return out.toString();
+    }
+}
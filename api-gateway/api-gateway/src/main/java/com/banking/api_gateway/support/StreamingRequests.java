@@ -0,0 +1,23 @@
+package com.banking.api_gateway.support;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * Recognises requests for long-lived streams (server-sent events, NDJSON, the /stream
+ * endpoints), which stay open by design: no deadline, no hedging, no caching or coalescing,
+ * and they do not count against a route's concurrency limit.
+ */
+public final class StreamingRequests {
+
+    private StreamingRequests() {}
+
+    public static boolean isStreaming(ServerHttpRequest request) {
+        if (request.getPath().value().endsWith("/stream")) {
+            return true;
+        }
+        return request.getHeaders().getAccept().stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.TEXT_EVENT_STREAM)
+                        || type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+    }
+}
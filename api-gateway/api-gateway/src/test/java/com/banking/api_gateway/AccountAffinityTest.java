@@ -0,0 +1,152 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.loadbalancer.AccountAffinity;
+import com.banking.api_gateway.loadbalancer.ConsistentHashRing;
+import com.banking.api_gateway.loadbalancer.InstanceStatsRegistry;
+import com.banking.api_gateway.loadbalancer.LatencyAwareLoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountAffinityTest {
+
+    private final ServiceInstance a = instance("a", 8082);
+    private final ServiceInstance b = instance("b", 8082);
+    private final ServiceInstance c = instance("c", 8082);
+    private final ServiceInstance d = instance("d", 8082);
+
+    // ------------------ TEST: SAME ACCOUNT, SAME INSTANCE ------------------
+    @Test
+    void testRequestsForAnAccountStickToOneInstance() {
+        InstanceStatsRegistry registry = registry(0);
+        LatencyAwareLoadBalancer lb = loadBalancer(registry, a, b, c);
+
+        String owner = choose(lb, "/api/transactions/deposit?accountNumber=ACC1001&amount=10");
+        for (int i = 0; i < 50; i++) {
+            assertEquals(owner, choose(lb, "/api/transactions/withdraw?accountNumber=ACC1001&amount=10"));
+            assertEquals(owner, choose(lb, "/api/transactions/account/ACC1001"));
+            // transfers follow the source account
+            assertEquals(owner, choose(lb, "/api/transactions/transfer?sourceAccount=ACC1001&destinationAccount=ACC" + i));
+        }
+    }
+
+    // ------------------ TEST: JOIN MOVES ONLY A SHARE ------------------
+    @Test
+    void testAddingAnInstanceOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of(a, b, c), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(a, b, c, d), 160);
+
+        int moved = 0;
+        int keys = 10000;
+        for (int i = 0; i < keys; i++) {
+            long hash = ConsistentHashRing.hash("ACC" + i);
+            ServiceInstance oldOwner = before.owners(hash, 1).get(0);
+            ServiceInstance newOwner = after.owners(hash, 1).get(0);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals(d, newOwner);
+                moved++;
+            }
+        }
+        // ideally a quarter
+        assertTrue(moved > keys * 0.18 && moved < keys * 0.32, "moved=" + moved);
+    }
+
+    // ------------------ TEST: EJECTED OWNER ------------------
+    @Test
+    void testEjectedOwnersAccountsMoveElsewhereOthersStay() {
+        InstanceStatsRegistry registry = registry(0);
+        AccountAffinity affinity = new AccountAffinity(registry, 160);
+        List<ServiceInstance> all = List.of(a, b, c);
+        List<ServiceInstance> withoutB = List.of(a, c);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 1000; i++) {
+            String account = "ACC" + i;
+            ServiceInstance owner = affinity.owner(account, all, now);
+            ServiceInstance fallback = affinity.owner(account, withoutB, now);
+            if (!owner.equals(b)) {
+                assertEquals(owner, fallback);
+            } else {
+                assertNotEquals(b, fallback);
+            }
+        }
+    }
+
+    // ------------------ TEST: GRADUAL TAKEOVER ------------------
+    @Test
+    void testNewInstanceTakesOverItsAccountsDuringSlowStart() {
+        AtomicLong clock = new AtomicLong();
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(10000, 400, 3, 30000, 3.0, 5, 34, clock::get);
+        AccountAffinity affinity = new AccountAffinity(registry, 160);
+        List<ServiceInstance> members = List.of(a, b, c, d);
+        // a, b and c are long warm; d has just appeared
+        for (ServiceInstance warm : List.of(a, b, c)) {
+            registry.stats(warm);
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(450));
+        registry.stats(d);
+
+        // 5% into d's slow start, then 90% in
+        int early = countOwnedBy(affinity, members, d, clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20)));
+        int later = countOwnedBy(affinity, members, d, clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(340)));
+        int warm = countOwnedBy(affinity, members, d, clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100)));
+
+        assertTrue(early < later / 2, "early=" + early + ", later=" + later);
+        assertTrue(later < warm, "later=" + later + ", warm=" + warm);
+    }
+
+    private static int countOwnedBy(AccountAffinity affinity, List<ServiceInstance> members, ServiceInstance target,
+                                    long now) {
+        int owned = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (affinity.owner("ACC" + i, members, now).equals(target)) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+
+    private static String choose(LatencyAwareLoadBalancer lb, String uri) {
+        RequestDataContext context = new RequestDataContext(new RequestData(MockServerHttpRequest.post(uri).build()));
+        return lb.choose(new DefaultRequest<>(context)).block().getServer().getInstanceId();
+    }
+
+    private static LatencyAwareLoadBalancer loadBalancer(InstanceStatsRegistry registry, ServiceInstance... instances) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "TRANSACTION-SERVICE";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(List.of(instances));
+            }
+        };
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("supplier", supplier);
+        return new LatencyAwareLoadBalancer(beans.getBeanProvider(ServiceInstanceListSupplier.class),
+                "TRANSACTION-SERVICE", registry, new AccountAffinity(registry, 160));
+    }
+
+    private static InstanceStatsRegistry registry(long slowStartMs) {
+        return new InstanceStatsRegistry(10000, slowStartMs, 3, 30000, 3.0, 5, 34);
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host, "TRANSACTION-SERVICE", host, port, false);
+    }
+}
@@ -0,0 +1,84 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.banking.api_gateway.concurrency.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // ------------------ TEST: Requests over the limit are shed ------------------
+    @Test
+    void testShedsOverLimit() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 100, 1.5, 1.0);
+
+        assertTrue(limiter.tryAcquire(Priority.READ) > 0);
+        assertTrue(limiter.tryAcquire(Priority.READ) > 0);
+        assertEquals(-1, limiter.tryAcquire(Priority.READ));
+    }
+
+    // ------------------ TEST: Writes are shed before reads ------------------
+    @Test
+    void testWritesShedFirst() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Priority.WRITE) > 0);
+        }
+        assertEquals(-1, limiter.tryAcquire(Priority.WRITE));
+        assertTrue(limiter.tryAcquire(Priority.READ) > 0);
+    }
+
+    // ------------------ TEST: Limit grows while latency is stable ------------------
+    @Test
+    void testLimitGrowsUnderStableLatency() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 1.0);
+
+        for (int i = 0; i < 200; i++) {
+            int inFlight = limiter.tryAcquire(Priority.READ);
+            limiter.release(10 * MS, Math.max(inFlight, limiter.getLimit()), false, false);
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    // ------------------ TEST: Limit shrinks when latency climbs ------------------
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 1.5, 1.0);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(Priority.READ);
+            limiter.release(10 * MS, 50, false, false);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(Priority.READ);
+            limiter.release(100 * MS, limiter.getLimit(), false, false);
+        }
+
+        assertTrue(limiter.getLimit() < before);
+    }
+
+    // ------------------ TEST: Failures back off ------------------
+    @Test
+    void testDropBacksOff() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 1.5, 1.0);
+
+        limiter.tryAcquire(Priority.READ);
+        limiter.release(10 * MS, 1, true, false);
+
+        assertEquals(45, limiter.getLimit());
+    }
+}
@@ -0,0 +1,56 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.support.BodyCaptureResponseDecorator;
+import com.banking.api_gateway.support.CapturedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyCaptureTest {
+
+    private final DefaultDataBufferFactory buffers = new DefaultDataBufferFactory();
+
+    private Flux<DataBuffer> chunks(String... parts) {
+        return Flux.fromArray(parts).map(part -> buffers.wrap(part.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // ------------------ TEST: Small chunked body is captured whole ------------------
+    @Test
+    void testCapturesBodyUnderCap() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        List<CapturedResponse> captured = new ArrayList<>();
+
+        new BodyCaptureResponseDecorator(response, 16, captured::add)
+                .writeWith(chunks("{\"a\":", "1}")).block();
+
+        assertEquals(1, captured.size());
+        assertEquals("{\"a\":1}", new String(captured.get(0).getBody(), StandardCharsets.UTF_8));
+        assertEquals("{\"a\":1}", response.getBodyAsString().block());
+    }
+
+    // ------------------ TEST: Chunked body past the cap streams through uncaptured ------------------
+    @Test
+    void testChunkedBodyOverCapPassesThrough() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        List<CapturedResponse> captured = new ArrayList<>();
+
+        // no Content-Length: the cap is only found out while reading
+        new BodyCaptureResponseDecorator(response, 8, captured::add)
+                .writeWith(chunks("01234", "56789", "abcde")).block();
+
+        assertEquals(1, captured.size());
+        assertNull(captured.get(0));
+        assertEquals("0123456789abcde", response.getBodyAsString().block());
+    }
+}
@@ -0,0 +1,106 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.filter.HedgeGatewayFilterFactory;
+import com.banking.api_gateway.loadbalancer.InstanceStatsRegistry;
+import com.banking.api_gateway.loadbalancer.LatencyAwareLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class HedgeTest {
+
+    private final ServiceInstance a = new DefaultServiceInstance("a", "ACCOUNT-SERVICE", "a", 8081, false);
+    private final ServiceInstance b = new DefaultServiceInstance("b", "ACCOUNT-SERVICE", "b", 8081, false);
+
+    private GatewayFilter filter() {
+        ReactiveDiscoveryClient discovery = mock(ReactiveDiscoveryClient.class);
+        when(discovery.getInstances("ACCOUNT-SERVICE")).thenReturn(Flux.just(a, b));
+        HedgeGatewayFilterFactory factory = new HedgeGatewayFilterFactory(discovery,
+                new InstanceStatsRegistry(10000, 0, 5, 30000, 3.0, 20, 34), new SimpleMeterRegistry(), 100, 50);
+
+        HedgeGatewayFilterFactory.Config config = new HedgeGatewayFilterFactory.Config();
+        config.setMinDelayMillis(50);
+        config.setMaxDelayMillis(50);
+        return factory.apply(config);
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/accounts/ACC1001"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id("account-service")
+                .uri("lb://ACCOUNT-SERVICE").predicate(e -> true).build());
+        return exchange;
+    }
+
+    // stands in for the load balancer and routing filters: answers from the chosen instance
+    private GatewayFilterChain upstream(Duration primaryDelay, String primaryBody, AtomicBoolean primaryCancelled) {
+        return exchange -> {
+            ServiceInstance preferred = exchange.getAttribute(LatencyAwareLoadBalancer.PREFERRED_INSTANCE_ATTR);
+            ServiceInstance chosen = preferred != null ? preferred : a;
+            exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(chosen));
+            Mono<Void> answer = Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().add("X-Instance", chosen.getHost());
+                response.getHeaders().add("connection", "keep-alive");
+                String body = chosen == a ? primaryBody : "from-b";
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+            });
+            return chosen == a
+                    ? Mono.delay(primaryDelay).then(answer).doOnCancel(() -> primaryCancelled.set(true))
+                    : answer;
+        };
+    }
+
+    // ------------------ TEST: Slow primary loses to the hedge, through the chain ------------------
+    @Test
+    void testSlowPrimaryLosesToHedge() {
+        MockServerWebExchange exchange = exchange();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+        filter().filter(exchange, upstream(Duration.ofSeconds(2), "from-a", primaryCancelled)).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("from-b", exchange.getResponse().getBodyAsString().block());
+        assertEquals("b", exchange.getResponse().getHeaders().getFirst("X-Instance"));
+        // hop-by-hop headers are dropped whatever their case
+        assertFalse(exchange.getResponse().getHeaders().containsKey("Connection"));
+        assertTrue(primaryCancelled.get());
+        // each attempt kept its routing state to itself
+        assertNull(exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR));
+    }
+
+    // ------------------ TEST: Fast primary streams a large body unhedged ------------------
+    @Test
+    void testFastPrimaryLargeBodyPassesThrough() {
+        MockServerWebExchange exchange = exchange();
+        String large = "x".repeat(1024 * 1024);
+
+        filter().filter(exchange, upstream(Duration.ZERO, large, new AtomicBoolean())).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("a", exchange.getResponse().getHeaders().getFirst("X-Instance"));
+        assertEquals(large.length(), exchange.getResponse().getBodyAsString().block().length());
+    }
+}
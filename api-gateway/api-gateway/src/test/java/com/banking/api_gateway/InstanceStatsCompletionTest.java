@@ -0,0 +1,75 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.filter.DeadlineGlobalFilter;
+import com.banking.api_gateway.filter.InstanceStatsGlobalFilter;
+import com.banking.api_gateway.loadbalancer.InstanceStats;
+import com.banking.api_gateway.loadbalancer.InstanceStatsRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class InstanceStatsCompletionTest {
+
+    private final ServiceInstance a = new DefaultServiceInstance("a", "ACCOUNT-SERVICE", "a", 8081, false);
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(10000, 0, 5, 30000, 3.0, 20, 34);
+    private final InstanceStatsGlobalFilter statsFilter = new InstanceStatsGlobalFilter(registry);
+
+    private MockServerWebExchange exchange(String timeoutMs) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/accounts/ACC1001")
+                .header(DeadlineGlobalFilter.HEADER, timeoutMs));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id("account-service")
+                .uri("lb://ACCOUNT-SERVICE").predicate(e -> true).build());
+        return exchange;
+    }
+
+    // stands in for the load balancer filter: picks the instance, then the call never answers
+    private Mono<Void> call(MockServerWebExchange exchange) {
+        return new DeadlineGlobalFilter(new SimpleMeterRegistry(), "api-gateway", 5000, 30000).filter(exchange, e -> {
+            registry.onStart(a);
+            e.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(a));
+            return statsFilter.filter(e, x -> Mono.never());
+        });
+    }
+
+    // ------------------ TEST: Client disconnect releases the instance ------------------
+    @Test
+    void testCancelledCallIsNoLongerOutstanding() {
+        Disposable inFlight = call(exchange("5000")).subscribe();
+        assertEquals(1, registry.stats(a).getOutstanding());
+
+        inFlight.dispose();
+
+        InstanceStats stats = registry.stats(a);
+        assertEquals(0, stats.getOutstanding());
+        assertEquals(0, stats.getConsecutiveFailures());
+        assertEquals(1, stats.getSamples());
+    }
+
+    // ------------------ TEST: Deadline cancellation is a failure ------------------
+    @Test
+    void testDeadlineExceededCountsAsFailure() {
+        MockServerWebExchange exchange = exchange("50");
+
+        call(exchange).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+        InstanceStats stats = registry.stats(a);
+        assertEquals(0, stats.getOutstanding());
+        assertEquals(1, stats.getConsecutiveFailures());
+    }
+}
@@ -0,0 +1,41 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.support.RequestKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestKeysTest {
+
+    // ------------------ TEST: Query order and duplicate slashes do not matter ------------------
+    @Test
+    void testEquivalentRequestsShareKey() {
+
+        MockServerHttpRequest a = MockServerHttpRequest.get("/api//transactions/account/ACC1/?b=2&a=1").build();
+        MockServerHttpRequest b = MockServerHttpRequest.get("/api/transactions/account/ACC1?a=1&b=2").build();
+
+        assertEquals(RequestKeys.normalized(a), RequestKeys.normalized(b));
+    }
+
+    // ------------------ TEST: Different accounts get different keys ------------------
+    @Test
+    void testDifferentPathsDiffer() {
+
+        MockServerHttpRequest a = MockServerHttpRequest.get("/api/accounts/ACC1").build();
+        MockServerHttpRequest b = MockServerHttpRequest.get("/api/accounts/ACC2").build();
+
+        assertNotEquals(RequestKeys.normalized(a), RequestKeys.normalized(b));
+    }
+
+    // ------------------ TEST: Content negotiation is part of the key ------------------
+    @Test
+    void testAcceptEncodingIsPartOfKey() {
+
+        MockServerHttpRequest plain = MockServerHttpRequest.get("/api/accounts/ACC1").build();
+        MockServerHttpRequest gzip = MockServerHttpRequest.get("/api/accounts/ACC1")
+                .header("Accept-Encoding", "gzip").build();
+
+        assertNotEquals(RequestKeys.normalized(plain), RequestKeys.normalized(gzip));
+    }
+}
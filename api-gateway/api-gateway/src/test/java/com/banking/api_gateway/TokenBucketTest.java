@@ -0,0 +1,127 @@
+package com.banking.api_gateway;
+
+import com.banking.api_gateway.filter.LocalRateLimitGatewayFilterFactory;
+import com.banking.api_gateway.ratelimit.RateLimiterRegistry;
+import com.banking.api_gateway.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // ------------------ TEST: Burst is granted, then rejected ------------------
+    @Test
+    void testBurstThenReject() {
+
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryAcquire(now));
+        }
+
+        long wait = bucket.tryAcquire(now);
+        assertTrue(wait > 0);
+        assertTrue(wait <= SECOND / 10);
+    }
+
+    // ------------------ TEST: Tokens refill over time ------------------
+    @Test
+    void testRefill() {
+
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = 1_000 * SECOND;
+
+        assertEquals(0L, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+
+        assertEquals(0L, bucket.tryAcquire(now + SECOND / 10));
+    }
+
+    // ------------------ TEST: Idle bucket reports full ------------------
+    @Test
+    void testIsFullAfterIdle() {
+
+        TokenBucket bucket = new TokenBucket(1, 2);
+        long now = 1_000 * SECOND;
+
+        assertTrue(bucket.isFull(now));
+
+        bucket.tryAcquire(now);
+        assertFalse(bucket.isFull(now));
+        assertTrue(bucket.isFull(now + 2 * SECOND));
+    }
+
+    // ------------------ TEST: Registry never holds more than max-buckets ------------------
+    @Test
+    void testRegistryCapHoldsUnderConcurrency() throws Exception {
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        // 1 token a second: every bucket touched stays drained, so none can be evicted
+        RateLimiterRegistry registry = new RateLimiterRegistry(meters, 60000, 100, 16);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    registry.tryAcquire("route", "client", thread + "-" + i, 1, 1);
+                }
+            }));
+        }
+        for (Future<?> f : done) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100.0, meters.get("gateway.ratelimit.buckets").gauge().value());
+        assertEquals(3900.0, meters.get("gateway.ratelimit.untracked").counter().count());
+    }
+
+    // ------------------ TEST: Keys past the cap share one limited bucket ------------------
+    @Test
+    void testOverflowKeysShareOneLimitedBucket() {
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        RateLimiterRegistry registry = new RateLimiterRegistry(meters, 60000, 1, 16);
+
+        assertEquals(0L, registry.tryAcquire("route", "client", "a", 1, 1));
+        assertEquals(0L, registry.tryAcquire("route", "client", "b", 1, 1));
+        // a fresh key does not bring a fresh allowance with it
+        assertTrue(registry.tryAcquire("route", "client", "c", 1, 1) > 0);
+        assertEquals(1.0, meters.get("gateway.ratelimit.buckets").gauge().value());
+    }
+
+    // ------------------ TEST: Client id header is honoured from trusted proxies only ------------------
+    @Test
+    void testClientIdHeaderTrustedOnlyFromProxies() {
+
+        LocalRateLimitGatewayFilterFactory factory = new LocalRateLimitGatewayFilterFactory(
+                new RateLimiterRegistry(new SimpleMeterRegistry(), 60000, 100, 16), new String[] {" 10.0.0.1 "});
+
+        MockServerHttpRequest direct = MockServerHttpRequest.get("/api/accounts/ACC1001")
+                .remoteAddress(new InetSocketAddress("192.168.1.7", 40000))
+                .header(LocalRateLimitGatewayFilterFactory.CLIENT_ID_HEADER, "spoofed")
+                .build();
+        MockServerHttpRequest proxied = MockServerHttpRequest.get("/api/accounts/ACC1001")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000))
+                .header(LocalRateLimitGatewayFilterFactory.CLIENT_ID_HEADER, "mobile-app")
+                .build();
+
+        assertEquals("192.168.1.7", factory.clientId(direct));
+        assertEquals("mobile-app", factory.clientId(proxied));
+    }
+}
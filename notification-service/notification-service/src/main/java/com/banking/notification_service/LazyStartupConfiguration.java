@@ -0,0 +1,41 @@
+package com.banking.notification_service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Beans that stay eager when the fast-startup mode turns on lazy initialization
+ * (-Dspring.main.lazy-initialization=true); everything else is created on first use.
+ *
+ * Controllers stay eager, and with them the services they call, so the first request does
+ * not pay for building its path. So do beans with @Scheduled or @PostConstruct methods:
+ * they start background work or register metrics, which must not wait for a request.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyStartupConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerRequestPathAndBackgroundWork() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && startsEagerly(beanType);
+    }
+
+    private static boolean startsEagerly(Class<?> type) {
+        if (AnnotatedElementUtils.hasAnnotation(type, Controller.class)) {
+            return true;
+        }
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+            if (method.isAnnotationPresent(Scheduled.class) || method.isAnnotationPresent(PostConstruct.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,23 +1,88 @@
 package com.banking.notification_service.controller;
 
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.NotificationEvent;
+import com.banking.notification_service.model.Priority;
+import com.banking.notification_service.pipeline.NotificationDispatcher;
+import com.banking.notification_service.service.NotificationIntake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
 
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private NotificationIntake intake;
+
+    // Accepted for asynchronous delivery: 202 once queued, 503 when the channel's queue is full
     @PostMapping("/send")
-    public String sendNotification(@RequestBody String message) {
+    public ResponseEntity<Map<String, String>> sendNotification(@RequestBody String message,
+                                                                @RequestParam(defaultValue = "EMAIL") Channel channel,
+                                                                @RequestParam(defaultValue = "NORMAL") Priority priority) {
+
+        logger.info("Received NOTIFICATION request: channel={}, priority={}, message={}", channel, priority, message);
+
+        Notification notification = new Notification(message, channel, priority, MDC.get("correlationId"));
+        if (!dispatcher.submit(notification)) {
+            logger.warn("NOTIFICATION REJECTED - queue full: channel={}, queued={}", channel, dispatcher.queueDepth(channel));
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("status", "REJECTED", "reason", "notification queue full"));
+        }
+
+        logger.info("NOTIFICATION QUEUED: id={}, channel={}, priority={}", notification.getId(), channel, priority);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("notificationId", notification.getId(), "status", "QUEUED"));
+    }
+
+    // Typed events in bulk (e.g. from the transaction-service outbox), rendered here from templates.
+    // Per event QUEUED, COALESCED (held for a digest), DUPLICATE (already accepted earlier), REJECTED
+    // (queue full, retry later) or INVALID (with a reason, never accepted);
+    // 202 unless every event was REJECTED, then 503
+    @PostMapping("/send-batch")
+    public ResponseEntity<List<Map<String, String>>> sendBatch(@RequestBody List<NotificationEvent> events) {
 
-        logger.info("Received NOTIFICATION request with message={}", message);
+        logger.info("Received NOTIFICATION batch: size={}", events.size());
 
-        // Simulated notification sending
-        logger.info("NOTIFICATION SENT successfully: {}", message);
+        String correlationId = MDC.get("correlationId");
+        List<Map<String, String>> results = new ArrayList<>(events.size());
+        Map<NotificationIntake.Result, Integer> counts = new EnumMap<>(NotificationIntake.Result.class);
+        for (NotificationEvent event : events) {
+            NotificationIntake.Result result = intake.accept(event, correlationId);
+            counts.merge(result, 1, Integer::sum);
+            String id = String.valueOf(event.getId());
+            results.add(result == NotificationIntake.Result.INVALID
+                    ? Map.of("notificationId", id, "status", result.name(), "reason", "missing or unknown event type")
+                    : Map.of("notificationId", id, "status", result.name()));
+        }
 
-        return "Notification delivered";
+        logger.info("NOTIFICATION batch processed: size={}, queued={}, coalesced={}, duplicates={}, rejected={}, invalid={}",
+                events.size(), counts.getOrDefault(NotificationIntake.Result.QUEUED, 0),
+                counts.getOrDefault(NotificationIntake.Result.COALESCED, 0),
+                counts.getOrDefault(NotificationIntake.Result.DUPLICATE, 0),
+                counts.getOrDefault(NotificationIntake.Result.REJECTED, 0),
+                counts.getOrDefault(NotificationIntake.Result.INVALID, 0));
+        boolean allRejected = !events.isEmpty()
+                && counts.getOrDefault(NotificationIntake.Result.REJECTED, 0) == events.size();
+        HttpStatus status = allRejected ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(results);
     }
 }
@@ -0,0 +1,90 @@
+package com.banking.notification_service.digest;
+
+import com.banking.notification_service.model.EventType;
+import com.banking.notification_service.model.NotificationEvent;
+import com.banking.notification_service.template.NotificationTemplates;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Events held back for one account and channel, kept as running totals per event type
+ * rather than as the events themselves, so a digest costs the same however busy the
+ * account is. The last rendered message is kept so a digest of one is sent as the
+ * ordinary message.
+ */
+public class Digest {
+
+    private final String account;
+    private final Map<EventType, int[]> counts = new EnumMap<>(EventType.class);
+    private final Map<EventType, double[]> totals = new EnumMap<>(EventType.class);
+
+    private int count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private String lastMessage;
+    private String lastId;
+
+    public Digest(String account) {
+        this.account = account;
+    }
+
+    public void add(NotificationEvent event, String renderedMessage) {
+        long timestamp = event.getTimestamp() != null ? event.getTimestamp() : System.currentTimeMillis();
+        if (count == 0) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        firstTimestamp = Math.min(firstTimestamp, timestamp);
+        count++;
+        counts.computeIfAbsent(event.getType(), t -> new int[1])[0]++;
+        if (event.getAmount() != null) {
+            totals.computeIfAbsent(event.getType(), t -> new double[1])[0] += event.getAmount();
+        }
+        lastMessage = renderedMessage;
+        lastId = event.getId();
+    }
+
+    // "3 deposits totalling 300.00, 1 withdrawal totalling 20.00"
+    public String summary() {
+        StringJoiner parts = new StringJoiner(", ");
+        counts.forEach((type, n) -> {
+            double[] total = totals.get(type);
+            String part = n[0] + " " + type.label(n[0]);
+            if (total != null) {
+                part += " totalling " + NotificationTemplates.formatAmount(total[0]);
+            }
+            parts.add(part);
+        });
+        return parts.toString();
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+}
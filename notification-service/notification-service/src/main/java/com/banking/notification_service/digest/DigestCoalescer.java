@@ -0,0 +1,269 @@
+package com.banking.notification_service.digest;
+
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.NotificationEvent;
+import com.banking.notification_service.model.Priority;
+import com.banking.notification_service.pipeline.NotificationDispatcher;
+import com.banking.notification_service.template.NotificationTemplates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces notifications for busy recipients into digests, per account and channel.
+ *
+ * The first immediate-per-window events of a window go out individually, so a quiet
+ * account's alerts are not delayed. Beyond that the account counts as hot: further events
+ * are held and folded into one {@link Digest}, sent when the window ends or when max-size
+ * events have piled up. A hot account cools down after a window with nothing held.
+ * HIGH priority events are never held.
+ *
+ * State is bounded by max-keys; when full, the least recently active recipient is flushed
+ * and forgotten to make room. Anything still held on shutdown is flushed before the
+ * delivery pipeline drains.
+ *
+ *   banking.notification.digest.window-ms=60000
+ *   banking.notification.digest.immediate-per-window=3
+ */
+@Component
+public class DigestCoalescer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DigestCoalescer.class);
+
+    private static final String PREFIX = "banking.notification.digest.";
+
+    private final NotificationDispatcher dispatcher;
+    private final NotificationTemplates templates;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int immediatePerWindow;
+    private final int maxSize;
+    private final int maxKeys;
+    private final long tickMs;
+
+    // access order: the eldest entry is the least recently active recipient
+    private final LinkedHashMap<Key, Bucket> buckets = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Counter held;
+    private final Counter digestsSent;
+    private final Counter evicted;
+    private final Counter dropped;
+
+    private ScheduledExecutorService ticker;
+    private volatile boolean running;
+
+    public DigestCoalescer(NotificationDispatcher dispatcher, NotificationTemplates templates,
+                           MeterRegistry meterRegistry, Environment environment) {
+        this.dispatcher = dispatcher;
+        this.templates = templates;
+        this.enabled = environment.getProperty(PREFIX + "enabled", Boolean.class, true);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(environment.getProperty(PREFIX + "window-ms", Long.class, 60000L));
+        this.immediatePerWindow = environment.getProperty(PREFIX + "immediate-per-window", Integer.class, 3);
+        this.maxSize = environment.getProperty(PREFIX + "max-size", Integer.class, 100);
+        this.maxKeys = environment.getProperty(PREFIX + "max-keys", Integer.class, 10000);
+        this.tickMs = environment.getProperty(PREFIX + "tick-ms", Long.class, 500L);
+
+        Gauge.builder("notification.digest.recipients", this, DigestCoalescer::trackedRecipients)
+                .description("Account/channel pairs currently tracked for coalescing")
+                .register(meterRegistry);
+        held = counter(meterRegistry, "notification.digest.held", "Events folded into a digest instead of sent alone");
+        digestsSent = counter(meterRegistry, "notification.digest.sent", "Digests handed to the delivery pipeline");
+        evicted = counter(meterRegistry, "notification.digest.evicted", "Recipients flushed early to stay within max-keys");
+        dropped = counter(meterRegistry, "notification.digest.dropped", "Events lost because a digest could not be queued");
+    }
+
+    // ------------------ OFFER ------------------
+
+    /**
+     * @return true if the event was held for a digest; false if the caller should send it now
+     */
+    public boolean offer(NotificationEvent event, Channel channel, String message) {
+        if (!enabled || !running || event.getAccount() == null || event.priorityOrDefault() == Priority.HIGH) {
+            return false;
+        }
+        long now = System.nanoTime();
+        synchronized (buckets) {
+            Key key = new Key(event.getAccount(), channel);
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                makeRoom();
+                bucket = new Bucket(key, now);
+                buckets.put(key, bucket);
+            } else if (bucket.digest == null && now - bucket.windowStart >= windowNanos) {
+                bucket.windowStart = now;
+                bucket.seenInWindow = 0;
+            }
+
+            bucket.seenInWindow++;
+            if (bucket.digest == null && bucket.seenInWindow <= immediatePerWindow) {
+                return false;
+            }
+
+            if (bucket.digest == null) {
+                bucket.digest = new Digest(event.getAccount());
+                bucket.flushAt = now + windowNanos;
+            }
+            bucket.digest.add(event, message);
+            held.increment();
+            if (bucket.digest.getCount() >= maxSize) {
+                flush(bucket, now);
+            }
+            return true;
+        }
+    }
+
+    // ------------------ FLUSH ------------------
+
+    /**
+     * Sends digests whose window has ended and forgets recipients that have gone quiet.
+     */
+    public void flushDue() {
+        long now = System.nanoTime();
+        synchronized (buckets) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                Bucket bucket = it.next();
+                if (bucket.digest != null && now - bucket.flushAt >= 0) {
+                    flush(bucket, now);
+                } else if (bucket.digest == null && now - bucket.windowStart >= windowNanos) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void flushAll() {
+        long now = System.nanoTime();
+        synchronized (buckets) {
+            for (Bucket bucket : buckets.values()) {
+                if (bucket.digest != null) {
+                    flush(bucket, now);
+                }
+            }
+        }
+    }
+
+    // a digest the queue cannot take stays held and is tried again on the next tick
+    private boolean flush(Bucket bucket, long now) {
+        Digest digest = bucket.digest;
+        Notification notification = digest.getCount() == 1
+                ? new Notification(digest.getLastId(), digest.getLastMessage(), bucket.key.channel, Priority.NORMAL, null)
+                : new Notification(templates.renderDigest(digest, bucket.key.channel), bucket.key.channel, Priority.NORMAL, null);
+        if (!dispatcher.submit(notification)) {
+            logger.warn("DIGEST not queued, will retry: account={}, channel={}, events={}",
+                    digest.getAccount(), bucket.key.channel, digest.getCount());
+            return false;
+        }
+        digestsSent.increment();
+        logger.info("DIGEST QUEUED: id={}, account={}, channel={}, events={}",
+                notification.getId(), digest.getAccount(), bucket.key.channel, digest.getCount());
+
+        // still hot: the next window starts now and holds from its first event
+        bucket.digest = null;
+        bucket.windowStart = now;
+        bucket.seenInWindow = immediatePerWindow;
+        return true;
+    }
+
+    private void makeRoom() {
+        while (buckets.size() >= maxKeys) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            Bucket eldest = it.next();
+            it.remove();
+            evicted.increment();
+            if (eldest.digest != null && !flush(eldest, System.nanoTime())) {
+                dropped.increment(eldest.digest.getCount());
+                logger.error("DIGEST DROPPED on eviction: account={}, channel={}, events={}",
+                        eldest.digest.getAccount(), eldest.key.channel, eldest.digest.getCount());
+            }
+        }
+    }
+
+    public int trackedRecipients() {
+        synchronized (buckets) {
+            return buckets.size();
+        }
+    }
+
+    // ------------------ LIFECYCLE ------------------
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-digest");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        ticker.shutdownNow();
+        flushAll();
+        logger.info("Digest coalescer stopped, held digests flushed");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops after the web server and before the dispatcher, which then delivers the flushed digests
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 4095;
+    }
+
+    private void tick() {
+        try {
+            flushDue();
+        } catch (RuntimeException e) {
+            logger.warn("Digest flush pass failed: error={}", e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String description) {
+        return Counter.builder(name).description(description).register(meterRegistry);
+    }
+
+    // ------------------ PER-RECIPIENT STATE ------------------
+
+    private record Key(String account, Channel channel) {
+    }
+
+    private static class Bucket {
+
+        final Key key;
+        long windowStart;
+        int seenInWindow;
+        Digest digest;   // null while nothing is held
+        long flushAt;
+
+        Bucket(Key key, long now) {
+            this.key = key;
+            this.windowStart = now;
+        }
+    }
+}
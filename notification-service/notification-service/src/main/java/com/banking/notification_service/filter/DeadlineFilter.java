@@ -0,0 +1,99 @@
+package com.banking.notification_service.filter;
+
+import com.banking.notification_service.deadline.DeadlineContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.application.name}")
+    private String hop;
+
+    @Value("${banking.deadline.default-timeout-ms:10000}")
+    private long defaultTimeoutMs;
+
+    private Counter expiredOnArrival;
+    private Counter expiredInFlight;
+
+    @PostConstruct
+    void init() {
+        expiredOnArrival = expiredCounter("arrival");
+        expiredInFlight = expiredCounter("completion");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Streams stay open by design, so they get no deadline
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Budget left by the caller, or the local default when called directly
+        long timeoutMs = parseTimeout(request.getHeader(DeadlineContext.HEADER));
+        if (timeoutMs <= 0) {
+            expiredOnArrival.increment();
+            logger.warn("Request arrived after its deadline, rejected: {} {}", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Deadline exceeded");
+            return;
+        }
+
+        DeadlineContext.start(timeoutMs);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (DeadlineContext.isExpired()) {
+                expiredInFlight.increment();
+                logger.warn("Request finished after its deadline: {} {}", request.getMethod(), request.getRequestURI());
+            }
+            DeadlineContext.clear();
+        }
+    }
+
+    private long parseTimeout(String header) {
+        if (header == null || header.isEmpty()) {
+            return defaultTimeoutMs;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return defaultTimeoutMs;
+        }
+    }
+
+    private Counter expiredCounter(String stage) {
+        return Counter.builder("deadline.expired")
+                .description("Requests whose deadline had passed")
+                .tag("hop", hop)
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.banking.notification_service.model;
+
+public enum Channel {
+    EMAIL,
+    SMS,
+    PUSH;
+
+    // property key, e.g. banking.notification.email.workers
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.notification_service.model;
+
+public enum EventType {
+    DEPOSIT(Priority.NORMAL, "deposit"),
+    WITHDRAW(Priority.NORMAL, "withdrawal"),
+    TRANSFER(Priority.NORMAL, "transfer"),
+    FRAUD_ALERT(Priority.HIGH, "security alert");
+
+    private final Priority defaultPriority;
+    private final String label;
+
+    EventType(Priority defaultPriority, String label) {
+        this.defaultPriority = defaultPriority;
+        this.label = label;
+    }
+
+    public Priority getDefaultPriority() {
+        return defaultPriority;
+    }
+
+    // human wording, used in digests: "3 deposits"
+    public String label(int count) {
+        return count == 1 ? label : label + "s";
+    }
+
+    // property key, e.g. banking.notification.templates.deposit
+    public String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,75 @@
+package com.banking.notification_service.model;
+
+import java.util.UUID;
+
+/**
+ * A message accepted for asynchronous delivery, plus the bookkeeping the pipeline needs
+ * (attempt count, when it was accepted and last queued, the caller's correlation id).
+ */
+public class Notification {
+
+    private final String id;
+    private final String message;
+    private final Channel channel;
+    private final Priority priority;
+    private final String correlationId;
+    private final long acceptedAtNanos;
+
+    private volatile long enqueuedAtNanos;
+    private volatile int attempts;
+
+    public Notification(String message, Channel channel, Priority priority, String correlationId) {
+        this(null, message, channel, priority, correlationId);
+    }
+
+    // id supplied by the sender (e.g. its outbox id), so a redelivered message keeps its identity
+    public Notification(String id, String message, Channel channel, Priority priority, String correlationId) {
+        this.id = id != null ? id : UUID.randomUUID().toString();
+        this.message = message;
+        this.channel = channel;
+        this.priority = priority;
+        this.correlationId = correlationId;
+        this.acceptedAtNanos = System.nanoTime();
+        this.enqueuedAtNanos = acceptedAtNanos;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public long getAcceptedAtNanos() {
+        return acceptedAtNanos;
+    }
+
+    public long getEnqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+
+    public void markEnqueued() {
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int startAttempt() {
+        return ++attempts;
+    }
+}
@@ -0,0 +1,122 @@
+package com.banking.notification_service.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * What happened, not what to say: producers send these small structured events and the
+ * text is rendered here from templates. id is the producer's idempotency key (for
+ * transaction-service, its outbox id) and is what duplicates are recognised by.
+ * channel and priority are optional; by default EMAIL and the type's own priority.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationEvent {
+
+    private String id;
+    // unknown names read as null, so one bad event is rejected on its own rather than failing the batch
+    @JsonFormat(with = JsonFormat.Feature.READ_UNKNOWN_ENUM_VALUES_AS_NULL)
+    private EventType type;
+    private String account;
+    private String counterparty;
+    private Double amount;
+    private String transactionId;
+    private Long timestamp; // epoch millis
+
+    private Channel channel;
+    private Priority priority;
+
+    public NotificationEvent() {}
+
+    public NotificationEvent(String id, EventType type, String account, String counterparty,
+                             Double amount, String transactionId, Long timestamp) {
+        this.id = id;
+        this.type = type;
+        this.account = account;
+        this.counterparty = counterparty;
+        this.amount = amount;
+        this.transactionId = transactionId;
+        this.timestamp = timestamp;
+    }
+
+    public Channel channelOrDefault() {
+        return channel != null ? channel : Channel.EMAIL;
+    }
+
+    public Priority priorityOrDefault() {
+        return priority != null ? priority : type.getDefaultPriority();
+    }
+
+    // getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public void setType(EventType type) {
+        this.type = type;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public String getCounterparty() {
+        return counterparty;
+    }
+
+    public void setCounterparty(String counterparty) {
+        this.counterparty = counterparty;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    public void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.notification_service.model;
+
+/**
+ * Delivery order within a channel: every queued HIGH message (e.g. a fraud alert) goes
+ * before any NORMAL one, and NORMAL before LOW (e.g. marketing).
+ */
+public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+}
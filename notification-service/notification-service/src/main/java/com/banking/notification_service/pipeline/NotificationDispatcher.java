@@ -0,0 +1,312 @@
+package com.banking.notification_service.pipeline;
+
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.Priority;
+import com.banking.notification_service.sender.NotificationSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous delivery pipeline: one bounded {@link PriorityNotificationQueue} and one
+ * worker pool per channel, so a slow SMS provider cannot hold up email or push.
+ *
+ * {@link #submit} only enqueues and returns false when the channel's queue is full; the
+ * caller turns that into a 503. Failed attempts are retried with exponential backoff and
+ * jitter up to max-attempts. On shutdown the pipeline stops accepting, then keeps working
+ * until everything accepted is delivered or given up on, bounded by drain-timeout-ms.
+ *
+ * Settings are per channel with a global fallback, e.g.
+ *   banking.notification.sms.workers=2
+ *   banking.notification.queue-capacity=1000
+ */
+@Component
+public class NotificationDispatcher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String PREFIX = "banking.notification.";
+    private static final long POLL_MS = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final Map<Channel, ChannelPipeline> pipelines = new EnumMap<>(Channel.class);
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long drainTimeoutMs;
+
+    private final ScheduledExecutorService retryScheduler;
+
+    private volatile boolean accepting;
+    private volatile boolean draining;
+    private volatile boolean running;
+
+    public NotificationDispatcher(List<NotificationSender> senders, MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.maxAttempts = environment.getProperty(PREFIX + "max-attempts", Integer.class, 5);
+        this.initialBackoffMs = environment.getProperty(PREFIX + "retry.initial-backoff-ms", Long.class, 200L);
+        this.maxBackoffMs = environment.getProperty(PREFIX + "retry.max-backoff-ms", Long.class, 10000L);
+        this.drainTimeoutMs = environment.getProperty(PREFIX + "drain-timeout-ms", Long.class, 20000L);
+
+        for (NotificationSender sender : senders) {
+            pipelines.put(sender.getChannel(), new ChannelPipeline(sender));
+        }
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ------------------ ACCEPT ------------------
+
+    /**
+     * @return false if the message was not accepted: the channel's queue is full, the
+     *         channel has no sender, or the service is shutting down
+     */
+    public boolean submit(Notification notification) {
+        ChannelPipeline pipeline = pipelines.get(notification.getChannel());
+        if (!accepting || pipeline == null) {
+            return false;
+        }
+        pipeline.outstanding.incrementAndGet();
+        if (!pipeline.queue.offer(notification)) {
+            pipeline.outstanding.decrementAndGet();
+            pipeline.rejected.increment();
+            return false;
+        }
+        pipeline.accepted.increment();
+        return true;
+    }
+
+    public int queueDepth(Channel channel) {
+        ChannelPipeline pipeline = pipelines.get(channel);
+        return pipeline == null ? 0 : pipeline.queue.size();
+    }
+
+    // ------------------ LIFECYCLE ------------------
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        pipelines.values().forEach(ChannelPipeline::startWorkers);
+        accepting = true;
+        running = true;
+        logger.info("Notification pipeline started: channels={}", pipelines.keySet());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        draining = true;
+        logger.info("Notification pipeline draining: queued={}", totalOutstanding());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        for (ChannelPipeline pipeline : pipelines.values()) {
+            pipeline.awaitWorkers(deadline);
+        }
+
+        int undelivered = totalOutstanding();
+        if (undelivered > 0) {
+            logger.warn("Notification pipeline stopped before draining: undelivered={}", undelivered);
+        } else {
+            logger.info("Notification pipeline drained");
+        }
+        pipelines.values().forEach(ChannelPipeline::interruptWorkers);
+        retryScheduler.shutdownNow();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stop after the web server has stopped taking requests, so nothing is accepted mid-drain
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    private int totalOutstanding() {
+        return pipelines.values().stream().mapToInt(p -> p.outstanding.get()).sum();
+    }
+
+    // ------------------ DELIVERY ------------------
+
+    private void deliver(ChannelPipeline pipeline, Notification notification) {
+        int attempt = notification.startAttempt();
+        pipeline.queueWait.record(System.nanoTime() - notification.getEnqueuedAtNanos(), TimeUnit.NANOSECONDS);
+
+        if (notification.getCorrelationId() != null) {
+            MDC.put("correlationId", notification.getCorrelationId());
+        }
+        try {
+            pipeline.sender.send(notification);
+            pipeline.latency.get(notification.getPriority())
+                    .record(System.nanoTime() - notification.getAcceptedAtNanos(), TimeUnit.NANOSECONDS);
+            pipeline.delivered.increment();
+            pipeline.outstanding.decrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(pipeline, notification, e);
+        } catch (Exception e) {
+            if (attempt < maxAttempts) {
+                long backoff = backoffMillis(attempt);
+                pipeline.retried.increment();
+                logger.warn("NOTIFICATION attempt failed, retrying: id={}, channel={}, attempt={}, backoffMs={}, error={}",
+                        notification.getId(), pipeline.channel, attempt, backoff, e.getMessage());
+                retryScheduler.schedule(() -> pipeline.queue.requeue(notification), backoff, TimeUnit.MILLISECONDS);
+            } else {
+                giveUp(pipeline, notification, e);
+            }
+        } finally {
+            MDC.remove("correlationId");
+        }
+    }
+
+    private void giveUp(ChannelPipeline pipeline, Notification notification, Exception e) {
+        pipeline.failed.increment();
+        pipeline.outstanding.decrementAndGet();
+        logger.error("NOTIFICATION FAILED: id={}, channel={}, attempts={}, error={}",
+                notification.getId(), pipeline.channel, notification.getAttempts(), e.getMessage());
+    }
+
+    // exponential, capped, with jitter so retries from a provider outage do not arrive in waves
+    private long backoffMillis(int attempt) {
+        long exponential = initialBackoffMs << Math.min(attempt - 1, 20);
+        long capped = Math.min(maxBackoffMs, exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    // ------------------ PER-CHANNEL STATE ------------------
+
+    private class ChannelPipeline {
+
+        final Channel channel;
+        final NotificationSender sender;
+        final PriorityNotificationQueue queue;
+        final int workerCount;
+        final List<Thread> workers = new ArrayList<>();
+
+        // accepted and not yet delivered or given up on, including messages waiting to be retried
+        final AtomicInteger outstanding = new AtomicInteger();
+
+        final Counter accepted;
+        final Counter rejected;
+        final Counter delivered;
+        final Counter retried;
+        final Counter failed;
+        final Timer queueWait;
+        final Map<Priority, Timer> latency = new EnumMap<>(Priority.class);
+
+        ChannelPipeline(NotificationSender sender) {
+            this.channel = sender.getChannel();
+            this.sender = sender;
+            this.queue = new PriorityNotificationQueue(setting("queue-capacity", 1000));
+            this.workerCount = setting("workers", 4);
+
+            Gauge.builder("notification.queue.depth", queue, PriorityNotificationQueue::size)
+                    .description("Notifications waiting for a worker")
+                    .tag("channel", channel.name())
+                    .register(meterRegistry);
+            accepted = outcome("accepted");
+            rejected = outcome("rejected");
+            delivered = outcome("delivered");
+            retried = outcome("retried");
+            failed = outcome("failed");
+            queueWait = Timer.builder("notification.queue.wait")
+                    .description("Time a notification waited in the queue before an attempt")
+                    .tag("channel", channel.name())
+                    .register(meterRegistry);
+            for (Priority priority : Priority.values()) {
+                latency.put(priority, Timer.builder("notification.delivery.latency")
+                        .description("Time from acceptance to successful delivery")
+                        .tag("channel", channel.name())
+                        .tag("priority", priority.name())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry));
+            }
+        }
+
+        void startWorkers() {
+            for (int i = 1; i <= workerCount; i++) {
+                Thread worker = new Thread(this::work, "notify-" + channel.key() + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        private void work() {
+            try {
+                while (!(draining && outstanding.get() == 0)) {
+                    Notification next = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        deliver(this, next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitWorkers(long deadlineNanos) {
+            for (Thread worker : workers) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return;
+                }
+                try {
+                    worker.join(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        void interruptWorkers() {
+            workers.forEach(Thread::interrupt);
+        }
+
+        private int setting(String name, int defaultValue) {
+            Integer global = environment.getProperty(PREFIX + name, Integer.class, defaultValue);
+            return environment.getProperty(PREFIX + channel.key() + "." + name, Integer.class, global);
+        }
+
+        private Counter outcome(String outcome) {
+            return Counter.builder("notification.requests")
+                    .description("Notifications by pipeline outcome")
+                    .tag("channel", channel.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
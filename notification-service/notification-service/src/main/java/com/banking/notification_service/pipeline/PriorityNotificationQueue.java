@@ -0,0 +1,98 @@
+package com.banking.notification_service.pipeline;
+
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.Priority;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue for one channel: strict priority order, FIFO within a priority.
+ *
+ * New messages are refused once the queue holds {@code capacity} entries, which is what
+ * pushes back on callers. Retries of already-accepted messages always get back in, so a
+ * full queue never turns a retry into a silent drop.
+ */
+public class PriorityNotificationQueue {
+
+    private final int capacity;
+    private final ArrayDeque<Notification>[] byPriority;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public PriorityNotificationQueue(int capacity) {
+        this.capacity = capacity;
+        this.byPriority = new ArrayDeque[Priority.values().length];
+        for (int i = 0; i < byPriority.length; i++) {
+            byPriority[i] = new ArrayDeque<>();
+        }
+    }
+
+    public boolean offer(Notification notification) {
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                return false;
+            }
+            add(notification);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void requeue(Notification notification) {
+        lock.lock();
+        try {
+            add(notification);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the highest-priority message, or null if none arrived within the timeout
+     */
+    public Notification poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            for (ArrayDeque<Notification> queue : byPriority) {
+                Notification next = queue.pollFirst();
+                if (next != null) {
+                    size--;
+                    return next;
+                }
+            }
+            throw new IllegalStateException("size " + size + " but all priority queues are empty");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(Notification notification) {
+        notification.markEnqueued();
+        byPriority[notification.getPriority().ordinal()].addLast(notification);
+        size++;
+        notEmpty.signal();
+    }
+}
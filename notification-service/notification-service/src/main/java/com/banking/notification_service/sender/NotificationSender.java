@@ -0,0 +1,15 @@
+package com.banking.notification_service.sender;
+
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+
+/**
+ * Delivers messages over one channel. Called from that channel's worker threads only;
+ * throwing means the attempt failed and the pipeline may retry it.
+ */
+public interface NotificationSender {
+
+    Channel getChannel();
+
+    void send(Notification notification) throws Exception;
+}
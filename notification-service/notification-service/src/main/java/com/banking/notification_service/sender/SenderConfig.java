@@ -0,0 +1,28 @@
+package com.banking.notification_service.sender;
+
+import com.banking.notification_service.model.Channel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SenderConfig {
+
+    @Bean
+    public NotificationSender emailSender(@Value("${banking.notification.email.simulated-latency-ms:0}") long latencyMs,
+                                          @Value("${banking.notification.email.simulated-failure-rate:0}") double failureRate) {
+        return new SimulatedSender(Channel.EMAIL, latencyMs, failureRate);
+    }
+
+    @Bean
+    public NotificationSender smsSender(@Value("${banking.notification.sms.simulated-latency-ms:0}") long latencyMs,
+                                        @Value("${banking.notification.sms.simulated-failure-rate:0}") double failureRate) {
+        return new SimulatedSender(Channel.SMS, latencyMs, failureRate);
+    }
+
+    @Bean
+    public NotificationSender pushSender(@Value("${banking.notification.push.simulated-latency-ms:0}") long latencyMs,
+                                         @Value("${banking.notification.push.simulated-failure-rate:0}") double failureRate) {
+        return new SimulatedSender(Channel.PUSH, latencyMs, failureRate);
+    }
+}
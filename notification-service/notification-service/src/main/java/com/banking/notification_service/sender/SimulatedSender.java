@@ -0,0 +1,43 @@
+package com.banking.notification_service.sender;
+
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for a real email/SMS/push provider: takes a configurable time per message
+ * and can fail a configurable share of attempts, so the pipeline can be exercised.
+ */
+public class SimulatedSender implements NotificationSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedSender.class);
+
+    private final Channel channel;
+    private final long latencyMs;
+    private final double failureRate;
+
+    public SimulatedSender(Channel channel, long latencyMs, double failureRate) {
+        this.channel = channel;
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public Channel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void send(Notification notification) throws Exception {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException(channel + " provider unavailable");
+        }
+        logger.info("NOTIFICATION SENT via {}: id={}, message={}", channel, notification.getId(), notification.getMessage());
+    }
+}
@@ -0,0 +1,96 @@
+package com.banking.notification_service.service;
+
+import com.banking.notification_service.digest.DigestCoalescer;
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.NotificationEvent;
+import com.banking.notification_service.pipeline.NotificationDispatcher;
+import com.banking.notification_service.template.NotificationTemplates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns typed events into queued notifications: drops events already accepted within the
+ * dedupe window, renders the text from the compiled template for the event's type and
+ * channel, and hands it to the {@link NotificationDispatcher} - or, for a recipient that
+ * is currently busy, to the {@link DigestCoalescer}.
+ */
+@Service
+public class NotificationIntake {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationIntake.class);
+
+    // REJECTED is worth retrying later (queue full); INVALID never is
+    public enum Result { QUEUED, COALESCED, DUPLICATE, REJECTED, INVALID }
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private NotificationTemplates templates;
+
+    @Autowired
+    private DigestCoalescer coalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.notification.dedupe.window-ms:600000}")
+    private long dedupeWindowMs;
+
+    @Value("${banking.notification.dedupe.max-ids:100000}")
+    private int dedupeMaxIds;
+
+    private RecentIds recentIds;
+    private Counter duplicates;
+    private Counter invalid;
+
+    @PostConstruct
+    void init() {
+        recentIds = new RecentIds(dedupeWindowMs, dedupeMaxIds);
+        duplicates = Counter.builder("notification.events.duplicate")
+                .description("Events dropped because their id was already accepted")
+                .register(meterRegistry);
+        invalid = Counter.builder("notification.events.invalid")
+                .description("Events rejected because they cannot be rendered")
+                .register(meterRegistry);
+    }
+
+    public Result accept(NotificationEvent event, String correlationId) {
+        // an unknown or missing type deserializes to null, and there is no template for it
+        if (event.getType() == null) {
+            invalid.increment();
+            logger.warn("NOTIFICATION INVALID - no event type: id={}", event.getId());
+            return Result.INVALID;
+        }
+
+        if (event.getId() != null && !recentIds.claim(event.getId())) {
+            duplicates.increment();
+            logger.info("NOTIFICATION DUPLICATE dropped: id={}, type={}", event.getId(), event.getType());
+            return Result.DUPLICATE;
+        }
+
+        Channel channel = event.channelOrDefault();
+        String message = templates.render(event, channel);
+        if (coalescer.offer(event, channel, message)) {
+            return Result.COALESCED;
+        }
+
+        Notification notification = new Notification(event.getId(), message, channel,
+                event.priorityOrDefault(), correlationId);
+
+        if (!dispatcher.submit(notification)) {
+            if (event.getId() != null) {
+                recentIds.release(event.getId());
+            }
+            return Result.REJECTED;
+        }
+        return Result.QUEUED;
+    }
+}
@@ -0,0 +1,57 @@
+package com.banking.notification_service.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ids seen within the last window, bounded in size: the oldest ids are forgotten first.
+ * Used to drop redelivered events (the outbox relay delivers at least once).
+ */
+public class RecentIds {
+
+    private final long windowNanos;
+    private final int maxIds;
+
+    // insertion order == age order, since entries are never refreshed
+    private final LinkedHashMap<String, Long> seenAt = new LinkedHashMap<>();
+
+    public RecentIds(long windowMillis, int maxIds) {
+        this.windowNanos = windowMillis * 1_000_000;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * @return true if the id was not seen within the window; it now counts as seen
+     */
+    public synchronized boolean claim(String id) {
+        long now = System.nanoTime();
+        evict(now);
+        Long previous = seenAt.get(id);
+        if (previous != null) {
+            return false;
+        }
+        seenAt.put(id, now);
+        return true;
+    }
+
+    // the claimed event was not accepted after all, so a redelivery must go through
+    public synchronized void release(String id) {
+        seenAt.remove(id);
+    }
+
+    public synchronized int size() {
+        return seenAt.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Long>> it = seenAt.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> oldest = it.next();
+            if (seenAt.size() < maxIds && now - oldest.getValue() < windowNanos) {
+                return;
+            }
+            it.remove();
+        }
+    }
+}
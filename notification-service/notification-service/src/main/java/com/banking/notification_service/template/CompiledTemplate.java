@@ -0,0 +1,67 @@
+package com.banking.notification_service.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A message template parsed once into literal text and field accessors, so rendering is a
+ * single pass with no parsing or lookups. Placeholders look like {amount}; a placeholder
+ * naming an unknown field is rejected when the template is compiled, not when it is used.
+ */
+public class CompiledTemplate<T> {
+
+    private final String source;
+    private final List<Function<T, String>> segments;
+
+    private CompiledTemplate(String source, List<Function<T, String>> segments) {
+        this.source = source;
+        this.segments = segments;
+    }
+
+    public static <T> CompiledTemplate<T> compile(String source, Map<String, Function<T, String>> fields) {
+        List<Function<T, String>> segments = new ArrayList<>();
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf('{', pos);
+            if (open < 0) {
+                segments.add(literal(source.substring(pos)));
+                break;
+            }
+            int close = source.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + source);
+            }
+            if (open > pos) {
+                segments.add(literal(source.substring(pos, open)));
+            }
+            String name = source.substring(open + 1, close).trim();
+            Function<T, String> field = fields.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown placeholder {" + name + "} in template: " + source
+                        + " (known: " + fields.keySet() + ")");
+            }
+            segments.add(field);
+            pos = close + 1;
+        }
+        return new CompiledTemplate<>(source, List.copyOf(segments));
+    }
+
+    public String render(T value) {
+        StringBuilder out = new StringBuilder(source.length() + 32);
+        for (Function<T, String> segment : segments) {
+            String part = segment.apply(value);
+            out.append(part != null ? part : "");
+        }
+        return out.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    private static <T> Function<T, String> literal(String text) {
+        return value -> text;
+    }
+}
@@ -0,0 +1,106 @@
+package com.banking.notification_service.template;
+
+import com.banking.notification_service.digest.Digest;
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.EventType;
+import com.banking.notification_service.model.NotificationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Message text per event type and channel, compiled once at startup.
+ *
+ * Templates come from banking.notification.templates.&lt;type&gt; with an optional channel
+ * override banking.notification.templates.&lt;channel&gt;.&lt;type&gt; (e.g. a shorter SMS text),
+ * falling back to the built-in defaults. A bad template stops the service from starting.
+ * Digests of coalesced events use the "digest" template the same way.
+ */
+@Component
+public class NotificationTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationTemplates.class);
+
+    private static final String PREFIX = "banking.notification.templates.";
+
+    private static final Map<EventType, String> DEFAULTS = Map.of(
+            EventType.DEPOSIT, "Deposit of {amount} to account {account} was successful.",
+            EventType.WITHDRAW, "Withdrawal of {amount} from account {account} was successful.",
+            EventType.TRANSFER, "Transfer of {amount} from {account} to {counterparty} was successful.",
+            EventType.FRAUD_ALERT, "Security alert for account {account}: please review transaction {transactionId}.");
+
+    private static final String DIGEST = "digest";
+    private static final String DIGEST_DEFAULT = "{count} notifications for account {account} since {since}: {summary}.";
+
+    static final Map<String, Function<NotificationEvent, String>> EVENT_FIELDS = eventFields();
+    static final Map<String, Function<Digest, String>> DIGEST_FIELDS = digestFields();
+
+    private final Map<EventType, Map<Channel, CompiledTemplate<NotificationEvent>>> templates = new EnumMap<>(EventType.class);
+    private final Map<Channel, CompiledTemplate<Digest>> digestTemplates = new EnumMap<>(Channel.class);
+
+    public NotificationTemplates(Environment environment) {
+        for (EventType type : EventType.values()) {
+            Map<Channel, CompiledTemplate<NotificationEvent>> byChannel = new EnumMap<>(Channel.class);
+            String base = environment.getProperty(PREFIX + type.key(), DEFAULTS.get(type));
+            for (Channel channel : Channel.values()) {
+                String source = environment.getProperty(PREFIX + channel.key() + "." + type.key(), base);
+                byChannel.put(channel, CompiledTemplate.compile(source, EVENT_FIELDS));
+            }
+            templates.put(type, byChannel);
+        }
+        String digestBase = environment.getProperty(PREFIX + DIGEST, DIGEST_DEFAULT);
+        for (Channel channel : Channel.values()) {
+            String source = environment.getProperty(PREFIX + channel.key() + "." + DIGEST, digestBase);
+            digestTemplates.put(channel, CompiledTemplate.compile(source, DIGEST_FIELDS));
+        }
+        logger.info("Notification templates compiled: types={}, channels={}", templates.keySet(), Channel.values().length);
+    }
+
+    public String render(NotificationEvent event, Channel channel) {
+        return templates.get(event.getType()).get(channel).render(event);
+    }
+
+    public String renderDigest(Digest digest, Channel channel) {
+        return digestTemplates.get(channel).render(digest);
+    }
+
+    // ------------------ FORMATTING ------------------
+
+    public static String formatAmount(Double amount) {
+        if (amount == null) {
+            return null;
+        }
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_EVEN).toPlainString();
+    }
+
+    private static Map<String, Function<NotificationEvent, String>> eventFields() {
+        Map<String, Function<NotificationEvent, String>> fields = new LinkedHashMap<>();
+        fields.put("id", NotificationEvent::getId);
+        fields.put("type", e -> e.getType().name());
+        fields.put("account", NotificationEvent::getAccount);
+        fields.put("counterparty", NotificationEvent::getCounterparty);
+        fields.put("amount", e -> formatAmount(e.getAmount()));
+        fields.put("transactionId", NotificationEvent::getTransactionId);
+        fields.put("timestamp", e -> e.getTimestamp() == null ? null : Instant.ofEpochMilli(e.getTimestamp()).toString());
+        return Map.copyOf(fields);
+    }
+
+    private static Map<String, Function<Digest, String>> digestFields() {
+        Map<String, Function<Digest, String>> fields = new LinkedHashMap<>();
+        fields.put("account", Digest::getAccount);
+        fields.put("count", d -> String.valueOf(d.getCount()));
+        fields.put("summary", Digest::summary);
+        fields.put("since", d -> Instant.ofEpochMilli(d.getFirstTimestamp()).toString());
+        fields.put("until", d -> Instant.ofEpochMilli(d.getLastTimestamp()).toString());
+        return Map.copyOf(fields);
+    }
+}
@@ -0,0 +1,151 @@
+package com.banking.notification_service;
+
+import com.banking.notification_service.digest.DigestCoalescer;
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.EventType;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.NotificationEvent;
+import com.banking.notification_service.pipeline.NotificationDispatcher;
+import com.banking.notification_service.sender.NotificationSender;
+import com.banking.notification_service.template.NotificationTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestCoalescerTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private NotificationDispatcher dispatcher;
+    private DigestCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+        dispatcher.stop();
+    }
+
+    // ------------------ TEST: QUIET ACCOUNT ------------------
+    @Test
+    void testLowVolumeEventsAreNotHeld() {
+        start(1000, 10);
+
+        assertFalse(offer("ACC1", 100.0));
+        assertFalse(offer("ACC1", 200.0));
+        assertFalse(offer("ACC2", 300.0));
+    }
+
+    // ------------------ TEST: WINDOW DEADLINE ------------------
+    @Test
+    void testHotAccountGetsOneDigestAtWindowEnd() throws Exception {
+        start(100, 10);
+
+        assertFalse(offer("ACC1", 1.0));
+        assertFalse(offer("ACC1", 1.0));
+        assertTrue(offer("ACC1", 100.0));
+        assertTrue(offer("ACC1", 200.0));
+        assertTrue(offer("ACC1", 300.0));
+
+        coalescer.flushDue();
+        assertTrue(delivered.isEmpty());
+
+        Thread.sleep(150);
+        coalescer.flushDue();
+        awaitDeliveries(1);
+
+        assertEquals(1, delivered.size());
+        assertTrue(delivered.get(0).startsWith("3 notifications for account ACC1"));
+        assertTrue(delivered.get(0).contains("3 deposits totalling 600.00"));
+    }
+
+    // ------------------ TEST: SIZE THRESHOLD ------------------
+    @Test
+    void testDigestIsSentEarlyWhenFull() throws Exception {
+        start(60000, 3);
+
+        offer("ACC1", 1.0);
+        offer("ACC1", 1.0);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(offer("ACC1", 10.0));
+        }
+        awaitDeliveries(1);
+
+        assertTrue(delivered.get(0).contains("3 deposits totalling 30.00"));
+    }
+
+    // ------------------ TEST: BOUNDED STATE ------------------
+    @Test
+    void testLeastRecentRecipientIsFlushedWhenFull() throws Exception {
+        MockEnvironment env = settings(60000, 10).withProperty("banking.notification.digest.max-keys", "2");
+        start(env);
+
+        for (int i = 0; i < 4; i++) {
+            offer("ACC1", 5.0);
+        }
+        offer("ACC2", 1.0);
+        offer("ACC3", 1.0);
+        awaitDeliveries(1);
+
+        assertEquals(2, coalescer.trackedRecipients());
+        assertTrue(delivered.get(0).contains("ACC1"));
+    }
+
+    // ------------------ TEST: ALERTS BYPASS ------------------
+    @Test
+    void testHighPriorityIsNeverHeld() {
+        start(60000, 10);
+
+        for (int i = 0; i < 5; i++) {
+            NotificationEvent alert = new NotificationEvent("a" + i, EventType.FRAUD_ALERT, "ACC1", null, null, "T", 0L);
+            assertFalse(coalescer.offer(alert, Channel.EMAIL, "alert"));
+        }
+    }
+
+    private boolean offer(String account, double amount) {
+        NotificationEvent event = new NotificationEvent(null, EventType.DEPOSIT, account, null, amount, "T",
+                System.currentTimeMillis());
+        return coalescer.offer(event, Channel.EMAIL, "Deposit of " + amount);
+    }
+
+    private void awaitDeliveries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (delivered.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void start(long windowMs, int maxSize) {
+        start(settings(windowMs, maxSize));
+    }
+
+    private void start(MockEnvironment env) {
+        NotificationSender recording = new NotificationSender() {
+            @Override
+            public Channel getChannel() {
+                return Channel.EMAIL;
+            }
+
+            @Override
+            public void send(Notification notification) {
+                delivered.add(notification.getMessage());
+            }
+        };
+        dispatcher = new NotificationDispatcher(List.of(recording), new SimpleMeterRegistry(), env);
+        coalescer = new DigestCoalescer(dispatcher, new NotificationTemplates(env), new SimpleMeterRegistry(), env);
+        dispatcher.start();
+        coalescer.start();
+    }
+
+    private static MockEnvironment settings(long windowMs, int maxSize) {
+        return new MockEnvironment()
+                .withProperty("banking.notification.digest.window-ms", String.valueOf(windowMs))
+                .withProperty("banking.notification.digest.immediate-per-window", "2")
+                .withProperty("banking.notification.digest.max-size", String.valueOf(maxSize))
+                .withProperty("banking.notification.digest.tick-ms", "60000");
+    }
+}
@@ -0,0 +1,125 @@
+package com.banking.notification_service;
+
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.Priority;
+import com.banking.notification_service.pipeline.NotificationDispatcher;
+import com.banking.notification_service.pipeline.PriorityNotificationQueue;
+import com.banking.notification_service.sender.NotificationSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    // ------------------ TEST: PRIORITY ORDER ------------------
+    @Test
+    void testHigherPriorityLeavesQueueFirst() throws Exception {
+        PriorityNotificationQueue queue = new PriorityNotificationQueue(10);
+        queue.offer(notification("marketing", Priority.LOW));
+        queue.offer(notification("statement", Priority.NORMAL));
+        queue.offer(notification("fraud alert", Priority.HIGH));
+
+        assertEquals("fraud alert", queue.poll(1, TimeUnit.SECONDS).getMessage());
+        assertEquals("statement", queue.poll(1, TimeUnit.SECONDS).getMessage());
+        assertEquals("marketing", queue.poll(1, TimeUnit.SECONDS).getMessage());
+    }
+
+    // ------------------ TEST: BOUNDED QUEUE ------------------
+    @Test
+    void testFullQueueRejectsNewButAcceptsRetries() {
+        PriorityNotificationQueue queue = new PriorityNotificationQueue(2);
+
+        assertTrue(queue.offer(notification("1", Priority.NORMAL)));
+        assertTrue(queue.offer(notification("2", Priority.NORMAL)));
+        assertFalse(queue.offer(notification("3", Priority.HIGH)));
+
+        queue.requeue(notification("retry", Priority.NORMAL));
+        assertEquals(3, queue.size());
+    }
+
+    // ------------------ TEST: RETRY WITH BACKOFF ------------------
+    @Test
+    void testFailedAttemptIsRetriedUntilDelivered() throws Exception {
+        ConcurrentHashMap<String, Integer> attempts = new ConcurrentHashMap<>();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        NotificationSender flaky = sender(n -> {
+            if (attempts.merge(n.getId(), 1, Integer::sum) < 3) {
+                throw new IllegalStateException("provider down");
+            }
+            delivered.add(n.getMessage());
+        });
+        NotificationDispatcher dispatcher = dispatcher(flaky, 100);
+        dispatcher.start();
+
+        assertTrue(dispatcher.submit(notification("deposit", Priority.NORMAL)));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (delivered.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        dispatcher.stop();
+
+        assertEquals(List.of("deposit"), delivered);
+        assertEquals(3, attempts.values().iterator().next());
+    }
+
+    // ------------------ TEST: SHUTDOWN DRAINS THE QUEUE ------------------
+    @Test
+    void testStopDeliversEverythingAlreadyAccepted() {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        NotificationSender slow = sender(n -> {
+            Thread.sleep(5);
+            delivered.add(n.getMessage());
+        });
+        NotificationDispatcher dispatcher = dispatcher(slow, 100);
+        dispatcher.start();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(dispatcher.submit(notification("msg-" + i, Priority.NORMAL)));
+        }
+        dispatcher.stop();
+
+        assertEquals(50, delivered.size());
+        assertFalse(dispatcher.submit(notification("late", Priority.HIGH)));
+    }
+
+    private static NotificationDispatcher dispatcher(NotificationSender sender, int capacity) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("banking.notification.queue-capacity", String.valueOf(capacity))
+                .withProperty("banking.notification.workers", "2")
+                .withProperty("banking.notification.retry.initial-backoff-ms", "10")
+                .withProperty("banking.notification.retry.max-backoff-ms", "50")
+                .withProperty("banking.notification.drain-timeout-ms", "5000");
+        return new NotificationDispatcher(List.of(sender), new SimpleMeterRegistry(), environment);
+    }
+
+    private static NotificationSender sender(Delivery delivery) {
+        return new NotificationSender() {
+            @Override
+            public Channel getChannel() {
+                return Channel.EMAIL;
+            }
+
+            @Override
+            public void send(Notification notification) throws Exception {
+                delivery.deliver(notification);
+            }
+        };
+    }
+
+    private static Notification notification(String message, Priority priority) {
+        return new Notification(message, Channel.EMAIL, priority, null);
+    }
+
+    private interface Delivery {
+        void deliver(Notification notification) throws Exception;
+    }
+}
@@ -0,0 +1,118 @@
+package com.banking.notification_service;
+
+import com.banking.notification_service.controller.NotificationController;
+import com.banking.notification_service.digest.DigestCoalescer;
+import com.banking.notification_service.model.Channel;
+import com.banking.notification_service.model.EventType;
+import com.banking.notification_service.model.Notification;
+import com.banking.notification_service.model.NotificationEvent;
+import com.banking.notification_service.pipeline.NotificationDispatcher;
+import com.banking.notification_service.service.NotificationIntake;
+import com.banking.notification_service.service.RecentIds;
+import com.banking.notification_service.template.NotificationTemplates;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationTemplatesTest {
+
+    // ------------------ TEST: RENDERING ------------------
+    @Test
+    void testEventIsRenderedFromItsTypeTemplate() {
+        NotificationTemplates templates = new NotificationTemplates(new MockEnvironment());
+
+        NotificationEvent transfer = new NotificationEvent("e1", EventType.TRANSFER, "ACC1001", "ACC2002",
+                1000.0, "T1", 0L);
+
+        assertEquals("Transfer of 1000.00 from ACC1001 to ACC2002 was successful.",
+                templates.render(transfer, Channel.EMAIL));
+    }
+
+    // ------------------ TEST: CHANNEL OVERRIDE ------------------
+    @Test
+    void testChannelOverrideReplacesTypeTemplate() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("banking.notification.templates.deposit", "Deposited {amount} into {account}")
+                .withProperty("banking.notification.templates.sms.deposit", "+{amount} {account}");
+        NotificationTemplates templates = new NotificationTemplates(env);
+
+        NotificationEvent deposit = new NotificationEvent("e2", EventType.DEPOSIT, "ACC1001", null, 25.5, "T2", 0L);
+
+        assertEquals("Deposited 25.50 into ACC1001", templates.render(deposit, Channel.EMAIL));
+        assertEquals("+25.50 ACC1001", templates.render(deposit, Channel.SMS));
+    }
+
+    // ------------------ TEST: BAD TEMPLATE FAILS AT STARTUP ------------------
+    @Test
+    void testUnknownPlaceholderIsRejectedWhenCompiled() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("banking.notification.templates.withdraw", "Withdrew {amout}");
+
+        assertThrows(IllegalArgumentException.class, () -> new NotificationTemplates(env));
+    }
+
+    // ------------------ TEST: DEDUPE ------------------
+    @Test
+    void testRedeliveredIdIsDroppedUntilReleased() {
+        RecentIds ids = new RecentIds(60_000, 2);
+
+        assertTrue(ids.claim("a"));
+        assertFalse(ids.claim("a"));
+
+        ids.release("a");
+        assertTrue(ids.claim("a"));
+
+        // bounded: the oldest id is forgotten first
+        assertTrue(ids.claim("b"));
+        assertTrue(ids.claim("c"));
+        assertEquals(2, ids.size());
+        assertTrue(ids.claim("a"));
+    }
+
+    // ------------------ TEST: TYPELESS EVENT REJECTED ON ITS OWN ------------------
+    @Test
+    void testEventWithoutTypeIsRejectedAloneInBatch() throws Exception {
+        NotificationDispatcher dispatcher = mock(NotificationDispatcher.class);
+        when(dispatcher.submit(any(Notification.class))).thenReturn(true);
+        DigestCoalescer coalescer = mock(DigestCoalescer.class);
+
+        NotificationIntake intake = new NotificationIntake();
+        ReflectionTestUtils.setField(intake, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(intake, "templates", new NotificationTemplates(new MockEnvironment()));
+        ReflectionTestUtils.setField(intake, "coalescer", coalescer);
+        ReflectionTestUtils.setField(intake, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(intake, "dedupeWindowMs", 60_000L);
+        ReflectionTestUtils.setField(intake, "dedupeMaxIds", 100);
+        ReflectionTestUtils.invokeMethod(intake, "init");
+        NotificationController controller = new NotificationController();
+        ReflectionTestUtils.setField(controller, "intake", intake);
+
+        // one event with no type, one with a type this service does not know
+        List<NotificationEvent> events = new ObjectMapper().readValue("""
+                [{"id":"e1","type":"DEPOSIT","account":"ACC1001","amount":10.0},
+                 {"id":"e2","account":"ACC1001"},
+                 {"id":"e3","type":"LOAN_APPROVED","account":"ACC1001"}]""", new TypeReference<>() {});
+
+        ResponseEntity<List<Map<String, String>>> response = controller.sendBatch(events);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        List<Map<String, String>> results = response.getBody();
+        assertEquals("QUEUED", results.get(0).get("status"));
+        assertEquals("INVALID", results.get(1).get("status"));
+        assertEquals("INVALID", results.get(2).get("status"));
+        assertNotNull(results.get(2).get("reason"));
+        verify(dispatcher, times(1)).submit(any(Notification.class));
+    }
+}
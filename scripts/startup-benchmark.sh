@@ -0,0 +1,187 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time to first request and memory at idle, per service.
+#
+# Starts each service's built jar, measures the time from launch until it answers an HTTP
+# request (any status counts: it is serving), waits until it is idle, then records its
+# resident memory. With --baseline, fails if any service got slower or bigger than the
+# baseline by more than the tolerance, so regressions are caught.
+#
+#   mvn -B -DskipTests package                    (in each module)
+#   scripts/startup-benchmark.sh --out startup-default.txt
+#
+#   mvn -B -DskipTests -Pfast-startup package     (in each module)
+#   scripts/startup-benchmark.sh --mode fast --baseline startup-fast.txt
+#
+# fast mode extracts the jar, trains a class data sharing (AppCDS) archive once per build
+# and runs with the AOT-processed context and lazy initialization, the same way the
+# Dockerfile.fast-startup images do.
+#
+# Options:
+#   --mode default|fast   how to run the jars (default: default)
+#   --out FILE            write results (service mode ttfr_ms rss_mb) to FILE
+#   --baseline FILE       compare against an earlier --out file
+#   --tolerance PCT       allowed regression against the baseline (default: 15)
+#   --idle SECONDS        wait before reading memory (default: 10)
+#   --runs N              starts per service; the median is reported (default: 3)
+#   service...            any of eureka-server api-gateway account-service
+#                         transaction-service notification-service (default: all)
+#
+# JAVA_OPTS and APP_ARGS are passed to every service. Each service must be free to take the
+# port in its application.properties.
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+FAST_OPTS="-Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true"
+ALL_SERVICES="eureka-server api-gateway account-service transaction-service notification-service"
+
+mode=default
+out=""
+baseline=""
+tolerance=15
+idle=10
+runs=3
+services=()
+
+while [ $# -gt 0 ]; do
+    case "$1" in
+        --mode) mode="$2"; shift 2 ;;
+        --out) out="$2"; shift 2 ;;
+        --baseline) baseline="$2"; shift 2 ;;
+        --tolerance) tolerance="$2"; shift 2 ;;
+        --idle) idle="$2"; shift 2 ;;
+        --runs) runs="$2"; shift 2 ;;
+        -h|--help) sed -n '2,/^$/p' "$0" | sed 's/^# \{0,1\}//'; exit 0 ;;
+        -*) echo "unknown option: $1" >&2; exit 2 ;;
+        *) services+=("$1"); shift ;;
+    esac
+done
+[ ${#services[@]} -eq 0 ] && read -r -a services <<< "$ALL_SERVICES"
+case "$mode" in default|fast) ;; *) echo "--mode must be default or fast" >&2; exit 2 ;; esac
+
+now_ms() { date +%s%3N; }
+
+port_of() {
+    local props="$ROOT/$1/$1/src/main/resources/application.properties"
+    local port
+    port=$(grep -E '^server\.port=' "$props" 2>/dev/null | cut -d= -f2 | tr -d '[:space:]' || true)
+    echo "${port:-8080}"
+}
+
+# prints the command line to start the service in the chosen mode
+launch_command() {
+    local service="$1" jar="$2" dir
+    if [ "$mode" = default ]; then
+        echo "java ${JAVA_OPTS:-} -jar $jar ${APP_ARGS:-}"
+        return
+    fi
+    dir="$(dirname "$jar")/fast-startup"
+    # one archive per build: retrain whenever the jar is newer than the archive
+    if [ ! -f "$dir/app.jsa" ] || [ "$jar" -nt "$dir/app.jsa" ]; then
+        rm -rf "$dir"
+        java -Djarmode=tools -jar "$jar" extract --destination "$dir" >/dev/null
+        mv "$dir/$(basename "$jar")" "$dir/app.jar"
+        echo "  training class data archive for $service" >&2
+        java -XX:ArchiveClassesAtExit="$dir/app.jsa" -Dspring.context.exit=onRefresh $FAST_OPTS \
+            -jar "$dir/app.jar" ${APP_ARGS:-} > "$dir/training.log" 2>&1 || true
+        if [ ! -f "$dir/app.jsa" ]; then
+            echo "  no archive produced for $service, see $dir/training.log" >&2
+        fi
+    fi
+    echo "java -XX:SharedArchiveFile=$dir/app.jsa $FAST_OPTS ${JAVA_OPTS:-} -jar $dir/app.jar ${APP_ARGS:-}"
+}
+
+# one start: prints "ttfr_ms rss_mb"
+measure_once() {
+    local service="$1" port="$2" command="$3" log="$4"
+    local start pid code ttfr rss_kb
+
+    if curl -s -o /dev/null "http://localhost:$port/"; then
+        echo "port $port is already in use, stop whatever is running there first" >&2
+        return 1
+    fi
+
+    start=$(now_ms)
+    $command > "$log" 2>&1 &
+    pid=$!
+
+    ttfr=""
+    while [ -z "$ttfr" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$service exited during startup, see $log" >&2
+            return 1
+        fi
+        # the ping indicator answers without touching MongoDB or Eureka; a 404 (no actuator) counts too
+        code=$(curl -s -o /dev/null -w '%{http_code}' --max-time 1 "http://localhost:$port/actuator/health/ping" || true)
+        if [ "$code" != "000" ] && [ -n "$code" ]; then
+            ttfr=$(( $(now_ms) - start ))
+        elif [ $(( $(now_ms) - start )) -gt 180000 ]; then
+            kill "$pid" 2>/dev/null; wait "$pid" 2>/dev/null || true
+            echo "$service did not answer within 180s, see $log" >&2
+            return 1
+        else
+            sleep 0.05
+        fi
+    done
+
+    sleep "$idle"
+    rss_kb=$(ps -o rss= -p "$pid" | tr -d '[:space:]')
+
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null || true
+
+    echo "$ttfr $(( rss_kb / 1024 ))"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+results=$(mktemp)
+trap 'rm -f "$results"' EXIT
+
+printf '%-22s %-8s %10s %8s\n' service mode ttfr_ms rss_mb
+for service in "${services[@]}"; do
+    jar=$(ls "$ROOT/$service/$service"/target/"$service"-*.jar 2>/dev/null | grep -v -- '-plain' | head -1 || true)
+    if [ -z "$jar" ]; then
+        echo "$service: no jar in $service/$service/target, build it first" >&2
+        exit 1
+    fi
+    port=$(port_of "$service")
+    command=$(launch_command "$service" "$jar")
+    log="$(dirname "$jar")/startup-benchmark.log"
+
+    samples=()
+    for _ in $(seq "$runs"); do
+        samples+=("$(measure_once "$service" "$port" "$command" "$log")")
+    done
+    ttfr=$(printf '%s\n' "${samples[@]}" | cut -d' ' -f1 | median)
+    rss=$(printf '%s\n' "${samples[@]}" | cut -d' ' -f2 | median)
+
+    printf '%-22s %-8s %10s %8s\n' "$service" "$mode" "$ttfr" "$rss"
+    echo "$service $mode $ttfr $rss" >> "$results"
+done
+
+[ -n "$out" ] && cp "$results" "$out"
+
+# ------------------ REGRESSION CHECK ------------------
+if [ -n "$baseline" ]; then
+    regressions=0
+    while read -r service run_mode ttfr rss; do
+        line=$(awk -v s="$service" -v m="$run_mode" '$1 == s && $2 == m' "$baseline" | tail -1)
+        [ -z "$line" ] && continue
+        read -r _ _ base_ttfr base_rss <<< "$line"
+        for metric in "ttfr_ms $ttfr $base_ttfr" "rss_mb $rss $base_rss"; do
+            read -r name value base <<< "$metric"
+            if [ $(( value * 100 )) -gt $(( base * (100 + tolerance) )) ]; then
+                echo "REGRESSION: $service ($run_mode) $name $value vs baseline $base (+${tolerance}% allowed)" >&2
+                regressions=$(( regressions + 1 ))
+            fi
+        done
+    done < "$results"
+    if [ "$regressions" -gt 0 ]; then
+        exit 1
+    fi
+    echo "No startup regressions against $baseline"
+fi
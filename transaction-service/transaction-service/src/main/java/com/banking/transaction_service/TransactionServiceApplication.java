@@ -1,14 +1,19 @@
 package com.banking.transaction_service;
 
+import com.banking.transaction_service.deadline.DeadlineClientHttpRequestFactory;
+import com.banking.transaction_service.deadline.DeadlineInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 public class TransactionServiceApplication {
 
     public static void main(String[] args) {
@@ -17,7 +22,11 @@ public class TransactionServiceApplication {
 
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(DeadlineInterceptor deadlineInterceptor,
+                                     @Value("${banking.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+                                     @Value("${banking.http.read-timeout-ms:5000}") int readTimeoutMs) {
+        RestTemplate restTemplate = new RestTemplate(new DeadlineClientHttpRequestFactory(connectTimeoutMs, readTimeoutMs));
+        restTemplate.getInterceptors().add(deadlineInterceptor);
+        return restTemplate;
     }
 }
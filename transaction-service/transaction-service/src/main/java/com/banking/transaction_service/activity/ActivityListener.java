@@ -0,0 +1,79 @@
+package com.banking.transaction_service.activity;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the recent-activity read model in step with every {@link Transaction} saved to the
+ * hot collection, however it is saved.
+ *
+ * Inside a MongoDB transaction the update waits until after commit: a rolled-back
+ * transaction must not show up, and a busy account's activity document must not become a
+ * write conflict that fails the money movement itself. A failed update is logged and
+ * counted; the read model is only a view and can be rebuilt.
+ *
+ * A PENDING save is skipped: the transaction is saved again once it settles, and only that
+ * final save becomes an item, so an account never shows one transaction twice.
+ */
+@Component
+public class ActivityListener extends AbstractMongoEventListener<Transaction> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityListener.class);
+
+    @Autowired
+    private ActivityStore activityStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter failures;
+
+    @PostConstruct
+    void init() {
+        failures = Counter.builder("activity.update.failed")
+                .description("Recent-activity updates that failed; rebuild the affected accounts")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        // archival copies land in other collections and are not new activity
+        if (!ArchiveStore.HOT.equals(event.getCollectionName())) {
+            return;
+        }
+        Transaction txn = event.getSource();
+        if ("PENDING".equals(txn.getStatus())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(txn);
+                }
+            });
+        } else {
+            record(txn);
+        }
+    }
+
+    private void record(Transaction txn) {
+        try {
+            activityStore.record(txn);
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.warn("Recent-activity update failed: txnId={}, error={}", txn.getTransactionId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.banking.transaction_service.activity;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.archive.TransactionHistory;
+import com.banking.transaction_service.model.AccountActivity;
+import com.banking.transaction_service.model.ActivityItem;
+import com.banking.transaction_service.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the account_activity read model: one document per account holding its last
+ * {@code banking.activity.size} transactions, newest first.
+ *
+ * Each saved transaction is pushed onto the document of every account it touches with a
+ * single upsert ($push with $sort and $slice), so the document never grows past the cap
+ * and concurrent updates need no read-modify-write. Documents can be rebuilt from the
+ * transaction history (all tiers) at any time.
+ */
+@Component
+public class ActivityStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStore.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionHistory transactionHistory;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Value("${banking.activity.size:20}")
+    private int size;
+
+    // ------------------ WRITE ------------------
+    public void record(Transaction txn) {
+        for (String account : accountsOf(txn)) {
+            Update update = new Update()
+                    .set("updatedAt", new Date())
+                    .push("recent")
+                    .sort(Sort.by(Sort.Direction.DESC, "timestamp"))
+                    .slice(size)
+                    .each(ActivityItem.of(txn, account));
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(account)), update, AccountActivity.class);
+        }
+    }
+
+    // ------------------ READ ------------------
+
+    // a point read by _id; a transaction recorded twice (e.g. re-saved) is shown once
+    public List<ActivityItem> recent(String accountNumber) {
+        AccountActivity activity = mongoTemplate.findById(accountNumber, AccountActivity.class);
+        if (activity == null || activity.getRecent() == null) {
+            return List.of();
+        }
+        Set<String> seen = new HashSet<>();
+        List<ActivityItem> items = new ArrayList<>(activity.getRecent().size());
+        for (ActivityItem item : activity.getRecent()) {
+            if (item.getTransactionId() == null || seen.add(item.getTransactionId())) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    // ------------------ REBUILD ------------------
+    public int rebuild(String accountNumber) {
+        List<ActivityItem> items = transactionHistory.page(accountNumber, null, null, size).stream()
+                .filter(txn -> !"PENDING".equals(txn.getStatus()))
+                .map(txn -> ActivityItem.of(txn, accountNumber))
+                .toList();
+        mongoTemplate.save(new AccountActivity(accountNumber, new ArrayList<>(items)));
+        return items.size();
+    }
+
+    // every account found in any tier; meant for a one-off backfill, not for the request path
+    public int rebuildAll() {
+        Set<String> accounts = new TreeSet<>();
+        List<String> collections = new ArrayList<>();
+        collections.add(ArchiveStore.HOT);
+        collections.addAll(archiveStore.archiveCollections());
+        for (String collection : collections) {
+            accounts.addAll(mongoTemplate.findDistinct(new Query(), "sourceAccount", collection, String.class));
+            accounts.addAll(mongoTemplate.findDistinct(new Query(), "destinationAccount", collection, String.class));
+        }
+        accounts.remove(null);
+        for (String account : accounts) {
+            rebuild(account);
+        }
+        logger.info("Account activity rebuilt: accounts={}", accounts.size());
+        return accounts.size();
+    }
+
+    static Set<String> accountsOf(Transaction txn) {
+        Set<String> accounts = new TreeSet<>();
+        if (txn.getSourceAccount() != null) {
+            accounts.add(txn.getSourceAccount());
+        }
+        if (txn.getDestinationAccount() != null) {
+            accounts.add(txn.getDestinationAccount());
+        }
+        return accounts;
+    }
+}
@@ -0,0 +1,144 @@
+package com.banking.transaction_service.archive;
+
+import com.banking.transaction_service.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MongoDB operations behind transaction tiering.
+ *
+ * Recent transactions live in the hot "transactions" collection; older ones are moved to
+ * one archive collection per calendar month (UTC), e.g. transactions_archive_202401, so
+ * each archive index covers a single month and the hot indexes stay small.
+ */
+@Component
+public class ArchiveStore {
+
+    public static final String HOT = "transactions";
+    static final String ARCHIVE_PREFIX = "transactions_archive_";
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Set<String> indexed = ConcurrentHashMap.newKeySet();
+
+    // ------------------ COLLECTIONS ------------------
+
+    public static String archiveCollection(Date timestamp) {
+        return ARCHIVE_PREFIX + MONTH.format(timestamp.toInstant().atZone(ZoneOffset.UTC));
+    }
+
+    // first instant that can be stored in the given archive collection
+    public static Instant bucketStart(String archiveCollection) {
+        YearMonth month = YearMonth.parse(archiveCollection.substring(ARCHIVE_PREFIX.length()), MONTH);
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    // newest month first
+    public List<String> archiveCollections() {
+        return mongoTemplate.getCollectionNames().stream()
+                .filter(name -> name.startsWith(ARCHIVE_PREFIX))
+                .sorted(Comparator.reverseOrder())
+                .toList();
+    }
+
+    // history is read per account, newest first; the archiver scans by age, the pending resolver PENDING ones by age
+    public void ensureIndexes(String collection) {
+        if (indexed.contains(collection)) {
+            return;
+        }
+        IndexOperations indexes = mongoTemplate.indexOps(collection);
+        // _id breaks timestamp ties, so the page cursor is a total order
+        indexes.ensureIndex(new Index().on("sourceAccount", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC).named("source_history_cursor_idx"));
+        indexes.ensureIndex(new Index().on("destinationAccount", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC).named("destination_history_cursor_idx"));
+        if (HOT.equals(collection)) {
+            indexes.ensureIndex(new Index().on("timestamp", Sort.Direction.ASC).named("age_idx"));
+            indexes.ensureIndex(new Index().on("timestamp", Sort.Direction.ASC).named("pending_age_idx")
+                    .partial(PartialIndexFilter.of(Criteria.where("status").is("PENDING"))));
+        }
+        indexed.add(collection);
+    }
+
+    // ------------------ ARCHIVAL ------------------
+
+    // PENDING ones stay in the hot collection until they are resolved
+    public List<Transaction> findOlderThan(Date cutoff, int limit) {
+        Query query = new Query(Criteria.where("timestamp").lt(cutoff).and("status").ne("PENDING"))
+                .with(Sort.by("timestamp"))
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class, HOT);
+    }
+
+    // PENDING transactions started before `before`, oldest first
+    public List<Transaction> findPending(Date before, int limit) {
+        Query query = new Query(Criteria.where("status").is("PENDING").and("timestamp").lt(before))
+                .with(Sort.by("timestamp"))
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class, HOT);
+    }
+
+    // upsert by id, so copying the same batch twice (after a crash before delete) is harmless
+    public void copyToArchive(String collection, List<Transaction> transactions) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class, collection);
+        for (Transaction txn : transactions) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(txn.getId())), txn, FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    public void deleteFromHot(Collection<String> ids) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), Transaction.class, HOT);
+    }
+
+    // ------------------ HISTORY ------------------
+
+    /**
+     * Transactions of the account in one tier, newest first by (timestamp, id), after the
+     * cursor (before, beforeId) if set. Without beforeId, strictly older than before.
+     */
+    public List<Transaction> findForAccount(String collection, String accountNumber, Date before, String beforeId,
+                                            int limit) {
+        Criteria account = new Criteria().orOperator(
+                Criteria.where("sourceAccount").is(accountNumber),
+                Criteria.where("destinationAccount").is(accountNumber));
+        Criteria criteria = before == null ? account : new Criteria().andOperator(account, after(before, beforeId));
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class, collection);
+    }
+
+    // rows that sort after the cursor: older, or as old with a smaller id
+    private static Criteria after(Date before, String beforeId) {
+        if (beforeId == null) {
+            return Criteria.where("timestamp").lt(before);
+        }
+        return new Criteria().orOperator(
+                Criteria.where("timestamp").lt(before),
+                new Criteria().andOperator(Criteria.where("timestamp").is(before), Criteria.where("_id").lt(beforeId)));
+    }
+}
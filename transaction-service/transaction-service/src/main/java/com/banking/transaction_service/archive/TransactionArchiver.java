@@ -0,0 +1,130 @@
+package com.banking.transaction_service.archive;
+
+import com.banking.transaction_service.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves transactions older than hot-retention-days out of the hot collection, oldest first,
+ * into the monthly archive collections.
+ *
+ * Each run moves at most max-batches-per-run batches of batch-size and pauses pause-ms
+ * between batches, so a large backlog is worked off over several runs instead of competing
+ * with live traffic. A batch is copied (idempotently) before it is deleted, so a crash
+ * in between leaves a transaction in both tiers, never in neither; readers skip the copy.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    @Autowired
+    private ArchiveStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.archive.hot-retention-days:90}")
+    private int hotRetentionDays;
+
+    @Value("${banking.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${banking.archive.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${banking.archive.pause-ms:200}")
+    private long pauseMs;
+
+    private Counter moved;
+
+    @PostConstruct
+    void init() {
+        moved = Counter.builder("archive.transactions.moved")
+                .description("Transactions moved from the hot collection to an archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.archive.interval-ms:600000}",
+               initialDelayString = "${banking.archive.initial-delay-ms:60000}")
+    void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int count = archiveOnce();
+            if (count > 0) {
+                logger.info("Archival run finished: moved={}", count);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Archival run failed, will retry next run: error={}", e.getMessage());
+        }
+    }
+
+    // ------------------ ONE RUN ------------------
+    public int archiveOnce() {
+        store.ensureIndexes(ArchiveStore.HOT);
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(hotRetentionDays));
+
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Transaction> oldest = store.findOlderThan(cutoff, batchSize);
+            if (oldest.isEmpty()) {
+                break;
+            }
+            moveBatch(oldest);
+            total += oldest.size();
+            if (oldest.size() < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private void moveBatch(List<Transaction> batch) {
+        Map<String, List<Transaction>> byMonth = new LinkedHashMap<>();
+        for (Transaction txn : batch) {
+            byMonth.computeIfAbsent(ArchiveStore.archiveCollection(txn.getTimestamp()), k -> new ArrayList<>()).add(txn);
+        }
+        byMonth.forEach((collection, transactions) -> {
+            store.ensureIndexes(collection);
+            store.copyToArchive(collection, transactions);
+        });
+        store.deleteFromHot(batch.stream().map(Transaction::getId).toList());
+        moved.increment(batch.size());
+        logger.debug("Archived batch: size={}, collections={}", batch.size(), byMonth.keySet());
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
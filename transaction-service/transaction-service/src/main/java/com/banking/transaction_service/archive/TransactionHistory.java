@@ -0,0 +1,66 @@
+package com.banking.transaction_service.archive;
+
+import com.banking.transaction_service.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An account's transaction history, newest first, across the hot collection and the monthly
+ * archives. Tiers are read in time order and reading stops as soon as the page is full, so
+ * a request for recent history normally touches only the hot collection.
+ */
+@Component
+public class TransactionHistory {
+
+    @Autowired
+    private ArchiveStore store;
+
+    /**
+     * @param before   the previous page's last timestamp; null for the newest page
+     * @param beforeId the previous page's last id, so rows sharing that timestamp are not
+     *                 skipped; null to take only transactions strictly older than before
+     */
+    public List<Transaction> page(String accountNumber, Date before, String beforeId, int limit) {
+        List<Transaction> page = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+
+        collect(ArchiveStore.HOT, accountNumber, before, beforeId, limit, page, seen);
+        if (page.size() >= limit) {
+            return page;
+        }
+        for (String archive : store.archiveCollections()) {
+            // months that start after the cursor only hold newer transactions
+            if (before != null && startsAfter(archive, before, beforeId)) {
+                continue;
+            }
+            collect(archive, accountNumber, before, beforeId, limit, page, seen);
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    // a month starting exactly at the cursor can still hold rows at that timestamp with smaller ids
+    private static boolean startsAfter(String archive, Date before, String beforeId) {
+        Instant start = ArchiveStore.bucketStart(archive);
+        return beforeId == null ? !start.isBefore(before.toInstant()) : start.isAfter(before.toInstant());
+    }
+
+    private void collect(String collection, String accountNumber, Date before, String beforeId, int limit,
+                         List<Transaction> page, Set<String> seen) {
+        for (Transaction txn : store.findForAccount(collection, accountNumber, before, beforeId, limit - page.size())) {
+            // mid-archival a transaction can briefly exist in two tiers
+            if (seen.add(txn.getId())) {
+                page.add(txn);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.banking.transaction_service.batch;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Direct access to ACCOUNT-SERVICE's accounts collection (banking.accounts-db.uri), for
+ * batch jobs that read or update every account: per-account HTTP calls do not scale to
+ * millions of accounts. Online requests keep going through ACCOUNT-SERVICE.
+ */
+@Component
+public class AccountsDatabase {
+
+    public static final String ACCOUNTS = "accounts";
+    // credits of striped (hot) accounts not yet folded into their balance
+    public static final String STRIPES = "account_stripes";
+
+    @Value("${banking.accounts-db.uri:mongodb://localhost:27017/accounts_db}")
+    private String uri;
+
+    private MongoClient client;
+    private MongoCollection<Document> accounts;
+    private MongoCollection<Document> stripes;
+
+    // opened on first use, so the service starts without reaching the accounts database
+    public synchronized MongoCollection<Document> accounts() {
+        if (accounts == null) {
+            ConnectionString connection = new ConnectionString(uri);
+            client = MongoClients.create(connection);
+            var database = client.getDatabase(connection.getDatabase() == null ? "accounts_db" : connection.getDatabase());
+            accounts = database.getCollection(ACCOUNTS);
+            stripes = database.getCollection(STRIPES);
+        }
+        return accounts;
+    }
+
+    public synchronized MongoCollection<Document> stripes() {
+        accounts();
+        return stripes;
+    }
+
+    /**
+     * Credits still in the stripes of the striped accounts in the batch (those with
+     * foldedCredits; foldedCredits[i] of stripe i are already in the balance), in cents by
+     * account number. The stripes of the whole batch are read with one query.
+     */
+    public static Map<String, Long> unfoldedCents(List<Document> batch, MongoCollection<Document> stripes) {
+        Map<String, Document> folded = new HashMap<>();
+        for (Document account : batch) {
+            if (account.get("foldedCredits") instanceof Document credits) {
+                folded.put(account.getString("accountNumber"), credits);
+            }
+        }
+        Map<String, Long> unfolded = new HashMap<>();
+        if (folded.isEmpty()) {
+            return unfolded;
+        }
+        for (Document stripe : stripes.find(Filters.in("accountNumber", new ArrayList<>(folded.keySet())))) {
+            String accountNumber = stripe.getString("accountNumber");
+            long credited = cents(stripe.get("credited"));
+            long done = cents(folded.get(accountNumber).get(String.valueOf(stripe.get("stripe"))));
+            unfolded.merge(accountNumber, credited - done, Long::sum);
+        }
+        return unfolded;
+    }
+
+    private static long cents(Object amount) {
+        return amount instanceof Number number ? Math.round(number.doubleValue() * 100) : 0;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.banking.transaction_service.batch;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * One run of a batch job at a time across all instances. The lock is taken (or renewed by
+ * its owner) for leaseMs and lapses if the owner stops renewing it, e.g. after a crash.
+ */
+@Component
+public class JobLock {
+
+    private static final String LOCKS = "job_locks";
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public boolean lock(String job, String owner, String runId, long leaseMs) {
+        Date now = new Date();
+        Bson free = Filters.and(Filters.eq("_id", job),
+                Filters.or(Filters.eq("owner", owner), Filters.lt("expiresAt", now)));
+        Bson take = Updates.combine(Updates.set("owner", owner), Updates.set("runId", runId),
+                Updates.set("expiresAt", new Date(now.getTime() + leaseMs)));
+        try {
+            return mongoTemplate.getCollection(LOCKS).findOneAndUpdate(free, take,
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)) != null;
+        } catch (MongoCommandException e) {
+            // the upsert lost to a live lock held by someone else
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    public void unlock(String job, String owner) {
+        mongoTemplate.getCollection(LOCKS).deleteOne(Filters.and(Filters.eq("_id", job), Filters.eq("owner", owner)));
+    }
+}
@@ -0,0 +1,381 @@
+package com.banking.transaction_service.client;
+
+import com.banking.transaction_service.deadline.DeadlineClientHttpRequestFactory;
+import com.banking.transaction_service.deadline.DeadlineContext;
+import com.banking.transaction_service.deadline.DeadlineInterceptor;
+import com.banking.transaction_service.hedge.HedgeBudget;
+import com.banking.transaction_service.hedge.LatencyPercentileTracker;
+import com.banking.transaction_service.loadbalancer.InstanceStatsRegistry;
+import com.banking.transaction_service.resilience.ResilientCalls;
+import com.banking.transaction_service.rpc.AccountRpc;
+import com.banking.transaction_service.rpc.AccountRpcClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Client for ACCOUNT-SERVICE. Every call goes through {@link ResilientCalls} (circuit
+ * breaker, bulkhead, time limiter, budgeted retries) and fails fast with
+ * DependencyUnavailableException instead of returning made-up values.
+ *
+ * Balance reads are also hedged.
+ * The primary attempt goes to the instance picked by the load balancer. If it has not
+ * answered within the hedge delay (a recent-latency percentile, clamped to
+ * [min-delay-ms, max-delay-ms]), a second attempt goes to the best other instance and the
+ * first successful response wins. Hedges draw from a {@link HedgeBudget}, so under an
+ * incident they stop instead of doubling the load. Only idempotent GETs are hedged.
+ *
+ * With banking.account-rpc.enabled (the default) every call goes over the internal binary
+ * channel ({@link AccountRpcClient}) to an instance picked by the load balancer; otherwise
+ * over the REST API.
+ *
+ * Money moves only through credits and debits keyed by an operation id, which ACCOUNT-SERVICE
+ * applies at most once per id, so they are retried like reads. When a keyed call still fails
+ * (e.g. it timed out and so did its retries) {@link #resolve} finds out whether it was applied,
+ * and makes sure it will not be if it was not.
+ */
+@Component
+public class AccountClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountClient.class);
+
+    private static final String SERVICE_ID = "ACCOUNT-SERVICE";
+    private static final String DEPENDENCY = "accountService";
+    private static final String ACCOUNT_SERVICE_URL = "http://ACCOUNT-SERVICE/api/accounts";
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ResilientCalls resilientCalls;
+
+    @Autowired
+    private LoadBalancerClient loadBalancerClient;
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private InstanceStatsRegistry instanceStats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DeadlineInterceptor deadlineInterceptor;
+
+    @Autowired
+    private AccountRpcClient rpcClient;
+
+    @Value("${banking.account-rpc.enabled:true}")
+    private boolean rpcEnabled;
+
+    @Value("${banking.hedge.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${banking.hedge.percentile:95}")
+    private double percentile;
+
+    @Value("${banking.hedge.min-delay-ms:20}")
+    private long minDelayMs;
+
+    @Value("${banking.hedge.max-delay-ms:500}")
+    private long maxDelayMs;
+
+    @Value("${banking.hedge.budget-percent:10}")
+    private int budgetPercent;
+
+    @Value("${banking.hedge.budget-max-tokens:20}")
+    private int budgetMaxTokens;
+
+    @Value("${banking.hedge.pool-size:64}")
+    private int poolSize;
+
+    @Value("${banking.http.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${banking.http.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    // calls a concrete, already chosen instance, so it must not be @LoadBalanced
+    private RestTemplate directRestTemplate;
+
+    private ThreadPoolExecutor executor;
+    private LatencyPercentileTracker latencies;
+    private HedgeBudget budget;
+
+    private Counter hedgesIssued;
+    private Counter hedgesWon;
+    private Counter hedgesDenied;
+
+    @PostConstruct
+    void init() {
+        directRestTemplate = new RestTemplate(new DeadlineClientHttpRequestFactory(connectTimeoutMs, readTimeoutMs));
+        directRestTemplate.getInterceptors().add(deadlineInterceptor);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(poolSize * 2), r -> {
+                    Thread t = new Thread(r, "account-client-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+
+        latencies = new LatencyPercentileTracker(1024, percentile, 50);
+        budget = new HedgeBudget(budgetPercent, budgetMaxTokens);
+
+        hedgesIssued = hedgeCounter("issued");
+        hedgesWon = hedgeCounter("won");
+        hedgesDenied = hedgeCounter("budget_exhausted");
+        Gauge.builder("hedge.budget.available", budget, HedgeBudget::getAvailable)
+                .description("Hedges the budget currently allows")
+                .tag("client", "account-service")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ------------------ GET BALANCE ------------------
+    public Double getBalance(String accountNumber) {
+        if (rpcEnabled) {
+            AccountRpc.Request request = new AccountRpc.Request(AccountRpc.GET_BALANCE, accountNumber, 0);
+            AccountRpc.Response response = resilientCalls.call(DEPENDENCY, true,
+                    () -> hedged("GET_BALANCE " + accountNumber, instance -> rpcClient.call(instance, request)));
+            return response.balance();
+        }
+        String path = "/api/accounts/" + accountNumber;
+        Map response = resilientCalls.call(DEPENDENCY, true,
+                () -> hedged(path, instance -> directRestTemplate.getForObject(instance.getUri() + path, Map.class)));
+        return Double.valueOf(response.get("balance").toString());
+    }
+
+    // ------------------ UPDATE BALANCE ------------------
+
+    // sets an absolute balance; not retried, as a repeat after a timeout could overwrite an
+    // update made in between. Money moves through the keyed credit and debit below.
+    public void updateBalance(String accountNumber, double newBalance) {
+        if (rpcEnabled) {
+            rpc(false, new AccountRpc.Request(AccountRpc.SET_BALANCE, accountNumber, newBalance));
+            return;
+        }
+        String url = ACCOUNT_SERVICE_URL + "/" + accountNumber + "/balance?newBalance=" + newBalance;
+        resilientCalls.call(DEPENDENCY, false, () -> {
+            restTemplate.put(url, null);
+            return null;
+        });
+    }
+
+    // ------------------ CREDIT / DEBIT ------------------
+
+    // keyed by operationId, so a repeat is not applied twice and they are retried;
+    // false if the operation id had been refused by resolve
+    public boolean credit(String accountNumber, double amount, String operationId) {
+        if (rpcEnabled) {
+            return rpc(true, new AccountRpc.Request(AccountRpc.CREDIT, accountNumber, amount, operationId))
+                    .status() == AccountRpc.OK;
+        }
+        String url = ACCOUNT_SERVICE_URL + "/" + accountNumber + "/credit?amount=" + amount + "&operationId=" + operationId;
+        try {
+            resilientCalls.call(DEPENDENCY, true, () -> restTemplate.postForObject(url, null, String.class));
+            return true;
+        } catch (HttpClientErrorException.Conflict e) {
+            return false;
+        }
+    }
+
+    // false if the balance did not cover the amount
+    public boolean debit(String accountNumber, double amount, String operationId) {
+        if (rpcEnabled) {
+            return rpc(true, new AccountRpc.Request(AccountRpc.DEBIT, accountNumber, amount, operationId))
+                    .status() == AccountRpc.OK;
+        }
+        String url = ACCOUNT_SERVICE_URL + "/" + accountNumber + "/debit?amount=" + amount + "&operationId=" + operationId;
+        Map response = resilientCalls.call(DEPENDENCY, true, () -> restTemplate.postForObject(url, null, Map.class));
+        return response != null && Boolean.TRUE.equals(response.get("applied"));
+    }
+
+    // ------------------ RESOLVE ------------------
+
+    /**
+     * For a keyed credit or debit that failed without an answer: true if ACCOUNT-SERVICE applied
+     * it; false if it did not, in which case it is refused from now on, so an attempt still on
+     * its way cannot apply it later. Throws if ACCOUNT-SERVICE cannot be reached.
+     */
+    public boolean resolve(String accountNumber, String operationId) {
+        if (rpcEnabled) {
+            return rpc(true, new AccountRpc.Request(AccountRpc.RESOLVE, accountNumber, 0, operationId))
+                    .status() == AccountRpc.OK;
+        }
+        String url = ACCOUNT_SERVICE_URL + "/" + accountNumber + "/operations/" + operationId + "/resolve";
+        Map response = resilientCalls.call(DEPENDENCY, true, () -> restTemplate.postForObject(url, null, Map.class));
+        return response != null && Boolean.TRUE.equals(response.get("applied"));
+    }
+
+    // ------------------ BINARY CHANNEL ------------------
+
+    // not hedged: only reads are; the instance is picked like a @LoadBalanced call would pick it.
+    // idempotent: retried on timeouts and I/O errors, so only for reads and keyed operations
+    private AccountRpc.Response rpc(boolean idempotent, AccountRpc.Request request) {
+        return resilientCalls.call(DEPENDENCY, idempotent, () -> {
+            ServiceInstance instance = loadBalancerClient.choose(SERVICE_ID);
+            if (instance == null) {
+                throw new RuntimeException("No instance available for " + SERVICE_ID);
+            }
+            return call(instance, i -> rpcClient.call(i, request), false);
+        });
+    }
+
+    // ------------------ HEDGING ------------------
+    private <T> T hedged(String what, Function<ServiceInstance, T> attempt) {
+        ServiceInstance primary = loadBalancerClient.choose(SERVICE_ID);
+        if (primary == null) {
+            throw new RuntimeException("No instance available for " + SERVICE_ID);
+        }
+        budget.onRequest();
+
+        if (!hedgingEnabled) {
+            return call(primary, attempt, true);
+        }
+
+        CompletableFuture<T> first;
+        try {
+            first = CompletableFuture.supplyAsync(DeadlineContext.propagate(() -> call(primary, attempt, true)), executor);
+        } catch (RejectedExecutionException e) {
+            return call(primary, attempt, true);
+        }
+
+        try {
+            // never wait for the hedge point past the request's own deadline
+            long wait = Math.min(hedgeDelayMillis(), Math.max(0, DeadlineContext.remainingMillis()));
+            return first.get(wait, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // slow primary: fall through and consider a hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calling " + SERVICE_ID, e);
+        }
+
+        ServiceInstance alternative = instanceStats.pickAlternative(discoveryClient.getInstances(SERVICE_ID), primary);
+        if (alternative == null) {
+            return await(first);
+        }
+        if (!budget.tryAcquire()) {
+            hedgesDenied.increment();
+            return await(first);
+        }
+
+        CompletableFuture<T> second;
+        try {
+            second = CompletableFuture.supplyAsync(DeadlineContext.propagate(() -> call(alternative, attempt, true)), executor);
+        } catch (RejectedExecutionException e) {
+            return await(first);
+        }
+        hedgesIssued.increment();
+        logger.debug("Hedging slow {} call: {}, primary={}:{}, hedge={}:{}", SERVICE_ID, what,
+                primary.getHost(), primary.getPort(), alternative.getHost(), alternative.getPort());
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        first.whenComplete((value, error) -> race(winner, value, error, second, false));
+        second.whenComplete((value, error) -> race(winner, value, error, first, true));
+        return await(winner);
+    }
+
+    // first success wins; a 4xx is a real answer too; otherwise wait until both attempts failed
+    private <T> void race(CompletableFuture<T> winner, T value, Throwable error,
+                          CompletableFuture<T> other, boolean isHedge) {
+        if (error == null) {
+            if (winner.complete(value) && isHedge) {
+                hedgesWon.increment();
+            }
+        } else if (error.getCause() instanceof HttpClientErrorException || other.isCompletedExceptionally()) {
+            winner.completeExceptionally(error.getCause() != null ? error.getCause() : error);
+        }
+    }
+
+    // one attempt against one instance, recorded in its stats; only reads feed the hedge delay
+    private <T> T call(ServiceInstance instance, Function<ServiceInstance, T> attempt, boolean read) {
+        instanceStats.onStart(instance);
+        long start = System.nanoTime();
+        try {
+            T response = attempt.apply(instance);
+            long latency = System.nanoTime() - start;
+            instanceStats.onComplete(instance, latency, true);
+            if (read) {
+                latencies.record(latency);
+            }
+            return response;
+        } catch (HttpClientErrorException e) {
+            // the instance answered; the request itself was wrong
+            instanceStats.onComplete(instance, System.nanoTime() - start, true);
+            throw e;
+        } catch (RuntimeException e) {
+            instanceStats.onComplete(instance, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    private long hedgeDelayMillis() {
+        long p = latencies.percentileNanos();
+        if (p < 0) {
+            return maxDelayMs;
+        }
+        return Math.max(minDelayMs, Math.min(maxDelayMs, TimeUnit.NANOSECONDS.toMillis(p)));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calling " + SERVICE_ID, e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+    }
+
+    private Counter hedgeCounter(String outcome) {
+        return Counter.builder("hedge.requests")
+                .description("Hedged reads to ACCOUNT-SERVICE")
+                .tag("client", "account-service")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
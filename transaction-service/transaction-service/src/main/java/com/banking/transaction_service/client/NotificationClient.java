@@ -1,17 +1,91 @@
 package com.banking.transaction_service.client;
 
+import com.banking.transaction_service.model.NotificationEvent;
+import com.banking.transaction_service.model.OutboxEntry;
+import com.banking.transaction_service.resilience.ResilientCalls;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 public class NotificationClient {
 
+    private static final String BATCH_URL = "http://NOTIFICATION-SERVICE/api/notifications/send-batch";
+
+    private static final Set<String> ACCEPTED = Set.of("QUEUED", "COALESCED", "DUPLICATE");
+
+    private static final String INVALID = "INVALID";
+
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> RESULTS =
+            new ParameterizedTypeReference<>() {};
+
     @Autowired
     private RestTemplate restTemplate;
 
-    public void sendNotification(String message) {
-        String url = "http://NOTIFICATION-SERVICE/api/notifications/send";
-        restTemplate.postForObject(url, message, String.class);
+    @Autowired
+    private ResilientCalls resilientCalls;
+
+    // ------------------ SEND BATCH ------------------
+
+    /**
+     * Hands a batch of outbox entries to NOTIFICATION-SERVICE in one request, as typed
+     * events; absent fields are left out rather than sent as null.
+     * The outbox id travels as the event id, so a redelivered entry is recognised and dropped.
+     *
+     * @return ids of the entries NOTIFICATION-SERVICE accepted (queued, held for a digest,
+     *         or already accepted earlier) and of those it refused as invalid, which no retry
+     *         will change; the rest must be retried
+     */
+    public BatchResult sendBatch(List<OutboxEntry> entries) {
+        List<Map<String, Object>> body = entries.stream().map(NotificationClient::toEvent).toList();
+
+        // not retried here: whatever is not accepted stays in the outbox for the next pass
+        List<Map<String, Object>> results = resilientCalls.call("notificationService", false,
+                () -> restTemplate.exchange(BATCH_URL, HttpMethod.POST, new HttpEntity<>(body), RESULTS).getBody());
+
+        Set<String> accepted = new HashSet<>();
+        Set<String> invalid = new HashSet<>();
+        if (results != null) {
+            for (Map<String, Object> result : results) {
+                String status = String.valueOf(result.get("status"));
+                if (ACCEPTED.contains(status)) {
+                    accepted.add(String.valueOf(result.get("notificationId")));
+                } else if (INVALID.equals(status)) {
+                    invalid.add(String.valueOf(result.get("notificationId")));
+                }
+            }
+        }
+        return new BatchResult(accepted, invalid);
+    }
+
+    public record BatchResult(Set<String> accepted, Set<String> invalid) {
+
+        public static final BatchResult NONE = new BatchResult(Set.of(), Set.of());
+    }
+
+    private static Map<String, Object> toEvent(OutboxEntry entry) {
+        NotificationEvent event = entry.getEvent();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", entry.getId());
+        json.put("type", event.getType());
+        json.put("account", event.getAccount());
+        if (event.getCounterparty() != null) {
+            json.put("counterparty", event.getCounterparty());
+        }
+        json.put("amount", event.getAmount());
+        json.put("transactionId", entry.getTransactionId());
+        json.put("timestamp", event.getTimestamp());
+        json.put("channel", entry.getChannel());
+        json.put("priority", entry.getPriority());
+        return json;
     }
 }
@@ -1,13 +1,28 @@
 package com.banking.transaction_service.controller;
 
+import com.banking.transaction_service.activity.ActivityStore;
+import com.banking.transaction_service.model.ActivityItem;
+import com.banking.transaction_service.model.Discrepancy;
+import com.banking.transaction_service.model.PostingRun;
+import com.banking.transaction_service.model.ReconciliationRun;
+import com.banking.transaction_service.model.StandingOrder;
 import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.posting.PostingEngine;
+import com.banking.transaction_service.reconciliation.ReconciliationEngine;
 import com.banking.transaction_service.service.TransactionService;
+import com.banking.transaction_service.standing.StandingOrderEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -18,6 +33,18 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private ActivityStore activityStore;
+
+    @Autowired
+    private ReconciliationEngine reconciliationEngine;
+
+    @Autowired
+    private PostingEngine postingEngine;
+
+    @Autowired
+    private StandingOrderEngine standingOrderEngine;
+
     // ------------------ DEPOSIT ------------------
     @PostMapping("/deposit")
     public Transaction deposit(@RequestParam String accountNumber,
@@ -65,16 +92,159 @@ public class TransactionController {
         return txn;
     }
 
-    // ------------------ GET ALL TRANSACTIONS OF AN ACCOUNT ------------------
+    // ------------------ GET TRANSACTIONS OF AN ACCOUNT ------------------
+
+    // newest first, one page at a time (banking.history.default-limit rows unless limit is given):
+    // pass the last timestamp (epoch millis) and id seen as "before" and "beforeId"
     @GetMapping("/account/{accountNumber}")
-    public List<Transaction> getTransactions(@PathVariable String accountNumber) {
+    public List<Transaction> getTransactions(@PathVariable String accountNumber,
+                                             @RequestParam(required = false) Long before,
+                                             @RequestParam(required = false) String beforeId,
+                                             @RequestParam(required = false) Integer limit) {
 
-        logger.info("Fetching transactions for accountNumber={}", accountNumber);
+        logger.info("Fetching transactions for accountNumber={}, before={}, beforeId={}, limit={}",
+                accountNumber, before, beforeId, limit);
 
-        List<Transaction> txns = transactionService.getTransactionsForAccount(accountNumber);
+        List<Transaction> txns = transactionService.getTransactionsForAccount(accountNumber,
+                before == null ? null : new Date(before), beforeId, limit);
 
         logger.info("Fetched {} transactions for accountNumber={}", txns.size(), accountNumber);
 
         return txns;
     }
+
+    // ------------------ RECENT ACTIVITY (READ MODEL) ------------------
+
+    // last transactions of the account, newest first, from its account_activity document
+    @GetMapping("/account/{accountNumber}/recent")
+    public List<ActivityItem> getRecentActivity(@PathVariable String accountNumber) {
+
+        logger.info("Fetching recent activity for accountNumber={}", accountNumber);
+
+        return activityStore.recent(accountNumber);
+    }
+
+    @PostMapping("/account/{accountNumber}/recent/rebuild")
+    public Map<String, Object> rebuildRecentActivity(@PathVariable String accountNumber) {
+
+        int items = activityStore.rebuild(accountNumber);
+        logger.info("Recent activity rebuilt: accountNumber={}, items={}", accountNumber, items);
+
+        return Map.of("accountNumber", accountNumber, "items", items);
+    }
+
+    @PostMapping("/activity/rebuild")
+    public Map<String, Object> rebuildAllActivity() {
+
+        logger.info("Rebuilding recent activity for all accounts");
+
+        return Map.of("accounts", activityStore.rebuildAll());
+    }
+
+    // ------------------ RECONCILIATION ------------------
+
+    // starts a run in the background; poll it with GET /reconciliation/{runId}
+    @PostMapping("/reconciliation")
+    public ResponseEntity<?> startReconciliation() {
+
+        try {
+            ReconciliationRun run = reconciliationEngine.start();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (IllegalStateException e) {
+            logger.warn("Reconciliation not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reconciliation/{runId}/resume")
+    public ResponseEntity<?> resumeReconciliation(@PathVariable String runId) {
+
+        try {
+            ReconciliationRun run = reconciliationEngine.resume(runId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Reconciliation not resumed: runId={}, reason={}", runId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/reconciliation/{runId}")
+    public ResponseEntity<ReconciliationRun> getReconciliation(@PathVariable String runId) {
+
+        return ResponseEntity.of(reconciliationEngine.get(runId));
+    }
+
+    @GetMapping("/reconciliation/{runId}/discrepancies")
+    public List<Discrepancy> getDiscrepancies(@PathVariable String runId,
+                                              @RequestParam(defaultValue = "100") int limit) {
+
+        return reconciliationEngine.discrepancies(runId, Math.max(1, Math.min(limit, 1000)));
+    }
+
+    // ------------------ MONTHLY INTEREST AND FEES ------------------
+
+    // period as yyyy-MM, a month that has ended, default the previous month; running it again
+    // resumes or returns the finished run
+    @PostMapping("/postings")
+    public ResponseEntity<?> startPosting(@RequestParam(required = false) YearMonth period) {
+
+        try {
+            PostingRun run = postingEngine.start(period);
+            logger.info("Posting requested: period={}, runId={}, status={}", period, run.getId(), run.getStatus());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Posting rejected: period={}, reason={}", period, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            logger.warn("Posting not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/postings/{runId}")
+    public ResponseEntity<PostingRun> getPosting(@PathVariable String runId) {
+
+        return ResponseEntity.of(postingEngine.get(runId));
+    }
+
+    // ------------------ STANDING ORDERS ------------------
+
+    // startAt and endAt as epoch millis; the first transfer is due at startAt (default now)
+    @PostMapping("/standing-orders")
+    public ResponseEntity<?> createStandingOrder(@RequestParam String sourceAccount,
+                                                 @RequestParam String destinationAccount,
+                                                 @RequestParam double amount,
+                                                 @RequestParam StandingOrder.Frequency frequency,
+                                                 @RequestParam(required = false) Long startAt,
+                                                 @RequestParam(required = false) Long endAt) {
+
+        try {
+            StandingOrder order = standingOrderEngine.create(sourceAccount, destinationAccount, amount, frequency,
+                    startAt == null ? null : new Date(startAt), endAt == null ? null : new Date(endAt));
+            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Standing order rejected: sourceAccount={}, reason={}", sourceAccount, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/standing-orders/{orderId}")
+    public ResponseEntity<StandingOrder> getStandingOrder(@PathVariable String orderId) {
+
+        return ResponseEntity.of(standingOrderEngine.get(orderId));
+    }
+
+    @GetMapping("/account/{accountNumber}/standing-orders")
+    public List<StandingOrder> getStandingOrders(@PathVariable String accountNumber) {
+
+        return standingOrderEngine.forAccount(accountNumber);
+    }
+
+    @DeleteMapping("/standing-orders/{orderId}")
+    public ResponseEntity<StandingOrder> cancelStandingOrder(@PathVariable String orderId) {
+
+        return ResponseEntity.of(standingOrderEngine.cancel(orderId));
+    }
 }
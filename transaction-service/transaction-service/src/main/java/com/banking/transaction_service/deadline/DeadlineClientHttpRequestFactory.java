@@ -0,0 +1,34 @@
+package com.banking.transaction_service.deadline;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Connect and read timeouts for outbound calls: the configured limits, shortened to the
+ * request's remaining deadline so a hop never waits longer than its caller will.
+ */
+public class DeadlineClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+
+    public DeadlineClientHttpRequestFactory(int connectTimeoutMs, int readTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        setConnectTimeout(connectTimeoutMs);
+        setReadTimeout(readTimeoutMs);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+
+        long remaining = DeadlineContext.remainingMillis();
+        // 0 would mean "no timeout" to HttpURLConnection; the interceptor rejects expired calls anyway
+        int budget = (int) Math.max(1, Math.min(Integer.MAX_VALUE, remaining));
+        connection.setConnectTimeout(Math.min(connectTimeoutMs, budget));
+        connection.setReadTimeout(Math.min(readTimeoutMs, budget));
+    }
+}
@@ -0,0 +1,46 @@
+package com.banking.transaction_service.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Outbound half of deadline propagation: passes the remaining budget on in
+ * {@link DeadlineContext#HEADER}, and refuses to start a call once the budget is gone.
+ */
+@Component
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Counter expiredOutbound;
+
+    public DeadlineInterceptor(MeterRegistry meterRegistry,
+                               @Value("${spring.application.name}") String hop) {
+        this.expiredOutbound = Counter.builder("deadline.expired")
+                .description("Requests whose deadline had passed")
+                .tag("hop", hop)
+                .tag("stage", "outbound")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+
+        if (DeadlineContext.isSet()) {
+            long remaining = DeadlineContext.remainingMillis();
+            if (remaining <= 0) {
+                expiredOutbound.increment();
+                throw new DeadlineExceededException("Deadline exceeded before calling " + request.getURI().getHost());
+            }
+            request.getHeaders().set(DeadlineContext.HEADER, String.valueOf(remaining));
+        }
+        return execution.execute(request, body);
+    }
+}
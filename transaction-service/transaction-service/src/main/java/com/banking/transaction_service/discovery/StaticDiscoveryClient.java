@@ -0,0 +1,36 @@
+package com.banking.transaction_service.discovery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exposes {@link StaticServiceRegistry} through the standard DiscoveryClient, so the load
+ * balancer and everything else that looks up instances works unchanged without Eureka.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.discovery.static.enabled", havingValue = "true")
+public class StaticDiscoveryClient implements DiscoveryClient {
+
+    @Autowired
+    private StaticServiceRegistry registry;
+
+    @Override
+    public String description() {
+        return "Static file/environment discovery client";
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return registry.getInstances(serviceId);
+    }
+
+    @Override
+    public List<String> getServices() {
+        return registry.getServices();
+    }
+}
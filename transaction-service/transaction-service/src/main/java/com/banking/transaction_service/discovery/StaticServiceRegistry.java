@@ -0,0 +1,167 @@
+package com.banking.transaction_service.discovery;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Service instances listed in a local file and/or the environment, for running without Eureka.
+ *
+ * Both sources use one entry per service:
+ *   ACCOUNT-SERVICE=localhost:8081,localhost:8091
+ *
+ * The file (banking.discovery.static.file, properties format) is polled and re-read as soon
+ * as it changes, so a newly listed instance takes traffic on the next poll. The environment
+ * (banking.discovery.static.instances, entries separated by ';') is read once at startup;
+ * when a service is in both, the file wins. If the file disappears or cannot be parsed,
+ * the last good list stays in place.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.discovery.static.enabled", havingValue = "true")
+public class StaticServiceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticServiceRegistry.class);
+
+    @Value("${banking.discovery.static.file:}")
+    private String file;
+
+    @Value("${banking.discovery.static.instances:}")
+    private String environmentInstances;
+
+    private Map<String, List<ServiceInstance>> fromEnvironment = Map.of();
+    private volatile Map<String, List<ServiceInstance>> instances = Map.of();
+
+    private FileTime lastModified;
+    private long lastSize = -1;
+    private String lastError;
+
+    @PostConstruct
+    void init() {
+        Properties entries = new Properties();
+        for (String entry : environmentInstances.split(";")) {
+            int eq = entry.indexOf('=');
+            if (eq > 0) {
+                entries.setProperty(entry.substring(0, eq).trim(), entry.substring(eq + 1).trim());
+            }
+        }
+        fromEnvironment = parse(entries);
+        instances = fromEnvironment;
+        refresh();
+        logger.info("Static discovery started: file={}, services={}", file.isEmpty() ? "<none>" : file, instances.keySet());
+    }
+
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return instances.getOrDefault(serviceId.toUpperCase(Locale.ROOT), List.of());
+    }
+
+    public List<String> getServices() {
+        return new ArrayList<>(instances.keySet());
+    }
+
+    // ------------------ FILE WATCH ------------------
+    @Scheduled(fixedDelayString = "${banking.discovery.static.poll-interval-ms:250}")
+    public synchronized void refresh() {
+        if (file.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(file);
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            long size = Files.size(path);
+            if (modified.equals(lastModified) && size == lastSize) {
+                return;
+            }
+            // a broken version is not re-read until it changes again
+            lastModified = modified;
+            lastSize = size;
+
+            Properties entries = new Properties();
+            try (Reader reader = Files.newBufferedReader(path)) {
+                entries.load(reader);
+            }
+            Map<String, List<ServiceInstance>> merged = new HashMap<>(fromEnvironment);
+            merged.putAll(parse(entries));
+            publish(merged);
+        } catch (IOException | IllegalArgumentException e) {
+            if (e instanceof IOException) {
+                // missing or unreadable: read it again on the next poll
+                lastModified = null;
+            }
+            String error = e.toString();
+            if (!error.equals(lastError)) {
+                lastError = error;
+                logger.warn("Static discovery file unusable, keeping previous instances: file={}, error={}", file, error);
+            }
+            return;
+        }
+        lastError = null;
+    }
+
+    private void publish(Map<String, List<ServiceInstance>> updated) {
+        Map<String, List<ServiceInstance>> previous = instances;
+        instances = Map.copyOf(updated);
+
+        for (Map.Entry<String, List<ServiceInstance>> entry : instances.entrySet()) {
+            List<String> before = addresses(previous.getOrDefault(entry.getKey(), List.of()));
+            List<String> after = addresses(entry.getValue());
+            if (!before.equals(after)) {
+                logger.info("Static discovery updated: service={}, instances={}", entry.getKey(), after);
+            }
+        }
+        for (String removed : previous.keySet()) {
+            if (!instances.containsKey(removed)) {
+                logger.info("Static discovery updated: service={}, instances=[]", removed);
+            }
+        }
+    }
+
+    // ------------------ PARSING ------------------
+    static Map<String, List<ServiceInstance>> parse(Properties entries) {
+        Map<String, List<ServiceInstance>> parsed = new HashMap<>();
+        for (String name : entries.stringPropertyNames()) {
+            String serviceId = name.trim().toUpperCase(Locale.ROOT);
+            List<ServiceInstance> list = new ArrayList<>();
+            for (String address : entries.getProperty(name).split(",")) {
+                if (!address.isBlank()) {
+                    list.add(toInstance(serviceId, address.trim()));
+                }
+            }
+            parsed.put(serviceId, List.copyOf(list));
+        }
+        return parsed;
+    }
+
+    private static ServiceInstance toInstance(String serviceId, String address) {
+        URI uri = URI.create(address.contains("://") ? address : "http://" + address);
+        if (uri.getHost() == null || uri.getPort() < 0) {
+            throw new IllegalArgumentException("Expected host:port for " + serviceId + ", got '" + address + "'");
+        }
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        // a stable id keeps the load balancer's latency stats for an instance across reloads
+        String instanceId = serviceId + ":" + uri.getHost() + ":" + uri.getPort();
+        return new DefaultServiceInstance(instanceId, serviceId, uri.getHost(), uri.getPort(), secure);
+    }
+
+    private static List<String> addresses(List<ServiceInstance> list) {
+        return list.stream().map(i -> i.getHost() + ":" + i.getPort()).sorted().toList();
+    }
+}
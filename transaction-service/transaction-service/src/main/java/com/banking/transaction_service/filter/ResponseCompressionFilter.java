@@ -0,0 +1,347 @@
+package com.banking.transaction_service.filter;
+
+import com.banking.transaction_service.web.ContentEncoding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses response bodies of at least min-size bytes, with the first of the configured
+ * encodings the client accepts (Accept-Encoding, q=0 excluded).
+ *
+ * Whether to compress is decided when the body starts: a response whose type is not
+ * compressible, or whose declared Content-Length is below min-size, streams straight
+ * through. Only the rest is buffered, so the final decision is made on its real size and a
+ * body that does not shrink is sent as it is.
+ *
+ * Metered per encoding: bytes before compression and bytes saved
+ * (http.compression.bytes.in / .saved) against the time spent compressing
+ * (http.compression.time), to judge whether a codec or level pays off.
+ *
+ *   banking.compression.encodings=zstd,gzip
+ *   banking.compression.min-size=2048
+ */
+@Component
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "banking.compression.";
+
+    private final boolean enabled;
+    private final List<ContentEncoding> encodings = new ArrayList<>();
+    private final int minSize;
+    private final int gzipLevel;
+    private final List<MediaType> mimeTypes = new ArrayList<>();
+
+    private final Map<ContentEncoding, Counter> bytesIn = new EnumMap<>(ContentEncoding.class);
+    private final Map<ContentEncoding, Counter> bytesSaved = new EnumMap<>(ContentEncoding.class);
+    private final Map<ContentEncoding, Timer> time = new EnumMap<>(ContentEncoding.class);
+    private final Counter skippedSmall;
+    private final Counter skippedNoGain;
+
+    public ResponseCompressionFilter(MeterRegistry meterRegistry, Environment environment) {
+        this.enabled = environment.getProperty(PREFIX + "enabled", Boolean.class, true);
+        this.minSize = environment.getProperty(PREFIX + "min-size", Integer.class, 2048);
+        this.gzipLevel = environment.getProperty(PREFIX + "gzip-level", Integer.class, 6);
+        for (String token : environment.getProperty(PREFIX + "encodings", String[].class, new String[] {"zstd", "gzip"})) {
+            encodings.add(ContentEncoding.fromToken(token));
+        }
+        for (String type : environment.getProperty(PREFIX + "mime-types", String[].class,
+                new String[] {"application/json", "application/x-ndjson", "application/cbor", "text/*"})) {
+            mimeTypes.add(MediaType.parseMediaType(type.trim()));
+        }
+
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            bytesIn.put(encoding, Counter.builder("http.compression.bytes.in")
+                    .description("Response bytes compressed")
+                    .tag("encoding", encoding.token())
+                    .register(meterRegistry));
+            bytesSaved.put(encoding, Counter.builder("http.compression.bytes.saved")
+                    .description("Response bytes saved by compression")
+                    .tag("encoding", encoding.token())
+                    .register(meterRegistry));
+            time.put(encoding, Timer.builder("http.compression.time")
+                    .description("Time spent compressing responses")
+                    .tag("encoding", encoding.token())
+                    .register(meterRegistry));
+        }
+        skippedSmall = skipped(meterRegistry, "below_min_size");
+        skippedNoGain = skipped(meterRegistry, "no_gain");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        ContentEncoding encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        DeferredResponse deferred = new DeferredResponse(response);
+        filterChain.doFilter(request, deferred);
+        if (!deferred.isBuffering()) {
+            return;
+        }
+
+        byte[] body = deferred.body();
+        if (body.length < minSize) {
+            skippedSmall.increment();
+            sendAsIs(response, body);
+            return;
+        }
+
+        long start = System.nanoTime();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (OutputStream out = encoding.wrap(compressed, gzipLevel)) {
+            out.write(body);
+        }
+        time.get(encoding).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (compressed.size() >= body.length) {
+            skippedNoGain.increment();
+            sendAsIs(response, body);
+            return;
+        }
+        bytesIn.get(encoding).increment(body.length);
+        bytesSaved.get(encoding).increment(body.length - compressed.size());
+
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token());
+        response.setContentLength(compressed.size());
+        compressed.writeTo(response.getOutputStream());
+    }
+
+    private static void sendAsIs(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // passes the body through or buffers it, decided once status and headers are set
+    private boolean buffer(HttpServletResponse response, long declaredLength) {
+        if (!compressible(response)) {
+            return false;
+        }
+        // whether or not this body is compressed, another Accept-Encoding may get a different one
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (declaredLength >= 0 && declaredLength < minSize) {
+            skippedSmall.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // ------------------ NEGOTIATION ------------------
+
+    // our preference order among what the client accepts; "*" accepts any coding not listed
+    private ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Map<String, Double> accepted = new HashMap<>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] pieces = part.trim().split(";");
+            double q = 1.0;
+            for (int i = 1; i < pieces.length; i++) {
+                String param = pieces[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            accepted.put(pieces[0].trim().toLowerCase(), q);
+        }
+        for (ContentEncoding encoding : encodings) {
+            Double q = accepted.getOrDefault(encoding.token(), accepted.get("*"));
+            if (q != null && q > 0) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    private boolean compressible(HttpServletResponse response) {
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null || response.getContentType() == null) {
+            return false;
+        }
+        int status = response.getStatus();
+        if (status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(response.getContentType());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return mimeTypes.stream().anyMatch(m -> m.includes(type));
+    }
+
+    private static Counter skipped(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("http.compression.skipped")
+                .description("Compressible responses sent uncompressed")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // ------------------ RESPONSE WRAPPER ------------------
+
+    /**
+     * Holds back the choice between streaming and buffering until the body is first written
+     * or flushed; by then the controller has set the status, Content-Type and, if it knows it,
+     * Content-Length.
+     */
+    private class DeferredResponse extends HttpServletResponseWrapper {
+
+        private long declaredLength = -1;
+        private Boolean buffering;
+        private ByteArrayOutputStream buffer;
+        private ServletOutputStream bufferStream;
+        private PrintWriter bufferWriter;
+
+        DeferredResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        boolean isBuffering() {
+            return Boolean.TRUE.equals(buffering);
+        }
+
+        byte[] body() {
+            if (bufferWriter != null) {
+                bufferWriter.flush();
+            }
+            return buffer.toByteArray();
+        }
+
+        private boolean decide() {
+            if (buffering == null) {
+                buffering = buffer((HttpServletResponse) getResponse(), declaredLength);
+                if (buffering) {
+                    buffer = new ByteArrayOutputStream(Math.max(256, (int) Math.min(declaredLength, 1 << 20)));
+                }
+            }
+            return buffering;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            declaredLength = len;
+            super.setContentLengthLong(len);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) {
+                declaredLength = Long.parseLong(value.trim());
+            }
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (!decide()) {
+                return super.getOutputStream();
+            }
+            if (bufferStream == null) {
+                bufferStream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        throw new UnsupportedOperationException("Buffered for compression");
+                    }
+
+                    @Override
+                    public void write(int b) {
+                        buffer.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        buffer.write(b, off, len);
+                    }
+                };
+            }
+            return bufferStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (!decide()) {
+                return super.getWriter();
+            }
+            if (bufferWriter == null) {
+                bufferWriter = new PrintWriter(new OutputStreamWriter(buffer, getCharacterEncoding()));
+            }
+            return bufferWriter;
+        }
+
+        // a flush would commit the headers; a buffered body is held until the filter sends it
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!decide()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (buffer != null) {
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            declaredLength = -1;
+            buffering = null;
+            buffer = null;
+            bufferStream = null;
+            bufferWriter = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.transaction_service.hedge;
+
+import java.util.Arrays;
+
+/**
+ * Recent-latency window used to derive the hedge delay: a request that has not answered
+ * within the chosen percentile of its recent peers is "slow" and worth hedging.
+ *
+ * Keeps the last {@code capacity} samples in a ring; the percentile is recomputed every
+ * {@code capacity / 16} samples rather than on every request.
+ */
+public class LatencyPercentileTracker {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int minSamples;
+    private final int recomputeEvery;
+
+    // guarded by this
+    private int next;
+    private long count;
+    private long cachedNanos = -1;
+
+    public LatencyPercentileTracker(int capacity, double percentile, int minSamples) {
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.recomputeEvery = Math.max(1, capacity / 16);
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count++;
+        if (count >= minSamples && (cachedNanos < 0 || count % recomputeEvery == 0)) {
+            cachedNanos = compute();
+        }
+    }
+
+    /**
+     * @return the current percentile in nanoseconds, or -1 until enough samples were seen
+     */
+    public synchronized long percentileNanos() {
+        return cachedNanos;
+    }
+
+    private long compute() {
+        int n = (int) Math.min(count, samples.length);
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, index))];
+    }
+}
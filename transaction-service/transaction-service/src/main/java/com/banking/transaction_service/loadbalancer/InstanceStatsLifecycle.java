@@ -0,0 +1,77 @@
+package com.banking.transaction_service.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Feeds request start/completion from the load-balanced clients back into
+ * {@link InstanceStatsRegistry}: outstanding counts, latency and failures per instance.
+ */
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // nothing chosen yet
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse != null && lbResponse.hasServer()) {
+            registry.onStart(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completion) {
+        Response<ServiceInstance> lbResponse = completion.getLoadBalancerResponse();
+        if (completion.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        long latency = 0;
+        Object context = completion.getLoadBalancerRequest() != null
+                ? completion.getLoadBalancerRequest().getContext() : null;
+        if (context instanceof TimedRequestContext timed && timed.getRequestStartTime() > 0) {
+            latency = System.nanoTime() - timed.getRequestStartTime();
+        }
+
+        boolean success = completion.status() == CompletionContext.Status.SUCCESS
+                && !isServerError(completion.getClientResponse());
+
+        registry.onComplete(lbResponse.getServer(), latency, success);
+    }
+
+    private static boolean isServerError(Object clientResponse) {
+        if (clientResponse instanceof ResponseData data) {
+            HttpStatusCode status = data.getHttpStatus();
+            return status != null && status.is5xxServerError();
+        }
+        if (clientResponse instanceof ClientHttpResponse response) {
+            try {
+                return response.getStatusCode().is5xxServerError();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.banking.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read model: the latest transactions of one account, newest first, capped in size and
+ * keyed by account number, so "recent activity" is a single _id lookup.
+ * Maintained by {@link com.banking.transaction_service.activity.ActivityStore}.
+ */
+@Document(collection = "account_activity")
+public class AccountActivity {
+
+    @Id
+    private String accountNumber;
+
+    private List<ActivityItem> recent = new ArrayList<>();
+    private Date updatedAt;
+
+    public AccountActivity() {}
+
+    public AccountActivity(String accountNumber, List<ActivityItem> recent) {
+        this.accountNumber = accountNumber;
+        this.recent = recent;
+        this.updatedAt = new Date();
+    }
+
+    // getters and setters
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public List<ActivityItem> getRecent() {
+        return recent;
+    }
+
+    public void setRecent(List<ActivityItem> recent) {
+        this.recent = recent;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,98 @@
+package com.banking.transaction_service.model;
+
+import java.util.Date;
+
+/**
+ * One line of an account's recent activity: a {@link Transaction} seen from that account,
+ * i.e. whether money came in (CREDIT) or went out (DEBIT) and who the other side was.
+ */
+public class ActivityItem {
+
+    public static final String CREDIT = "CREDIT";
+    public static final String DEBIT = "DEBIT";
+
+    private String transactionId;
+    private String type;         // DEPOSIT, WITHDRAW, TRANSFER
+    private String direction;    // CREDIT, DEBIT
+    private Double amount;
+    private String counterparty; // the other account of a transfer
+    private String status;       // SUCCESS, FAILED; never PENDING
+    private Date timestamp;
+
+    public ActivityItem() {}
+
+    public static ActivityItem of(Transaction txn, String accountNumber) {
+        ActivityItem item = new ActivityItem();
+        item.transactionId = txn.getTransactionId();
+        item.type = txn.getType();
+        item.amount = txn.getAmount();
+        item.status = txn.getStatus();
+        item.timestamp = txn.getTimestamp();
+
+        boolean incoming = "DEPOSIT".equals(txn.getType()) || "INTEREST".equals(txn.getType())
+                || accountNumber.equals(txn.getDestinationAccount()) && !accountNumber.equals(txn.getSourceAccount());
+        item.direction = incoming ? CREDIT : DEBIT;
+        if ("TRANSFER".equals(txn.getType())) {
+            item.counterparty = incoming ? txn.getSourceAccount() : txn.getDestinationAccount();
+        }
+        return item;
+    }
+
+    // getters and setters
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getCounterparty() {
+        return counterparty;
+    }
+
+    public void setCounterparty(String counterparty) {
+        this.counterparty = counterparty;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+}
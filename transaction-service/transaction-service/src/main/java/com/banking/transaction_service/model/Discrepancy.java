@@ -0,0 +1,108 @@
+package com.banking.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One line of a reconciliation report: an account whose balance does not match its ledger
+ * (BALANCE_MISMATCH), or ledger entries for an account that does not exist (MISSING_ACCOUNT).
+ * Keyed by run and account, so reporting the same account again after a resume overwrites.
+ */
+@Document(collection = "reconciliation_discrepancies")
+public class Discrepancy {
+
+    public static final String BALANCE_MISMATCH = "BALANCE_MISMATCH";
+    public static final String MISSING_ACCOUNT = "MISSING_ACCOUNT";
+
+    @Id
+    private String id;
+
+    private String runId;
+    private String accountNumber;
+    private String kind;
+    private Double balance;     // null for MISSING_ACCOUNT
+    private Double expected;    // opening balance + SUCCESS transactions
+    private Double difference;  // balance - expected
+    private Date detectedAt;
+
+    public Discrepancy() {}
+
+    public Discrepancy(String runId, String accountNumber, String kind, Long balanceCents, long expectedCents) {
+        this.id = runId + ":" + accountNumber;
+        this.runId = runId;
+        this.accountNumber = accountNumber;
+        this.kind = kind;
+        this.balance = balanceCents == null ? null : balanceCents / 100.0;
+        this.expected = expectedCents / 100.0;
+        this.difference = ((balanceCents == null ? 0 : balanceCents) - expectedCents) / 100.0;
+        this.detectedAt = new Date();
+    }
+
+    // getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public Double getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Double balance) {
+        this.balance = balance;
+    }
+
+    public Double getExpected() {
+        return expected;
+    }
+
+    public void setExpected(Double expected) {
+        this.expected = expected;
+    }
+
+    public Double getDifference() {
+        return difference;
+    }
+
+    public void setDifference(Double difference) {
+        this.difference = difference;
+    }
+
+    public Date getDetectedAt() {
+        return detectedAt;
+    }
+
+    public void setDetectedAt(Date detectedAt) {
+        this.detectedAt = detectedAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.banking.transaction_service.model;
+
+/**
+ * What a notification is about, as data: NOTIFICATION-SERVICE renders the text from its
+ * own templates. Embedded in {@link OutboxEntry}.
+ */
+public class NotificationEvent {
+
+    private String type;         // DEPOSIT, WITHDRAW, TRANSFER
+    private String account;      // the account the notification is for
+    private String counterparty; // the other account of a transfer
+    private Double amount;
+    private long timestamp;      // epoch millis of the transaction
+
+    public NotificationEvent() {}
+
+    public NotificationEvent(String type, String account, String counterparty, Double amount, long timestamp) {
+        this.type = type;
+        this.account = account;
+        this.counterparty = counterparty;
+        this.amount = amount;
+        this.timestamp = timestamp;
+    }
+
+    public static NotificationEvent of(Transaction txn) {
+        return new NotificationEvent(txn.getType(), txn.getSourceAccount(), txn.getDestinationAccount(),
+                txn.getAmount(), txn.getTimestamp().getTime());
+    }
+
+    // getters and setters
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public String getCounterparty() {
+        return counterparty;
+    }
+
+    public void setCounterparty(String counterparty) {
+        this.counterparty = counterparty;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
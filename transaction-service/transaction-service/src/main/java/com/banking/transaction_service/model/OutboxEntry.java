@@ -0,0 +1,136 @@
+package com.banking.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A notification owed for a committed transaction. Written in the same MongoDB transaction
+ * as the {@link Transaction}, then delivered and marked SENT by the outbox relay. An entry
+ * still undelivered after the relay's max-attempts is marked DEAD and left for an operator.
+ */
+@Document(collection = "notification_outbox")
+public class OutboxEntry {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    @Id
+    private String id;
+
+    private String transactionId;
+    private NotificationEvent event;
+    private String channel;   // EMAIL, SMS, PUSH
+    private String priority;  // HIGH, NORMAL, LOW
+    private String status;    // PENDING, SENT, DEAD
+    private int attempts;
+
+    private Date createdAt;
+    private Date availableAt; // not picked up again before this: retry backoff or a relay's claim
+    private String claimToken;
+    private Date sentAt;      // SENT entries expire from the collection after a while
+
+    public OutboxEntry() {}
+
+    public OutboxEntry(String transactionId, NotificationEvent event, String channel, String priority) {
+        this.transactionId = transactionId;
+        this.event = event;
+        this.channel = channel;
+        this.priority = priority;
+        this.status = PENDING;
+        this.createdAt = new Date();
+        this.availableAt = createdAt;
+    }
+
+    // getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public NotificationEvent getEvent() {
+        return event;
+    }
+
+    public void setEvent(NotificationEvent event) {
+        this.event = event;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Date availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public Date getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Date sentAt) {
+        this.sentAt = sentAt;
+    }
+}
@@ -0,0 +1,152 @@
+package com.banking.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * The interest and fee posting for one month. There is one run per month (id POSTING-yyyyMM);
+ * lastAccount is the checkpoint: every account up to it has been posted.
+ */
+@Document(collection = "posting_runs")
+public class PostingRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String INTERRUPTED = "INTERRUPTED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    private String period;          // yyyyMM
+    private String status;
+    private Date startedAt;
+    private Date finishedAt;
+    private Date heartbeatAt;
+    private String error;
+
+    private String lastAccount;
+    private long accountsProcessed;
+    private long interestPostings;
+    private double interestTotal;
+    private long feePostings;
+    private double feeTotal;
+
+    public PostingRun() {}
+
+    public PostingRun(String period) {
+        this.id = "POSTING-" + period;
+        this.period = period;
+        this.status = RUNNING;
+        this.startedAt = new Date();
+        this.heartbeatAt = this.startedAt;
+    }
+
+    // getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Date finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Date getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Date heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getLastAccount() {
+        return lastAccount;
+    }
+
+    public void setLastAccount(String lastAccount) {
+        this.lastAccount = lastAccount;
+    }
+
+    public long getAccountsProcessed() {
+        return accountsProcessed;
+    }
+
+    public void setAccountsProcessed(long accountsProcessed) {
+        this.accountsProcessed = accountsProcessed;
+    }
+
+    public long getInterestPostings() {
+        return interestPostings;
+    }
+
+    public void setInterestPostings(long interestPostings) {
+        this.interestPostings = interestPostings;
+    }
+
+    public double getInterestTotal() {
+        return interestTotal;
+    }
+
+    public void setInterestTotal(double interestTotal) {
+        this.interestTotal = interestTotal;
+    }
+
+    public long getFeePostings() {
+        return feePostings;
+    }
+
+    public void setFeePostings(long feePostings) {
+        this.feePostings = feePostings;
+    }
+
+    public double getFeeTotal() {
+        return feeTotal;
+    }
+
+    public void setFeeTotal(double feeTotal) {
+        this.feeTotal = feeTotal;
+    }
+}
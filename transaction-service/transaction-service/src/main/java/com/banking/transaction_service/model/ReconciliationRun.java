@@ -0,0 +1,204 @@
+package com.banking.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A reconciliation run and its checkpoints: one entry per account range, with the last
+ * account fully reconciled, so an interrupted or failed run resumes where it stopped.
+ */
+@Document(collection = "reconciliation_runs")
+public class ReconciliationRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String INTERRUPTED = "INTERRUPTED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    private String status;
+    private Date startedAt;
+    private Date finishedAt;
+    private Date heartbeatAt;
+    private String error;
+    private List<Partition> partitions = new ArrayList<>();
+
+    public ReconciliationRun() {}
+
+    public ReconciliationRun(String id, List<Partition> partitions) {
+        this.id = id;
+        this.status = RUNNING;
+        this.startedAt = new Date();
+        this.heartbeatAt = this.startedAt;
+        this.partitions = partitions;
+    }
+
+    // ------------------ PROGRESS ------------------
+
+    public long getAccountsChecked() {
+        return partitions.stream().mapToLong(Partition::getAccountsChecked).sum();
+    }
+
+    public long getDiscrepancies() {
+        return partitions.stream().mapToLong(Partition::getDiscrepancies).sum();
+    }
+
+    public long getUnverifiable() {
+        return partitions.stream().mapToLong(Partition::getUnverifiable).sum();
+    }
+
+    public long getPartitionsDone() {
+        return partitions.stream().filter(Partition::isDone).count();
+    }
+
+    // getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Date finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Date getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Date heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<Partition> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<Partition> partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Accounts from lo (inclusive) to hi (exclusive, null = no upper bound), by account number.
+     */
+    public static class Partition {
+
+        private int index;
+        private String lo;
+        private String hi;
+        private String lastAccount;   // last account fully reconciled; resume after it
+        private boolean done;
+        private long accountsChecked;
+        private long discrepancies;
+        private long unverifiable;    // no opening balance recorded, so nothing to compare with
+
+        public Partition() {}
+
+        public Partition(int index, String lo, String hi) {
+            this.index = index;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getLo() {
+            return lo;
+        }
+
+        public void setLo(String lo) {
+            this.lo = lo;
+        }
+
+        public String getHi() {
+            return hi;
+        }
+
+        public void setHi(String hi) {
+            this.hi = hi;
+        }
+
+        public String getLastAccount() {
+            return lastAccount;
+        }
+
+        public void setLastAccount(String lastAccount) {
+            this.lastAccount = lastAccount;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public void setDone(boolean done) {
+            this.done = done;
+        }
+
+        public long getAccountsChecked() {
+            return accountsChecked;
+        }
+
+        public void setAccountsChecked(long accountsChecked) {
+            this.accountsChecked = accountsChecked;
+        }
+
+        public long getDiscrepancies() {
+            return discrepancies;
+        }
+
+        public void setDiscrepancies(long discrepancies) {
+            this.discrepancies = discrepancies;
+        }
+
+        public long getUnverifiable() {
+            return unverifiable;
+        }
+
+        public void setUnverifiable(long unverifiable) {
+            this.unverifiable = unverifiable;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.banking.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+/**
+ * A transfer repeated on a schedule. Due dates are counted from startAt (the n-th is
+ * startAt plus n periods, UTC), so monthly orders started on the 31st run on the last day
+ * of shorter months and come back to the 31st. runCount due dates have been handled and
+ * nextRunAt is the next one; claimedBy/claimUntil are set while an instance executes it.
+ */
+@Document(collection = "standing_orders")
+public class StandingOrder {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String COMPLETED = "COMPLETED";
+
+    // fixed: stored on every order, instances divide these between them
+    public static final int PARTITIONS = 256;
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY;
+
+        public Date dueAt(Date start, long n) {
+            ZonedDateTime first = start.toInstant().atZone(ZoneOffset.UTC);
+            ZonedDateTime due = switch (this) {
+                case DAILY -> first.plusDays(n);
+                case WEEKLY -> first.plusWeeks(n);
+                case MONTHLY -> first.plusMonths(n);
+            };
+            return Date.from(due.toInstant());
+        }
+    }
+
+    @Id
+    private String id;
+
+    private String sourceAccount;
+    private String destinationAccount;
+    private Double amount;
+    private Frequency frequency;
+    private Date startAt;
+    private Date endAt;             // optional, inclusive
+    private String status;
+    private int partition;
+    private Date createdAt;
+
+    private long runCount;
+    private Date nextRunAt;
+    private Date lastRunAt;
+    private String lastTransactionId;
+    private String lastStatus;      // of the last transfer: SUCCESS, FAILED
+
+    private String claimedBy;
+    private Date claimUntil;
+
+    public StandingOrder() {}
+
+    public static int partitionOf(String orderId) {
+        return Math.floorMod(orderId.hashCode(), PARTITIONS);
+    }
+
+    // getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSourceAccount() {
+        return sourceAccount;
+    }
+
+    public void setSourceAccount(String sourceAccount) {
+        this.sourceAccount = sourceAccount;
+    }
+
+    public String getDestinationAccount() {
+        return destinationAccount;
+    }
+
+    public void setDestinationAccount(String destinationAccount) {
+        this.destinationAccount = destinationAccount;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Date getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(Date startAt) {
+        this.startAt = startAt;
+    }
+
+    public Date getEndAt() {
+        return endAt;
+    }
+
+    public void setEndAt(Date endAt) {
+        this.endAt = endAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public void setRunCount(long runCount) {
+        this.runCount = runCount;
+    }
+
+    public Date getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(Date nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public Date getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public void setLastRunAt(Date lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+
+    public String getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public void setLastTransactionId(String lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    public String getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(String lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public Date getClaimUntil() {
+        return claimUntil;
+    }
+
+    public void setClaimUntil(Date claimUntil) {
+        this.claimUntil = claimUntil;
+    }
+}
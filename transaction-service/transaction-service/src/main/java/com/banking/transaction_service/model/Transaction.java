@@ -1,5 +1,6 @@
 package com.banking.transaction_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -12,14 +13,17 @@ public class Transaction {
     private String id;
 
     private String transactionId; // custom ID like TXN-20251107-001
-    private String type; // DEPOSIT, WITHDRAW, TRANSFER
+    private String type; // DEPOSIT, WITHDRAW, TRANSFER, INTEREST, FEE
     private Double amount;
     private Date timestamp;
-    private String status; // SUCCESS, FAILED
+    private String status; // SUCCESS, FAILED; PENDING while a keyed transfer runs
 
     private String sourceAccount;       // for withdraw/transfer
     private String destinationAccount;  // for transfer
 
+    @JsonIgnore
+    private int refundAttempts;         // refunds of a transfer's debit tried so far
+
     public Transaction() {}
 
     public Transaction(String transactionId, String type, Double amount, Date timestamp,
@@ -98,4 +102,12 @@ public class Transaction {
     public void setDestinationAccount(String destinationAccount) {
         this.destinationAccount = destinationAccount;
     }
+
+    public int getRefundAttempts() {
+        return refundAttempts;
+    }
+
+    public void setRefundAttempts(int refundAttempts) {
+        this.refundAttempts = refundAttempts;
+    }
 }
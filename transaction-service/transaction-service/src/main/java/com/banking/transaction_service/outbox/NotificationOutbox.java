@@ -0,0 +1,43 @@
+package com.banking.transaction_service.outbox;
+
+import com.banking.transaction_service.model.NotificationEvent;
+import com.banking.transaction_service.model.OutboxEntry;
+import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.repository.OutboxRepository;
+import com.banking.transaction_service.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Saves a transaction together with the notification it owes, atomically: either both
+ * documents are committed or neither is. Delivery happens later in {@link OutboxRelay},
+ * off the request path. The entry records the event, not the text; wording is up to
+ * NOTIFICATION-SERVICE.
+ */
+@Component
+public class NotificationOutbox {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    public Transaction saveWithNotification(Transaction txn) {
+        Transaction saved = transactionTemplate.execute(status -> {
+            Transaction result = transactionRepository.save(txn);
+            outboxRepository.save(new OutboxEntry(txn.getTransactionId(),
+                    NotificationEvent.of(txn), "EMAIL", "NORMAL"));
+            return result;
+        });
+        relay.wakeUp();
+        return saved;
+    }
+}
@@ -0,0 +1,208 @@
+package com.banking.transaction_service.outbox;
+
+import com.banking.transaction_service.client.NotificationClient;
+import com.banking.transaction_service.client.NotificationClient.BatchResult;
+import com.banking.transaction_service.model.OutboxEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background delivery of the notification outbox to NOTIFICATION-SERVICE, at least once.
+ *
+ * Each pass claims up to batch-size due entries, sends them in one bulk request, marks
+ * the ones NOTIFICATION-SERVICE accepted as SENT and reschedules the rest with capped
+ * exponential backoff. An entry NOTIFICATION-SERVICE refuses as invalid, or one that has
+ * failed max-attempts times, is marked DEAD instead, so one that can never be delivered
+ * does not cycle through the relay forever. A committed transaction wakes the relay at
+ * once; otherwise it polls every poll-interval-ms, which also picks up entries left
+ * behind by a crash or by another instance.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxStore store;
+
+    @Autowired
+    private NotificationClient notificationClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${banking.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${banking.outbox.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${banking.outbox.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${banking.outbox.retry.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    @Value("${banking.outbox.retry.max-attempts:20}")
+    private int maxAttempts;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile boolean running;
+    private Thread thread;
+
+    private Counter sent;
+    private Counter retried;
+    private Counter dead;
+    private Timer lag;
+
+    @PostConstruct
+    void init() {
+        sent = Counter.builder("outbox.relayed")
+                .description("Outbox entries by relay outcome")
+                .tag("outcome", "sent")
+                .register(meterRegistry);
+        retried = Counter.builder("outbox.relayed")
+                .description("Outbox entries by relay outcome")
+                .tag("outcome", "retried")
+                .register(meterRegistry);
+        dead = Counter.builder("outbox.relayed")
+                .description("Outbox entries by relay outcome")
+                .tag("outcome", "dead")
+                .register(meterRegistry);
+        lag = Timer.builder("outbox.delivery.lag")
+                .description("Time from commit to NOTIFICATION-SERVICE accepting the notification")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", this, OutboxRelay::pendingForGauge)
+                .description("Outbox entries not yet delivered")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            logger.info("Outbox relay disabled; notifications stay in the outbox");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    private void run() {
+        boolean indexed = false;
+        while (running) {
+            int relayed;
+            try {
+                if (!indexed) {
+                    store.ensureIndexes();
+                    indexed = true;
+                }
+                relayed = relayOnce();
+            } catch (RuntimeException e) {
+                logger.warn("Outbox relay pass failed: error={}", e.getMessage());
+                relayed = 0;
+            }
+            // a full batch means more is probably waiting: go again straight away
+            if (relayed < batchSize) {
+                try {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // ------------------ ONE PASS ------------------
+    public int relayOnce() {
+        List<OutboxEntry> batch = store.claimBatch(batchSize, leaseMs);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        BatchResult result;
+        try {
+            result = notificationClient.sendBatch(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Outbox batch not delivered, will retry: size={}, error={}", batch.size(), e.getMessage());
+            result = BatchResult.NONE;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> sentIds = new ArrayList<>(result.accepted().size());
+        for (OutboxEntry entry : batch) {
+            if (result.accepted().contains(entry.getId())) {
+                sentIds.add(entry.getId());
+                lag.record(now - entry.getCreatedAt().getTime(), TimeUnit.MILLISECONDS);
+            } else if (result.invalid().contains(entry.getId())) {
+                // no retry will make it valid
+                store.markDead(entry);
+                dead.increment();
+                logger.error("Outbox entry DEAD, refused as invalid: id={}, transactionId={}",
+                        entry.getId(), entry.getTransactionId());
+            } else if (entry.getAttempts() + 1 >= maxAttempts) {
+                store.markDead(entry);
+                dead.increment();
+                logger.error("Outbox entry DEAD after {} attempts: id={}, transactionId={}",
+                        entry.getAttempts() + 1, entry.getId(), entry.getTransactionId());
+            } else {
+                store.reschedule(entry, backoffMillis(entry.getAttempts() + 1));
+                retried.increment();
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            store.markSent(sentIds);
+            sent.increment(sentIds.size());
+        }
+        logger.debug("Outbox batch relayed: claimed={}, sent={}", batch.size(), sentIds.size());
+        return batch.size();
+    }
+
+    // capped exponential with jitter
+    private long backoffMillis(int attempt) {
+        long capped = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private double pendingForGauge() {
+        try {
+            return store.countPending();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.banking.transaction_service.outbox;
+
+import com.banking.transaction_service.model.OutboxEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * MongoDB operations on the notification_outbox collection used by {@link OutboxRelay}.
+ *
+ * Entries are claimed by pushing availableAt forward under a fresh claim token, so several
+ * transaction-service instances can relay concurrently without sending the same batch; a
+ * relay that dies mid-batch simply lets the claim lapse.
+ */
+@Component
+public class OutboxStore {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${banking.outbox.sent-retention-hours:168}")
+    private long sentRetentionHours;
+
+    // done by the relay rather than at startup, so the service starts even while MongoDB is down
+    public void ensureIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(OutboxEntry.class);
+        indexes.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("availableAt", Sort.Direction.ASC)
+                .named("pending_idx"));
+        indexes.ensureIndex(new Index().on("claimToken", Sort.Direction.ASC).sparse().named("claim_idx"));
+        indexes.ensureIndex(new Index().on("sentAt", Sort.Direction.ASC)
+                .expire(Duration.ofHours(sentRetentionHours)).named("sent_ttl_idx"));
+    }
+
+    public List<OutboxEntry> claimBatch(int batchSize, long leaseMs) {
+        Date now = new Date();
+        Query due = new Query(Criteria.where("status").is(OutboxEntry.PENDING).and("availableAt").lte(now))
+                .with(Sort.by("availableAt"))
+                .limit(batchSize);
+        due.fields().include("_id");
+        List<String> ids = mongoTemplate.find(due, OutboxEntry.class).stream().map(OutboxEntry::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // only entries still due are taken: another relay may have claimed some in between
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids).and("status").is(OutboxEntry.PENDING).and("availableAt").lte(now)),
+                new Update().set("claimToken", token).set("availableAt", new Date(now.getTime() + leaseMs)),
+                OutboxEntry.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimToken").is(token)), OutboxEntry.class);
+    }
+
+    public void markSent(Collection<String> ids) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids)),
+                new Update().set("status", OutboxEntry.SENT).set("sentAt", new Date()).unset("claimToken"),
+                OutboxEntry.class);
+    }
+
+    public void reschedule(OutboxEntry entry, long delayMs) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(entry.getId())),
+                new Update().inc("attempts", 1)
+                        .set("availableAt", new Date(System.currentTimeMillis() + delayMs))
+                        .unset("claimToken"),
+                OutboxEntry.class);
+    }
+
+    // out of attempts: no longer claimed, kept for inspection and manual replay
+    public void markDead(OutboxEntry entry) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(entry.getId())),
+                new Update().inc("attempts", 1).set("status", OutboxEntry.DEAD).unset("claimToken"),
+                OutboxEntry.class);
+    }
+
+    public long countPending() {
+        return mongoTemplate.count(new Query(Criteria.where("status").is(OutboxEntry.PENDING)), OutboxEntry.class);
+    }
+}
@@ -0,0 +1,437 @@
+package com.banking.transaction_service.posting;
+
+import com.banking.transaction_service.model.PostingRun;
+import com.banking.transaction_service.model.Transaction;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts a month's interest and fees to every ACTIVE account, in bulk instead of one
+ * deposit call per account.
+ *
+ * Accounts are read by cursor in chunks of chunk-size; up to `parallelism` chunks are
+ * computed and written at once, each as one unordered insert of its INTEREST/FEE
+ * Transactions followed by one unordered bulk update of the balances. The checkpoint
+ * advances only past chunks that are written, in account order. Posting a month again
+ * (after a crash, or by mistake) skips accounts already posted, redoes a half-written
+ * chunk with the amounts it already recorded, and is a no-op once the month is COMPLETED.
+ *
+ * Postings are not notified to customers; they show up in history and recent activity.
+ */
+@Component
+public class PostingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostingEngine.class);
+
+    static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private PostingStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.posting.interest-rate-percent:2.0}")
+    private double interestRatePercent;
+
+    @Value("${banking.posting.monthly-fee:0}")
+    private double monthlyFee;
+
+    @Value("${banking.posting.fee-waiver-balance:1000}")
+    private double feeWaiverBalance;
+
+    @Value("${banking.posting.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${banking.posting.parallelism:4}")
+    private int parallelism;
+
+    @Value("${banking.posting.lease-ms:60000}")
+    private long leaseMs;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private PostingPolicy policy;
+    private ScheduledExecutorService executor;
+    private volatile String activeRunId;
+    private volatile boolean stopping;
+    private volatile boolean lockLost;
+    private volatile long lockRenewedAt;
+
+    private Counter accountsPosted;
+    private Counter transactionsInserted;
+
+    @PostConstruct
+    void init() {
+        policy = new PostingPolicy(interestRatePercent, Math.round(monthlyFee * 100), Math.round(feeWaiverBalance * 100));
+        executor = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "posting");
+            t.setDaemon(true);
+            return t;
+        });
+        accountsPosted = Counter.builder("posting.accounts")
+                .description("Accounts whose monthly interest and fees were computed")
+                .register(meterRegistry);
+        transactionsInserted = Counter.builder("posting.transactions.inserted")
+                .description("INTEREST and FEE transactions written by posting runs")
+                .register(meterRegistry);
+    }
+
+    // ------------------ START ------------------
+
+    /**
+     * Starts, or resumes, posting for the month (default: the previous month, UTC).
+     *
+     * @throws IllegalArgumentException if the month has not ended yet (UTC)
+     * @throws IllegalStateException if a posting run is already in progress
+     */
+    public synchronized PostingRun start(YearMonth month) {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        if (month != null && !month.isBefore(current)) {
+            throw new IllegalArgumentException("period " + month + " has not ended yet; only months before "
+                    + current + " can be posted");
+        }
+        String period = PERIOD.format(month == null ? current.minusMonths(1) : month);
+        PostingRun existing = store.findRun("POSTING-" + period).orElse(null);
+        if (existing != null && PostingRun.COMPLETED.equals(existing.getStatus())) {
+            return existing;
+        }
+        PostingRun run = existing != null ? existing : new PostingRun(period);
+
+        if (activeRunId != null) {
+            throw new IllegalStateException("Posting " + activeRunId + " is already running");
+        }
+        if (!store.lock(owner, run.getId(), leaseMs)) {
+            throw new IllegalStateException("Posting is already running on another instance");
+        }
+        activeRunId = run.getId();
+        stopping = false;
+        lockLost = false;
+        lockRenewedAt = System.nanoTime();
+        try {
+            store.ensureIndexes();
+            run.setStatus(PostingRun.RUNNING);
+            run.setFinishedAt(null);
+            run.setError(null);
+            store.save(run);
+            // an earlier attempt may have written part of a chunk past its checkpoint
+            boolean redo = existing != null;
+            executor.execute(() -> execute(run, redo));
+            logger.info("Posting {}: runId={}, from={}", redo ? "RESUMED" : "STARTED", run.getId(), run.getLastAccount());
+            return run;
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    public Optional<PostingRun> get(String runId) {
+        return store.findRun(runId);
+    }
+
+    // e.g. banking.posting.cron=0 0 1 1 * * to post the previous month on the 1st
+    @Scheduled(cron = "${banking.posting.cron:-}")
+    void scheduledRun() {
+        try {
+            start(null);
+        } catch (IllegalStateException e) {
+            logger.info("Scheduled posting skipped: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Scheduled posting failed to start: error={}", e.getMessage());
+        }
+    }
+
+    private void release() {
+        activeRunId = null;
+        try {
+            store.unlock(owner);
+        } catch (RuntimeException e) {
+            // the lease runs out on its own
+            logger.warn("Posting lock not released: error={}", e.getMessage());
+        }
+    }
+
+    // ------------------ RUN ------------------
+
+    private void execute(PostingRun run, boolean redo) {
+        long started = System.nanoTime();
+        ScheduledFuture<?> lease = executor.scheduleWithFixedDelay(() -> renew(run.getId()),
+                leaseMs / 3, leaseMs / 3, TimeUnit.MILLISECONDS);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "posting-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Totals totals = Totals.of(run);
+        ArrayDeque<Future<Chunk>> window = new ArrayDeque<>();
+        String status = PostingRun.COMPLETED;
+        String error = null;
+
+        try (MongoCursor<Document> accounts = store.accountsToPost(run.getPeriod(), run.getLastAccount(), chunkSize)) {
+            List<Document> chunk = new ArrayList<>(chunkSize);
+            while (accounts.hasNext() && !stopRequested()) {
+                chunk.add(accounts.next());
+                if (chunk.size() == chunkSize || !accounts.hasNext()) {
+                    List<Document> accountsOfChunk = chunk;
+                    window.addLast(workers.submit(() -> post(run.getPeriod(), accountsOfChunk, redo)));
+                    chunk = new ArrayList<>(chunkSize);
+                    while (window.size() > Math.max(1, parallelism)) {
+                        checkpoint(run, totals, window.removeFirst().get());
+                    }
+                }
+            }
+            while (!window.isEmpty()) {
+                checkpoint(run, totals, window.removeFirst().get());
+            }
+            if (stopRequested()) {
+                status = PostingRun.INTERRUPTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = PostingRun.INTERRUPTED;
+        } catch (ExecutionException e) {
+            status = PostingRun.FAILED;
+            error = e.getCause().toString();
+        } catch (RuntimeException e) {
+            status = PostingRun.FAILED;
+            error = e.toString();
+        } finally {
+            workers.shutdownNow();
+            lease.cancel(false);
+        }
+
+        if (lockLost) {
+            // chunks stopped because of it are not failures; the month is resumed by whoever holds the lock
+            status = PostingRun.INTERRUPTED;
+            error = null;
+        }
+        try {
+            if (lockLost) {
+                // another instance may have resumed the month: only a run still RUNNING is marked
+                store.interrupt(run.getId());
+            } else {
+                store.finish(run.getId(), status, error);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Posting result not saved: runId={}, error={}", run.getId(), e.getMessage());
+        }
+        if (error != null) {
+            logger.error("Posting FAILED: runId={}, lastAccount={}, error={}", run.getId(), run.getLastAccount(), error);
+        } else {
+            logger.info("Posting {}: runId={}, accounts={}, interest={} ({}), fees={} ({}), tookMs={}",
+                    status, run.getId(), run.getAccountsProcessed(), run.getInterestPostings(), run.getInterestTotal(),
+                    run.getFeePostings(), run.getFeeTotal(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        release();
+    }
+
+    // computes and writes one chunk; transactions first, so a balance is never changed without its record
+    private Chunk post(String period, List<Document> accounts, boolean redo) {
+        if (lockLost) {
+            throw new IllegalStateException("Posting lock lost");
+        }
+        Date now = new Date();
+        Map<String, Long> unfolded = store.unfoldedCredits(accounts);
+        Map<String, Transaction> postings = new LinkedHashMap<>();
+        for (Document account : accounts) {
+            String accountNumber = account.getString("accountNumber");
+            Object balance = account.get("balance");
+            long balanceCents = balance instanceof Number number ? Math.round(number.doubleValue() * 100) : 0;
+            // a striped account's credits not yet folded in are part of what it holds
+            balanceCents += unfolded.getOrDefault(accountNumber, 0L);
+
+            long interest = policy.interestCents(balanceCents);
+            if (interest > 0) {
+                Transaction txn = posting("INTEREST", period, accountNumber, interest, now);
+                postings.put(txn.getId(), txn);
+            }
+            long fee = policy.feeCents(balanceCents);
+            if (fee > 0) {
+                Transaction txn = posting("FEE", period, accountNumber, fee, now);
+                postings.put(txn.getId(), txn);
+            }
+        }
+        if (redo) {
+            List<String> ids = new ArrayList<>(accounts.size() * 2);
+            for (Document account : accounts) {
+                ids.add(postingId("INTEREST", period, account.getString("accountNumber")));
+                ids.add(postingId("FEE", period, account.getString("accountNumber")));
+            }
+            // what was recorded before the balance was changed is what the balance gets
+            for (Transaction recorded : store.findExisting(ids)) {
+                postings.put(recorded.getId(), recorded);
+            }
+        }
+
+        Chunk chunk = new Chunk(accounts.get(accounts.size() - 1).getString("accountNumber"), accounts.size());
+        Map<String, Long> deltas = new HashMap<>();
+        for (Transaction txn : postings.values()) {
+            long cents = Math.round(txn.getAmount() * 100);
+            if ("INTEREST".equals(txn.getType())) {
+                deltas.merge(txn.getSourceAccount(), cents, Long::sum);
+                chunk.interestPostings++;
+                chunk.interestCents += cents;
+            } else {
+                deltas.merge(txn.getSourceAccount(), -cents, Long::sum);
+                chunk.feePostings++;
+                chunk.feeCents += cents;
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+
+        transactionsInserted.increment(store.insertTransactions(new ArrayList<>(postings.values())));
+        // a new owner may have recorded other amounts under the same ids meanwhile
+        if (lockLost) {
+            throw new IllegalStateException("Posting lock lost");
+        }
+        store.applyBalances(period, deltas);
+        accountsPosted.increment(accounts.size());
+        return chunk;
+    }
+
+    // ids are fixed per month, account and kind: writing the same posting twice is a duplicate, not a second posting
+    private static Transaction posting(String type, String period, String accountNumber, long cents, Date now) {
+        String id = postingId(type, period, accountNumber);
+        Transaction txn = new Transaction(id, type, cents / 100.0, now, "SUCCESS", accountNumber, null);
+        txn.setId(id);
+        return txn;
+    }
+
+    private static String postingId(String type, String period, String accountNumber) {
+        return type + "-" + period + "-" + accountNumber;
+    }
+
+    private void checkpoint(PostingRun run, Totals totals, Chunk chunk) {
+        if (lockLost) {
+            return;
+        }
+        totals.add(chunk);
+        run.setLastAccount(chunk.lastAccount);
+        run.setAccountsProcessed(totals.accounts);
+        run.setInterestPostings(totals.interestPostings);
+        run.setInterestTotal(totals.interestCents / 100.0);
+        run.setFeePostings(totals.feePostings);
+        run.setFeeTotal(totals.feeCents / 100.0);
+        store.checkpoint(run);
+    }
+
+    private boolean stopRequested() {
+        return stopping || lockLost;
+    }
+
+    // keeps the lock while the run lasts; once it is lost no further chunk is written
+    private void renew(String runId) {
+        try {
+            if (store.lock(owner, runId, leaseMs)) {
+                lockRenewedAt = System.nanoTime();
+                return;
+            }
+            abort(runId, "held by another instance");
+        } catch (RuntimeException e) {
+            logger.warn("Posting lock not renewed: runId={}, error={}", runId, e.getMessage());
+            // stop before the lease can run out under us and another instance takes the month
+            if (System.nanoTime() - lockRenewedAt > TimeUnit.MILLISECONDS.toNanos(leaseMs) / 2) {
+                abort(runId, "not renewed for half the lease");
+            }
+        }
+    }
+
+    private void abort(String runId, String reason) {
+        if (!lockLost) {
+            lockLost = true;
+            logger.error("Posting ABORTED, lock lost: runId={}, reason={}", runId, reason);
+        }
+    }
+
+    // ------------------ SHUTDOWN ------------------
+
+    // chunks in flight are finished and checkpointed; the month is left INTERRUPTED, to be started again
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------ TOTALS ------------------
+
+    private static class Chunk {
+
+        final String lastAccount;
+        final int accounts;
+        long interestPostings;
+        long interestCents;
+        long feePostings;
+        long feeCents;
+
+        Chunk(String lastAccount, int accounts) {
+            this.lastAccount = lastAccount;
+            this.accounts = accounts;
+        }
+    }
+
+    private static class Totals {
+
+        long accounts;
+        long interestPostings;
+        long interestCents;
+        long feePostings;
+        long feeCents;
+
+        static Totals of(PostingRun run) {
+            Totals totals = new Totals();
+            totals.accounts = run.getAccountsProcessed();
+            totals.interestPostings = run.getInterestPostings();
+            totals.interestCents = Math.round(run.getInterestTotal() * 100);
+            totals.feePostings = run.getFeePostings();
+            totals.feeCents = Math.round(run.getFeeTotal() * 100);
+            return totals;
+        }
+
+        void add(Chunk chunk) {
+            accounts += chunk.accounts;
+            interestPostings += chunk.interestPostings;
+            interestCents += chunk.interestCents;
+            feePostings += chunk.feePostings;
+            feeCents += chunk.feeCents;
+        }
+    }
+}
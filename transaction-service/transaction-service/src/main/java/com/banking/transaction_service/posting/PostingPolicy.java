@@ -0,0 +1,30 @@
+package com.banking.transaction_service.posting;
+
+/**
+ * Monthly interest and fee for an account, from its balance, in cents: interest at
+ * annualRatePercent / 12 on a positive balance, and the monthly fee on balances below
+ * the waiver threshold (never more than the balance).
+ */
+public class PostingPolicy {
+
+    private final double monthlyRate;
+    private final long monthlyFeeCents;
+    private final long feeWaiverCents;
+
+    public PostingPolicy(double annualRatePercent, long monthlyFeeCents, long feeWaiverCents) {
+        this.monthlyRate = annualRatePercent / 100 / 12;
+        this.monthlyFeeCents = monthlyFeeCents;
+        this.feeWaiverCents = feeWaiverCents;
+    }
+
+    public long interestCents(long balanceCents) {
+        return balanceCents > 0 ? Math.round(balanceCents * monthlyRate) : 0;
+    }
+
+    public long feeCents(long balanceCents) {
+        if (balanceCents >= feeWaiverCents) {
+            return 0;
+        }
+        return Math.min(monthlyFeeCents, Math.max(0, balanceCents));
+    }
+}
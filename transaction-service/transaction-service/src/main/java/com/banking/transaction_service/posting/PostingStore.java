@@ -0,0 +1,187 @@
+package com.banking.transaction_service.posting;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.batch.AccountsDatabase;
+import com.banking.transaction_service.batch.JobLock;
+import com.banking.transaction_service.model.PostingRun;
+import com.banking.transaction_service.model.Transaction;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MongoDB operations behind interest and fee posting: a cursor over active accounts, and
+ * per chunk one unordered insert of the Transactions and one unordered bulk update of the
+ * balances. Both are safe to repeat: transactions have ids derived from month and account,
+ * and an account's balance is only changed if the month is not yet in its postedPeriods.
+ */
+@Component
+public class PostingStore {
+
+    private static final String JOB = "posting";
+    private static final int DUPLICATE_KEY = 11000;
+    // months remembered per account; reruns only ever concern recent ones
+    private static final int POSTED_PERIODS_KEPT = 24;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountsDatabase accountsDatabase;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private JobLock jobLock;
+
+    public void ensureIndexes() {
+        accountsDatabase.accounts().createIndex(Indexes.ascending("accountNumber"));
+        archiveStore.ensureIndexes(ArchiveStore.HOT);
+    }
+
+    // ------------------ ACCOUNTS ------------------
+
+    /**
+     * ACTIVE accounts not yet posted for the period, in account number order, after the
+     * checkpoint (if any). Read from the primary: the balance is what interest is paid on;
+     * for a striped account add {@link #unfoldedCredits}.
+     */
+    public MongoCursor<Document> accountsToPost(String period, String after, int batchSize) {
+        Bson filter = Filters.and(Filters.eq("status", "ACTIVE"), Filters.ne("postedPeriods", period));
+        if (after != null) {
+            filter = Filters.and(filter, Filters.gt("accountNumber", after));
+        }
+        return accountsDatabase.accounts()
+                .find(filter)
+                .projection(Projections.include("accountNumber", "balance", "foldedCredits"))
+                .sort(Sorts.ascending("accountNumber"))
+                .batchSize(batchSize)
+                .cursor();
+    }
+
+    // credits of the striped accounts among them not yet folded into their balance, in cents
+    public Map<String, Long> unfoldedCredits(List<Document> accounts) {
+        return AccountsDatabase.unfoldedCents(accounts, accountsDatabase.stripes());
+    }
+
+    /**
+     * Adds each delta (cents) to its account's balance, once per period.
+     *
+     * @return the number of balances changed
+     */
+    public long applyBalances(String period, Map<String, Long> deltaCents) {
+        if (deltaCents.isEmpty()) {
+            return 0;
+        }
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(deltaCents.size());
+        deltaCents.forEach((account, delta) -> updates.add(new UpdateOneModel<>(
+                Filters.and(Filters.eq("accountNumber", account), Filters.ne("postedPeriods", period)),
+                Updates.combine(
+                        Updates.inc("balance", delta / 100.0),
+                        Updates.pushEach("postedPeriods", List.of(period), new PushOptions().slice(-POSTED_PERIODS_KEPT))))));
+        return accountsDatabase.accounts().bulkWrite(updates, new BulkWriteOptions().ordered(false)).getModifiedCount();
+    }
+
+    // ------------------ TRANSACTIONS ------------------
+
+    /**
+     * Inserts the transactions in one unordered batch; ones that already exist (a chunk
+     * being redone after a crash) are left as they are.
+     *
+     * @return the number inserted
+     */
+    public int insertTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class, ArchiveStore.HOT);
+        bulk.insert(transactions);
+        try {
+            return bulk.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            return e.getResult().getInsertedCount();
+        }
+    }
+
+    // amounts already posted for these ids, so a redone chunk posts the same amounts again
+    public List<Transaction> findExisting(Collection<String> ids) {
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Transaction.class, ArchiveStore.HOT);
+    }
+
+    // ------------------ RUNS ------------------
+
+    public void save(PostingRun run) {
+        mongoTemplate.save(run);
+    }
+
+    public Optional<PostingRun> findRun(String runId) {
+        return Optional.ofNullable(mongoTemplate.findById(runId, PostingRun.class));
+    }
+
+    public void checkpoint(PostingRun run) {
+        Update update = new Update()
+                .set("lastAccount", run.getLastAccount())
+                .set("accountsProcessed", run.getAccountsProcessed())
+                .set("interestPostings", run.getInterestPostings())
+                .set("interestTotal", run.getInterestTotal())
+                .set("feePostings", run.getFeePostings())
+                .set("feeTotal", run.getFeeTotal())
+                .set("heartbeatAt", new Date());
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(run.getId())), update, PostingRun.class);
+    }
+
+    public void finish(String runId, String status, String error) {
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", new Date())
+                .set("error", error);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(runId)), update, PostingRun.class);
+    }
+
+    // a run that lost its lock; left alone if the instance that took it over has finished it
+    public void interrupt(String runId) {
+        Query query = new Query(Criteria.where("_id").is(runId).and("status").is(PostingRun.RUNNING));
+        mongoTemplate.updateFirst(query, new Update().set("status", PostingRun.INTERRUPTED).set("finishedAt", new Date()),
+                PostingRun.class);
+    }
+
+    // ------------------ LOCK ------------------
+
+    public boolean lock(String owner, String runId, long leaseMs) {
+        return jobLock.lock(JOB, owner, runId, leaseMs);
+    }
+
+    public void unlock(String owner) {
+        jobLock.unlock(JOB, owner);
+    }
+}
@@ -0,0 +1,8 @@
+package com.banking.transaction_service.reconciliation;
+
+/**
+ * An account as the reconciler reads it, in cents; openingCents is null for accounts
+ * created before the opening balance was recorded.
+ */
+public record AccountBalance(String accountNumber, Long balanceCents, Long openingCents) {
+}
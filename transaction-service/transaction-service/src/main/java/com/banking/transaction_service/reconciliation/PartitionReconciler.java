@@ -0,0 +1,164 @@
+package com.banking.transaction_service.reconciliation;
+
+import com.banking.transaction_service.model.Discrepancy;
+import com.banking.transaction_service.model.ReconciliationRun.Partition;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reconciles one partition: a merge join of its accounts against its postings, both sorted
+ * by account number. Sums are kept in long cents, one account at a time, so memory does not
+ * grow with the number of accounts or transactions.
+ *
+ * Expected balance = opening balance + SUCCESS postings. A mismatch may only be a transaction
+ * in flight, so mismatches are held and handed to the sink to re-check before each checkpoint;
+ * only those still wrong are reported. Progress is checkpointed into the partition every
+ * checkpoint-every accounts; the partition then resumes after its last account.
+ */
+public class PartitionReconciler {
+
+    /** Where findings and progress go; the engine writes them to MongoDB. */
+    public interface Sink {
+
+        void report(Discrepancy discrepancy);
+
+        /**
+         * Re-checks balance mismatches first seen at foundAtNanos (System.nanoTime()) once
+         * they have had time to settle.
+         *
+         * @return the mismatches that are still there, as they stand now
+         */
+        List<Discrepancy> settle(List<Discrepancy> mismatches, long foundAtNanos);
+
+        void checkpoint(Partition partition);
+    }
+
+    private final String runId;
+    private final int checkpointEvery;
+    private final Sink sink;
+    private final BooleanSupplier stopRequested;
+
+    // postings of one transaction show up once per tier it is in while it is being archived;
+    // copies sort next to each other, so only ids of the current account and timestamp are kept
+    private final Set<String> seen = new HashSet<>();
+    private String seenAccount;
+    private long seenTimestamp;
+
+    private Posting pending;
+
+    // mismatches not yet re-checked; always settled before the checkpoint that passes them
+    private final List<Discrepancy> suspects = new ArrayList<>();
+    private long suspectsSince;
+
+    public PartitionReconciler(String runId, int checkpointEvery, Sink sink, BooleanSupplier stopRequested) {
+        this.runId = runId;
+        this.checkpointEvery = Math.max(1, checkpointEvery);
+        this.sink = sink;
+        this.stopRequested = stopRequested;
+    }
+
+    /**
+     * @return true if the partition was reconciled to the end, false if stopped early
+     *         (progress up to the last checkpoint is kept)
+     */
+    public boolean reconcile(Partition partition, Iterator<AccountBalance> accounts, Iterator<Posting> postings) {
+        pending = postings.hasNext() ? postings.next() : null;
+        int sinceCheckpoint = 0;
+
+        while (accounts.hasNext()) {
+            if (stopRequested.getAsBoolean()) {
+                checkpoint(partition);
+                return false;
+            }
+            AccountBalance account = accounts.next();
+
+            // ledger entries for account numbers that have no account
+            while (pending != null && pending.account().compareTo(account.accountNumber()) < 0) {
+                String missing = pending.account();
+                report(partition, new Discrepancy(runId, missing, Discrepancy.MISSING_ACCOUNT, null, sumFor(missing, postings)));
+            }
+
+            long net = sumFor(account.accountNumber(), postings);
+            check(partition, account, net);
+            partition.setAccountsChecked(partition.getAccountsChecked() + 1);
+            partition.setLastAccount(account.accountNumber());
+
+            if (++sinceCheckpoint >= checkpointEvery) {
+                checkpoint(partition);
+                sinceCheckpoint = 0;
+            }
+        }
+
+        while (pending != null) {
+            if (stopRequested.getAsBoolean()) {
+                checkpoint(partition);
+                return false;
+            }
+            String missing = pending.account();
+            report(partition, new Discrepancy(runId, missing, Discrepancy.MISSING_ACCOUNT, null, sumFor(missing, postings)));
+            partition.setLastAccount(missing);
+        }
+
+        partition.setDone(true);
+        checkpoint(partition);
+        return true;
+    }
+
+    private void checkpoint(Partition partition) {
+        if (!suspects.isEmpty()) {
+            for (Discrepancy confirmed : sink.settle(List.copyOf(suspects), suspectsSince)) {
+                report(partition, confirmed);
+            }
+            suspects.clear();
+        }
+        sink.checkpoint(partition);
+    }
+
+    private void check(Partition partition, AccountBalance account, long net) {
+        if (account.openingCents() == null) {
+            partition.setUnverifiable(partition.getUnverifiable() + 1);
+            return;
+        }
+        long expected = account.openingCents() + net;
+        long balance = account.balanceCents() == null ? 0 : account.balanceCents();
+        if (balance != expected) {
+            if (suspects.isEmpty()) {
+                suspectsSince = System.nanoTime();
+            }
+            suspects.add(new Discrepancy(runId, account.accountNumber(), Discrepancy.BALANCE_MISMATCH,
+                    account.balanceCents(), expected));
+        }
+    }
+
+    private void report(Partition partition, Discrepancy discrepancy) {
+        partition.setDiscrepancies(partition.getDiscrepancies() + 1);
+        sink.report(discrepancy);
+    }
+
+    // consumes the postings of the account (which are next, if any) and returns their sum
+    private long sumFor(String accountNumber, Iterator<Posting> postings) {
+        long net = 0;
+        while (pending != null && pending.account().equals(accountNumber)) {
+            if (firstCopy(pending)) {
+                net += pending.cents();
+            }
+            pending = postings.hasNext() ? postings.next() : null;
+        }
+        return net;
+    }
+
+    private boolean firstCopy(Posting posting) {
+        if (!posting.account().equals(seenAccount) || posting.timestamp() != seenTimestamp) {
+            seen.clear();
+            seenAccount = posting.account();
+            seenTimestamp = posting.timestamp();
+        }
+        // a transfer to oneself is two postings with the same id
+        return seen.add(posting.side() + posting.id());
+    }
+}
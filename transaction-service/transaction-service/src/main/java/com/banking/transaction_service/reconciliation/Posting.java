@@ -0,0 +1,11 @@
+package com.banking.transaction_service.reconciliation;
+
+/**
+ * One side of a SUCCESS transaction as it affects one account's balance, in cents:
+ * a deposit credits its account, a withdrawal debits it, a transfer is two postings.
+ */
+public record Posting(String account, long timestamp, String id, char side, long cents) {
+
+    public static final char SOURCE = 'S';
+    public static final char DESTINATION = 'D';
+}
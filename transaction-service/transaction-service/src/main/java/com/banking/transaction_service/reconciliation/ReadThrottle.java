@@ -0,0 +1,40 @@
+package com.banking.transaction_service.reconciliation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the documents per second all partitions of a run read together, so a run
+ * does not compete with live traffic for the database. Cursors acquire per batch.
+ */
+public class ReadThrottle {
+
+    private final double docsPerSecond;
+    private long nextFreeNanos;
+
+    public ReadThrottle(double docsPerSecond) {
+        this.docsPerSecond = docsPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    // waits until the docs may be read; a rate <= 0 means unthrottled
+    public void acquire(int docs) {
+        if (docsPerSecond <= 0 || docs <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            nextFreeNanos = Math.max(nextFreeNanos, now);
+            waitNanos = nextFreeNanos - now;
+            nextFreeNanos += (long) (docs * TimeUnit.SECONDS.toNanos(1) / docsPerSecond);
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                // the run is being stopped; the reconciler notices and checkpoints
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.banking.transaction_service.reconciliation;
+
+import com.banking.transaction_service.model.Discrepancy;
+import com.banking.transaction_service.model.ReconciliationRun;
+import com.banking.transaction_service.model.ReconciliationRun.Partition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks every account balance against its ledger: opening balance plus the SUCCESS
+ * transactions in all tiers. Drift is possible because balances are updated by
+ * read-modify-write calls to ACCOUNT-SERVICE, separately from saving the transaction.
+ *
+ * A run splits the accounts into key ranges and reconciles them in parallel on a fork-join
+ * pool of `parallelism` threads, reading at most max-docs-per-second documents in total.
+ * Each range checkpoints its progress into the run document, so a run that was stopped or
+ * failed is resumed where it left off. Findings go to reconciliation_discrepancies; a balance
+ * mismatch only once it is still there after settle-ms, since a transaction in flight looks
+ * the same for a moment. A run that loses its lock stops at once and writes nothing more.
+ */
+@Component
+public class ReconciliationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationEngine.class);
+
+    @Autowired
+    private ReconciliationStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${banking.reconciliation.partitions:16}")
+    private int partitions;
+
+    @Value("${banking.reconciliation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${banking.reconciliation.checkpoint-every:1000}")
+    private int checkpointEvery;
+
+    @Value("${banking.reconciliation.max-docs-per-second:5000}")
+    private double maxDocsPerSecond;
+
+    @Value("${banking.reconciliation.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${banking.reconciliation.settle-ms:5000}")
+    private long settleMs;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private ScheduledExecutorService executor;
+    private volatile String activeRunId;
+    private volatile boolean stopping;
+    private volatile boolean lockLost;
+    private volatile long lockRenewedAt;
+
+    private Counter accountsChecked;
+    private Counter discrepanciesFound;
+    private Counter mismatchesSettled;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "reconciliation");
+            t.setDaemon(true);
+            return t;
+        });
+        accountsChecked = Counter.builder("reconciliation.accounts.checked")
+                .description("Accounts compared with their ledger")
+                .register(meterRegistry);
+        discrepanciesFound = Counter.builder("reconciliation.discrepancies")
+                .description("Accounts whose balance does not match their ledger, or ledger entries without an account")
+                .register(meterRegistry);
+        mismatchesSettled = Counter.builder("reconciliation.mismatches.settled")
+                .description("Balance mismatches gone when re-checked: transactions that were in flight")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.active", this, engine -> engine.activeRunId == null ? 0 : 1)
+                .description("1 while this instance is running a reconciliation")
+                .register(meterRegistry);
+    }
+
+    // ------------------ START / RESUME ------------------
+
+    /**
+     * @throws IllegalStateException if a run is already in progress here or on another instance
+     */
+    public synchronized ReconciliationRun start() {
+        String runId = UUID.randomUUID().toString();
+        claim(runId);
+        try {
+            store.ensureIndexes();
+            ReconciliationRun run = new ReconciliationRun(runId, store.split(Math.max(1, partitions)));
+            store.save(run);
+            launch(run);
+            logger.info("Reconciliation STARTED: runId={}, partitions={}", runId, run.getPartitions().size());
+            return run;
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * @throws NoSuchElementException if there is no such run
+     * @throws IllegalStateException  if a run is already in progress
+     */
+    public synchronized ReconciliationRun resume(String runId) {
+        ReconciliationRun run = store.findRun(runId).orElseThrow(() -> new NoSuchElementException("No reconciliation run " + runId));
+        if (ReconciliationRun.COMPLETED.equals(run.getStatus())) {
+            return run;
+        }
+        claim(runId);
+        try {
+            run.setStatus(ReconciliationRun.RUNNING);
+            run.setFinishedAt(null);
+            run.setError(null);
+            store.save(run);
+            launch(run);
+            logger.info("Reconciliation RESUMED: runId={}, partitionsDone={}/{}",
+                    runId, run.getPartitionsDone(), run.getPartitions().size());
+            return run;
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    public Optional<ReconciliationRun> get(String runId) {
+        return store.findRun(runId);
+    }
+
+    public List<Discrepancy> discrepancies(String runId, int limit) {
+        return store.discrepancies(runId, limit);
+    }
+
+    // optional nightly run, e.g. banking.reconciliation.cron=0 0 2 * * *
+    @Scheduled(cron = "${banking.reconciliation.cron:-}")
+    void scheduledRun() {
+        try {
+            start();
+        } catch (IllegalStateException e) {
+            logger.info("Scheduled reconciliation skipped: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Scheduled reconciliation failed to start: error={}", e.getMessage());
+        }
+    }
+
+    private void claim(String runId) {
+        if (activeRunId != null) {
+            throw new IllegalStateException("Reconciliation " + activeRunId + " is already running");
+        }
+        if (!store.lock(owner, runId, leaseMs)) {
+            throw new IllegalStateException("Reconciliation is already running on another instance");
+        }
+        activeRunId = runId;
+        stopping = false;
+        lockLost = false;
+        lockRenewedAt = System.nanoTime();
+    }
+
+    private void release() {
+        activeRunId = null;
+        try {
+            store.unlock(owner);
+        } catch (RuntimeException e) {
+            // the lease runs out on its own
+            logger.warn("Reconciliation lock not released: error={}", e.getMessage());
+        }
+    }
+
+    // ------------------ RUN ------------------
+
+    private void launch(ReconciliationRun run) {
+        executor.execute(() -> execute(run));
+    }
+
+    private void execute(ReconciliationRun run) {
+        String runId = run.getId();
+        long started = System.nanoTime();
+        ScheduledFuture<?> lease = executor.scheduleWithFixedDelay(() -> renew(runId), leaseMs / 3, leaseMs / 3, TimeUnit.MILLISECONDS);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        ReadThrottle throttle = new ReadThrottle(maxDocsPerSecond);
+        String status;
+        String error = null;
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (Partition partition : run.getPartitions()) {
+                if (!partition.isDone()) {
+                    tasks.add(() -> reconcile(runId, partition, throttle));
+                }
+            }
+            boolean complete = true;
+            for (Future<Boolean> result : pool.invokeAll(tasks)) {
+                try {
+                    complete &= result.get();
+                } catch (ExecutionException e) {
+                    complete = false;
+                    error = e.getCause().toString();
+                    logger.error("Reconciliation partition FAILED: runId={}, error={}", runId, error);
+                }
+            }
+            status = complete ? ReconciliationRun.COMPLETED
+                    : error != null ? ReconciliationRun.FAILED : ReconciliationRun.INTERRUPTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = ReconciliationRun.INTERRUPTED;
+        } catch (RuntimeException e) {
+            status = ReconciliationRun.FAILED;
+            error = e.toString();
+        } finally {
+            pool.shutdownNow();
+            lease.cancel(false);
+        }
+
+        if (lockLost) {
+            // the run document may already belong to an instance that resumed it
+            logger.warn("Reconciliation result not saved, lock lost: runId={}, status={}", runId, status);
+        } else {
+            try {
+                store.finish(runId, status, error);
+            } catch (RuntimeException e) {
+                logger.warn("Reconciliation result not saved: runId={}, error={}", runId, e.getMessage());
+            }
+        }
+        ReconciliationRun finished = store.findRun(runId).orElse(run);
+        logger.info("Reconciliation {}: runId={}, accounts={}, discrepancies={}, unverifiable={}, tookMs={}",
+                status, runId, finished.getAccountsChecked(), finished.getDiscrepancies(), finished.getUnverifiable(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        release();
+    }
+
+    private boolean reconcile(String runId, Partition partition, ReadThrottle throttle) {
+        PartitionReconciler.Sink sink = new PartitionReconciler.Sink() {
+            private long checked = partition.getAccountsChecked();
+
+            @Override
+            public void report(Discrepancy discrepancy) {
+                if (lockLost) {
+                    return;
+                }
+                store.report(discrepancy);
+                discrepanciesFound.increment();
+            }
+
+            @Override
+            public List<Discrepancy> settle(List<Discrepancy> mismatches, long foundAtNanos) {
+                return recheck(runId, mismatches, foundAtNanos);
+            }
+
+            @Override
+            public void checkpoint(Partition progress) {
+                if (lockLost) {
+                    return;
+                }
+                store.checkpoint(runId, progress);
+                accountsChecked.increment(progress.getAccountsChecked() - checked);
+                checked = progress.getAccountsChecked();
+            }
+        };
+        try (CloseableIterator<AccountBalance> accounts = store.accounts(partition, batchSize, throttle);
+             SortedPostings postings = store.postings(partition, batchSize, throttle)) {
+            return new PartitionReconciler(runId, checkpointEvery, sink, this::stopRequested)
+                    .reconcile(partition, accounts, postings);
+        }
+    }
+
+    private boolean stopRequested() {
+        return stopping || lockLost || Thread.currentThread().isInterrupted();
+    }
+
+    // waits out the rest of the settle time, then reads the accounts and their ledgers again
+    private List<Discrepancy> recheck(String runId, List<Discrepancy> mismatches, long foundAtNanos) {
+        long settleUntil = foundAtNanos + TimeUnit.MILLISECONDS.toNanos(settleMs);
+        try {
+            for (long wait; (wait = settleUntil - System.nanoTime()) > 0 && !stopRequested(); ) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(wait, TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Discrepancy> confirmed;
+        try {
+            confirmed = store.recheck(runId, mismatches.stream().map(Discrepancy::getAccountNumber).toList());
+        } catch (RuntimeException e) {
+            // better reported twice than missed
+            logger.warn("Reconciliation mismatches not re-checked, reported as found: runId={}, count={}, error={}",
+                    runId, mismatches.size(), e.getMessage());
+            return mismatches;
+        }
+        mismatchesSettled.increment(Math.max(0, mismatches.size() - confirmed.size()));
+        return confirmed;
+    }
+
+    // keeps the lock while the run lasts; the run document's heartbeat is updated by checkpoints
+    private void renew(String runId) {
+        try {
+            if (store.lock(owner, runId, leaseMs)) {
+                lockRenewedAt = System.nanoTime();
+                return;
+            }
+            abort(runId, "held by another instance");
+        } catch (RuntimeException e) {
+            logger.warn("Reconciliation lock not renewed: runId={}, error={}", runId, e.getMessage());
+            // stop before the lease can run out under us and another instance takes the run
+            if (System.nanoTime() - lockRenewedAt > TimeUnit.MILLISECONDS.toNanos(leaseMs) / 2) {
+                abort(runId, "not renewed for half the lease");
+            }
+        }
+    }
+
+    private void abort(String runId, String reason) {
+        if (!lockLost) {
+            lockLost = true;
+            logger.error("Reconciliation ABORTED, lock lost: runId={}, reason={}", runId, reason);
+        }
+    }
+
+    // ------------------ SHUTDOWN ------------------
+
+    // partitions checkpoint and stop; the run is left INTERRUPTED, to be resumed
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.banking.transaction_service.reconciliation;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.batch.AccountsDatabase;
+import com.banking.transaction_service.batch.JobLock;
+import com.banking.transaction_service.model.Discrepancy;
+import com.banking.transaction_service.model.ReconciliationRun;
+import com.banking.transaction_service.model.ReconciliationRun.Partition;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * MongoDB access for reconciliation. Accounts are read straight from ACCOUNT-SERVICE's
+ * database (see AccountsDatabase), transactions from every tier. Scans prefer secondaries
+ * and go through cursors in batches, throttled by the run's ReadThrottle; re-checks of the
+ * few mismatched accounts read the primaries.
+ */
+@Component
+public class ReconciliationStore {
+
+    private static final String JOB = "reconciliation";
+    // types that add to the source account; WITHDRAW, FEE and TRANSFER take from it
+    private static final Set<String> CREDITS = Set.of("DEPOSIT", "INTEREST");
+    private static final List<String> ACCOUNT_FIELDS = List.of("accountNumber", "balance", "openingBalance", "foldedCredits");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private AccountsDatabase accountsDatabase;
+
+    @Autowired
+    private JobLock jobLock;
+
+    private MongoCollection<Document> accounts() {
+        return accountsDatabase.accounts().withReadPreference(ReadPreference.secondaryPreferred());
+    }
+
+    // accounts are read in account number order; transactions use the history indexes
+    public void ensureIndexes() {
+        accounts().createIndex(Indexes.ascending("accountNumber"));
+        archiveStore.ensureIndexes(ArchiveStore.HOT);
+        mongoTemplate.indexOps(Discrepancy.class).ensureIndex(
+                new Index().on("runId", Sort.Direction.ASC).on("accountNumber", Sort.Direction.ASC).named("run_idx"));
+    }
+
+    // ------------------ PARTITIONS ------------------
+
+    /**
+     * Splits the account number space into up to count ranges of about equal size, at
+     * quantiles of a random sample of account numbers.
+     */
+    public List<Partition> split(int count) {
+        List<String> sample = new ArrayList<>();
+        if (count > 1) {
+            int size = Math.min(10000, count * 50);
+            accounts().aggregate(List.of(Aggregates.sample(size), Aggregates.project(Projections.include("accountNumber"))))
+                    .forEach(doc -> {
+                        String accountNumber = doc.getString("accountNumber");
+                        if (accountNumber != null) {
+                            sample.add(accountNumber);
+                        }
+                    });
+            sample.sort(null);
+        }
+
+        List<String> bounds = new ArrayList<>();
+        for (int i = 1; i < count && !sample.isEmpty(); i++) {
+            String bound = sample.get(i * sample.size() / count);
+            if (bounds.isEmpty() || bound.compareTo(bounds.get(bounds.size() - 1)) > 0) {
+                bounds.add(bound);
+            }
+        }
+
+        List<Partition> partitions = new ArrayList<>();
+        String lo = "";
+        for (String hi : bounds) {
+            partitions.add(new Partition(partitions.size(), lo, hi));
+            lo = hi;
+        }
+        partitions.add(new Partition(partitions.size(), lo, null));
+        return partitions;
+    }
+
+    // ------------------ CURSORS ------------------
+
+    public CloseableIterator<AccountBalance> accounts(Partition partition, int batchSize, ReadThrottle throttle) {
+        MongoCursor<Document> cursor = accounts()
+                .find(range("accountNumber", partition))
+                .projection(Projections.include(ACCOUNT_FIELDS))
+                .sort(Sorts.ascending("accountNumber"))
+                .batchSize(batchSize)
+                .cursor();
+        MongoCollection<Document> stripes = accountsDatabase.stripes().withReadPreference(ReadPreference.secondaryPreferred());
+        return new Cursor<>(cursor, batchSize, throttle, batch -> balances(batch, stripes));
+    }
+
+    /**
+     * A batch of accounts with their balances. A striped account's balance also has the credits
+     * still in its stripes (foldedCredits[i] of stripe i are not); the stripes of every striped
+     * account in the batch are read with one query.
+     */
+    private static List<AccountBalance> balances(List<Document> batch, MongoCollection<Document> stripes) {
+        Map<String, Long> unfolded = AccountsDatabase.unfoldedCents(batch, stripes);
+
+        List<AccountBalance> balances = new ArrayList<>(batch.size());
+        for (Document account : batch) {
+            String accountNumber = account.getString("accountNumber");
+            Long balance = cents(account.get("balance"));
+            if (balance != null) {
+                balance += unfolded.getOrDefault(accountNumber, 0L);
+            }
+            balances.add(new AccountBalance(accountNumber, balance, cents(account.get("openingBalance"))));
+        }
+        return balances;
+    }
+
+    /**
+     * SUCCESS postings of the partition's accounts across the hot collection and every archive:
+     * per collection one cursor over the source side and one over transfer destinations.
+     */
+    public SortedPostings postings(Partition partition, int batchSize, ReadThrottle throttle) {
+        List<String> collections = new ArrayList<>();
+        collections.add(ArchiveStore.HOT);
+        collections.addAll(archiveStore.archiveCollections());
+
+        List<Cursor<Posting>> cursors = new ArrayList<>();
+        try {
+            for (String name : collections) {
+                archiveStore.ensureIndexes(name);
+                MongoCollection<Document> collection = mongoTemplate.getCollection(name)
+                        .withReadPreference(ReadPreference.secondaryPreferred());
+
+                cursors.add(postingCursor(collection, "sourceAccount",
+                        Filters.in("type", "DEPOSIT", "INTEREST", "WITHDRAW", "FEE", "TRANSFER"), partition, batchSize, throttle,
+                        doc -> posting(doc, "sourceAccount", Posting.SOURCE,
+                                CREDITS.contains(doc.getString("type")) ? 1 : -1)));
+                cursors.add(postingCursor(collection, "destinationAccount",
+                        Filters.eq("type", "TRANSFER"), partition, batchSize, throttle,
+                        doc -> posting(doc, "destinationAccount", Posting.DESTINATION, 1)));
+            }
+        } catch (RuntimeException e) {
+            cursors.forEach(Cursor::close);
+            throw e;
+        }
+        return new SortedPostings(cursors);
+    }
+
+    private Cursor<Posting> postingCursor(MongoCollection<Document> collection, String field, Bson type,
+                                          Partition partition, int batchSize, ReadThrottle throttle,
+                                          Function<Document, Posting> mapper) {
+        MongoCursor<Document> cursor = collection
+                .find(Filters.and(range(field, partition), Filters.eq("status", "SUCCESS"), type))
+                .projection(Projections.include(field, "type", "amount", "timestamp"))
+                .sort(Sorts.orderBy(Sorts.ascending(field), Sorts.descending("timestamp")))
+                .batchSize(batchSize)
+                .cursor();
+        return new Cursor<>(cursor, batchSize, throttle, batch -> batch.stream().map(mapper).toList());
+    }
+
+    private static Posting posting(Document doc, String field, char side, int sign) {
+        Date timestamp = doc.getDate("timestamp");
+        Long amount = cents(doc.get("amount"));
+        return new Posting(doc.getString(field), timestamp == null ? 0 : timestamp.getTime(),
+                String.valueOf(doc.get("_id")), side, sign * (amount == null ? 0 : amount));
+    }
+
+    // after the checkpoint if there is one, otherwise from the start of the range
+    private static Bson range(String field, Partition partition) {
+        Bson from = partition.getLastAccount() != null
+                ? Filters.gt(field, partition.getLastAccount())
+                : Filters.gte(field, partition.getLo());
+        return partition.getHi() == null ? from : Filters.and(from, Filters.lt(field, partition.getHi()));
+    }
+
+    // ------------------ RE-CHECK ------------------
+
+    /**
+     * Balance mismatches among the given accounts as they stand now, read from the primaries:
+     * each account's balance and its whole ledger, read again.
+     */
+    public List<Discrepancy> recheck(String runId, List<String> accountNumbers) {
+        List<Document> docs = new ArrayList<>();
+        accountsDatabase.accounts().find(Filters.in("accountNumber", accountNumbers))
+                .projection(Projections.include(ACCOUNT_FIELDS))
+                .into(docs);
+        List<AccountBalance> balances = balances(docs, accountsDatabase.stripes());
+
+        Map<String, Long> ledger = new HashMap<>();
+        Set<String> counted = new HashSet<>();
+        List<String> collections = new ArrayList<>();
+        collections.add(ArchiveStore.HOT);
+        collections.addAll(archiveStore.archiveCollections());
+        for (String name : collections) {
+            MongoCollection<Document> collection = mongoTemplate.getCollection(name);
+            for (Document doc : collection.find(Filters.and(Filters.in("sourceAccount", accountNumbers),
+                    Filters.eq("status", "SUCCESS"), Filters.in("type", "DEPOSIT", "INTEREST", "WITHDRAW", "FEE", "TRANSFER")))) {
+                add(ledger, counted, posting(doc, "sourceAccount", Posting.SOURCE, CREDITS.contains(doc.getString("type")) ? 1 : -1));
+            }
+            for (Document doc : collection.find(Filters.and(Filters.in("destinationAccount", accountNumbers),
+                    Filters.eq("status", "SUCCESS"), Filters.eq("type", "TRANSFER")))) {
+                add(ledger, counted, posting(doc, "destinationAccount", Posting.DESTINATION, 1));
+            }
+        }
+
+        List<Discrepancy> mismatches = new ArrayList<>();
+        for (AccountBalance account : balances) {
+            if (account.openingCents() == null) {
+                continue;
+            }
+            long expected = account.openingCents() + ledger.getOrDefault(account.accountNumber(), 0L);
+            long balance = account.balanceCents() == null ? 0 : account.balanceCents();
+            if (balance != expected) {
+                mismatches.add(new Discrepancy(runId, account.accountNumber(), Discrepancy.BALANCE_MISMATCH,
+                        account.balanceCents(), expected));
+            }
+        }
+        return mismatches;
+    }
+
+    // a transaction mid-archival is in two tiers: counted once
+    private static void add(Map<String, Long> ledger, Set<String> counted, Posting posting) {
+        if (counted.add(posting.account() + posting.side() + posting.id())) {
+            ledger.merge(posting.account(), posting.cents(), Long::sum);
+        }
+    }
+
+    static Long cents(Object amount) {
+        return amount instanceof Number number ? Math.round(number.doubleValue() * 100) : null;
+    }
+
+    // ------------------ RUNS ------------------
+
+    public void save(ReconciliationRun run) {
+        mongoTemplate.save(run);
+    }
+
+    public Optional<ReconciliationRun> findRun(String runId) {
+        return Optional.ofNullable(mongoTemplate.findById(runId, ReconciliationRun.class));
+    }
+
+    public void checkpoint(String runId, Partition partition) {
+        Update update = new Update()
+                .set("partitions." + partition.getIndex(), partition)
+                .set("heartbeatAt", new Date());
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(runId)), update, ReconciliationRun.class);
+    }
+
+    public void finish(String runId, String status, String error) {
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", new Date())
+                .set("error", error);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(runId)), update, ReconciliationRun.class);
+    }
+
+    // ------------------ DISCREPANCIES ------------------
+
+    // keyed by run and account, so a resumed run overwrites what it reports again
+    public void report(Discrepancy discrepancy) {
+        mongoTemplate.save(discrepancy);
+    }
+
+    public List<Discrepancy> discrepancies(String runId, int limit) {
+        Query query = new Query(Criteria.where("runId").is(runId))
+                .with(Sort.by("accountNumber"))
+                .limit(limit);
+        return mongoTemplate.find(query, Discrepancy.class);
+    }
+
+    // ------------------ LOCK ------------------
+
+    public boolean lock(String owner, String runId, long leaseMs) {
+        return jobLock.lock(JOB, owner, runId, leaseMs);
+    }
+
+    public void unlock(String owner) {
+        jobLock.unlock(JOB, owner);
+    }
+
+    // ------------------ CURSOR ADAPTER ------------------
+
+    // reads and maps a batch at a time, so a mapper can look up what the whole batch needs at once
+    private static class Cursor<T> implements CloseableIterator<T> {
+
+        private final MongoCursor<Document> cursor;
+        private final int batchSize;
+        private final ReadThrottle throttle;
+        private final Function<List<Document>, List<T>> mapper;
+        private final Deque<T> buffered = new ArrayDeque<>();
+
+        Cursor(MongoCursor<Document> cursor, int batchSize, ReadThrottle throttle,
+               Function<List<Document>, List<T>> mapper) {
+            this.cursor = cursor;
+            this.batchSize = batchSize;
+            this.throttle = throttle;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !buffered.isEmpty() || cursor.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (buffered.isEmpty()) {
+                throttle.acquire(batchSize);
+                List<Document> batch = new ArrayList<>(batchSize);
+                do {
+                    batch.add(cursor.next());
+                } while (batch.size() < batchSize && cursor.hasNext());
+                buffered.addAll(mapper.apply(batch));
+            }
+            return buffered.removeFirst();
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.banking.transaction_service.reconciliation;
+
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges postings from several cursors, each sorted by account ascending and timestamp
+ * descending (the order of the existing history indexes), into one stream in that order.
+ * Holds one posting per cursor, however many transactions there are.
+ */
+public class SortedPostings implements CloseableIterator<Posting> {
+
+    static final Comparator<Posting> ORDER = Comparator.comparing(Posting::account)
+            .thenComparing(Comparator.comparingLong(Posting::timestamp).reversed());
+
+    private final List<? extends CloseableIterator<Posting>> sources;
+    private final PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> ORDER.compare(a.posting, b.posting));
+
+    public SortedPostings(List<? extends CloseableIterator<Posting>> sources) {
+        this.sources = sources;
+        for (CloseableIterator<Posting> source : sources) {
+            advance(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public Posting next() {
+        Head head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        advance(head.source);
+        return head.posting;
+    }
+
+    private void advance(CloseableIterator<Posting> source) {
+        if (source.hasNext()) {
+            heads.add(new Head(source.next(), source));
+        }
+    }
+
+    @Override
+    public void close() {
+        for (CloseableIterator<Posting> source : sources) {
+            source.close();
+        }
+    }
+
+    private record Head(Posting posting, CloseableIterator<Posting> source) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.banking.transaction_service.repository;
+
+import com.banking.transaction_service.model.OutboxEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface OutboxRepository extends MongoRepository<OutboxEntry, String> {
+}
@@ -0,0 +1,19 @@
+package com.banking.transaction_service.resilience;
+
+/**
+ * A downstream service could not be used: circuit open, bulkhead full, timed out, or
+ * failing after the retries the budget allowed. Thrown instead of inventing a value.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String dependency;
+
+    public DependencyUnavailableException(String dependency, String reason, Throwable cause) {
+        super(dependency + " unavailable: " + reason, cause);
+        this.dependency = dependency;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
@@ -0,0 +1,159 @@
+package com.banking.transaction_service.resilience;
+
+import com.banking.transaction_service.deadline.DeadlineContext;
+import com.banking.transaction_service.deadline.DeadlineExceededException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to other services through resilience4j, programmatically, so the protection
+ * applies no matter how the caller is invoked (annotations only work through a proxy).
+ *
+ * Per dependency, from the outside in:
+ *   retry (idempotent calls only, capped by a {@link RetryBudget})
+ *   -> circuit breaker -> time limiter -> thread-pool bulkhead -> the call
+ *
+ * Each dependency is configured under resilience4j.*.instances.&lt;dependency&gt;. Anything that
+ * is not a 4xx answer or an expired deadline surfaces as {@link DependencyUnavailableException};
+ * there are no fallback values. The caller's deadline follows the call into the bulkhead
+ * thread, and no attempt (first or retry) starts once it has passed.
+ */
+@Component
+public class ResilientCalls {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientCalls.class);
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private ThreadPoolBulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Autowired
+    private RetryRegistry retryRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.resilience.retry-budget.percent:20}")
+    private int retryBudgetPercent;
+
+    @Value("${banking.resilience.retry-budget.min-per-second:5}")
+    private int retryBudgetMinPerSecond;
+
+    @Value("${banking.resilience.retry-budget.max-tokens:50}")
+    private int retryBudgetMaxTokens;
+
+    private final ConcurrentHashMap<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public <T> T call(String dependency, boolean idempotent, Supplier<T> supplier) {
+        Guard guard = guards.computeIfAbsent(dependency, this::newGuard);
+        guard.budget.onCall();
+
+        Supplier<T> withDeadline = DeadlineContext.propagate(supplier);
+        Callable<T> attempt = () -> {
+            DeadlineContext.checkNotExpired("calling " + dependency);
+            return guard.circuitBreaker.executeCallable(() ->
+                    guard.timeLimiter.executeFutureSupplier(() ->
+                            guard.bulkhead.executeSupplier(withDeadline).toCompletableFuture()));
+        };
+
+        try {
+            return idempotent ? guard.retry.executeCallable(attempt) : attempt.call();
+        } catch (HttpClientErrorException | DeadlineExceededException e) {
+            // the dependency answered and the request was wrong (e.g. unknown account),
+            // or our caller has given up: neither says anything about the dependency's health
+            throw e;
+        } catch (CallNotPermittedException e) {
+            throw unavailable(dependency, "circuit open", e);
+        } catch (BulkheadFullException e) {
+            throw unavailable(dependency, "bulkhead full", e);
+        } catch (TimeoutException e) {
+            throw unavailable(dependency, "timed out", e);
+        } catch (Exception e) {
+            throw unavailable(dependency, e.getMessage(), e);
+        }
+    }
+
+    // ------------------ RETRY POLICY ------------------
+
+    // timeouts, I/O errors and 5xx may succeed on another try; breaker/bulkhead rejections must not be retried
+    static boolean isRetryable(Throwable e) {
+        return e instanceof TimeoutException
+                || e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException;
+    }
+
+    private Guard newGuard(String dependency) {
+        RetryBudget budget = new RetryBudget(retryBudgetPercent, retryBudgetMinPerSecond, retryBudgetMaxTokens);
+        Counter budgetExhausted = Counter.builder("resilience.retry.budget.exhausted")
+                .description("Retries skipped because the retry budget was empty")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        Gauge.builder("resilience.retry.budget.available", budget, RetryBudget::getAvailable)
+                .description("Retries the budget currently allows")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+
+        RetryConfig configured = retryRegistry.retry(dependency).getRetryConfig();
+        Retry retry = Retry.of(dependency, RetryConfig.from(configured)
+                .retryOnException(e -> {
+                    if (!isRetryable(e)) {
+                        return false;
+                    }
+                    if (!budget.tryAcquireRetry()) {
+                        budgetExhausted.increment();
+                        logger.warn("Retry budget exhausted, not retrying: dependency={}, error={}",
+                                dependency, e.getMessage());
+                        return false;
+                    }
+                    return true;
+                })
+                .build());
+        // keep the budgeted retry in the registry so its metrics are still published
+        retryRegistry.replace(dependency, retry);
+
+        return new Guard(circuitBreakerRegistry.circuitBreaker(dependency),
+                timeLimiterRegistry.timeLimiter(dependency),
+                bulkheadRegistry.bulkhead(dependency),
+                retry,
+                budget);
+    }
+
+    private static DependencyUnavailableException unavailable(String dependency, String reason, Exception cause) {
+        logger.warn("Dependency call failed fast: dependency={}, reason={}", dependency, reason);
+        return new DependencyUnavailableException(dependency, reason, cause);
+    }
+
+    private record Guard(CircuitBreaker circuitBreaker, TimeLimiter timeLimiter, ThreadPoolBulkhead bulkhead,
+                         Retry retry, RetryBudget budget) {
+    }
+}
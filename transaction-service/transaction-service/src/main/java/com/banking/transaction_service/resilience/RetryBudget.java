@@ -0,0 +1,65 @@
+package com.banking.transaction_service.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a share of regular traffic so retries cannot multiply load on a
+ * dependency that is already failing.
+ *
+ * Each call deposits {@code percent / 100} of a token and each retry withdraws a whole
+ * one. A small time-based allowance ({@code minPerSecond}) keeps retries possible at low
+ * traffic. The balance is capped, so a healthy period cannot bank a storm of retries.
+ */
+public class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long depositPerCall;
+    private final long depositPerSecond;
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillNanos;
+
+    public RetryBudget(int percent, int minPerSecond, int maxTokens) {
+        this.depositPerCall = TOKEN * percent / 100;
+        this.depositPerSecond = TOKEN * minPerSecond;
+        this.maxBalance = TOKEN * maxTokens;
+        this.balance = new AtomicLong(maxBalance);
+        this.lastRefillNanos = new AtomicLong(System.nanoTime());
+    }
+
+    public void onCall() {
+        deposit(depositPerCall);
+    }
+
+    public boolean tryAcquireRetry() {
+        refill(System.nanoTime());
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    public double getAvailable() {
+        return balance.get() / (double) TOKEN;
+    }
+
+    private void refill(long now) {
+        long last = lastRefillNanos.get();
+        long elapsed = now - last;
+        if (elapsed < 1_000_000 || !lastRefillNanos.compareAndSet(last, now)) {
+            return;
+        }
+        deposit(depositPerSecond * elapsed / 1_000_000_000L);
+    }
+
+    private void deposit(long amount) {
+        balance.updateAndGet(b -> Math.min(maxBalance, b + amount));
+    }
+}
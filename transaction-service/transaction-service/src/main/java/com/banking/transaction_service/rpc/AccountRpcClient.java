@@ -0,0 +1,114 @@
+package com.banking.transaction_service.rpc;
+
+import com.banking.transaction_service.deadline.DeadlineContext;
+import com.banking.transaction_service.deadline.DeadlineExceededException;
+import com.banking.transaction_service.rpc.AccountRpc.Request;
+import com.banking.transaction_service.rpc.AccountRpc.Response;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Sends {@link AccountRpc} frames to a chosen ACCOUNT-SERVICE instance over cleartext HTTP/2.
+ *
+ * One JDK HttpClient multiplexes every concurrent call to an instance over a single
+ * connection, so there is no per-call connect and no connection pool to size. Deadlines and
+ * correlation ids travel in headers as on the REST path, and failures surface as the same
+ * exceptions RestTemplate would throw (4xx/5xx/I-O), so resilience, retries and hedging treat
+ * both transports alike.
+ */
+@Component
+public class AccountRpcClient {
+
+    private static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+
+    @Value("${banking.http.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${banking.http.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    /**
+     * @return the response; INSUFFICIENT_FUNDS and NOT_APPLIED are returned, every other failure status is thrown
+     */
+    public Response call(ServiceInstance instance, Request request) {
+        long remaining = DeadlineContext.remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded before calling " + instance.getHost());
+        }
+
+        HttpRequest.Builder http = HttpRequest.newBuilder(URI.create(instance.getUri() + AccountRpc.PATH))
+                .timeout(Duration.ofMillis(Math.max(1, Math.min(readTimeoutMs, remaining))))
+                .header(HttpHeaders.CONTENT_TYPE, AccountRpc.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(AccountRpc.encode(request)));
+        if (DeadlineContext.isSet()) {
+            http.header(DeadlineContext.HEADER, String.valueOf(remaining));
+        }
+        String correlationId = MDC.get("correlationId");
+        if (correlationId != null) {
+            http.header(CORRELATION_ID_HEADER, correlationId);
+        }
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(http.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on account RPC to " + instance.getUri() + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted during account RPC to " + instance.getUri());
+        }
+
+        if (response.statusCode() != 200) {
+            HttpStatus status = HttpStatus.resolve(response.statusCode());
+            throw httpError(status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR,
+                    "account RPC answered HTTP " + response.statusCode());
+        }
+        return check(AccountRpc.decodeResponse(response.body()));
+    }
+
+    // ------------------ STATUS MAPPING ------------------
+
+    static Response check(Response response) {
+        return switch (response.status()) {
+            case AccountRpc.OK, AccountRpc.INSUFFICIENT_FUNDS, AccountRpc.NOT_APPLIED -> response;
+            case AccountRpc.NOT_FOUND -> throw httpError(HttpStatus.NOT_FOUND, response.message());
+            case AccountRpc.CONFLICT -> throw httpError(HttpStatus.CONFLICT, response.message());
+            case AccountRpc.BAD_REQUEST -> throw httpError(HttpStatus.BAD_REQUEST, response.message());
+            case AccountRpc.DEADLINE_EXCEEDED -> throw httpError(HttpStatus.GATEWAY_TIMEOUT, response.message());
+            default -> throw httpError(HttpStatus.INTERNAL_SERVER_ERROR, response.message());
+        };
+    }
+
+    private static RuntimeException httpError(HttpStatus status, String message) {
+        byte[] body = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        return status.is4xxClientError()
+                ? HttpClientErrorException.create(message, status, status.getReasonPhrase(), HttpHeaders.EMPTY, body, StandardCharsets.UTF_8)
+                : HttpServerErrorException.create(message, status, status.getReasonPhrase(), HttpHeaders.EMPTY, body, StandardCharsets.UTF_8);
+    }
+}
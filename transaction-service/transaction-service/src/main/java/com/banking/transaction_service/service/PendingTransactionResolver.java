@@ -0,0 +1,80 @@
+package com.banking.transaction_service.service;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.model.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Settles transactions left PENDING: a deposit, withdrawal or transfer that stopped midway,
+ * by a crash or a credit or debit whose outcome could not be learned. Each run resolves up
+ * to batch-size of those started more than resolve-after-ms ago (long past any request still
+ * in flight), oldest first; the ones ACCOUNT-SERVICE cannot answer for yet are tried again
+ * on the next run.
+ */
+@Component
+public class PendingTransactionResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingTransactionResolver.class);
+
+    @Autowired
+    private ArchiveStore store;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.pending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.pending.resolve-after-ms:120000}")
+    private long resolveAfterMs;
+
+    @Value("${banking.pending.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${banking.pending.interval-ms:60000}",
+               initialDelayString = "${banking.pending.initial-delay-ms:60000}")
+    void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int settled = resolveOnce();
+            if (settled > 0) {
+                logger.info("Pending transactions resolved: settled={}", settled);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Pending resolution run failed, will retry next run: error={}", e.getMessage());
+        }
+    }
+
+    // ------------------ ONE RUN ------------------
+
+    // the number of transactions settled
+    public int resolveOnce() {
+        store.ensureIndexes(ArchiveStore.HOT);
+        int settled = 0;
+        for (Transaction txn : store.findPending(new Date(System.currentTimeMillis() - resolveAfterMs), batchSize)) {
+            try {
+                Transaction resolved = transactionService.resolvePending(txn);
+                if (!"PENDING".equals(resolved.getStatus())) {
+                    meterRegistry.counter("transactions.pending.resolved", "status", resolved.getStatus()).increment();
+                    settled++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Pending transaction not resolved: txnId={}, error={}", txn.getTransactionId(), e.getMessage());
+            }
+        }
+        return settled;
+    }
+}
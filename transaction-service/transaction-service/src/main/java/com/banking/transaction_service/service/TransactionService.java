@@ -1,14 +1,19 @@
 package com.banking.transaction_service.service;
 
-import com.banking.transaction_service.client.NotificationClient;
+import com.banking.transaction_service.archive.TransactionHistory;
+import com.banking.transaction_service.client.AccountClient;
+import com.banking.transaction_service.deadline.DeadlineContext;
 import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.outbox.NotificationOutbox;
 import com.banking.transaction_service.repository.TransactionRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.banking.transaction_service.velocity.VelocityChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.util.*;
 
@@ -21,12 +26,22 @@ public class TransactionService {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private NotificationOutbox notificationOutbox;
 
     @Autowired
-    private NotificationClient notificationClient;
+    private AccountClient accountClient;
 
-    private final String ACCOUNT_SERVICE_URL = "http://ACCOUNT-SERVICE/api/accounts";
+    @Autowired
+    private TransactionHistory transactionHistory;
+
+    @Autowired
+    private VelocityChecker velocityChecker;
+
+    @Value("${banking.history.default-limit:100}")
+    private int defaultHistoryLimit;
+
+    @Value("${banking.history.max-limit:1000}")
+    private int maxHistoryLimit;
 
     // ------------------ Utility: Generate Transaction ID ------------------
     private String generateTransactionId() {
@@ -41,25 +56,26 @@ public class TransactionService {
         logger.info("Starting DEPOSIT: account={}, amount={}", accountNumber, amount);
 
         Transaction txn = createBaseTransaction("DEPOSIT", amount, accountNumber, null);
+        begin(txn);
+        if (rejectedByVelocity(txn)) {
+            return txn;
+        }
 
         try {
-            logger.info("Fetching current balance for account={}", accountNumber);
-            Double currentBalance = getBalanceFromAccountService(accountNumber);
+            if (!creditInAccountService(accountNumber, amount, operationId(txn, "credit"))) {
+                logger.warn("DEPOSIT FAILED - credit not applied: account={}, amount={}", accountNumber, amount);
 
-            double updatedBalance = currentBalance + amount;
-
-            logger.info("Updating balance for account={} newBalance={}", accountNumber, updatedBalance);
-            updateBalanceInAccountService(accountNumber, updatedBalance);
+                txn.setStatus("FAILED");
+                return transactionRepository.save(txn);
+            }
 
             txn.setStatus("SUCCESS");
-            transactionRepository.save(txn);
+            notificationOutbox.saveWithNotification(txn);
 
             logger.info("DEPOSIT SUCCESS: account={}, amount={}, txnId={}", accountNumber, amount, txn.getTransactionId());
 
-            notificationClient.sendNotification(
-                    "Deposit of " + amount + " to account " + accountNumber + " was successful."
-            );
-
+        } catch (OutcomeUnknownException e) {
+            return leavePending(txn);
         } catch (Exception e) {
 
             logger.error("DEPOSIT FAILED: account={}, amount={}, error={}", accountNumber, amount, e.getMessage());
@@ -76,6 +92,10 @@ public class TransactionService {
         logger.info("Starting WITHDRAW: account={}, amount={}", accountNumber, amount);
 
         Transaction txn = createBaseTransaction("WITHDRAW", amount, accountNumber, null);
+        begin(txn);
+        if (rejectedByVelocity(txn)) {
+            return txn;
+        }
 
         try {
             logger.info("Fetching current balance for account={}", accountNumber);
@@ -89,19 +109,21 @@ public class TransactionService {
                 return transactionRepository.save(txn);
             }
 
-            logger.info("Updating balance for account={} newBalance={}", accountNumber, currentBalance - amount);
-            updateBalanceInAccountService(accountNumber, currentBalance - amount);
+            if (!debitInAccountService(accountNumber, amount, operationId(txn, "debit"))) {
+                logger.warn("WITHDRAW FAILED - insufficient funds: account={}, amount={}", accountNumber, amount);
+
+                txn.setStatus("FAILED");
+                return transactionRepository.save(txn);
+            }
 
             txn.setStatus("SUCCESS");
-            transactionRepository.save(txn);
+            notificationOutbox.saveWithNotification(txn);
 
             logger.info("WITHDRAW SUCCESS: account={}, amount={}, txnId={}",
                     accountNumber, amount, txn.getTransactionId());
 
-            notificationClient.sendNotification(
-                    "Withdrawal of " + amount + " from account " + accountNumber + " was successful."
-            );
-
+        } catch (OutcomeUnknownException e) {
+            return leavePending(txn);
         } catch (Exception e) {
 
             logger.error("WITHDRAW FAILED: account={}, amount={}, error={}", accountNumber, amount, e.getMessage());
@@ -114,10 +136,30 @@ public class TransactionService {
 
     // ------------------ TRANSFER ------------------
     public Transaction transfer(String sourceAcc, String destAcc, double amount) {
+        return transfer(sourceAcc, destAcc, amount, null);
+    }
+
+    /**
+     * A caller-chosen transactionId is also the document id, so whether it ran can be looked up;
+     * as the transfer is recorded PENDING under it before any money moves, a second run with the
+     * same id fails on the duplicate key.
+     *
+     * @throws IllegalStateException if a transfer with transactionId was already started
+     */
+    public Transaction transfer(String sourceAcc, String destAcc, double amount, String transactionId) {
 
         logger.info("Starting TRANSFER: from={}, to={}, amount={}", sourceAcc, destAcc, amount);
 
         Transaction txn = createBaseTransaction("TRANSFER", amount, sourceAcc, destAcc);
+        if (transactionId != null) {
+            txn.setId(transactionId);
+            txn.setTransactionId(transactionId);
+        }
+        begin(txn);
+        if (rejectedByVelocity(txn)) {
+            return txn;
+        }
+        boolean debited = false;
 
         try {
             logger.info("Fetching balance for sourceAcc={}", sourceAcc);
@@ -131,30 +173,40 @@ public class TransactionService {
                 return transactionRepository.save(txn);
             }
 
-            logger.info("Debiting sourceAcc={} newBalance={}", sourceAcc, sourceBalance - amount);
-            updateBalanceInAccountService(sourceAcc, sourceBalance - amount);
+            logger.info("Debiting sourceAcc={} amount={}", sourceAcc, amount);
+            if (!debitInAccountService(sourceAcc, amount, operationId(txn, "debit"))) {
+                logger.warn("TRANSFER FAILED - insufficient funds: from={}, amount={}", sourceAcc, amount);
 
-            logger.info("Fetching balance for destAcc={}", destAcc);
-            Double destBalance = getBalanceFromAccountService(destAcc);
+                txn.setStatus("FAILED");
+                return transactionRepository.save(txn);
+            }
+            debited = true;
 
-            logger.info("Crediting destAcc={} newBalance={}", destAcc, destBalance + amount);
-            updateBalanceInAccountService(destAcc, destBalance + amount);
+            logger.info("Crediting destAcc={} amount={}", destAcc, amount);
+            if (!creditInAccountService(destAcc, amount, operationId(txn, "credit"))) {
+                throw new IllegalStateException("Credit to " + destAcc + " not applied");
+            }
 
             txn.setStatus("SUCCESS");
-            transactionRepository.save(txn);
+            notificationOutbox.saveWithNotification(txn);
 
             logger.info("TRANSFER SUCCESS: from={}, to={}, amount={}, txnId={}",
                     sourceAcc, destAcc, amount, txn.getTransactionId());
 
-            notificationClient.sendNotification(
-                    "Transfer of " + amount + " from " + sourceAcc + " to " + destAcc + " was successful."
-            );
-
+        } catch (OutcomeUnknownException e) {
+            // nothing may be compensated on top of a leg that could have landed
+            return leavePending(txn);
         } catch (Exception e) {
 
             logger.error("TRANSFER FAILED: from={}, to={}, amount={}, error={}",
                     sourceAcc, destAcc, amount, e.getMessage());
 
+            // must run even when the failure was the request's deadline running out
+            if (debited && !DeadlineContext.callDetached(() -> compensateDebit(txn))) {
+                // the money is still off the source account: the refund is retried when it is resolved
+                return txn;
+            }
+
             txn.setStatus("FAILED");
             transactionRepository.save(txn);
         }
@@ -162,6 +214,56 @@ public class TransactionService {
         return txn;
     }
 
+    // ------------------ RESOLVE PENDING ------------------
+
+    /**
+     * Settles a transaction left PENDING by a request that stopped midway (a crash, or a credit
+     * or debit whose outcome it could not learn). Each of its legs is resolved in ACCOUNT-SERVICE,
+     * which refuses it from then on if it was not applied, so the earlier request can no longer
+     * move money; a transfer's debit whose credit did not land is refunded.
+     *
+     * @return the transaction as it stands now; still PENDING if ACCOUNT-SERVICE could not say,
+     *         or a refund was not confirmed
+     */
+    public Transaction resolvePending(Transaction txn) {
+
+        String sourceAcc = txn.getSourceAccount();
+        String destAcc = txn.getDestinationAccount();
+        logger.info("Resolving PENDING {}: from={}, to={}, amount={}, txnId={}",
+                txn.getType(), sourceAcc, destAcc, txn.getAmount(), txn.getTransactionId());
+
+        boolean debited = false;
+        boolean applied;
+        try {
+            if ("DEPOSIT".equals(txn.getType())) {
+                applied = accountClient.resolve(sourceAcc, operationId(txn, "credit"));
+            } else if ("WITHDRAW".equals(txn.getType())) {
+                applied = accountClient.resolve(sourceAcc, operationId(txn, "debit"));
+            } else {
+                debited = accountClient.resolve(sourceAcc, operationId(txn, "debit"));
+                applied = debited && accountClient.resolve(destAcc, operationId(txn, "credit"));
+            }
+        } catch (RuntimeException e) {
+            logger.error("{} still PENDING - outcome unknown: txnId={}, error={}",
+                    txn.getType(), txn.getTransactionId(), e.getMessage());
+            return txn;
+        }
+
+        if (applied) {
+            txn.setStatus("SUCCESS");
+            notificationOutbox.saveWithNotification(txn);
+        } else {
+            if (debited && !compensateDebit(txn)) {
+                logger.error("{} still PENDING - refund not confirmed: txnId={}", txn.getType(), txn.getTransactionId());
+                return txn;
+            }
+            txn.setStatus("FAILED");
+            transactionRepository.save(txn);
+        }
+        logger.info("PENDING {} resolved: txnId={}, status={}", txn.getType(), txn.getTransactionId(), txn.getStatus());
+        return txn;
+    }
+
     // ------------------ HELPER: CREATE BASE TXN ------------------
     private Transaction createBaseTransaction(String type, double amount, String src, String dest) {
         Transaction txn = new Transaction();
@@ -175,56 +277,168 @@ public class TransactionService {
     }
 
 
+    // ------------------ PENDING RECORD ------------------
+
+    // recorded before ACCOUNT-SERVICE is called, so a transaction that stops midway is never lost
+    private void begin(Transaction txn) {
+        txn.setStatus("PENDING");
+        try {
+            transactionRepository.insert(txn);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Transaction " + txn.getTransactionId() + " already started", e);
+        }
+    }
+
+    // the outcome of a leg is unknown: the record stays PENDING for PendingTransactionResolver
+    private Transaction leavePending(Transaction txn) {
+        logger.error("{} PENDING - outcome unknown, resolved later: from={}, to={}, amount={}, txnId={}",
+                txn.getType(), txn.getSourceAccount(), txn.getDestinationAccount(), txn.getAmount(), txn.getTransactionId());
+        return txn;
+    }
+
+    // ------------------ VELOCITY CHECK ------------------
+
+    // checked before ACCOUNT-SERVICE is called, so a rejected burst costs no remote calls
+    private boolean rejectedByVelocity(Transaction txn) {
+        String rule = velocityChecker.check(txn.getType(), txn.getSourceAccount(), txn.getAmount());
+        if (rule == null) {
+            return false;
+        }
+        logger.warn("{} FAILED - velocity limit: account={}, amount={}, rule={}",
+                txn.getType(), txn.getSourceAccount(), txn.getAmount(), rule);
+        txn.setStatus("FAILED");
+        transactionRepository.save(txn);
+        return true;
+    }
+
+    // ------------------ COMPENSATION ------------------
+
+    // the source was debited and the credit was not applied: put the money back on the source account.
+    // Never after a credit whose outcome is unknown, which could have landed after all.
+    // Each attempt has its own operation id, counted on the transaction before it is made: an
+    // unanswered one is refused for good once resolved, so a later attempt first resolves the
+    // earlier ones and at most one of them is ever applied. True once the refund is known applied.
+    private boolean compensateDebit(Transaction txn) {
+        String sourceAcc = txn.getSourceAccount();
+        double amount = txn.getAmount();
+        String txnId = txn.getTransactionId();
+        try {
+            for (int attempt = 0; attempt < txn.getRefundAttempts(); attempt++) {
+                if (accountClient.resolve(sourceAcc, refundId(txn, attempt))) {
+                    logger.info("Compensation already applied: account={}, amount={}, txnId={}, attempt={}",
+                            sourceAcc, amount, txnId, attempt + 1);
+                    return true;
+                }
+            }
+            String refundId = refundId(txn, txn.getRefundAttempts());
+            txn.setRefundAttempts(txn.getRefundAttempts() + 1);
+            transactionRepository.save(txn);
+
+            logger.warn("Compensating debit: account={}, amount={}, txnId={}, attempt={}",
+                    sourceAcc, amount, txnId, txn.getRefundAttempts());
+            if (!creditInAccountService(sourceAcc, amount, refundId)) {
+                throw new IllegalStateException("Refund not applied");
+            }
+            logger.info("Compensation SUCCESS: account={}, amount={}, txnId={}", sourceAcc, amount, txnId);
+            return true;
+        } catch (Exception e) {
+            logger.error("COMPENSATION FAILED - left PENDING, retried when resolved: account={}, amount={}, txnId={}, error={}",
+                    sourceAcc, amount, txnId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String refundId(Transaction txn, int attempt) {
+        return txn.getTransactionId() + (attempt == 0 ? ":refund" : ":refund-" + (attempt + 1));
+    }
+
     // ===================================================================
-    // CIRCUIT BREAKER METHODS
+    // ACCOUNT-SERVICE CALLS (circuit breaker, bulkhead, time limiter and
+    // retry budget are applied inside AccountClient; failures propagate)
     // ===================================================================
 
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackGetBalance")
     private Double getBalanceFromAccountService(String accNo) {
         logger.info("Calling ACCOUNT-SERVICE for getBalance: account={}", accNo);
 
-        String url = ACCOUNT_SERVICE_URL + "/" + accNo;
-        Map response = restTemplate.getForObject(url, Map.class);
+        // hedged read: a slow instance gets a backup request to another one
+        Double balance = accountClient.getBalance(accNo);
 
-        logger.info("ACCOUNT-SERVICE responded with balance={} for account={}",
-                response.get("balance"), accNo);
+        logger.info("ACCOUNT-SERVICE responded with balance={} for account={}", balance, accNo);
 
-        return Double.valueOf(response.get("balance").toString());
+        return balance;
     }
 
-    private Double fallbackGetBalance(String accNo, Throwable t) {
-        logger.warn("Fallback triggered for getBalance (ACCOUNT-SERVICE DOWN): account={}, error={}",
-                accNo, t.getMessage());
-        return 0.0;
+    // Money moves only through credits and debits keyed by an operation id derived from the
+    // transaction id, which ACCOUNT-SERVICE applies at most once, so AccountClient can retry them.
+    // When one fails without an answer (timed out, I/O error, retries used up) it is resolved:
+    // ACCOUNT-SERVICE says whether it was applied and refuses it from then on, so an attempt
+    // still on its way cannot land after the transaction has been settled.
+
+    private static String operationId(Transaction txn, String leg) {
+        return txn.getTransactionId() + ":" + leg;
     }
 
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackUpdateBalance")
-    private void updateBalanceInAccountService(String accNo, double newBalance) {
-        logger.info("Calling ACCOUNT-SERVICE to update balance: account={}, newBalance={}", accNo, newBalance);
+    // false if the credit was not applied
+    private boolean creditInAccountService(String accNo, double amount, String operationId) {
+        logger.info("Calling ACCOUNT-SERVICE to credit: account={}, amount={}, operationId={}", accNo, amount, operationId);
+        try {
+            return accountClient.credit(accNo, amount, operationId);
+        } catch (HttpClientErrorException e) {
+            // answered: the request itself was wrong, nothing was applied
+            throw e;
+        } catch (RuntimeException e) {
+            return resolve(accNo, operationId, e);
+        }
+    }
 
-        String url = ACCOUNT_SERVICE_URL + "/" + accNo + "/balance?newBalance=" + newBalance;
-        restTemplate.put(url, null);
+    // false if the balance does not cover the amount
+    private boolean debitInAccountService(String accNo, double amount, String operationId) {
+        logger.info("Calling ACCOUNT-SERVICE to debit: account={}, amount={}, operationId={}", accNo, amount, operationId);
+        try {
+            return accountClient.debit(accNo, amount, operationId);
+        } catch (HttpClientErrorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return resolve(accNo, operationId, e);
+        }
+    }
 
-        logger.info("ACCOUNT-SERVICE balance update completed: account={}, newBalance={}", accNo, newBalance);
+    private boolean resolve(String accNo, String operationId, RuntimeException failure) {
+        logger.warn("ACCOUNT-SERVICE call unanswered, resolving: account={}, operationId={}, error={}",
+                accNo, operationId, failure.getMessage());
+        try {
+            // also after the request's deadline: the transaction must not be left undecided
+            boolean applied = DeadlineContext.callDetached(() -> accountClient.resolve(accNo, operationId));
+            logger.info("Operation resolved: account={}, operationId={}, applied={}", accNo, operationId, applied);
+            return applied;
+        } catch (RuntimeException e) {
+            logger.error("OUTCOME UNKNOWN - manual reconciliation required: account={}, operationId={}, error={}",
+                    accNo, operationId, e.getMessage());
+            throw new OutcomeUnknownException(operationId, e);
+        }
     }
 
-    private void fallbackUpdateBalance(String accNo, double newBalance, Throwable t) {
-        logger.warn("Fallback triggered for updateBalance (ACCOUNT-SERVICE DOWN): account={}, newBalance={}, error={}",
-                accNo, newBalance, t.getMessage());
+    // a keyed call whose outcome could not be found out; nothing may be compensated on top of it
+    private static class OutcomeUnknownException extends RuntimeException {
+
+        OutcomeUnknownException(String operationId, Throwable cause) {
+            super("Outcome of " + operationId + " unknown", cause);
+        }
     }
 
-    // ------------------ GET ALL TXNS FOR ACCOUNT ------------------
-    public List<Transaction> getTransactionsForAccount(String accountNumber) {
+    // ------------------ TXN HISTORY FOR ACCOUNT ------------------
 
-        logger.info("Fetching ALL transactions for account={}", accountNumber);
+    // one page, newest first, read across the hot collection and the archives
+    public List<Transaction> getTransactionsForAccount(String accountNumber, Date before, String beforeId, Integer limit) {
 
-        List<Transaction> outgoing = transactionRepository.findBySourceAccount(accountNumber);
-        List<Transaction> incoming = transactionRepository.findByDestinationAccount(accountNumber);
+        int pageSize = limit == null ? defaultHistoryLimit : Math.max(1, Math.min(limit, maxHistoryLimit));
+        logger.info("Fetching transactions for account={}, before={}, beforeId={}, limit={}",
+                accountNumber, before, beforeId, pageSize);
 
-        outgoing.addAll(incoming);
+        List<Transaction> page = transactionHistory.page(accountNumber, before, beforeId, pageSize);
 
-        logger.info("Found {} transactions for account={}", outgoing.size(), accountNumber);
+        logger.info("Found {} transactions for account={}", page.size(), accountNumber);
 
-        return outgoing;
+        return page;
     }
 }
@@ -0,0 +1,120 @@
+package com.banking.transaction_service.standing;
+
+import com.banking.transaction_service.model.StandingOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Which standing order partitions this instance schedules, without a leader: every instance
+ * reads the same list of TRANSACTION-SERVICE instances from discovery and gives each
+ * partition to the instance with the highest hash of (instance, partition). An instance
+ * joining or leaving moves only its own share of the partitions.
+ *
+ * Instances may briefly disagree while discovery catches up; executing an order needs a
+ * claim on it in MongoDB, so two instances scheduling the same order is harmless. An instance
+ * that cannot find itself in discovery (no registry, or not registered yet) takes every
+ * partition.
+ */
+@Component
+public class PartitionOwnership {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionOwnership.class);
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private ObjectProvider<Registration> registration;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    private volatile BitSet owned = all();
+    private volatile int instances = 1;
+
+    // ------------------ REFRESH ------------------
+
+    public void refresh() {
+        Registration self = registration.getIfAvailable();
+        List<String> ids = new ArrayList<>();
+        try {
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                ids.add(instance.getInstanceId());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Standing order partitions kept, discovery failed: error={}", e.getMessage());
+            return;
+        }
+        BitSet next = self == null || !ids.contains(self.getInstanceId())
+                ? all()
+                : assign(self.getInstanceId(), ids, StandingOrder.PARTITIONS);
+        if (!next.equals(owned) || ids.size() != instances) {
+            logger.info("Standing order partitions reassigned: instances={}, owned={}", ids.size(), next.cardinality());
+        }
+        owned = next;
+        instances = ids.size();
+    }
+
+    public boolean owns(int partition) {
+        return owned.get(partition);
+    }
+
+    // null when every partition is owned
+    public List<Integer> owned() {
+        BitSet current = owned;
+        if (current.cardinality() == StandingOrder.PARTITIONS) {
+            return null;
+        }
+        return current.stream().boxed().toList();
+    }
+
+    // ------------------ RENDEZVOUS HASHING ------------------
+
+    public static BitSet assign(String self, List<String> instanceIds, int partitions) {
+        BitSet mine = new BitSet(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            String winner = null;
+            long best = Long.MIN_VALUE;
+            for (String instanceId : instanceIds) {
+                long weight = weight(instanceId, partition);
+                // ties broken by id, so every instance picks the same winner
+                if (winner == null || weight > best || (weight == best && instanceId.compareTo(winner) < 0)) {
+                    winner = instanceId;
+                    best = weight;
+                }
+            }
+            if (self.equals(winner)) {
+                mine.set(partition);
+            }
+        }
+        return mine;
+    }
+
+    // String.hashCode is fixed by the language spec, so every instance computes the same weights
+    private static long weight(String instanceId, int partition) {
+        long h = instanceId.hashCode() * 0x9E3779B97F4A7C15L + partition;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static BitSet all() {
+        BitSet all = new BitSet(StandingOrder.PARTITIONS);
+        all.set(0, StandingOrder.PARTITIONS);
+        return all;
+    }
+}
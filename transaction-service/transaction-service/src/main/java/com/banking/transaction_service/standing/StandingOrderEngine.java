@@ -0,0 +1,394 @@
+package com.banking.transaction_service.standing;
+
+import com.banking.transaction_service.model.StandingOrder;
+import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.service.TransactionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Executes standing orders on their due dates.
+ *
+ * Orders live in MongoDB; only those of this instance's partitions ({@link PartitionOwnership})
+ * due within horizon-ms are held in memory, as ids in a {@link TimingWheel}, topped up every
+ * refill-interval-ms and capped at max-scheduled. Each tick the orders that have come due are
+ * handed in batches of batch-size to a bounded worker pool; a batch is claimed in MongoDB with
+ * one update, its transfers run one after another, and the orders are advanced to their next
+ * due date with one bulk write. When the pool is full, batches wait for the next tick.
+ *
+ * A due date is executed at most once: its transfer has the id {orderId}-{yyyyMMdd} and is
+ * recorded PENDING under it before money moves. An order whose claim lapsed after that (a crash
+ * before the advance) is advanced without transferring again, once a PENDING transfer has been
+ * resolved. Claims are renewed every half claim-lease-ms while a batch runs. After downtime,
+ * every missed due date is executed, oldest first, one per tick for each order.
+ */
+@Component
+public class StandingOrderEngine implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandingOrderEngine.class);
+
+    private static final String PENDING = "PENDING";
+
+    static final DateTimeFormatter DUE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private static final int WHEEL_SLOTS = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    @Autowired
+    private StandingOrderStore store;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private PartitionOwnership ownership;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.standing-orders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.standing-orders.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${banking.standing-orders.horizon-ms:600000}")
+    private long horizonMs;
+
+    @Value("${banking.standing-orders.refill-interval-ms:60000}")
+    private long refillIntervalMs;
+
+    @Value("${banking.standing-orders.max-scheduled:100000}")
+    private int maxScheduled;
+
+    @Value("${banking.standing-orders.batch-size:100}")
+    private int batchSize;
+
+    @Value("${banking.standing-orders.parallelism:4}")
+    private int parallelism;
+
+    @Value("${banking.standing-orders.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${banking.standing-orders.claim-lease-ms:300000}")
+    private long claimLeaseMs;
+
+    // orders in the wheel or being executed, with the due time they were scheduled for
+    private final Map<String, Long> scheduled = new ConcurrentHashMap<>();
+
+    private TimingWheel<String> wheel;
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService timer;
+    private volatile boolean running;
+
+    private Timer lag;
+
+    // ------------------ ORDERS ------------------
+
+    /**
+     * Creates an ACTIVE order whose first transfer is due at startAt (default: now).
+     *
+     * @throws IllegalArgumentException if the order is not valid
+     */
+    public StandingOrder create(String sourceAccount, String destinationAccount, double amount,
+                                StandingOrder.Frequency frequency, Date startAt, Date endAt) {
+        Date now = new Date();
+        Date start = startAt == null ? now : startAt;
+        if (sourceAccount == null || sourceAccount.isBlank() || sourceAccount.equals(destinationAccount)) {
+            throw new IllegalArgumentException("source and destination accounts must be given and differ");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("frequency is required: DAILY, WEEKLY or MONTHLY");
+        }
+        // a little slack for clocks; anything older would be executed as missed at once
+        if (start.getTime() < now.getTime() - TimeUnit.MINUTES.toMillis(1)) {
+            throw new IllegalArgumentException("startAt is in the past");
+        }
+        if (endAt != null && endAt.before(start)) {
+            throw new IllegalArgumentException("endAt is before startAt");
+        }
+
+        StandingOrder order = new StandingOrder();
+        order.setId("SO-" + UUID.randomUUID());
+        order.setSourceAccount(sourceAccount);
+        order.setDestinationAccount(destinationAccount);
+        order.setAmount(amount);
+        order.setFrequency(frequency);
+        order.setStartAt(start);
+        order.setEndAt(endAt);
+        order.setStatus(StandingOrder.ACTIVE);
+        order.setPartition(StandingOrder.partitionOf(order.getId()));
+        order.setCreatedAt(now);
+        order.setNextRunAt(start);
+        store.insert(order);
+
+        // due before the next refill would pick it up
+        if (running && ownership.owns(order.getPartition())) {
+            reschedule(order, now.getTime());
+        }
+        logger.info("STANDING ORDER created: orderId={}, from={}, to={}, amount={}, frequency={}, startAt={}",
+                order.getId(), sourceAccount, destinationAccount, amount, frequency, start);
+        return order;
+    }
+
+    public Optional<StandingOrder> get(String orderId) {
+        return store.find(orderId);
+    }
+
+    public List<StandingOrder> forAccount(String sourceAccount) {
+        return store.findBySource(sourceAccount);
+    }
+
+    // the order as it is afterwards; empty if there is no such order
+    public Optional<StandingOrder> cancel(String orderId) {
+        if (store.cancel(orderId)) {
+            logger.info("STANDING ORDER cancelled: orderId={}", orderId);
+        }
+        return store.find(orderId);
+    }
+
+    // ------------------ SCHEDULING ------------------
+
+    // loads the orders of owned partitions due within the horizon, overdue ones first
+    void refill() {
+        try {
+            ownership.refresh();
+            store.ensureIndexes();
+            long now = System.currentTimeMillis();
+            int room = maxScheduled - scheduled.size();
+            if (room <= 0) {
+                return;
+            }
+            int added = 0;
+            int overdue = 0;
+            for (Document due : store.due(ownership.owned(), new Date(now + horizonMs), maxScheduled)) {
+                if (added == room) {
+                    break;
+                }
+                String orderId = due.getString("_id");
+                long dueAt = due.getDate("nextRunAt").getTime();
+                if (scheduled.putIfAbsent(orderId, dueAt) == null) {
+                    wheel.add(orderId, dueAt);
+                    added++;
+                    if (dueAt < now - tickMs) {
+                        overdue++;
+                    }
+                }
+            }
+            if (overdue > 0) {
+                logger.info("Standing orders overdue, catching up: orders={}", overdue);
+            }
+            logger.debug("Standing orders scheduled: added={}, scheduled={}", added, scheduled.size());
+        } catch (RuntimeException e) {
+            logger.warn("Standing order refill failed, retrying: error={}", e.getMessage());
+        }
+    }
+
+    void tick() {
+        try {
+            List<String> batch = new ArrayList<>(batchSize);
+            for (String orderId : wheel.advance(System.currentTimeMillis())) {
+                // the partition has moved to another instance since it was scheduled
+                if (!ownership.owns(StandingOrder.partitionOf(orderId))) {
+                    scheduled.remove(orderId);
+                    continue;
+                }
+                batch.add(orderId);
+                if (batch.size() == batchSize) {
+                    submit(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Standing order tick failed: error={}", e.getMessage(), e);
+        }
+    }
+
+    private void submit(List<String> batch) {
+        try {
+            workers.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            // every worker busy and the queue full: try again on the next tick
+            meterRegistry.counter("standing.orders.deferred").increment(batch.size());
+            long retryAt = System.currentTimeMillis() + tickMs;
+            batch.forEach(orderId -> wheel.add(orderId, retryAt));
+        }
+    }
+
+    private void reschedule(StandingOrder order, long now) {
+        Date next = order.getNextRunAt();
+        if (StandingOrder.ACTIVE.equals(order.getStatus()) && next != null && next.getTime() < now + horizonMs) {
+            scheduled.put(order.getId(), next.getTime());
+            wheel.add(order.getId(), next.getTime());
+        }
+    }
+
+    // ------------------ EXECUTION ------------------
+
+    void execute(List<String> orderIds) {
+        String token = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        List<StandingOrder> done = new ArrayList<>();
+        try {
+            // the rest were cancelled, moved or are being run by another instance
+            List<StandingOrder> claimed = store.claim(orderIds, token, new Date(now), new Date(now + claimLeaseMs));
+            Set<String> held = claimed.stream().map(StandingOrder::getId).collect(Collectors.toSet());
+            long renewAt = now + claimLeaseMs / 2;
+            for (int i = 0; i < claimed.size(); i++) {
+                StandingOrder order = claimed.get(i);
+                // a long batch keeps its claims: renewed for the rest of it every half lease
+                long at = System.currentTimeMillis();
+                if (at >= renewAt) {
+                    List<String> rest = claimed.subList(i, claimed.size()).stream().map(StandingOrder::getId).toList();
+                    held = store.renew(rest, token, new Date(at + claimLeaseMs));
+                    renewAt = at + claimLeaseMs / 2;
+                }
+                if (!held.contains(order.getId())) {
+                    logger.warn("STANDING ORDER claim lost, left to its new owner: orderId={}", order.getId());
+                    continue;
+                }
+                try {
+                    run(order);
+                    done.add(order);
+                } catch (RuntimeException e) {
+                    // its claim lapses and it is picked up again
+                    logger.error("STANDING ORDER failed, retried after claim-lease-ms: orderId={}, error={}",
+                            order.getId(), e.getMessage(), e);
+                }
+            }
+            store.advance(done, token);
+        } catch (RuntimeException e) {
+            logger.error("Standing order batch failed, retried after claim-lease-ms: orders={}, error={}",
+                    orderIds.size(), e.getMessage(), e);
+            done.clear();
+        }
+        orderIds.forEach(scheduled::remove);
+        long after = System.currentTimeMillis();
+        done.forEach(order -> reschedule(order, after));
+    }
+
+    // one due date of the order; leaves the order advanced to the next one
+    private void run(StandingOrder order) {
+        Date due = order.getNextRunAt();
+        String txnId = order.getId() + "-" + DUE_DATE.format(due.toInstant());
+        lag.record(Math.max(0, System.currentTimeMillis() - due.getTime()), TimeUnit.MILLISECONDS);
+
+        Transaction txn = store.findTransaction(txnId).orElse(null);
+        if (txn == null) {
+            txn = transactionService.transfer(order.getSourceAccount(), order.getDestinationAccount(), order.getAmount(), txnId);
+            meterRegistry.counter("standing.orders.executed", "status", txn.getStatus()).increment();
+        } else if (PENDING.equals(txn.getStatus())) {
+            // an earlier run stopped midway: settle what it did rather than run it again
+            logger.warn("STANDING ORDER due date left PENDING, resolving: orderId={}, txnId={}", order.getId(), txnId);
+            txn = transactionService.resolvePending(txn);
+            meterRegistry.counter("standing.orders.resolved", "status", txn.getStatus()).increment();
+        } else {
+            logger.warn("STANDING ORDER due date already executed, not repeated: orderId={}, txnId={}, status={}",
+                    order.getId(), txnId, txn.getStatus());
+        }
+        if (PENDING.equals(txn.getStatus())) {
+            throw new IllegalStateException("Outcome of " + txnId + " not known yet");
+        }
+
+        long runCount = order.getRunCount() + 1;
+        Date next = order.getFrequency().dueAt(order.getStartAt(), runCount);
+        order.setRunCount(runCount);
+        order.setLastRunAt(due);
+        order.setLastTransactionId(txnId);
+        order.setLastStatus(txn.getStatus());
+        if (order.getEndAt() != null && next.after(order.getEndAt())) {
+            order.setStatus(StandingOrder.COMPLETED);
+            order.setNextRunAt(null);
+        } else {
+            order.setNextRunAt(next);
+        }
+        logger.info("STANDING ORDER executed: orderId={}, due={}, txnId={}, status={}, nextRunAt={}",
+                order.getId(), due, txnId, txn.getStatus(), order.getNextRunAt());
+    }
+
+    // ------------------ LIFECYCLE ------------------
+
+    @Override
+    public synchronized void start() {
+        if (running || !enabled) {
+            return;
+        }
+        wheel = new TimingWheel<>(tickMs, WHEEL_SLOTS, WHEEL_LEVELS, System.currentTimeMillis());
+        workers = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemon("standing-order-"));
+        timer = Executors.newScheduledThreadPool(2, daemon("standing-order-timer-"));
+        lag = Timer.builder("standing.orders.lag")
+                .description("Time from an order's due time to its execution")
+                .register(meterRegistry);
+        Gauge.builder("standing.orders.scheduled", scheduled, Map::size)
+                .description("Standing orders held in the timing wheel or executing")
+                .register(meterRegistry);
+
+        timer.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(this::refill, 0, refillIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+        logger.info("Standing order engine started: tickMs={}, horizonMs={}, batchSize={}, parallelism={}",
+                tickMs, horizonMs, batchSize, parallelism);
+    }
+
+    // batches already running finish; queued ones are dropped and their orders left to the next start
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        timer.shutdownNow();
+        workers.shutdown();
+        workers.getQueue().clear();
+        scheduled.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
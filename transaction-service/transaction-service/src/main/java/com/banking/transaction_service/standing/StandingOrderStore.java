@@ -0,0 +1,153 @@
+package com.banking.transaction_service.standing;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.model.StandingOrder;
+import com.banking.transaction_service.model.Transaction;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MongoDB operations behind standing orders. The scheduler only ever reads ids and due
+ * times of the orders due soon (on the {status, partition, nextRunAt} index); whole orders
+ * are read when a batch of them is claimed for execution.
+ */
+@Component
+public class StandingOrderStore {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private volatile boolean indexed;
+
+    public void ensureIndexes() {
+        if (indexed) {
+            return;
+        }
+        var indexOps = mongoTemplate.indexOps(StandingOrder.class);
+        indexOps.ensureIndex(new Index().on("status", Sort.Direction.ASC)
+                .on("partition", Sort.Direction.ASC).on("nextRunAt", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("sourceAccount", Sort.Direction.ASC));
+        indexed = true;
+    }
+
+    // ------------------ ORDERS ------------------
+
+    public void insert(StandingOrder order) {
+        ensureIndexes();
+        mongoTemplate.insert(order);
+    }
+
+    public Optional<StandingOrder> find(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, StandingOrder.class));
+    }
+
+    public List<StandingOrder> findBySource(String accountNumber) {
+        Query query = new Query(Criteria.where("sourceAccount").is(accountNumber))
+                .with(Sort.by("createdAt"));
+        return mongoTemplate.find(query, StandingOrder.class);
+    }
+
+    // an order being executed right now still finishes that one due date
+    public boolean cancel(String id) {
+        Query query = new Query(Criteria.where("_id").is(id).and("status").is(StandingOrder.ACTIVE));
+        return mongoTemplate.updateFirst(query, Update.update("status", StandingOrder.CANCELLED), StandingOrder.class)
+                .getModifiedCount() > 0;
+    }
+
+    // ------------------ SCHEDULING ------------------
+
+    /**
+     * Ids and due times of ACTIVE orders due before `before`, earliest first.
+     *
+     * @param partitions the partitions to read; null for all
+     */
+    public List<Document> due(Collection<Integer> partitions, Date before, int limit) {
+        Criteria criteria = Criteria.where("status").is(StandingOrder.ACTIVE);
+        if (partitions != null) {
+            criteria = criteria.and("partition").in(partitions);
+        }
+        Query query = new Query(criteria.and("nextRunAt").lt(before))
+                .with(Sort.by("nextRunAt"))
+                .limit(limit);
+        query.fields().include("_id", "nextRunAt");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(StandingOrder.class));
+    }
+
+    /**
+     * Claims the orders that are due, ACTIVE and not claimed by a live lease, for token.
+     *
+     * @return the orders claimed
+     */
+    public List<StandingOrder> claim(Collection<String> ids, String token, Date now, Date claimUntil) {
+        Criteria claimable = Criteria.where("_id").in(ids)
+                .and("status").is(StandingOrder.ACTIVE)
+                .and("nextRunAt").lte(now)
+                .orOperator(Criteria.where("claimUntil").is(null), Criteria.where("claimUntil").lt(now));
+        mongoTemplate.updateMulti(new Query(claimable),
+                new Update().set("claimedBy", token).set("claimUntil", claimUntil), StandingOrder.class);
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(ids).and("claimedBy").is(token)), StandingOrder.class);
+    }
+
+    /**
+     * Extends the claims token still holds on the orders to claimUntil.
+     *
+     * @return the ids of the orders token still holds; the others were taken over
+     */
+    public Set<String> renew(Collection<String> ids, String token, Date claimUntil) {
+        Criteria held = Criteria.where("_id").in(ids).and("claimedBy").is(token);
+        mongoTemplate.updateMulti(new Query(held), Update.update("claimUntil", claimUntil), StandingOrder.class);
+        Query query = new Query(held);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(StandingOrder.class)).stream()
+                .map(order -> order.getString("_id"))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Records one executed due date per order and releases its claim, in one unordered bulk
+     * write; an order whose claim lapsed and was taken over meanwhile is left to the new owner.
+     */
+    public void advance(List<StandingOrder> orders, String token) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StandingOrder.class);
+        for (StandingOrder order : orders) {
+            Update update = new Update()
+                    .set("runCount", order.getRunCount())
+                    .set("nextRunAt", order.getNextRunAt())
+                    .set("lastRunAt", order.getLastRunAt())
+                    .set("lastTransactionId", order.getLastTransactionId())
+                    .set("lastStatus", order.getLastStatus())
+                    .unset("claimedBy")
+                    .unset("claimUntil");
+            // a cancellation that came in meanwhile is kept
+            if (StandingOrder.COMPLETED.equals(order.getStatus())) {
+                update.set("status", StandingOrder.COMPLETED);
+            }
+            bulk.updateOne(new Query(Criteria.where("_id").is(order.getId()).and("claimedBy").is(token)), update);
+        }
+        bulk.execute();
+    }
+
+    // ------------------ TRANSACTIONS ------------------
+
+    public Optional<Transaction> findTransaction(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Transaction.class, ArchiveStore.HOT));
+    }
+}
@@ -0,0 +1,135 @@
+package com.banking.transaction_service.standing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: levels of `slots` buckets, each level's bucket as wide as a full
+ * turn of the level below (tick, tick * slots, tick * slots^2, ...). An item goes into the
+ * lowest level whose turn reaches its due time and moves down a level each time the wheel
+ * reaches its bucket, so adding is O(1) and so is advancing by one tick, however many items
+ * are waiting. Items fire on the first tick at or after their due time, never before.
+ *
+ * Items due beyond the top level's turn wait in an overflow list, re-placed once per top
+ * level bucket. Thread-safe.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int slots;
+    private final long[] ticks;
+    private final ArrayDeque<Entry<T>>[][] buckets;
+
+    private final ArrayDeque<Entry<T>> due = new ArrayDeque<>();
+    private final ArrayDeque<Entry<T>> overflow = new ArrayDeque<>();
+
+    // everything due at or before this has fired; always a multiple of tickMs
+    private long currentTime;
+    private int size;
+
+    private record Entry<T>(T item, long dueTick) {}
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int slots, int levels, long startMs) {
+        if (tickMs <= 0 || slots < 2 || levels < 1) {
+            throw new IllegalArgumentException("tickMs > 0, slots >= 2 and levels >= 1 required");
+        }
+        this.tickMs = tickMs;
+        this.slots = slots;
+        this.ticks = new long[levels];
+        this.buckets = new ArrayDeque[levels][slots];
+        long tick = tickMs;
+        for (int level = 0; level < levels; level++) {
+            ticks[level] = tick;
+            tick = Math.multiplyExact(tick, slots);
+        }
+        this.currentTime = Math.floorDiv(startMs, tickMs) * tickMs;
+    }
+
+    // ------------------ ADD ------------------
+
+    public synchronized void add(T item, long dueAtMs) {
+        long dueTick = Math.floorDiv(dueAtMs + tickMs - 1, tickMs) * tickMs;
+        place(new Entry<>(item, dueTick));
+        size++;
+    }
+
+    private void place(Entry<T> entry) {
+        if (entry.dueTick() <= currentTime) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < ticks.length; level++) {
+            long tick = ticks[level];
+            long turnStart = Math.floorDiv(currentTime, tick) * tick;
+            if (entry.dueTick() < turnStart + tick * slots) {
+                int slot = (int) Math.floorMod(Math.floorDiv(entry.dueTick(), tick), (long) slots);
+                ArrayDeque<Entry<T>> bucket = buckets[level][slot];
+                if (bucket == null) {
+                    bucket = buckets[level][slot] = new ArrayDeque<>();
+                }
+                bucket.add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    // ------------------ ADVANCE ------------------
+
+    /**
+     * Moves the wheel up to nowMs.
+     *
+     * @return the items now due, earliest tick first
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> fired = new ArrayList<>();
+        drainDue(fired);
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            int top = ticks.length - 1;
+            if (currentTime % ticks[top] == 0 && !overflow.isEmpty()) {
+                List<Entry<T>> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                waiting.forEach(this::place);
+            }
+            // higher levels first, so what cascades down can still fire on this tick
+            for (int level = top; level >= 1; level--) {
+                if (currentTime % ticks[level] == 0) {
+                    cascade(level);
+                }
+            }
+            cascade(0);
+            drainDue(fired);
+        }
+        return fired;
+    }
+
+    private void cascade(int level) {
+        int slot = (int) Math.floorMod(Math.floorDiv(currentTime, ticks[level]), (long) slots);
+        ArrayDeque<Entry<T>> bucket = buckets[level][slot];
+        if (bucket == null || bucket.isEmpty()) {
+            return;
+        }
+        buckets[level][slot] = null;
+        bucket.forEach(this::place);
+    }
+
+    private void drainDue(List<T> fired) {
+        size -= due.size();
+        for (Entry<T> entry : due) {
+            fired.add(entry.item());
+        }
+        due.clear();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // the span one add can place without the overflow list
+    public long horizonMs() {
+        return ticks[ticks.length - 1] * slots;
+    }
+}
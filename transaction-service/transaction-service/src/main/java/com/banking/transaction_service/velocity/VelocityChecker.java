@@ -0,0 +1,226 @@
+package com.banking.transaction_service.velocity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Velocity checks on the transaction path: rejects a transaction that would take its account
+ * over a rule's count or amount limit within the rule's sliding window, before any call to
+ * ACCOUNT-SERVICE is made.
+ *
+ * Each account has, per rule, a ring of `buckets` time buckets (counts and cents in primitive
+ * arrays) covering the window, so memory per account is fixed and a check is a few array reads
+ * under the account's lock. Accounts idle for longer than the longest window are evicted.
+ * Counts are per instance; the gateway routes an account to the same instance.
+ *
+ *   banking.velocity.mode=enforce | shadow (evaluate and count, never reject) | off
+ *   banking.velocity.rule-names=burst,daily-outflow
+ *   banking.velocity.rules.burst.types=WITHDRAW,TRANSFER
+ *   banking.velocity.rules.burst.window-ms=60000
+ *   banking.velocity.rules.burst.max-count=10
+ *   banking.velocity.rules.burst.max-amount=0
+ */
+@Component
+public class VelocityChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(VelocityChecker.class);
+
+    private static final String PREFIX = "banking.velocity.";
+
+    public enum Mode { ENFORCE, SHADOW, OFF }
+
+    private final Mode mode;
+    private final List<VelocityRule> rules;
+    private final int buckets;
+    private final long idleMs;
+
+    private final Map<String, AccountWindows> accounts = new ConcurrentHashMap<>();
+
+    private final Timer evaluation;
+    private final Map<String, Counter> hits = new HashMap<>();
+
+    public VelocityChecker(MeterRegistry meterRegistry, Environment environment) {
+        this.mode = Mode.valueOf(environment.getProperty(PREFIX + "mode", "enforce").trim().toUpperCase(Locale.ROOT));
+        this.buckets = Math.max(1, environment.getProperty(PREFIX + "buckets", Integer.class, 12));
+        this.rules = loadRules(environment);
+        this.idleMs = rules.stream().mapToLong(VelocityRule::windowMs).max().orElse(0);
+
+        evaluation = Timer.builder("velocity.check")
+                .description("Time to evaluate the velocity rules for one transaction")
+                .register(meterRegistry);
+        for (VelocityRule rule : rules) {
+            hits.put(rule.name(), Counter.builder("velocity.rule.hits")
+                    .description("Transactions over a velocity limit (rejected unless in shadow mode)")
+                    .tag("rule", rule.name())
+                    .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("velocity.accounts.tracked", accounts, Map::size)
+                .description("Accounts with velocity state in memory")
+                .register(meterRegistry);
+
+        logger.info("Velocity checks: mode={}, rules={}", mode, rules);
+    }
+
+    private static List<VelocityRule> loadRules(Environment environment) {
+        List<VelocityRule> rules = new ArrayList<>();
+        for (String name : environment.getProperty(PREFIX + "rule-names", String[].class, new String[0])) {
+            String rule = PREFIX + "rules." + name.trim() + ".";
+            Set<String> types = Arrays.stream(environment.getProperty(rule + "types", String[].class, new String[0]))
+                    .map(String::trim)
+                    .filter(type -> !type.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            long windowMs = environment.getProperty(rule + "window-ms", Long.class, 60000L);
+            int maxCount = environment.getProperty(rule + "max-count", Integer.class, 0);
+            long maxCents = Math.round(environment.getProperty(rule + "max-amount", Double.class, 0.0) * 100);
+            if (windowMs > 0 && (maxCount > 0 || maxCents > 0)) {
+                rules.add(new VelocityRule(name.trim(), types, windowMs, maxCount, maxCents));
+            }
+        }
+        return List.copyOf(rules);
+    }
+
+    // ------------------ CHECK ------------------
+
+    /**
+     * Evaluates the rules for a transaction and, if it is allowed, counts it.
+     *
+     * @return the name of the rule that rejects it, or null if it may go ahead (always null in shadow mode)
+     */
+    public String check(String type, String accountNumber, double amount) {
+        if (mode == Mode.OFF || rules.isEmpty() || accountNumber == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long cents = Math.round(amount * 100);
+
+        AccountWindows windows = accounts.computeIfAbsent(accountNumber, k -> new AccountWindows());
+        String violated;
+        synchronized (windows) {
+            violated = windows.violated(type, cents, now);
+            if (violated == null || mode == Mode.SHADOW) {
+                windows.record(type, cents, now);
+            }
+            windows.lastSeen = now;
+        }
+        evaluation.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        if (violated == null) {
+            return null;
+        }
+        hits.get(violated).increment();
+        if (mode == Mode.SHADOW) {
+            logger.info("VELOCITY SHADOW hit: rule={}, account={}, type={}, amount={}", violated, accountNumber, type, amount);
+            return null;
+        }
+        logger.warn("VELOCITY REJECTED: rule={}, account={}, type={}, amount={}", violated, accountNumber, type, amount);
+        return violated;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int trackedAccounts() {
+        return accounts.size();
+    }
+
+    // ------------------ EVICTION ------------------
+
+    @Scheduled(fixedDelayString = "${banking.velocity.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        int before = accounts.size();
+        // an evicted account has nothing left in any window, so this forgets nothing
+        accounts.values().removeIf(windows -> windows.lastSeen < cutoff);
+        int evicted = before - accounts.size();
+        if (evicted > 0) {
+            logger.debug("Velocity state evicted: accounts={}", evicted);
+        }
+    }
+
+    // ------------------ PER-ACCOUNT STATE ------------------
+
+    /**
+     * For rule r, bucket b: epochs[r * buckets + b] is the bucket's number (time / width)
+     * and counts/cents what it holds; a bucket from an older epoch is stale and reused.
+     */
+    private class AccountWindows {
+
+        final long[] epochs = new long[rules.size() * buckets];
+        final int[] counts = new int[rules.size() * buckets];
+        final long[] cents = new long[rules.size() * buckets];
+        volatile long lastSeen;
+
+        AccountWindows() {
+            Arrays.fill(epochs, Long.MIN_VALUE);
+        }
+
+        String violated(String type, long amountCents, long now) {
+            for (int r = 0; r < rules.size(); r++) {
+                VelocityRule rule = rules.get(r);
+                if (!rule.appliesTo(type)) {
+                    continue;
+                }
+                long width = bucketWidth(rule);
+                long current = now / width;
+                int count = 0;
+                long total = 0;
+                for (int b = 0; b < buckets; b++) {
+                    int i = r * buckets + b;
+                    // the window is the current bucket and the buckets-1 before it
+                    if (epochs[i] > current - buckets) {
+                        count += counts[i];
+                        total += cents[i];
+                    }
+                }
+                if (rule.maxCount() > 0 && count + 1 > rule.maxCount()
+                        || rule.maxCents() > 0 && total + amountCents > rule.maxCents()) {
+                    return rule.name();
+                }
+            }
+            return null;
+        }
+
+        void record(String type, long amountCents, long now) {
+            for (int r = 0; r < rules.size(); r++) {
+                VelocityRule rule = rules.get(r);
+                if (!rule.appliesTo(type)) {
+                    continue;
+                }
+                long epoch = now / bucketWidth(rule);
+                int i = r * buckets + (int) Math.floorMod(epoch, (long) buckets);
+                if (epochs[i] != epoch) {
+                    epochs[i] = epoch;
+                    counts[i] = 0;
+                    cents[i] = 0;
+                }
+                counts[i]++;
+                cents[i] += amountCents;
+            }
+        }
+
+        private long bucketWidth(VelocityRule rule) {
+            return Math.max(1, rule.windowMs() / buckets);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.banking.transaction_service.velocity;
+
+import java.util.Set;
+
+/**
+ * A limit on what one account may do within a sliding window: at most maxCount transactions
+ * and/or at most maxCents in total of the given types. 0 means no limit of that kind.
+ */
+public record VelocityRule(String name, Set<String> types, long windowMs, int maxCount, long maxCents) {
+
+    public boolean appliesTo(String type) {
+        return types.isEmpty() || types.contains(type);
+    }
+}
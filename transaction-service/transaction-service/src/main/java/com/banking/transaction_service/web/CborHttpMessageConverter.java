@@ -0,0 +1,140 @@
+package com.banking.transaction_service.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes any response body as CBOR (RFC 8949, Accept: application/cbor) for internal
+ * consumers: the same document Jackson would produce as JSON (same field names, dates and
+ * inclusion rules), in binary, with numbers and lengths in a few bytes instead of text.
+ *
+ * Definite-length items only, and doubles always as 64-bit floats, so the encoding is
+ * simple to decode with any CBOR library.
+ */
+public class CborHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int BYTES = 2;
+    private static final int TEXT = 3;
+    private static final int ARRAY = 4;
+    private static final int MAP = 5;
+
+    private final ObjectMapper objectMapper;
+
+    public CborHttpMessageConverter(ObjectMapper objectMapper) {
+        super(APPLICATION_CBOR);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("CBOR is only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(outputMessage.getBody(), 8192);
+        write(objectMapper.valueToTree(body), out);
+        out.flush();
+    }
+
+    // ------------------ ENCODING ------------------
+
+    private static void write(JsonNode node, OutputStream out) throws IOException {
+        switch (node.getNodeType()) {
+            case OBJECT -> {
+                header(MAP, node.size(), out);
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    text(field.getKey(), out);
+                    write(field.getValue(), out);
+                }
+            }
+            case ARRAY -> {
+                header(ARRAY, node.size(), out);
+                for (JsonNode element : node) {
+                    write(element, out);
+                }
+            }
+            case STRING -> text(node.textValue(), out);
+            case BOOLEAN -> out.write(node.booleanValue() ? 0xf5 : 0xf4);
+            case BINARY -> {
+                byte[] bytes = node.binaryValue();
+                header(BYTES, bytes.length, out);
+                out.write(bytes);
+            }
+            case NUMBER -> {
+                if (node.canConvertToLong() && node.isIntegralNumber()) {
+                    long value = node.longValue();
+                    if (value >= 0) {
+                        header(UNSIGNED, value, out);
+                    } else {
+                        header(NEGATIVE, -1 - value, out);
+                    }
+                } else {
+                    out.write(0xfb);
+                    writeLong(Double.doubleToLongBits(node.doubleValue()), 8, out);
+                }
+            }
+            default -> out.write(0xf6);   // null, missing
+        }
+    }
+
+    private static void text(String value, OutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        header(TEXT, bytes.length, out);
+        out.write(bytes);
+    }
+
+    // major type in the top 3 bits; the argument inline below 24, else in the next 1, 2, 4 or 8 bytes
+    private static void header(int majorType, long argument, OutputStream out) throws IOException {
+        int major = majorType << 5;
+        if (argument < 24) {
+            out.write(major | (int) argument);
+        } else if (argument < 0x100) {
+            out.write(major | 24);
+            writeLong(argument, 1, out);
+        } else if (argument < 0x10000) {
+            out.write(major | 25);
+            writeLong(argument, 2, out);
+        } else if (argument < 0x100000000L) {
+            out.write(major | 26);
+            writeLong(argument, 4, out);
+        } else {
+            out.write(major | 27);
+            writeLong(argument, 8, out);
+        }
+    }
+
+    private static void writeLong(long value, int bytes, OutputStream out) throws IOException {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xff);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.banking.transaction_service.web;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response content codings the service can apply, by their Content-Encoding token.
+ * zstd compresses about as well as gzip at a fraction of the CPU; gzip is what every client
+ * understands.
+ */
+public enum ContentEncoding {
+
+    GZIP("gzip"),
+    ZSTD("zstd");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    /**
+     * @param level gzip level, 1 (fastest) to 9 (smallest); zstd uses its default level
+     */
+    public OutputStream wrap(OutputStream out, int level) throws IOException {
+        return switch (this) {
+            case GZIP -> new GZIPOutputStream(out, 8192) {
+                {
+                    def.setLevel(level);
+                }
+            };
+            case ZSTD -> new ZstdOutputStream(out);
+        };
+    }
+
+    public static ContentEncoding fromToken(String token) {
+        for (ContentEncoding encoding : values()) {
+            if (encoding.token.equalsIgnoreCase(token.trim())) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content encoding: " + token);
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.transaction_service.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Writes a collection as newline-delimited JSON (Accept: application/x-ndjson): one element
+ * per line, serialized one at a time, so a consumer can process a long history page as it
+ * arrives instead of parsing it as one document.
+ */
+public class NdjsonHttpMessageConverter extends AbstractHttpMessageConverter<Collection<?>> {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ObjectWriter writer;
+
+    public NdjsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(APPLICATION_NDJSON);
+        // without this, each element would close the response stream
+        this.writer = objectMapper.copy()
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .writer();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Collection<?> readInternal(Class<? extends Collection<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("NDJSON is only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Collection<?> elements, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        for (Object element : elements) {
+            writer.writeValue(out, element);
+            out.write('\n');
+        }
+    }
+}
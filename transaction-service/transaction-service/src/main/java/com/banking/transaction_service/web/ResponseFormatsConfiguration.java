@@ -0,0 +1,28 @@
+package com.banking.transaction_service.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response formats besides JSON, chosen by the Accept header: application/x-ndjson for
+ * collections and application/cbor for anything. JSON stays the default.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ResponseFormatsConfiguration implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public ResponseFormatsConfiguration(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new NdjsonHttpMessageConverter(objectMapper));
+        converters.add(new CborHttpMessageConverter(objectMapper));
+    }
+}
@@ -0,0 +1,98 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.activity.ActivityListener;
+import com.banking.transaction_service.activity.ActivityStore;
+import com.banking.transaction_service.model.ActivityItem;
+import com.banking.transaction_service.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountActivityTest {
+
+    @Mock
+    private ActivityStore activityStore;
+
+    @InjectMocks
+    private ActivityListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(listener, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(listener, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // ------------------ TEST: ITEM SEEN FROM EACH SIDE ------------------
+    @Test
+    void testTransferIsDebitForSourceAndCreditForDestination() {
+        Transaction transfer = new Transaction("TXN-1", "TRANSFER", 50.0, new Date(), "SUCCESS", "ACC1", "ACC2");
+
+        ActivityItem out = ActivityItem.of(transfer, "ACC1");
+        ActivityItem in = ActivityItem.of(transfer, "ACC2");
+
+        assertEquals(ActivityItem.DEBIT, out.getDirection());
+        assertEquals("ACC2", out.getCounterparty());
+        assertEquals(ActivityItem.CREDIT, in.getDirection());
+        assertEquals("ACC1", in.getCounterparty());
+        assertEquals(ActivityItem.CREDIT,
+                ActivityItem.of(new Transaction("TXN-2", "DEPOSIT", 5.0, new Date(), "SUCCESS", "ACC1", null), "ACC1").getDirection());
+    }
+
+    // ------------------ TEST: UPDATED AFTER COMMIT ------------------
+    @Test
+    void testUpdateInsideMongoTransactionWaitsForCommit() {
+        Transaction txn = new Transaction("TXN-3", "DEPOSIT", 5.0, new Date(), "SUCCESS", "ACC1", null);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onAfterSave(new AfterSaveEvent<>(txn, new Document(), "transactions"));
+        verify(activityStore, never()).record(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(activityStore).record(txn);
+    }
+
+    // ------------------ TEST: ARCHIVE COPIES ARE NOT ACTIVITY ------------------
+    @Test
+    void testArchivalCopiesAreIgnoredAndFailuresDoNotPropagate() {
+        Transaction txn = new Transaction("TXN-4", "WITHDRAW", 5.0, new Date(), "SUCCESS", "ACC1", null);
+
+        listener.onAfterSave(new AfterSaveEvent<>(txn, new Document(), "transactions_archive_202401"));
+        verify(activityStore, never()).record(any());
+
+        doThrow(new IllegalStateException("mongo down")).when(activityStore).record(txn);
+        assertDoesNotThrow(() -> listener.onAfterSave(new AfterSaveEvent<>(txn, new Document(), "transactions")));
+    }
+
+    // ------------------ TEST: PENDING SAVE IS NOT AN ITEM ------------------
+    @Test
+    void testPendingSaveIsSkippedAndOnlyTheSettledSaveRecorded() {
+        Transaction txn = new Transaction("TXN-5", "TRANSFER", 5.0, new Date(), "PENDING", "ACC1", "ACC2");
+
+        listener.onAfterSave(new AfterSaveEvent<>(txn, new Document(), "transactions"));
+        verify(activityStore, never()).record(any());
+
+        txn.setStatus("SUCCESS");
+        listener.onAfterSave(new AfterSaveEvent<>(txn, new Document(), "transactions"));
+        verify(activityStore).record(txn);
+    }
+}
@@ -0,0 +1,141 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.deadline.DeadlineContext;
+import com.banking.transaction_service.rpc.AccountRpc;
+import com.banking.transaction_service.rpc.AccountRpc.Request;
+import com.banking.transaction_service.rpc.AccountRpc.Response;
+import com.banking.transaction_service.rpc.AccountRpcClient;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountRpcClientTest {
+
+    @TempDir
+    Path baseDir;
+
+    private Tomcat server;
+    private ServiceInstance instance;
+    private AccountRpcClient client;
+
+    // what the fake account-service answers, and the last request and deadline header it got
+    private final AtomicReference<Response> answer = new AtomicReference<>();
+    private final AtomicReference<Request> received = new AtomicReference<>();
+    private final AtomicReference<String> deadlineHeader = new AtomicReference<>();
+    private final Set<String> protocols = ConcurrentHashMap.newKeySet();
+
+    // embedded Tomcat with h2c, as account-service runs it (server.http2.enabled over plain HTTP)
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new Tomcat();
+        server.setBaseDir(baseDir.toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        connector.addUpgradeProtocol(new Http2Protocol());
+        server.getService().addConnector(connector);
+        server.setConnector(connector);
+
+        Context context = server.addContext("", null);
+        Tomcat.addServlet(context, "rpc", new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                protocols.add(request.getProtocol());
+                received.set(AccountRpc.decodeRequest(request.getInputStream().readAllBytes()));
+                deadlineHeader.set(request.getHeader(DeadlineContext.HEADER));
+                byte[] body = AccountRpc.encode(answer.get());
+                response.setContentType(AccountRpc.CONTENT_TYPE);
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            }
+        });
+        context.addServletMappingDecoded(AccountRpc.PATH, "rpc");
+        server.start();
+        instance = new DefaultServiceInstance("a1", "ACCOUNT-SERVICE", "localhost", connector.getLocalPort(), false);
+
+        client = new AccountRpcClient();
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "readTimeoutMs", 5000);
+        ReflectionTestUtils.invokeMethod(client, "init");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        DeadlineContext.clear();
+        server.stop();
+        server.destroy();
+    }
+
+    // ------------------ TEST: Request and response travel as frames ------------------
+    @Test
+    void testCallRoundTrip() {
+        answer.set(Response.ok(4200.0, true));
+        DeadlineContext.start(3000);
+
+        Response response = client.call(instance, new Request(AccountRpc.GET_BALANCE, "ACC1001", 0));
+
+        assertEquals(4200.0, response.balance());
+        assertTrue(response.striped());
+        assertEquals(new Request(AccountRpc.GET_BALANCE, "ACC1001", 0), received.get());
+        // the remaining budget goes along, as on the REST path
+        assertTrue(Long.parseLong(deadlineHeader.get()) <= 3000);
+    }
+
+    // ------------------ TEST: Failure statuses become the usual HTTP exceptions ------------------
+    @Test
+    void testFailureStatusesMapToHttpExceptions() {
+        answer.set(Response.failed(AccountRpc.NOT_FOUND, "Account not found"));
+        HttpClientErrorException notFound = assertThrows(HttpClientErrorException.class,
+                () -> client.call(instance, new Request(AccountRpc.GET_BALANCE, "ACC9999", 0)));
+        assertEquals(404, notFound.getStatusCode().value());
+
+        answer.set(Response.failed(AccountRpc.ERROR, "boom"));
+        assertThrows(HttpServerErrorException.class,
+                () -> client.call(instance, new Request(AccountRpc.SET_BALANCE, "ACC1001", 10)));
+
+        // a refused debit is an answer, not an error
+        answer.set(Response.failed(AccountRpc.INSUFFICIENT_FUNDS, "Insufficient funds"));
+        assertEquals(AccountRpc.INSUFFICIENT_FUNDS,
+                client.call(instance, new Request(AccountRpc.DEBIT, "ACC1001", 10)).status());
+    }
+
+    // ------------------ TEST: Calls upgrade to HTTP/2 and share it ------------------
+    @Test
+    void testConcurrentCallsGoOverHttp2() {
+        answer.set(Response.ok(10.0, false));
+        // the first call on the connection negotiates h2c
+        client.call(instance, new Request(AccountRpc.GET_BALANCE, "ACC1001", 0));
+
+        List<CompletableFuture<Response>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(CompletableFuture.supplyAsync(
+                    () -> client.call(instance, new Request(AccountRpc.GET_BALANCE, "ACC1001", 0))));
+        }
+        calls.forEach(call -> assertEquals(10.0, call.join().balance()));
+
+        assertEquals(Set.of("HTTP/2.0"), protocols);
+    }
+}
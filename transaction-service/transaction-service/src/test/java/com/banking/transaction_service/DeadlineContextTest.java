@@ -0,0 +1,81 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.deadline.DeadlineContext;
+import com.banking.transaction_service.deadline.DeadlineExceededException;
+import com.banking.transaction_service.deadline.DeadlineInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineContextTest {
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    // ------------------ TEST: REMAINING BUDGET IS FORWARDED ------------------
+    @Test
+    void testInterceptorForwardsRemainingBudget() throws Exception {
+        DeadlineContext.start(2000);
+        DeadlineInterceptor interceptor = new DeadlineInterceptor(new SimpleMeterRegistry(), "TRANSACTION-SERVICE");
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://account/api/accounts/A1"));
+
+        interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        long forwarded = Long.parseLong(request.getHeaders().getFirst(DeadlineContext.HEADER));
+        assertTrue(forwarded > 0 && forwarded <= 2000);
+    }
+
+    // ------------------ TEST: EXPIRED DEADLINE STOPS OUTBOUND CALLS ------------------
+    @Test
+    void testInterceptorRefusesCallAfterDeadline() {
+        DeadlineContext.start(0);
+        DeadlineInterceptor interceptor = new DeadlineInterceptor(new SimpleMeterRegistry(), "TRANSACTION-SERVICE");
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://account/api/accounts/A1"));
+        AtomicInteger executed = new AtomicInteger();
+
+        assertThrows(DeadlineExceededException.class, () -> interceptor.intercept(request, new byte[0], (req, body) -> {
+            executed.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        }));
+        assertEquals(0, executed.get());
+    }
+
+    // ------------------ TEST: DEADLINE FOLLOWS WORK TO OTHER THREADS ------------------
+    @Test
+    void testDeadlinePropagatesAcrossThreads() {
+        DeadlineContext.start(0);
+
+        Boolean expiredOnWorker = CompletableFuture.supplyAsync(DeadlineContext.propagate(DeadlineContext::isExpired)).join();
+        Boolean setOnPlainWorker = CompletableFuture.supplyAsync(DeadlineContext::isSet).join();
+
+        assertTrue(expiredOnWorker);
+        assertFalse(setOnPlainWorker);
+    }
+
+    // ------------------ TEST: DETACHED WORK IGNORES THE DEADLINE ------------------
+    @Test
+    void testDetachedWorkRunsAfterDeadline() {
+        DeadlineContext.start(0);
+        AtomicInteger ran = new AtomicInteger();
+
+        DeadlineContext.runDetached(() -> {
+            DeadlineContext.checkNotExpired("compensation");
+            ran.incrementAndGet();
+        });
+
+        assertEquals(1, ran.get());
+        assertTrue(DeadlineContext.isExpired());
+    }
+}
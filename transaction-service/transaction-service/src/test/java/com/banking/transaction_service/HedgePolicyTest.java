@@ -0,0 +1,57 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.hedge.HedgeBudget;
+import com.banking.transaction_service.hedge.LatencyPercentileTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgePolicyTest {
+
+    // ------------------ TEST: BUDGET LIMITS HEDGE RATE ------------------
+    @Test
+    void testBudgetAllowsConfiguredShareOfRequests() {
+        HedgeBudget budget = new HedgeBudget(10, 100);
+
+        int granted = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                granted++;
+            }
+        }
+
+        assertEquals(100, granted);
+    }
+
+    // ------------------ TEST: BUDGET CANNOT BANK A BURST ------------------
+    @Test
+    void testBudgetBalanceIsCapped() {
+        HedgeBudget budget = new HedgeBudget(50, 3);
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+
+        int granted = 0;
+        while (budget.tryAcquire()) {
+            granted++;
+        }
+
+        assertEquals(3, granted);
+    }
+
+    // ------------------ TEST: PERCENTILE DELAY ------------------
+    @Test
+    void testTrackerReportsPercentileOnceWarm() {
+        LatencyPercentileTracker tracker = new LatencyPercentileTracker(160, 95, 50);
+        for (int i = 1; i <= 49; i++) {
+            tracker.record(i);
+        }
+        assertEquals(-1, tracker.percentileNanos());
+
+        for (int i = 50; i <= 100; i++) {
+            tracker.record(i);
+        }
+        assertEquals(95, tracker.percentileNanos());
+    }
+}
@@ -0,0 +1,150 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.loadbalancer.InstanceStatsRegistry;
+import com.banking.transaction_service.loadbalancer.LatencyAwareLoadBalancer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyAwareLoadBalancerTest {
+
+    private InstanceStatsRegistry registry;
+
+    private final ServiceInstance fast = instance("fast", 8081);
+    private final ServiceInstance slow = instance("slow", 8082);
+    private final ServiceInstance third = instance("third", 8083);
+
+    @BeforeEach
+    void setUp() {
+        // no slow start, eject after 3 failures, outliers at 3x median after 5 samples
+        registry = new InstanceStatsRegistry(10000, 0, 3, 30000, 3.0, 5, 34);
+    }
+
+    // ------------------ TEST: LOWER LATENCY WINS ------------------
+    @Test
+    void testPrefersLowerLatencyInstance() {
+        record(fast, 10, 5, true);
+        record(slow, 200, 5, true);
+
+        Map<String, Integer> picks = pick(loadBalancer(fast, slow), 200);
+
+        assertEquals(200, picks.getOrDefault("fast", 0));
+    }
+
+    // ------------------ TEST: OUTSTANDING REQUESTS COUNT ------------------
+    @Test
+    void testAvoidsInstanceWithManyOutstandingRequests() {
+        record(fast, 10, 5, true);
+        record(slow, 15, 5, true);
+        for (int i = 0; i < 10; i++) {
+            registry.onStart(fast);
+        }
+
+        Map<String, Integer> picks = pick(loadBalancer(fast, slow), 100);
+
+        assertEquals(100, picks.getOrDefault("slow", 0));
+    }
+
+    // ------------------ TEST: CONSECUTIVE FAILURES EJECT ------------------
+    @Test
+    void testEjectsInstanceAfterConsecutiveFailures() {
+        record(fast, 10, 3, false);
+        record(slow, 200, 5, true);
+        record(third, 200, 5, true);
+
+        Map<String, Integer> picks = pick(loadBalancer(fast, slow, third), 100);
+
+        assertEquals(0, picks.getOrDefault("fast", 0));
+    }
+
+    // ------------------ TEST: LATENCY OUTLIER EJECT ------------------
+    @Test
+    void testEjectsLatencyOutlier() {
+        record(fast, 10, 5, true);
+        record(slow, 500, 5, true);
+        record(third, 12, 5, true);
+
+        Map<String, Integer> picks = pick(loadBalancer(fast, slow, third), 100);
+
+        assertEquals(0, picks.getOrDefault("slow", 0));
+        assertEquals(100, picks.getOrDefault("fast", 0) + picks.getOrDefault("third", 0));
+    }
+
+    // ------------------ TEST: NEVER EJECT EVERYONE ------------------
+    @Test
+    void testFallsBackToAllInstancesWhenAllEjected() {
+        record(fast, 10, 3, false);
+        record(slow, 10, 3, false);
+
+        Map<String, Integer> picks = pick(loadBalancer(fast, slow), 50);
+
+        assertEquals(50, picks.getOrDefault("fast", 0) + picks.getOrDefault("slow", 0));
+    }
+
+    // ------------------ TEST: NEW INSTANCE RAMPS UP ------------------
+    @Test
+    void testNewInstanceGetsReducedShareDuringSlowStart() throws Exception {
+        registry = new InstanceStatsRegistry(10000, 500, 3, 30000, 3.0, 5, 34);
+        record(fast, 10, 5, true);
+        Thread.sleep(600);
+
+        // "slow" is only now discovered, with no history and a 0.1 slow-start weight
+        Map<String, Integer> picks = pick(loadBalancer(fast, slow), 200);
+
+        int newcomer = picks.getOrDefault("slow", 0);
+        assertTrue(newcomer > 0, "new instance should take some traffic right away");
+        assertTrue(newcomer < 100, "new instance should get less than an even share while warming");
+    }
+
+    private void record(ServiceInstance instance, long latencyMs, int count, boolean success) {
+        for (int i = 0; i < count; i++) {
+            registry.onStart(instance);
+            registry.onComplete(instance, latencyMs * 1_000_000, success);
+        }
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(ServiceInstance... instances) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "ACCOUNT-SERVICE";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(List.of(instances));
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", supplier);
+        return new LatencyAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "ACCOUNT-SERVICE", registry);
+    }
+
+    private static Map<String, Integer> pick(LatencyAwareLoadBalancer loadBalancer, int times) {
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>()).block();
+            assertNotNull(response);
+            assertTrue(response.hasServer());
+            picks.merge(response.getServer().getInstanceId(), 1, Integer::sum);
+        }
+        return picks;
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "ACCOUNT-SERVICE", "localhost", port, false);
+    }
+}
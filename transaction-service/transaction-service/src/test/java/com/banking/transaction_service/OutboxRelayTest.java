@@ -0,0 +1,127 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.client.NotificationClient;
+import com.banking.transaction_service.client.NotificationClient.BatchResult;
+import com.banking.transaction_service.model.NotificationEvent;
+import com.banking.transaction_service.model.OutboxEntry;
+import com.banking.transaction_service.outbox.OutboxRelay;
+import com.banking.transaction_service.outbox.OutboxStore;
+import com.banking.transaction_service.resilience.DependencyUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxStore store;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    @InjectMocks
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(relay, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "enabled", false);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "leaseMs", 30000L);
+        ReflectionTestUtils.setField(relay, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", 60000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 5);
+        ReflectionTestUtils.invokeMethod(relay, "init");
+    }
+
+    // ------------------ TEST: ACCEPTED ENTRIES ARE MARKED SENT ------------------
+    @Test
+    void testAcceptedEntriesMarkedSentOthersRescheduled() {
+        OutboxEntry first = entry("o1");
+        OutboxEntry second = entry("o2");
+        when(store.claimBatch(100, 30000L)).thenReturn(List.of(first, second));
+        when(notificationClient.sendBatch(List.of(first, second))).thenReturn(new BatchResult(Set.of("o1"), Set.of()));
+
+        int relayed = relay.relayOnce();
+
+        assertEquals(2, relayed);
+        verify(store).markSent(List.of("o1"));
+        verify(store).reschedule(eq(second), longThat(delay -> delay >= 500 && delay <= 1000));
+        verify(store, never()).reschedule(eq(first), anyLong());
+    }
+
+    // ------------------ TEST: FAILED BATCH STAYS IN THE OUTBOX ------------------
+    @Test
+    void testUndeliverableBatchIsRescheduledNotLost() {
+        OutboxEntry entry = entry("o1");
+        entry.setAttempts(3);
+        when(store.claimBatch(100, 30000L)).thenReturn(List.of(entry));
+        when(notificationClient.sendBatch(anyList()))
+                .thenThrow(new DependencyUnavailableException("notificationService", "circuit open", null));
+
+        relay.relayOnce();
+
+        verify(store, never()).markSent(anyCollection());
+        // fourth attempt: 8s backoff, jittered down to no less than half
+        verify(store).reschedule(eq(entry), longThat(delay -> delay >= 4000 && delay <= 8000));
+    }
+
+    // ------------------ TEST: POISON ENTRY IS DEAD-LETTERED ------------------
+    @Test
+    void testEntryOutOfAttemptsIsMarkedDead() {
+        OutboxEntry poison = entry("o1");
+        poison.setAttempts(4);
+        OutboxEntry fresh = entry("o2");
+        when(store.claimBatch(100, 30000L)).thenReturn(List.of(poison, fresh));
+        when(notificationClient.sendBatch(anyList())).thenReturn(BatchResult.NONE);
+
+        relay.relayOnce();
+
+        verify(store).markDead(poison);
+        verify(store, never()).reschedule(eq(poison), anyLong());
+        verify(store).reschedule(eq(fresh), anyLong());
+        SimpleMeterRegistry registry = (SimpleMeterRegistry) ReflectionTestUtils.getField(relay, "meterRegistry");
+        assertEquals(1.0, registry.get("outbox.relayed").tag("outcome", "dead").counter().count());
+    }
+
+    // ------------------ TEST: INVALID ENTRY IS DEAD AT ONCE ------------------
+    @Test
+    void testEntryRefusedAsInvalidIsMarkedDeadWithoutRetry() {
+        OutboxEntry invalid = entry("o1");
+        OutboxEntry rejected = entry("o2");
+        when(store.claimBatch(100, 30000L)).thenReturn(List.of(invalid, rejected));
+        when(notificationClient.sendBatch(anyList())).thenReturn(new BatchResult(Set.of(), Set.of("o1")));
+
+        relay.relayOnce();
+
+        verify(store).markDead(invalid);
+        verify(store, never()).reschedule(eq(invalid), anyLong());
+        verify(store).reschedule(eq(rejected), anyLong());
+        verify(store, never()).markDead(rejected);
+    }
+
+    // ------------------ TEST: NOTHING DUE ------------------
+    @Test
+    void testEmptyOutboxDoesNotCallNotificationService() {
+        when(store.claimBatch(100, 30000L)).thenReturn(List.of());
+
+        assertEquals(0, relay.relayOnce());
+        verifyNoInteractions(notificationClient);
+    }
+
+    private static OutboxEntry entry(String id) {
+        OutboxEntry entry = new OutboxEntry("TXN-1",
+                new NotificationEvent("DEPOSIT", "ACC1", null, 100.0, 0L), "EMAIL", "NORMAL");
+        entry.setId(id);
+        return entry;
+    }
+}
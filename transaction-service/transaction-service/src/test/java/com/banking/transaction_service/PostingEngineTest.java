@@ -0,0 +1,226 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.model.PostingRun;
+import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.posting.PostingEngine;
+import com.banking.transaction_service.posting.PostingPolicy;
+import com.banking.transaction_service.posting.PostingStore;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PostingEngineTest {
+
+    private static final YearMonth SEPTEMBER = YearMonth.of(2026, 9);
+
+    @Mock
+    private PostingStore store;
+
+    @InjectMocks
+    private PostingEngine engine;
+
+    private final List<Transaction> inserted = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> applied = new ConcurrentHashMap<>();
+    private final List<String> checkpoints = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(engine, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "interestRatePercent", 12.0);   // 1% a month
+        ReflectionTestUtils.setField(engine, "monthlyFee", 5.0);
+        ReflectionTestUtils.setField(engine, "feeWaiverBalance", 1000.0);
+        ReflectionTestUtils.setField(engine, "chunkSize", 2);
+        ReflectionTestUtils.setField(engine, "parallelism", 2);
+        ReflectionTestUtils.setField(engine, "leaseMs", 60000L);
+        ReflectionTestUtils.invokeMethod(engine, "init");
+
+        when(store.lock(anyString(), anyString(), anyLong())).thenReturn(true);
+        when(store.insertTransactions(anyList())).thenAnswer(i -> {
+            List<Transaction> batch = i.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+        when(store.applyBalances(eq("202609"), anyMap())).thenAnswer(i -> {
+            Map<String, Long> deltas = i.getArgument(1);
+            applied.putAll(deltas);
+            return (long) deltas.size();
+        });
+        doAnswer(i -> checkpoints.add(((PostingRun) i.getArgument(0)).getLastAccount()))
+                .when(store).checkpoint(any(PostingRun.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "shutdown");
+    }
+
+    private MongoCursor<Document> accounts(Object... numberAndBalance) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < numberAndBalance.length; i += 2) {
+            documents.add(new Document("accountNumber", numberAndBalance[i]).append("balance", numberAndBalance[i + 1]));
+        }
+        Iterator<Document> iterator = documents.iterator();
+        @SuppressWarnings("unchecked")
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(i -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(i -> iterator.next());
+        return cursor;
+    }
+
+    private boolean lockLost() {
+        return (Boolean) ReflectionTestUtils.getField(engine, "lockLost");
+    }
+
+    private void awaitFinish(String status) {
+        verify(store, timeout(5000)).finish("POSTING-202609", status, null);
+    }
+
+    // ------------------ TEST: Interest and fee amounts ------------------
+    @Test
+    void testPolicy() {
+        PostingPolicy policy = new PostingPolicy(12.0, 500, 100000);
+
+        assertEquals(2000, policy.interestCents(200000));
+        assertEquals(0, policy.interestCents(-5000));
+        assertEquals(0, policy.feeCents(100000));        // waived
+        assertEquals(500, policy.feeCents(50000));
+        assertEquals(300, policy.feeCents(300));         // never more than the balance
+        assertEquals(0, policy.feeCents(-100));
+    }
+
+    // ------------------ TEST: Chunks posted in bulk and checkpointed in order ------------------
+    @Test
+    void testPostsAllAccountsInChunks() {
+        when(store.findRun("POSTING-202609")).thenReturn(Optional.empty());
+        MongoCursor<Document> cursor = accounts(
+                "ACC1", 2000.0, "ACC2", 500.0, "ACC3", 0.0, "ACC4", 1000.0, "ACC5", 100.0);
+        when(store.accountsToPost("202609", null, 2)).thenReturn(cursor);
+
+        engine.start(SEPTEMBER);
+        awaitFinish(PostingRun.COMPLETED);
+
+        assertEquals(Set.of("INTEREST-202609-ACC1", "INTEREST-202609-ACC2", "FEE-202609-ACC2",
+                        "INTEREST-202609-ACC4", "INTEREST-202609-ACC5", "FEE-202609-ACC5"),
+                inserted.stream().map(Transaction::getId).collect(Collectors.toSet()));
+        assertEquals(2000L, applied.get("ACC1"));
+        assertEquals(1000L, applied.get("ACC4"));
+        assertEquals(-400L, applied.get("ACC5"));           // 1.00 interest - 5.00 fee
+        assertFalse(applied.containsKey("ACC2"));           // 5.00 interest - 5.00 fee
+        assertFalse(applied.containsKey("ACC3"));
+        assertEquals(List.of("ACC2", "ACC4", "ACC5"), checkpoints);
+        verify(store).unlock(anyString());
+    }
+
+    // ------------------ TEST: Stripe credits not yet folded in count towards the balance ------------------
+    @Test
+    void testStripedAccountPostedOnItsWholeBalance() {
+        when(store.findRun("POSTING-202609")).thenReturn(Optional.empty());
+        MongoCursor<Document> cursor = accounts("ACC1", 500.0);
+        when(store.accountsToPost("202609", null, 2)).thenReturn(cursor);
+        // 1000.00 credited to its stripes since the last fold
+        when(store.unfoldedCredits(anyList())).thenReturn(Map.of("ACC1", 100000L));
+
+        engine.start(SEPTEMBER);
+        awaitFinish(PostingRun.COMPLETED);
+
+        // 1% of 1500.00, and the fee waived
+        assertEquals(1500L, applied.get("ACC1"));
+        assertEquals(List.of("INTEREST-202609-ACC1"), inserted.stream().map(Transaction::getId).toList());
+    }
+
+    // ------------------ TEST: A posted month is not posted again ------------------
+    @Test
+    void testCompletedMonthIsNoOp() {
+        PostingRun done = new PostingRun("202609");
+        done.setStatus(PostingRun.COMPLETED);
+        when(store.findRun("POSTING-202609")).thenReturn(Optional.of(done));
+
+        assertSame(done, engine.start(SEPTEMBER));
+        verify(store, never()).lock(anyString(), anyString(), anyLong());
+        verify(store, never()).accountsToPost(anyString(), any(), anyInt());
+    }
+
+    // ------------------ TEST: Only months that have ended are posted ------------------
+    @Test
+    void testCurrentAndFutureMonthsRejected() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.start(current));
+        assertThrows(IllegalArgumentException.class, () -> engine.start(current.plusMonths(1)));
+        verify(store, never()).findRun(anyString());
+        verify(store, never()).lock(anyString(), anyString(), anyLong());
+    }
+
+    // ------------------ TEST: A run that loses its lock stops writing ------------------
+    @Test
+    void testLostLockStopsRunAndLeavesItInterrupted() throws Exception {
+        ReflectionTestUtils.setField(engine, "leaseMs", 300L);
+        when(store.findRun("POSTING-202609")).thenReturn(Optional.empty());
+        // taken over by another instance at the first renewal
+        when(store.lock(anyString(), anyString(), anyLong())).thenReturn(true, false);
+        List<Document> documents = List.of(new Document("accountNumber", "ACC1").append("balance", 2000.0),
+                new Document("accountNumber", "ACC2").append("balance", 2000.0),
+                new Document("accountNumber", "ACC3").append("balance", 2000.0));
+        AtomicInteger read = new AtomicInteger();
+        @SuppressWarnings("unchecked")
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(i -> {
+            // the third account is only read once the engine has seen the lock go
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (read.get() == 2 && !lockLost() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return read.get() < documents.size();
+        });
+        when(cursor.next()).thenAnswer(i -> documents.get(read.getAndIncrement()));
+        when(store.accountsToPost("202609", null, 2)).thenReturn(cursor);
+
+        engine.start(SEPTEMBER);
+
+        verify(store, timeout(5000)).interrupt("POSTING-202609");
+        verify(store, never()).finish(anyString(), anyString(), any());
+        assertFalse(applied.containsKey("ACC3"));
+        assertFalse(inserted.stream().anyMatch(txn -> "ACC3".equals(txn.getSourceAccount())));
+    }
+
+    // ------------------ TEST: Resumed chunk reuses recorded amounts ------------------
+    @Test
+    void testResumeAppliesAmountsAlreadyRecorded() {
+        PostingRun interrupted = new PostingRun("202609");
+        interrupted.setStatus(PostingRun.INTERRUPTED);
+        interrupted.setLastAccount("ACC2");
+        interrupted.setAccountsProcessed(2);
+        when(store.findRun("POSTING-202609")).thenReturn(Optional.of(interrupted));
+        // ACC3's interest was recorded before the crash, on the balance it had then
+        MongoCursor<Document> cursor = accounts("ACC3", 3000.0);
+        when(store.accountsToPost("202609", "ACC2", 2)).thenReturn(cursor);
+        Transaction recorded = new Transaction("INTEREST-202609-ACC3", "INTEREST", 25.0, new Date(), "SUCCESS", "ACC3", null);
+        recorded.setId("INTEREST-202609-ACC3");
+        when(store.findExisting(anyCollection())).thenReturn(List.of(recorded));
+
+        engine.start(SEPTEMBER);
+        awaitFinish(PostingRun.COMPLETED);
+
+        assertEquals(2500L, applied.get("ACC3"));
+        assertEquals(3, interrupted.getAccountsProcessed());
+        assertEquals(25.0, interrupted.getInterestTotal());
+    }
+}
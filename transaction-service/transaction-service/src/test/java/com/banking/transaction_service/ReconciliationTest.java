@@ -0,0 +1,277 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.model.Discrepancy;
+import com.banking.transaction_service.model.ReconciliationRun;
+import com.banking.transaction_service.model.ReconciliationRun.Partition;
+import com.banking.transaction_service.reconciliation.AccountBalance;
+import com.banking.transaction_service.reconciliation.PartitionReconciler;
+import com.banking.transaction_service.reconciliation.Posting;
+import com.banking.transaction_service.reconciliation.ReconciliationEngine;
+import com.banking.transaction_service.reconciliation.ReconciliationStore;
+import com.banking.transaction_service.reconciliation.SortedPostings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReconciliationTest {
+
+    private final List<Discrepancy> reported = new ArrayList<>();
+    private final List<String> checkpoints = new ArrayList<>();
+    private final List<Discrepancy> settled = new ArrayList<>();
+    private boolean stillWrong = true;
+
+    private final PartitionReconciler.Sink sink = new PartitionReconciler.Sink() {
+        @Override
+        public void report(Discrepancy discrepancy) {
+            reported.add(discrepancy);
+        }
+
+        @Override
+        public List<Discrepancy> settle(List<Discrepancy> mismatches, long foundAtNanos) {
+            settled.addAll(mismatches);
+            return stillWrong ? mismatches : List.of();
+        }
+
+        @Override
+        public void checkpoint(Partition partition) {
+            checkpoints.add(partition.getLastAccount());
+        }
+    };
+
+    private static AccountBalance account(String number, long balanceCents, Long openingCents) {
+        return new AccountBalance(number, balanceCents, openingCents);
+    }
+
+    private static Posting posting(String account, long timestamp, String id, char side, long cents) {
+        return new Posting(account, timestamp, id, side, cents);
+    }
+
+    private Map<String, Discrepancy> byAccount() {
+        Map<String, Discrepancy> map = new TreeMap<>();
+        reported.forEach(d -> map.put(d.getAccountNumber(), d));
+        return map;
+    }
+
+    // ------------------ TEST: Balance checked against opening + ledger ------------------
+    @Test
+    void testReportsMismatchAndMissingAccount() {
+        Partition partition = new Partition(0, "", null);
+        List<AccountBalance> accounts = List.of(
+                account("ACC1", 15000, 10000L),   // 100 + 70 - 20 = 150: matches
+                account("ACC3", 9000, 10000L),    // 100 + 0 - 0 = 100: drifted to 90
+                account("ACC4", 500, null));      // no opening balance recorded
+        List<Posting> postings = List.of(
+                posting("ACC1", 3, "t2", Posting.SOURCE, -2000),
+                posting("ACC1", 1, "t1", Posting.SOURCE, 7000),
+                posting("ACC2", 2, "t3", Posting.DESTINATION, 4000));
+
+        boolean done = new PartitionReconciler("run1", 100, sink, () -> false)
+                .reconcile(partition, accounts.iterator(), postings.iterator());
+
+        assertTrue(done);
+        assertTrue(partition.isDone());
+        assertEquals(3, partition.getAccountsChecked());
+        assertEquals(1, partition.getUnverifiable());
+        assertEquals(2, partition.getDiscrepancies());
+
+        Discrepancy mismatch = byAccount().get("ACC3");
+        assertEquals(Discrepancy.BALANCE_MISMATCH, mismatch.getKind());
+        assertEquals(100.0, mismatch.getExpected());
+        assertEquals(-10.0, mismatch.getDifference());
+        assertEquals("run1:ACC3", mismatch.getId());
+
+        Discrepancy missing = byAccount().get("ACC2");
+        assertEquals(Discrepancy.MISSING_ACCOUNT, missing.getKind());
+        assertNull(missing.getBalance());
+        assertEquals(40.0, missing.getExpected());
+    }
+
+    // ------------------ TEST: Archive copies count once, self-transfers twice ------------------
+    @Test
+    void testArchivedCopiesAreCountedOnce() {
+        Partition partition = new Partition(0, "", null);
+        List<Posting> hot = List.of(
+                posting("ACC1", 5, "t1", Posting.SOURCE, 3000),
+                posting("ACC1", 4, "t2", Posting.SOURCE, -1000),
+                posting("ACC1", 4, "t2", Posting.DESTINATION, 1000));
+        // t1 was copied to the archive but not yet deleted from the hot collection
+        List<Posting> archive = List.of(posting("ACC1", 5, "t1", Posting.SOURCE, 3000));
+
+        SortedPostings postings = new SortedPostings(List.of(cursor(hot), cursor(archive)));
+        new PartitionReconciler("run1", 100, sink, () -> false)
+                .reconcile(partition, List.of(account("ACC1", 13000, 10000L)).iterator(), postings);
+
+        assertTrue(reported.isEmpty());
+        assertEquals(0, partition.getDiscrepancies());
+    }
+
+    // ------------------ TEST: Cursors merged in account order ------------------
+    @Test
+    void testSortedPostingsMergesByAccountThenNewestFirst() {
+        SortedPostings postings = new SortedPostings(List.of(
+                cursor(List.of(posting("A", 9, "a9", Posting.SOURCE, 1), posting("C", 1, "c1", Posting.SOURCE, 1))),
+                cursor(List.of(posting("A", 5, "a5", Posting.DESTINATION, 1), posting("B", 7, "b7", Posting.DESTINATION, 1))),
+                cursor(List.of())));
+
+        List<String> ids = new ArrayList<>();
+        postings.forEachRemaining(p -> ids.add(p.id()));
+        postings.close();
+
+        assertEquals(List.of("a9", "a5", "b7", "c1"), ids);
+    }
+
+    // ------------------ TEST: Stopped partition checkpoints and resumes ------------------
+    @Test
+    void testStopCheckpointsAndResumeContinuesAfterLastAccount() {
+        Partition partition = new Partition(0, "", null);
+        List<AccountBalance> accounts = List.of(
+                account("ACC1", 100, 100L), account("ACC2", 100, 0L), account("ACC3", 100, 100L));
+
+        int[] calls = {0};
+        boolean done = new PartitionReconciler("run1", 1, sink, () -> ++calls[0] > 2)
+                .reconcile(partition, accounts.iterator(), List.<Posting>of().iterator());
+
+        assertFalse(done);
+        assertFalse(partition.isDone());
+        assertEquals("ACC2", partition.getLastAccount());
+        assertEquals(2, partition.getAccountsChecked());
+        assertEquals(1, partition.getDiscrepancies());
+
+        // the store restarts both cursors after lastAccount
+        done = new PartitionReconciler("run1", 1, sink, () -> false)
+                .reconcile(partition, accounts.subList(2, 3).iterator(), List.<Posting>of().iterator());
+
+        assertTrue(done);
+        assertEquals(3, partition.getAccountsChecked());
+        assertEquals(1, partition.getDiscrepancies());
+        assertEquals("ACC3", checkpoints.get(checkpoints.size() - 1));
+    }
+
+    // ------------------ TEST: Mismatch gone on re-check is not reported ------------------
+    @Test
+    void testMismatchThatSettlesIsNotReported() {
+        Partition partition = new Partition(0, "", null);
+        stillWrong = false;
+
+        new PartitionReconciler("run1", 100, sink, () -> false)
+                .reconcile(partition, List.of(account("ACC1", 9000, 10000L)).iterator(), List.<Posting>of().iterator());
+
+        // re-checked before the checkpoint that moves past it
+        assertEquals(List.of("ACC1"), settled.stream().map(Discrepancy::getAccountNumber).toList());
+        assertTrue(reported.isEmpty());
+        assertEquals(0, partition.getDiscrepancies());
+        assertEquals(List.of("ACC1"), checkpoints);
+    }
+
+    // ------------------ TEST: Engine re-reads mismatches before recording them ------------------
+    @Test
+    void testEngineRecordsOnlyMismatchesStillThereAfterSettling() {
+        ReconciliationStore store = engineStore(List.of(account("ACC1", 9000, 10000L), account("ACC2", 500, 0L)));
+        when(store.lock(anyString(), anyString(), anyLong())).thenReturn(true);
+        Discrepancy stillThere = new Discrepancy("r", "ACC2", Discrepancy.BALANCE_MISMATCH, 500L, 0);
+        when(store.recheck(anyString(), eq(List.of("ACC1", "ACC2")))).thenReturn(List.of(stillThere));
+        ReconciliationEngine engine = engine(store, 60000L);
+
+        engine.start();
+
+        verify(store, timeout(5000)).finish(anyString(), eq(ReconciliationRun.COMPLETED), isNull());
+        verify(store).report(stillThere);
+        verify(store, times(1)).report(any());
+        ReflectionTestUtils.invokeMethod(engine, "shutdown");
+    }
+
+    // ------------------ TEST: Engine stops when its lock is lost ------------------
+    @Test
+    void testEngineAbortsWhenLockIsLost() {
+        // accounts without end: only losing the lock stops the run
+        Iterator<AccountBalance> endless = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public AccountBalance next() {
+                return account(String.format("ACC%09d", next++), 0, 0L);
+            }
+        };
+        ReconciliationStore store = engineStore(endless);
+        // claimed, then taken by another instance at the first renewal
+        when(store.lock(anyString(), anyString(), anyLong())).thenReturn(true, false);
+        ReconciliationEngine engine = engine(store, 60L);
+
+        engine.start();
+
+        verify(store, timeout(5000)).unlock(anyString());
+        verify(store, never()).finish(anyString(), anyString(), any());
+        clearInvocations(store);
+        // nothing more is written for the run
+        verify(store, after(100).never()).checkpoint(anyString(), any());
+        ReflectionTestUtils.invokeMethod(engine, "shutdown");
+    }
+
+    private static ReconciliationStore engineStore(Iterable<AccountBalance> accounts) {
+        return engineStore(accounts.iterator());
+    }
+
+    private static ReconciliationStore engineStore(Iterator<AccountBalance> accounts) {
+        ReconciliationStore store = mock(ReconciliationStore.class);
+        when(store.split(anyInt())).thenReturn(List.of(new Partition(0, "", null)));
+        when(store.accounts(any(), anyInt(), any())).thenReturn(closeable(accounts));
+        when(store.postings(any(), anyInt(), any())).thenReturn(new SortedPostings(List.of()));
+        when(store.findRun(anyString())).thenReturn(Optional.empty());
+        return store;
+    }
+
+    private static ReconciliationEngine engine(ReconciliationStore store, long leaseMs) {
+        ReconciliationEngine engine = new ReconciliationEngine();
+        ReflectionTestUtils.setField(engine, "store", store);
+        ReflectionTestUtils.setField(engine, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "parallelism", 1);
+        ReflectionTestUtils.setField(engine, "partitions", 1);
+        ReflectionTestUtils.setField(engine, "batchSize", 100);
+        ReflectionTestUtils.setField(engine, "checkpointEvery", 10);
+        ReflectionTestUtils.setField(engine, "maxDocsPerSecond", 1_000_000.0);
+        ReflectionTestUtils.setField(engine, "leaseMs", leaseMs);
+        ReflectionTestUtils.setField(engine, "settleMs", 20L);
+        ReflectionTestUtils.invokeMethod(engine, "init");
+        return engine;
+    }
+
+    // ------------------ HELPERS ------------------
+
+    private static CloseableIterator<Posting> cursor(List<Posting> postings) {
+        return closeable(postings.iterator());
+    }
+
+    private static <T> CloseableIterator<T> closeable(Iterator<T> iterator) {
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
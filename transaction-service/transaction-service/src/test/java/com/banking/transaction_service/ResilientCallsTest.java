@@ -0,0 +1,133 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.resilience.DependencyUnavailableException;
+import com.banking.transaction_service.resilience.ResilientCalls;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientCallsTest {
+
+    private ResilientCalls resilientCalls;
+
+    @BeforeEach
+    void setUp() {
+        resilientCalls = new ResilientCalls();
+        ReflectionTestUtils.setField(resilientCalls, "circuitBreakerRegistry", CircuitBreakerRegistry.of(
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(4)
+                        .minimumNumberOfCalls(4)
+                        .ignoreExceptions(HttpClientErrorException.class)
+                        .build()));
+        ReflectionTestUtils.setField(resilientCalls, "bulkheadRegistry", ThreadPoolBulkheadRegistry.ofDefaults());
+        ReflectionTestUtils.setField(resilientCalls, "timeLimiterRegistry", TimeLimiterRegistry.of(
+                TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(200)).build()));
+        ReflectionTestUtils.setField(resilientCalls, "retryRegistry", RetryRegistry.of(
+                RetryConfig.custom().maxAttempts(3).waitDuration(Duration.ofMillis(1)).build()));
+        ReflectionTestUtils.setField(resilientCalls, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(resilientCalls, "retryBudgetPercent", 20);
+        ReflectionTestUtils.setField(resilientCalls, "retryBudgetMinPerSecond", 0);
+        ReflectionTestUtils.setField(resilientCalls, "retryBudgetMaxTokens", 2);
+    }
+
+    // ------------------ TEST: IDEMPOTENT CALL RETRIED ------------------
+    @Test
+    void testIdempotentCallIsRetriedOnIoError() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = resilientCalls.call("accountService", true, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ResourceAccessException("connection reset");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    // ------------------ TEST: 4XX NOT RETRIED ------------------
+    @Test
+    void testClientErrorIsNotRetriedAndPropagates() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> resilientCalls.call("accountService", true, () -> {
+            attempts.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    // ------------------ TEST: RETRY BUDGET ------------------
+    @Test
+    void testRetriesStopWhenBudgetIsExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DependencyUnavailableException.class, () -> resilientCalls.call("accountService", true, () -> {
+                attempts.incrementAndGet();
+                throw new ResourceAccessException("connection refused");
+            }));
+        }
+
+        // the first call spends both retries the budget held; the second gets none
+        assertEquals(4, attempts.get());
+    }
+
+    // ------------------ TEST: TIME LIMITER ------------------
+    @Test
+    void testSlowCallTimesOut() {
+        long start = System.nanoTime();
+
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, () ->
+                resilientCalls.call("notificationService", false, () -> {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException ignored) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "late";
+                }));
+
+        assertTrue(e.getMessage().contains("timed out"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    // ------------------ TEST: CIRCUIT OPENS AND FAILS FAST ------------------
+    @Test
+    void testOpenCircuitFailsFastWithoutCalling() {
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DependencyUnavailableException.class, () -> resilientCalls.call("notificationService", false, () -> {
+                attempts.incrementAndGet();
+                throw new ResourceAccessException("connection refused");
+            }));
+        }
+
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, () ->
+                resilientCalls.call("notificationService", false, () -> {
+                    attempts.incrementAndGet();
+                    return "never";
+                }));
+
+        assertTrue(e.getMessage().contains("circuit open"));
+        assertEquals(4, attempts.get());
+    }
+}
@@ -0,0 +1,120 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.filter.ResponseCompressionFilter;
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(meterRegistry,
+            new MockEnvironment().withProperty("banking.compression.min-size", "1024"));
+
+    // a history-like page: large and repetitive
+    private static final String PAGE = "[" + "{\"transactionId\":\"TXN-1\",\"type\":\"DEPOSIT\",\"amount\":100.0},".repeat(200) + "{}]";
+
+    // whether the body had reached the client while the controller was still writing it
+    private boolean streamed;
+
+    private MockHttpServletResponse get(String acceptEncoding, String body, String contentType) throws Exception {
+        return get(acceptEncoding, body, contentType, false);
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding, String body, String contentType,
+                                        boolean declareLength) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions/account/ACC1001");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                res.setContentType(contentType);
+                if (declareLength) {
+                    res.setContentLength(bytes.length);
+                }
+                res.getOutputStream().write(bytes);
+                res.flushBuffer();
+                streamed = response.getContentAsByteArray().length == bytes.length;
+            }
+        }));
+        return response;
+    }
+
+    // ------------------ TEST: Preferred encoding the client accepts ------------------
+    @Test
+    void testZstdPreferredAndRoundTrips() throws Exception {
+        MockHttpServletResponse response = get("gzip, deflate, br, zstd", PAGE, "application/json");
+
+        assertEquals("zstd", response.getHeader("Content-Encoding"));
+        assertTrue(response.getContentAsByteArray().length < PAGE.length() / 5);
+        byte[] restored = new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+        assertEquals(PAGE, new String(restored, StandardCharsets.UTF_8));
+        assertEquals(PAGE.length() - response.getContentAsByteArray().length,
+                meterRegistry.get("http.compression.bytes.saved").tag("encoding", "zstd").counter().count());
+    }
+
+    // ------------------ TEST: gzip when zstd is refused ------------------
+    @Test
+    void testGzipWhenZstdRefused() throws Exception {
+        MockHttpServletResponse response = get("zstd;q=0, gzip", PAGE, "application/x-ndjson");
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        byte[] restored = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+        assertEquals(PAGE, new String(restored, StandardCharsets.UTF_8));
+    }
+
+    // ------------------ TEST: Small, unaccepted or binary bodies pass through ------------------
+    @Test
+    void testUncompressedCases() throws Exception {
+        MockHttpServletResponse small = get("gzip", "{\"balance\":1}", "application/json");
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals("{\"balance\":1}", small.getContentAsString());
+
+        MockHttpServletResponse notAccepted = get(null, PAGE, "application/json");
+        assertNull(notAccepted.getHeader("Content-Encoding"));
+        assertEquals(PAGE, notAccepted.getContentAsString());
+
+        MockHttpServletResponse binary = get("gzip", PAGE, "image/png");
+        assertNull(binary.getHeader("Content-Encoding"));
+        assertEquals(PAGE.length(), binary.getContentAsByteArray().length);
+    }
+
+    // ------------------ TEST: Only bodies that may be compressed are buffered ------------------
+    @Test
+    void testBuffersOnlyWhenCompressionIsPossible() throws Exception {
+        // not a compressible type: straight through, whatever its size
+        get("gzip", PAGE, "image/png");
+        assertTrue(streamed);
+
+        // declared below min-size: straight through, still marked as varying by encoding
+        MockHttpServletResponse small = get("gzip", "{\"balance\":1}", "application/json", true);
+        assertTrue(streamed);
+        assertEquals("Accept-Encoding", small.getHeader("Vary"));
+        assertEquals(13, small.getContentLength());
+
+        // large enough, or of unknown length: held back to be compressed
+        MockHttpServletResponse large = get("gzip", PAGE, "application/json", true);
+        assertFalse(streamed);
+        assertEquals("gzip", large.getHeader("Content-Encoding"));
+        assertEquals(large.getContentAsByteArray().length, large.getContentLength());
+    }
+}
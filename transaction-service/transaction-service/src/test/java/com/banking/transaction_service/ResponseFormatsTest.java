@@ -0,0 +1,70 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.web.CborHttpMessageConverter;
+import com.banking.transaction_service.web.NdjsonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseFormatsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Transaction txn(String id, double amount) {
+        Transaction txn = new Transaction();
+        txn.setTransactionId(id);
+        txn.setType("DEPOSIT");
+        txn.setAmount(amount);
+        return txn;
+    }
+
+    // ------------------ TEST: NDJSON is one element per line ------------------
+    @Test
+    void testNdjsonWritesOneLinePerElement() throws Exception {
+        NdjsonHttpMessageConverter converter = new NdjsonHttpMessageConverter(objectMapper);
+        assertTrue(converter.canWrite(ArrayList.class, NdjsonHttpMessageConverter.APPLICATION_NDJSON));
+        assertFalse(converter.canWrite(Transaction.class, NdjsonHttpMessageConverter.APPLICATION_NDJSON));
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(List.of(txn("TXN-1", 10), txn("TXN-2", 20)), NdjsonHttpMessageConverter.APPLICATION_NDJSON, out);
+
+        String[] lines = out.getBodyAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("TXN-1", objectMapper.readValue(lines[0], Transaction.class).getTransactionId());
+        assertEquals(20.0, objectMapper.readValue(lines[1], Transaction.class).getAmount());
+    }
+
+    // ------------------ TEST: CBOR matches the RFC 8949 encoding ------------------
+    @Test
+    void testCborEncoding() throws Exception {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("a", 1);
+        doc.put("b", Arrays.asList(true, null, -500));
+        doc.put("c", "x");
+        doc.put("d", 1.5);
+        doc.put("e", 1000000);
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        new CborHttpMessageConverter(objectMapper).write(doc, MediaType.parseMediaType("application/cbor"), out);
+
+        byte[] expected = {
+                (byte) 0xa5,                                   // map(5)
+                0x61, 'a', 0x01,                               // "a": 1
+                0x61, 'b', (byte) 0x83, (byte) 0xf5, (byte) 0xf6, 0x39, 0x01, (byte) 0xf3,   // "b": [true, null, -500]
+                0x61, 'c', 0x61, 'x',                          // "c": "x"
+                0x61, 'd', (byte) 0xfb, 0x3f, (byte) 0xf8, 0, 0, 0, 0, 0, 0,                // "d": 1.5
+                0x61, 'e', 0x1a, 0x00, 0x0f, 0x42, 0x40        // "e": 1000000
+        };
+        assertArrayEquals(expected, out.getBodyAsBytes());
+    }
+}
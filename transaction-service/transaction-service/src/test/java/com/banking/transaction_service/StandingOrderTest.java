@@ -0,0 +1,266 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.model.StandingOrder;
+import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.service.TransactionService;
+import com.banking.transaction_service.standing.PartitionOwnership;
+import com.banking.transaction_service.standing.StandingOrderEngine;
+import com.banking.transaction_service.standing.StandingOrderStore;
+import com.banking.transaction_service.standing.TimingWheel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StandingOrderTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Mock
+    private StandingOrderStore store;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PartitionOwnership ownership;
+
+    @InjectMocks
+    private StandingOrderEngine engine;
+
+    private final List<String> transfers = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(engine, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "tickMs", 10L);
+        ReflectionTestUtils.setField(engine, "horizonMs", 60000L);
+        ReflectionTestUtils.setField(engine, "refillIntervalMs", 60000L);
+        ReflectionTestUtils.setField(engine, "maxScheduled", 1000);
+        ReflectionTestUtils.setField(engine, "batchSize", 10);
+        ReflectionTestUtils.setField(engine, "parallelism", 2);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 4);
+        ReflectionTestUtils.setField(engine, "claimLeaseMs", 60000L);
+
+        when(ownership.owns(anyInt())).thenReturn(true);
+        when(store.findTransaction(anyString())).thenReturn(Optional.empty());
+        when(transactionService.transfer(anyString(), anyString(), anyDouble(), anyString())).thenAnswer(i -> {
+            transfers.add(i.getArgument(3));
+            Transaction txn = new Transaction();
+            txn.setTransactionId(i.getArgument(3));
+            txn.setStatus("SUCCESS");
+            return txn;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    private static StandingOrder order(String id, long startAt) {
+        StandingOrder order = new StandingOrder();
+        order.setId(id);
+        order.setSourceAccount("ACC1001");
+        order.setDestinationAccount("ACC2002");
+        order.setAmount(250.0);
+        order.setFrequency(StandingOrder.Frequency.DAILY);
+        order.setStartAt(new Date(startAt));
+        order.setNextRunAt(new Date(startAt));
+        order.setStatus(StandingOrder.ACTIVE);
+        return order;
+    }
+
+    // the wheel never fires during the test, so an order rescheduled after execute() is not run again
+    private void startWithoutTicking() {
+        ReflectionTestUtils.setField(engine, "tickMs", 600000L);
+        engine.start();
+    }
+
+    // the store hands out the order while it is due, as the claim query would
+    private void claimable(StandingOrder order) {
+        when(store.claim(anyCollection(), anyString(), any(Date.class), any(Date.class))).thenAnswer(i -> {
+            Date now = i.getArgument(2);
+            return order.getNextRunAt() != null && !order.getNextRunAt().after(now) ? List.of(order) : List.of();
+        });
+    }
+
+    // ------------------ TEST: Timing wheel fires on time, across levels ------------------
+    @Test
+    void testTimingWheelFiresAtDueTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 8, 3, 0);
+        wheel.add("soon", 500);
+        wheel.add("level-2", 70_000);
+        wheel.add("overflow", 10_000_000);
+        wheel.add("overdue", -5000);
+
+        assertEquals(List.of("overdue"), wheel.advance(0));
+        assertEquals(List.of(), wheel.advance(999));
+        assertEquals(List.of("soon"), wheel.advance(1000));
+        assertEquals(List.of(), wheel.advance(69_999));
+        assertEquals(List.of("level-2"), wheel.advance(70_000));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(9_999_999));
+        assertEquals(List.of("overflow"), wheel.advance(10_000_000));
+        assertEquals(0, wheel.size());
+    }
+
+    // ------------------ TEST: Monthly orders keep their day of the month ------------------
+    @Test
+    void testMonthlyDueDatesFromStart() {
+        Date start = Date.from(Instant.parse("2026-01-31T09:00:00Z"));
+
+        assertEquals(Instant.parse("2026-02-28T09:00:00Z"), StandingOrder.Frequency.MONTHLY.dueAt(start, 1).toInstant());
+        assertEquals(Instant.parse("2026-03-31T09:00:00Z"), StandingOrder.Frequency.MONTHLY.dueAt(start, 2).toInstant());
+    }
+
+    // ------------------ TEST: Partitions split without overlap; only a leaver's move ------------------
+    @Test
+    void testPartitionsSplitBetweenInstances() {
+        List<String> three = List.of("tx-a:8082", "tx-b:8082", "tx-c:8082");
+        BitSet a = PartitionOwnership.assign("tx-a:8082", three, StandingOrder.PARTITIONS);
+        BitSet b = PartitionOwnership.assign("tx-b:8082", three, StandingOrder.PARTITIONS);
+        BitSet c = PartitionOwnership.assign("tx-c:8082", three, StandingOrder.PARTITIONS);
+
+        assertEquals(StandingOrder.PARTITIONS, a.cardinality() + b.cardinality() + c.cardinality());
+        assertFalse(a.intersects(b) || a.intersects(c) || b.intersects(c));
+        assertTrue(a.cardinality() > 0 && b.cardinality() > 0 && c.cardinality() > 0);
+
+        BitSet aAfterCLeft = PartitionOwnership.assign("tx-a:8082", List.of("tx-a:8082", "tx-b:8082"), StandingOrder.PARTITIONS);
+        BitSet kept = (BitSet) a.clone();
+        kept.andNot(aAfterCLeft);
+        assertTrue(kept.isEmpty());
+    }
+
+    // ------------------ TEST: Due order runs once, with an id per due date ------------------
+    @Test
+    void testExecutesDueOrderAndAdvances() {
+        long start = Instant.parse("2026-10-01T06:00:00Z").toEpochMilli();
+        StandingOrder order = order("SO-1", start);
+        claimable(order);
+        startWithoutTicking();
+
+        ReflectionTestUtils.invokeMethod(engine, "execute", List.of("SO-1"));
+
+        assertEquals(List.of("SO-1-20261001"), transfers);
+        assertEquals(1, order.getRunCount());
+        assertEquals(new Date(start + DAY), order.getNextRunAt());
+        assertEquals("SUCCESS", order.getLastStatus());
+        verify(store).advance(eq(List.of(order)), anyString());
+    }
+
+    // ------------------ TEST: A due date already transferred is not transferred again ------------------
+    @Test
+    void testAlreadyExecutedDueDateNotRepeated() {
+        long start = Instant.parse("2026-10-01T06:00:00Z").toEpochMilli();
+        StandingOrder order = order("SO-1", start);
+        claimable(order);
+        Transaction earlier = new Transaction();
+        earlier.setStatus("SUCCESS");
+        when(store.findTransaction("SO-1-20261001")).thenReturn(Optional.of(earlier));
+        startWithoutTicking();
+
+        ReflectionTestUtils.invokeMethod(engine, "execute", List.of("SO-1"));
+
+        verify(transactionService, never()).transfer(anyString(), anyString(), anyDouble(), anyString());
+        assertEquals(new Date(start + DAY), order.getNextRunAt());
+        verify(store).advance(eq(List.of(order)), anyString());
+    }
+
+    // ------------------ TEST: A due date left PENDING is resolved, not run again ------------------
+    @Test
+    void testPendingDueDateIsResolvedNotRerun() {
+        long start = Instant.parse("2026-10-01T06:00:00Z").toEpochMilli();
+        StandingOrder order = order("SO-1", start);
+        claimable(order);
+        Transaction pending = new Transaction();
+        pending.setTransactionId("SO-1-20261001");
+        pending.setStatus("PENDING");
+        when(store.findTransaction("SO-1-20261001")).thenReturn(Optional.of(pending));
+        Transaction resolved = new Transaction();
+        resolved.setStatus("SUCCESS");
+        when(transactionService.resolvePending(pending)).thenReturn(resolved);
+        startWithoutTicking();
+
+        ReflectionTestUtils.invokeMethod(engine, "execute", List.of("SO-1"));
+
+        verify(transactionService, never()).transfer(anyString(), anyString(), anyDouble(), anyString());
+        assertEquals("SUCCESS", order.getLastStatus());
+        verify(store).advance(eq(List.of(order)), anyString());
+    }
+
+    // ------------------ TEST: A due date whose outcome is unknown is not advanced ------------------
+    @Test
+    void testUnresolvedDueDateIsRetriedLater() {
+        long start = Instant.parse("2026-10-01T06:00:00Z").toEpochMilli();
+        StandingOrder order = order("SO-1", start);
+        claimable(order);
+        Transaction pending = new Transaction();
+        pending.setStatus("PENDING");
+        when(store.findTransaction("SO-1-20261001")).thenReturn(Optional.of(pending));
+        when(transactionService.resolvePending(pending)).thenReturn(pending);
+        startWithoutTicking();
+
+        ReflectionTestUtils.invokeMethod(engine, "execute", List.of("SO-1"));
+
+        assertEquals(0, order.getRunCount());
+        assertEquals(new Date(start), order.getNextRunAt());
+        verify(store).advance(eq(List.of()), anyString());
+    }
+
+    // ------------------ TEST: Claims are renewed through a long batch; lost ones are skipped ------------------
+    @Test
+    void testClaimsRenewedDuringBatch() {
+        long start = Instant.parse("2026-10-01T06:00:00Z").toEpochMilli();
+        StandingOrder first = order("SO-1", start);
+        StandingOrder second = order("SO-2", start);
+        when(store.claim(anyCollection(), anyString(), any(Date.class), any(Date.class))).thenReturn(List.of(first, second));
+        // every order outlives a zero lease; the second was taken over by the time it came up
+        ReflectionTestUtils.setField(engine, "claimLeaseMs", 0L);
+        when(store.renew(anyCollection(), anyString(), any(Date.class))).thenReturn(Set.of("SO-1"), Set.of());
+        startWithoutTicking();
+
+        ReflectionTestUtils.invokeMethod(engine, "execute", List.of("SO-1", "SO-2"));
+
+        verify(store).renew(eq(List.of("SO-1", "SO-2")), anyString(), any(Date.class));
+        verify(store).renew(eq(List.of("SO-2")), anyString(), any(Date.class));
+        assertEquals(List.of("SO-1-20261001"), transfers);
+        verify(store).advance(eq(List.of(first)), anyString());
+    }
+
+    // ------------------ TEST: Missed due dates are caught up, oldest first ------------------
+    @Test
+    void testCatchesUpMissedDueDates() throws Exception {
+        long now = System.currentTimeMillis();
+        // due two and a half days ago: three due dates missed, the next is tomorrow
+        StandingOrder order = order("SO-7", now - 2 * DAY - DAY / 2);
+        claimable(order);
+        when(store.due(any(), any(Date.class), anyInt()))
+                .thenReturn(List.of(new Document("_id", "SO-7").append("nextRunAt", order.getNextRunAt())));
+
+        engine.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (order.getRunCount() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        assertEquals(3, transfers.size());
+        assertEquals(3, new HashSet<>(transfers).size());
+        assertEquals(3, order.getRunCount());
+        assertTrue(order.getNextRunAt().getTime() > now);
+    }
+}
@@ -0,0 +1,76 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.discovery.StaticServiceRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticDiscoveryTest {
+
+    @TempDir
+    Path dir;
+
+    // ------------------ TEST: FILE CHANGES ARE PICKED UP ------------------
+    @Test
+    void testNewInstanceVisibleAfterFileChange() throws Exception {
+        Path file = dir.resolve("discovery.properties");
+        Files.writeString(file, "ACCOUNT-SERVICE=localhost:8081\n");
+        StaticServiceRegistry registry = registry(file.toString(), "");
+
+        assertEquals(List.of(8081), ports(registry.getInstances("ACCOUNT-SERVICE")));
+
+        Files.writeString(file, "ACCOUNT-SERVICE=localhost:8081,localhost:8091\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        registry.refresh();
+
+        assertEquals(List.of(8081, 8091), ports(registry.getInstances("account-service")));
+    }
+
+    // ------------------ TEST: BROKEN FILE KEEPS LAST GOOD LIST ------------------
+    @Test
+    void testInvalidFileKeepsPreviousInstances() throws Exception {
+        Path file = dir.resolve("discovery.properties");
+        Files.writeString(file, "ACCOUNT-SERVICE=localhost:8081\n");
+        StaticServiceRegistry registry = registry(file.toString(), "");
+
+        Files.writeString(file, "ACCOUNT-SERVICE=localhost\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        registry.refresh();
+
+        assertEquals(List.of(8081), ports(registry.getInstances("ACCOUNT-SERVICE")));
+    }
+
+    // ------------------ TEST: FILE OVERRIDES ENVIRONMENT ------------------
+    @Test
+    void testFileOverridesEnvironmentPerService() throws Exception {
+        Path file = dir.resolve("discovery.properties");
+        Files.writeString(file, "ACCOUNT-SERVICE=localhost:9001\n");
+        StaticServiceRegistry registry = registry(file.toString(),
+                "ACCOUNT-SERVICE=localhost:8081;NOTIFICATION-SERVICE=https://notify:8443");
+
+        assertEquals(List.of(9001), ports(registry.getInstances("ACCOUNT-SERVICE")));
+        ServiceInstance notification = registry.getInstances("NOTIFICATION-SERVICE").get(0);
+        assertTrue(notification.isSecure());
+        assertEquals("notify", notification.getHost());
+    }
+
+    private static StaticServiceRegistry registry(String file, String environment) {
+        StaticServiceRegistry registry = new StaticServiceRegistry();
+        ReflectionTestUtils.setField(registry, "file", file);
+        ReflectionTestUtils.setField(registry, "environmentInstances", environment);
+        ReflectionTestUtils.invokeMethod(registry, "init");
+        return registry;
+    }
+
+    private static List<Integer> ports(List<ServiceInstance> instances) {
+        return instances.stream().map(ServiceInstance::getPort).sorted().toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.archive.TransactionArchiver;
+import com.banking.transaction_service.archive.TransactionHistory;
+import com.banking.transaction_service.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionArchiveTest {
+
+    private static final String JAN = "transactions_archive_202401";
+    private static final String FEB = "transactions_archive_202402";
+
+    @Mock
+    private ArchiveStore store;
+
+    @InjectMocks
+    private TransactionHistory history;
+
+    @InjectMocks
+    private TransactionArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(archiver, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archiver, "hotRetentionDays", 90);
+        ReflectionTestUtils.setField(archiver, "batchSize", 2);
+        ReflectionTestUtils.setField(archiver, "maxBatchesPerRun", 2);
+        ReflectionTestUtils.setField(archiver, "pauseMs", 0L);
+        ReflectionTestUtils.invokeMethod(archiver, "init");
+    }
+
+    // ------------------ TEST: MONTHLY BUCKETS ------------------
+    @Test
+    void testArchiveCollectionIsPerUtcMonth() {
+        assertEquals(FEB, ArchiveStore.archiveCollection(Date.from(Instant.parse("2024-02-29T23:59:59Z"))));
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), ArchiveStore.bucketStart(JAN));
+    }
+
+    // ------------------ TEST: INCREMENTAL, THROTTLED ARCHIVAL ------------------
+    @Test
+    void testArchiverCopiesBeforeDeletingAndStopsAtRunLimit() {
+        Transaction jan = txn("t1", "2024-01-31T10:00:00Z");
+        Transaction feb = txn("t2", "2024-02-01T10:00:00Z");
+        when(store.findOlderThan(any(Date.class), eq(2))).thenReturn(List.of(jan, feb));
+
+        int moved = archiver.archiveOnce();
+
+        // the backlog never shrinks in this mock: the run stops at max-batches-per-run
+        assertEquals(4, moved);
+        InOrder order = inOrder(store);
+        order.verify(store).copyToArchive(JAN, List.of(jan));
+        order.verify(store).copyToArchive(FEB, List.of(feb));
+        order.verify(store).deleteFromHot(List.of("t1", "t2"));
+        verify(store, times(2)).findOlderThan(any(Date.class), eq(2));
+    }
+
+    // ------------------ TEST: HISTORY ACROSS TIERS ------------------
+    @Test
+    void testHistoryStopsReadingOnceThePageIsFull() {
+        Transaction recent = txn("h1", "2024-03-05T10:00:00Z");
+        Transaction archived = txn("a1", "2024-02-10T10:00:00Z");
+        when(store.findForAccount(ArchiveStore.HOT, "ACC1", null, null, 2)).thenReturn(List.of(recent));
+        when(store.archiveCollections()).thenReturn(List.of(FEB, JAN));
+        when(store.findForAccount(FEB, "ACC1", null, null, 1)).thenReturn(List.of(archived));
+
+        List<Transaction> page = history.page("ACC1", null, null, 2);
+
+        assertEquals(List.of(recent, archived), page);
+        verify(store, never()).findForAccount(eq(JAN), anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testHistoryCursorSkipsNewerMonthsAndDuplicates() {
+        Date before = Date.from(Instant.parse("2024-02-01T00:00:00Z"));
+        Transaction moving = txn("m1", "2024-01-20T10:00:00Z");
+        when(store.findForAccount(ArchiveStore.HOT, "ACC1", before, null, 5)).thenReturn(List.of(moving));
+        when(store.archiveCollections()).thenReturn(List.of(FEB, JAN));
+        when(store.findForAccount(JAN, "ACC1", before, null, 4)).thenReturn(List.of(moving));
+
+        List<Transaction> page = history.page("ACC1", before, null, 5);
+
+        assertEquals(List.of(moving), page);
+        verify(store, never()).findForAccount(eq(FEB), anyString(), any(), any(), anyInt());
+    }
+
+    // ------------------ TEST: ROWS SHARING THE CURSOR'S TIMESTAMP ------------------
+    @Test
+    void testHistoryCursorKeepsRowsWithTheSameTimestamp() {
+        // the previous page ended on the first instant of February, with more rows at that instant
+        Date before = Date.from(Instant.parse("2024-02-01T00:00:00Z"));
+        Transaction sameInstant = txn("f0", "2024-02-01T00:00:00Z");
+        when(store.archiveCollections()).thenReturn(List.of(FEB, JAN));
+        when(store.findForAccount(FEB, "ACC1", before, "f5", 5)).thenReturn(List.of(sameInstant));
+
+        List<Transaction> page = history.page("ACC1", before, "f5", 5);
+
+        assertEquals(List.of(sameInstant), page);
+        verify(store).findForAccount(JAN, "ACC1", before, "f5", 4);
+    }
+
+    @Test
+    void testHistoryQueryOrdersAndResumesByTimestampThenId() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        ArchiveStore archiveStore = new ArchiveStore();
+        ReflectionTestUtils.setField(archiveStore, "mongoTemplate", mongoTemplate);
+        Date before = Date.from(Instant.parse("2024-02-01T00:00:00Z"));
+
+        archiveStore.findForAccount(ArchiveStore.HOT, "ACC1", before, "f5", 10);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Transaction.class), eq(ArchiveStore.HOT));
+        assertEquals(new Document("timestamp", -1).append("_id", -1), query.getValue().getSortObject());
+        Document cursor = new Document("$or", List.of(
+                new Document("timestamp", new Document("$lt", before)),
+                new Document("$and", List.of(new Document("timestamp", before),
+                        new Document("_id", new Document("$lt", "f5"))))));
+        assertEquals(cursor, ((List<?>) query.getValue().getQueryObject().get("$and")).get(1));
+    }
+
+    private static Transaction txn(String id, String timestamp) {
+        Transaction txn = new Transaction();
+        txn.setId(id);
+        txn.setTimestamp(Date.from(Instant.parse(timestamp)));
+        return txn;
+    }
+}
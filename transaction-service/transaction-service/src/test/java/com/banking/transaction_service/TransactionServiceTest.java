@@ -1,13 +1,24 @@
 
 package com.banking.transaction_service;
 
-import com.banking.transaction_service.client.NotificationClient;
+import com.banking.transaction_service.archive.ArchiveStore;
+import com.banking.transaction_service.archive.TransactionHistory;
+import com.banking.transaction_service.client.AccountClient;
 import com.banking.transaction_service.model.Transaction;
+import com.banking.transaction_service.outbox.NotificationOutbox;
 import com.banking.transaction_service.repository.TransactionRepository;
+import com.banking.transaction_service.resilience.DependencyUnavailableException;
+import com.banking.transaction_service.service.PendingTransactionResolver;
 import com.banking.transaction_service.service.TransactionService;
+import com.banking.transaction_service.velocity.VelocityChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
@@ -24,7 +35,16 @@ class TransactionServiceTest {
     private RestTemplate restTemplate;
 
     @Mock
-    private NotificationClient notificationClient;
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private TransactionHistory transactionHistory;
+
+    @Mock
+    private VelocityChecker velocityChecker;
 
     @InjectMocks
     private TransactionService transactionService;
@@ -32,9 +52,6 @@ class TransactionServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-
-        // Fix randomly generated IDs for test stability
-        Mockito.doReturn("TXN-TEST-ID").when(transactionService).toString();
     }
 
 
@@ -48,12 +65,8 @@ class TransactionServiceTest {
         double startingBalance = 5000.0;
         double depositAmount = 1000.0;
 
-        Map<String, Object> accountResponse = new HashMap<>();
-        accountResponse.put("balance", startingBalance);
-
-        // Mock getBalanceFromAccountService()
-        when(restTemplate.getForObject("http://ACCOUNT-SERVICE/api/accounts/" + accountNumber, Map.class))
-                .thenReturn(accountResponse);
+        when(accountClient.getBalance(accountNumber)).thenReturn(startingBalance);
+        when(accountClient.credit(eq(accountNumber), eq(depositAmount), anyString())).thenReturn(true);
 
         // Mock repository save()
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
@@ -61,8 +74,8 @@ class TransactionServiceTest {
         Transaction result = transactionService.deposit(accountNumber, depositAmount);
 
         assertEquals("SUCCESS", result.getStatus());
-        verify(notificationClient, times(1)).sendNotification(anyString());
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        // saved together with its notification, in one MongoDB transaction
+        verify(notificationOutbox, times(1)).saveWithNotification(any(Transaction.class));
     }
 
 
@@ -77,11 +90,8 @@ class TransactionServiceTest {
         double startingBalance = 5000.0;
         double withdrawAmount = 1000.0;
 
-        Map<String, Object> accountResponse = new HashMap<>();
-        accountResponse.put("balance", startingBalance);
-
-        when(restTemplate.getForObject("http://ACCOUNT-SERVICE/api/accounts/" + accountNumber, Map.class))
-                .thenReturn(accountResponse);
+        when(accountClient.getBalance(accountNumber)).thenReturn(startingBalance);
+        when(accountClient.debit(eq(accountNumber), eq(withdrawAmount), anyString())).thenReturn(true);
 
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(i -> i.getArguments()[0]);
@@ -89,7 +99,7 @@ class TransactionServiceTest {
         Transaction result = transactionService.withdraw(accountNumber, withdrawAmount);
 
         assertEquals("SUCCESS", result.getStatus());
-        verify(notificationClient, times(1)).sendNotification(anyString());
+        verify(notificationOutbox, times(1)).saveWithNotification(any(Transaction.class));
     }
 
 
@@ -100,11 +110,7 @@ class TransactionServiceTest {
         double startingBalance = 300.0;
         double withdrawAmount = 1000.0;
 
-        Map<String, Object> accountResponse = new HashMap<>();
-        accountResponse.put("balance", startingBalance);
-
-        when(restTemplate.getForObject("http://ACCOUNT-SERVICE/api/accounts/" + accountNumber, Map.class))
-                .thenReturn(accountResponse);
+        when(accountClient.getBalance(accountNumber)).thenReturn(startingBalance);
 
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArguments()[0]);
@@ -112,7 +118,7 @@ class TransactionServiceTest {
         Transaction result = transactionService.withdraw(accountNumber, withdrawAmount);
 
         assertEquals("FAILED", result.getStatus());
-        verify(notificationClient, times(0)).sendNotification(anyString());
+        verify(notificationOutbox, times(0)).saveWithNotification(any(Transaction.class));
     }
 
 
@@ -130,18 +136,10 @@ class TransactionServiceTest {
         double destBalance = 2000.0;
         double transferAmount = 1000.0;
 
-        // First call = source account balance
-        Map<String, Object> srcResponse = new HashMap<>();
-        srcResponse.put("balance", sourceBalance);
-
-        // Second call = dest account balance
-        Map<String, Object> destResponse = new HashMap<>();
-        destResponse.put("balance", destBalance);
-
-        when(restTemplate.getForObject("http://ACCOUNT-SERVICE/api/accounts/" + sourceAccount, Map.class))
-                .thenReturn(srcResponse);
-        when(restTemplate.getForObject("http://ACCOUNT-SERVICE/api/accounts/" + destAccount, Map.class))
-                .thenReturn(destResponse);
+        when(accountClient.getBalance(sourceAccount)).thenReturn(sourceBalance);
+        when(accountClient.getBalance(destAccount)).thenReturn(destBalance);
+        when(accountClient.debit(eq(sourceAccount), eq(transferAmount), anyString())).thenReturn(true);
+        when(accountClient.credit(eq(destAccount), eq(transferAmount), anyString())).thenReturn(true);
 
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArguments()[0]);
@@ -149,7 +147,7 @@ class TransactionServiceTest {
         Transaction result = transactionService.transfer(sourceAccount, destAccount, transferAmount);
 
         assertEquals("SUCCESS", result.getStatus());
-        verify(notificationClient, times(1)).sendNotification(anyString());
+        verify(notificationOutbox, times(1)).saveWithNotification(any(Transaction.class));
     }
 
 
@@ -162,11 +160,7 @@ class TransactionServiceTest {
         double sourceBalance = 500.0;
         double transferAmount = 2000.0;
 
-        Map<String, Object> srcResponse = new HashMap<>();
-        srcResponse.put("balance", sourceBalance);
-
-        when(restTemplate.getForObject("http://ACCOUNT-SERVICE/api/accounts/" + sourceAccount, Map.class))
-                .thenReturn(srcResponse);
+        when(accountClient.getBalance(sourceAccount)).thenReturn(sourceBalance);
 
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArguments()[0]);
@@ -174,7 +168,351 @@ class TransactionServiceTest {
         Transaction result = transactionService.transfer(sourceAccount, destAccount, transferAmount);
 
         assertEquals("FAILED", result.getStatus());
-        verify(notificationClient, times(0)).sendNotification(anyString());
+        verify(notificationOutbox, times(0)).saveWithNotification(any(Transaction.class));
+    }
+
+
+    // =====================================================================================
+    // ACCOUNT-SERVICE FAILURE TESTS
+    // =====================================================================================
+
+    @Test
+    void testDepositFailsFastWhenAccountServiceUnavailable() {
+
+        String accountNumber = "ACC1001";
+
+        when(accountClient.credit(eq(accountNumber), anyDouble(), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "circuit open", null));
+        when(accountClient.resolve(eq(accountNumber), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "circuit open", null));
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.deposit(accountNumber, 1000.0);
+
+        // whether the credit got out before the circuit opened cannot be told yet
+        assertEquals("PENDING", result.getStatus());
+        verify(accountClient, never()).updateBalance(anyString(), anyDouble());
+        verify(notificationOutbox, never()).saveWithNotification(any(Transaction.class));
+    }
+
+
+    @Test
+    void testTransferCompensatesDebitWhenCreditFails() {
+
+        String sourceAccount = "ACC1001";
+        String destAccount = "ACC2002";
+
+        when(accountClient.getBalance(sourceAccount)).thenReturn(7000.0);
+        when(accountClient.debit(eq(sourceAccount), eq(1000.0), anyString())).thenReturn(true);
+        when(accountClient.credit(eq(destAccount), eq(1000.0), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "timed out", null));
+        // the timed-out credit did not land, and now cannot
+        when(accountClient.resolve(eq(destAccount), anyString())).thenReturn(false);
+        when(accountClient.credit(eq(sourceAccount), eq(1000.0), anyString())).thenReturn(true);
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.transfer(sourceAccount, destAccount, 1000.0);
+
+        assertEquals("FAILED", result.getStatus());
+        String txnId = result.getTransactionId();
+        verify(accountClient).resolve(destAccount, txnId + ":credit");
+        verify(accountClient).credit(sourceAccount, 1000.0, txnId + ":refund");
+        verify(accountClient, never()).updateBalance(anyString(), anyDouble());
+        verify(notificationOutbox, never()).saveWithNotification(any(Transaction.class));
+    }
+
+
+    @Test
+    void testTransferTimedOutCreditThatLandedIsNotCompensated() {
+
+        String sourceAccount = "ACC1001";
+        String destAccount = "ACC2002";
+
+        when(accountClient.getBalance(sourceAccount)).thenReturn(7000.0);
+        when(accountClient.debit(eq(sourceAccount), eq(1000.0), anyString())).thenReturn(true);
+        when(accountClient.credit(eq(destAccount), eq(1000.0), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "timed out", null));
+        // the remote side applied it before the time limiter gave up
+        when(accountClient.resolve(eq(destAccount), anyString())).thenReturn(true);
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.transfer(sourceAccount, destAccount, 1000.0);
+
+        assertEquals("SUCCESS", result.getStatus());
+        verify(accountClient, never()).credit(eq(sourceAccount), anyDouble(), anyString());
+        verify(notificationOutbox).saveWithNotification(result);
+    }
+
+
+    @Test
+    void testTransferWithUnknownCreditOutcomeIsNotCompensated() {
+
+        String sourceAccount = "ACC1001";
+        String destAccount = "ACC2002";
+
+        when(accountClient.getBalance(sourceAccount)).thenReturn(7000.0);
+        when(accountClient.debit(eq(sourceAccount), eq(1000.0), anyString())).thenReturn(true);
+        when(accountClient.credit(eq(destAccount), eq(1000.0), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "timed out", null));
+        when(accountClient.resolve(eq(destAccount), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "circuit open", null));
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.transfer(sourceAccount, destAccount, 1000.0);
+
+        // a refund on top of a credit that may have landed would create money; left to be resolved
+        assertEquals("PENDING", result.getStatus());
+        verify(accountClient, never()).credit(eq(sourceAccount), anyDouble(), anyString());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+
+    @Test
+    void testDepositWithUnknownOutcomeIsRecordedAndLeftPending() {
+
+        String accountNumber = "ACC1001";
+
+        when(accountClient.credit(eq(accountNumber), eq(1000.0), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "timed out", null));
+        when(accountClient.resolve(eq(accountNumber), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "circuit open", null));
+
+        InOrder order = inOrder(transactionRepository, accountClient);
+        Transaction result = transactionService.deposit(accountNumber, 1000.0);
+
+        assertEquals("PENDING", result.getStatus());
+        order.verify(transactionRepository).insert(result);
+        order.verify(accountClient).credit(accountNumber, 1000.0, result.getTransactionId() + ":credit");
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+
+    @Test
+    void testPendingDepositThatLandedIsSettledAsSuccess() {
+
+        Transaction pending = new Transaction("TXN-1", "DEPOSIT", 1000.0, new Date(), "PENDING", "ACC1001", null);
+        when(accountClient.resolve("ACC1001", "TXN-1:credit")).thenReturn(true);
+
+        Transaction result = transactionService.resolvePending(pending);
+
+        assertEquals("SUCCESS", result.getStatus());
+        verify(notificationOutbox).saveWithNotification(pending);
+    }
+
+
+    @Test
+    void testPendingResolverSettlesWhatAccountServiceCanAnswerFor() {
+
+        ArchiveStore archiveStore = mock(ArchiveStore.class);
+        PendingTransactionResolver resolver = new PendingTransactionResolver();
+        ReflectionTestUtils.setField(resolver, "store", archiveStore);
+        ReflectionTestUtils.setField(resolver, "transactionService", transactionService);
+        ReflectionTestUtils.setField(resolver, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(resolver, "resolveAfterMs", 120000L);
+        ReflectionTestUtils.setField(resolver, "batchSize", 100);
+        Transaction landed = new Transaction("TXN-1", "WITHDRAW", 100.0, new Date(), "PENDING", "ACC1001", null);
+        Transaction unknown = new Transaction("TXN-2", "WITHDRAW", 100.0, new Date(), "PENDING", "ACC2002", null);
+        when(archiveStore.findPending(any(Date.class), eq(100))).thenReturn(List.of(landed, unknown));
+        when(accountClient.resolve("ACC1001", "TXN-1:debit")).thenReturn(true);
+        when(accountClient.resolve("ACC2002", "TXN-2:debit"))
+                .thenThrow(new DependencyUnavailableException("accountService", "circuit open", null));
+
+        assertEquals(1, resolver.resolveOnce());
+        assertEquals("SUCCESS", landed.getStatus());
+        assertEquals("PENDING", unknown.getStatus());
+    }
+
+
+    @Test
+    void testWithdrawTimedOutDebitIsResolved() {
+
+        String accountNumber = "ACC1001";
+
+        when(accountClient.getBalance(accountNumber)).thenReturn(5000.0);
+        when(accountClient.debit(eq(accountNumber), eq(1000.0), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "timed out", null));
+        when(accountClient.resolve(eq(accountNumber), anyString())).thenReturn(false);
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.withdraw(accountNumber, 1000.0);
+
+        assertEquals("FAILED", result.getStatus());
+        verify(accountClient).resolve(accountNumber, result.getTransactionId() + ":debit");
+        verify(notificationOutbox, never()).saveWithNotification(any(Transaction.class));
+    }
+
+
+    // =====================================================================================
+    // VELOCITY CHECK TESTS
+    // =====================================================================================
+
+    @Test
+    void testWithdrawRejectedByVelocityRuleMakesNoRemoteCalls() {
+
+        String accountNumber = "ACC1001";
+
+        when(velocityChecker.check("WITHDRAW", accountNumber, 1000.0)).thenReturn("burst");
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.withdraw(accountNumber, 1000.0);
+
+        assertEquals("FAILED", result.getStatus());
+        verifyNoInteractions(accountClient);
+        verify(transactionRepository).save(result);
+        verify(notificationOutbox, never()).saveWithNotification(any(Transaction.class));
+    }
+
+
+    // =====================================================================================
+    // KEYED CREDIT / DEBIT TESTS
+    // =====================================================================================
+
+    @Test
+    void testTransferMovesMoneyWithKeyedDebitAndCredit() {
+
+        String sourceAccount = "ACC1001";
+        String merchantAccount = "MERCH01";
+
+        when(accountClient.getBalance(sourceAccount)).thenReturn(7000.0);
+        when(accountClient.debit(eq(sourceAccount), eq(1000.0), anyString())).thenReturn(true);
+        when(accountClient.credit(eq(merchantAccount), eq(1000.0), anyString())).thenReturn(true);
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.transfer(sourceAccount, merchantAccount, 1000.0, "SO-1-20261001");
+
+        assertEquals("SUCCESS", result.getStatus());
+        // the same transaction id always yields the same operation ids
+        verify(accountClient).debit(sourceAccount, 1000.0, "SO-1-20261001:debit");
+        verify(accountClient).credit(merchantAccount, 1000.0, "SO-1-20261001:credit");
+        verify(accountClient, never()).updateBalance(anyString(), anyDouble());
+    }
+
+
+    @Test
+    void testKeyedTransferAlreadyStartedMovesNoMoney() {
+
+        // another run recorded it PENDING first
+        when(transactionRepository.insert(any(Transaction.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThrows(IllegalStateException.class,
+                () -> transactionService.transfer("ACC1001", "ACC2002", 1000.0, "SO-1-20261001"));
+
+        verifyNoInteractions(accountClient);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+
+    @Test
+    void testKeyedTransferWithUnknownOutcomeIsLeftPending() {
+
+        String sourceAccount = "ACC1001";
+        String destAccount = "ACC2002";
+
+        when(accountClient.getBalance(sourceAccount)).thenReturn(7000.0);
+        when(accountClient.debit(eq(sourceAccount), eq(1000.0), anyString())).thenReturn(true);
+        when(accountClient.credit(eq(destAccount), eq(1000.0), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "timed out", null));
+        when(accountClient.resolve(eq(destAccount), anyString()))
+                .thenThrow(new DependencyUnavailableException("accountService", "circuit open", null));
+
+        Transaction result = transactionService.transfer(sourceAccount, destAccount, 1000.0, "SO-1-20261001");
+
+        assertEquals("PENDING", result.getStatus());
+        verify(transactionRepository).insert(result);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(accountClient, never()).credit(eq(sourceAccount), anyDouble(), anyString());
+    }
+
+
+    @Test
+    void testPendingTransferWhoseCreditDidNotLandIsRefunded() {
+
+        Transaction pending = new Transaction("SO-1-20261001", "TRANSFER", 1000.0, new Date(),
+                "PENDING", "ACC1001", "ACC2002");
+        when(accountClient.resolve("ACC1001", "SO-1-20261001:debit")).thenReturn(true);
+        when(accountClient.resolve("ACC2002", "SO-1-20261001:credit")).thenReturn(false);
+        when(accountClient.credit("ACC1001", 1000.0, "SO-1-20261001:refund")).thenReturn(true);
+
+        Transaction result = transactionService.resolvePending(pending);
+
+        assertEquals("FAILED", result.getStatus());
+        verify(accountClient).credit("ACC1001", 1000.0, "SO-1-20261001:refund");
+        // once to count the refund attempt before it is made, once settled
+        assertEquals(1, pending.getRefundAttempts());
+        verify(transactionRepository, times(2)).save(pending);
+        verify(notificationOutbox, never()).saveWithNotification(any(Transaction.class));
+    }
+
+
+    @Test
+    void testPendingTransferWhoseRefundFailsStaysPending() {
+
+        Transaction pending = new Transaction("SO-1-20261001", "TRANSFER", 1000.0, new Date(),
+                "PENDING", "ACC1001", "ACC2002");
+        when(accountClient.resolve("ACC1001", "SO-1-20261001:debit")).thenReturn(true);
+        when(accountClient.resolve("ACC2002", "SO-1-20261001:credit")).thenReturn(false);
+        when(accountClient.credit("ACC1001", 1000.0, "SO-1-20261001:refund"))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+
+        Transaction result = transactionService.resolvePending(pending);
+
+        // the source is still short of the money: retried on the next resolution
+        assertEquals("PENDING", result.getStatus());
+        verify(transactionRepository, never()).save(argThat(txn -> "FAILED".equals(txn.getStatus())));
+    }
+
+
+    @Test
+    void testRefundRetriedUnderANewIdOnceTheEarlierOneIsRefused() {
+
+        Transaction pending = new Transaction("SO-1-20261001", "TRANSFER", 1000.0, new Date(),
+                "PENDING", "ACC1001", "ACC2002");
+        pending.setRefundAttempts(1);
+        when(accountClient.resolve("ACC1001", "SO-1-20261001:debit")).thenReturn(true);
+        when(accountClient.resolve("ACC2002", "SO-1-20261001:credit")).thenReturn(false);
+        // the first refund went unanswered and is now refused for good
+        when(accountClient.resolve("ACC1001", "SO-1-20261001:refund")).thenReturn(false);
+        when(accountClient.credit("ACC1001", 1000.0, "SO-1-20261001:refund-2")).thenReturn(true);
+
+        Transaction result = transactionService.resolvePending(pending);
+
+        assertEquals("FAILED", result.getStatus());
+        assertEquals(2, pending.getRefundAttempts());
+        verify(accountClient, never()).credit("ACC1001", 1000.0, "SO-1-20261001:refund");
+    }
+
+
+    @Test
+    void testWithdrawFailsWhenDebitRefused() {
+
+        String merchantAccount = "MERCH01";
+
+        when(accountClient.getBalance(merchantAccount)).thenReturn(5000.0);
+        // a concurrent debit got there first
+        when(accountClient.debit(eq(merchantAccount), eq(4000.0), anyString())).thenReturn(false);
+
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        Transaction result = transactionService.withdraw(merchantAccount, 4000.0);
+
+        assertEquals("FAILED", result.getStatus());
+        verify(accountClient, never()).updateBalance(anyString(), anyDouble());
+        verify(notificationOutbox, never()).saveWithNotification(any(Transaction.class));
     }
 
 
@@ -187,14 +525,15 @@ class TransactionServiceTest {
 
         String account = "ACC1001";
 
-        List<Transaction> outgoing = Arrays.asList(new Transaction(), new Transaction());
-        List<Transaction> incoming = Collections.singletonList(new Transaction());
-
-        when(transactionRepository.findBySourceAccount(account)).thenReturn(outgoing);
-        when(transactionRepository.findByDestinationAccount(account)).thenReturn(incoming);
+        List<Transaction> page = Arrays.asList(new Transaction(), new Transaction(), new Transaction());
+        ReflectionTestUtils.setField(transactionService, "defaultHistoryLimit", 100);
+        ReflectionTestUtils.setField(transactionService, "maxHistoryLimit", 1000);
 
-        List<Transaction> result = transactionService.getTransactionsForAccount(account);
+        when(transactionHistory.page(account, null, null, 100)).thenReturn(page);
+        when(transactionHistory.page(account, null, null, 1000)).thenReturn(page);
 
-        assertEquals(3, result.size());
+        assertEquals(3, transactionService.getTransactionsForAccount(account, null, null, null).size());
+        // oversized pages are capped
+        assertEquals(3, transactionService.getTransactionsForAccount(account, null, null, 50000).size());
     }
 }
@@ -0,0 +1,97 @@
+package com.banking.transaction_service;
+
+import com.banking.transaction_service.velocity.VelocityChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityCheckerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VelocityChecker checker(String mode) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("banking.velocity.mode", mode)
+                .withProperty("banking.velocity.rule-names", "burst,outflow")
+                .withProperty("banking.velocity.rules.burst.types", "WITHDRAW")
+                .withProperty("banking.velocity.rules.burst.window-ms", "60000")
+                .withProperty("banking.velocity.rules.burst.max-count", "3")
+                .withProperty("banking.velocity.rules.outflow.types", "WITHDRAW,TRANSFER")
+                .withProperty("banking.velocity.rules.outflow.window-ms", "3600000")
+                .withProperty("banking.velocity.rules.outflow.max-amount", "1000");
+        return new VelocityChecker(meterRegistry, environment);
+    }
+
+    private double hits(String rule) {
+        return meterRegistry.get("velocity.rule.hits").tag("rule", rule).counter().count();
+    }
+
+    // ------------------ TEST: Count limit per account ------------------
+    @Test
+    void testCountLimitPerAccount() {
+        VelocityChecker checker = checker("enforce");
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(checker.check("WITHDRAW", "ACC1", 10));
+        }
+        assertEquals("burst", checker.check("WITHDRAW", "ACC1", 10));
+        // other accounts and types are not affected
+        assertNull(checker.check("WITHDRAW", "ACC2", 10));
+        assertNull(checker.check("DEPOSIT", "ACC1", 10));
+        assertEquals(1.0, hits("burst"));
+        assertEquals(6, meterRegistry.get("velocity.check").timer().count());
+    }
+
+    // ------------------ TEST: Amount limit across types ------------------
+    @Test
+    void testAmountLimitAndRejectedAttemptsNotCounted() {
+        VelocityChecker checker = checker("enforce");
+
+        assertNull(checker.check("TRANSFER", "ACC1", 600));
+        assertEquals("outflow", checker.check("WITHDRAW", "ACC1", 500));
+        // the rejected 500 was not counted, so 400 still fits
+        assertNull(checker.check("WITHDRAW", "ACC1", 400));
+        assertEquals("outflow", checker.check("TRANSFER", "ACC1", 0.01));
+    }
+
+    // ------------------ TEST: Shadow mode never rejects ------------------
+    @Test
+    void testShadowModeCountsButAllows() {
+        VelocityChecker checker = checker("shadow");
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(checker.check("WITHDRAW", "ACC1", 10));
+        }
+        assertEquals(2.0, hits("burst"));
+        assertEquals("shadow", meterRegistry.get("velocity.rule.hits").tag("rule", "burst").counter().getId().getTag("mode"));
+    }
+
+    // ------------------ TEST: Window slides, idle accounts evicted ------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOldEventsLeaveWindowAndIdleAccountsEvicted() {
+        VelocityChecker checker = checker("enforce");
+        for (int i = 0; i < 3; i++) {
+            assertNull(checker.check("WITHDRAW", "ACC1", 10));
+        }
+
+        // pretend the account's activity happened two hours ago
+        Map<String, Object> accounts = (Map<String, Object>) ReflectionTestUtils.getField(checker, "accounts");
+        Object windows = accounts.get("ACC1");
+        long[] epochs = (long[]) ReflectionTestUtils.getField(windows, "epochs");
+        for (int i = 0; i < epochs.length; i++) {
+            epochs[i] -= 1440;   // buckets: two hours back for burst, five days for outflow
+        }
+        ReflectionTestUtils.setField(windows, "lastSeen", System.currentTimeMillis() - 7200000);
+        assertNull(checker.check("WITHDRAW", "ACC1", 10));
+
+        ReflectionTestUtils.setField(windows, "lastSeen", System.currentTimeMillis() - 7200000);
+        checker.evictIdle();
+        assertEquals(0, checker.trackedAccounts());
+    }
+}